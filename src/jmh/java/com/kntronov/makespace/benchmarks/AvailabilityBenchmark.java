@@ -0,0 +1,122 @@
+package com.kntronov.makespace.benchmarks;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.occupancy.OccupancyIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the stream pipeline previously used by BookingServiceImpl with the bitset OccupancyIndex.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilityBenchmark {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+
+    @Param({"10", "100"})
+    private int numRooms;
+
+    @Param({"4", "16"})
+    private int bookingsPerRoom;
+
+    private SystemState state;
+    private OccupancyIndex index;
+    private TimeSlot target;
+
+    @Setup
+    public void setUp() {
+        final var random = new Random(42);
+        final var rooms = new ArrayList<Room>(numRooms);
+        for (int i = 0; i < numRooms; i++) {
+            rooms.add(new Room("room-" + i, 2 + random.nextInt(30)));
+        }
+        final var bookings = new ArrayList<Booking>();
+        for (final var room : rooms) {
+            for (int i = 0; i < bookingsPerRoom; i++) {
+                final var start = LocalTime.of(0, 0).plusMinutes(15L * (i * (92 / bookingsPerRoom)));
+                bookings.add(new Booking(UUID.randomUUID(), date, new TimeSlot(start, start.plusMinutes(30)), room, 1));
+            }
+        }
+        final var bufferTimes = List.of(
+                new TimeSlot(LocalTime.of(9, 0), LocalTime.of(9, 15)),
+                new TimeSlot(LocalTime.of(13, 15), LocalTime.of(13, 45)),
+                new TimeSlot(LocalTime.of(18, 45), LocalTime.of(19, 0))
+        );
+        state = new SystemState(date, rooms, bookings, bufferTimes);
+        index = OccupancyIndex.of(state);
+        target = new TimeSlot(LocalTime.of(14, 0), LocalTime.of(15, 30));
+    }
+
+    private static List<Room> streamAvailableRooms(SystemState system, TimeSlot timeSlot) {
+        final var roomsWithBookingsForTimeSlot = system.currentBookings()
+                .stream()
+                .filter(booking -> booking.timeSlot().isOverlapping(timeSlot))
+                .map(Booking::room)
+                .toList();
+        return system.availableRooms().stream()
+                .filter(ignored -> system.bufferTimes().stream().noneMatch(timeSlot::isOverlapping))
+                .filter(room -> !roomsWithBookingsForTimeSlot.contains(room))
+                .sorted(Comparator.comparing(Room::peopleCapacity))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Room> availableRoomsStream() {
+        return streamAvailableRooms(state, target);
+    }
+
+    @Benchmark
+    public List<Room> availableRoomsIndex() {
+        return OccupancyIndex.of(state).availableRooms(target);
+    }
+
+    @Benchmark
+    public List<Room> availableRoomsPrebuiltIndex() {
+        return index.availableRooms(target);
+    }
+
+    @Benchmark
+    public Optional<Room> bestFitStream() {
+        return streamAvailableRooms(state, target)
+                .stream()
+                .filter(room -> room.peopleCapacity() >= 10)
+                .min(Comparator.comparing(Room::peopleCapacity));
+    }
+
+    @Benchmark
+    public Optional<Room> bestFitIndex() {
+        return OccupancyIndex.of(state).bestFit(target, 10);
+    }
+
+    @Benchmark
+    public Optional<Room> bestFitPrebuiltIndex() {
+        return index.bestFit(target, 10);
+    }
+}
@@ -0,0 +1,24 @@
+package com.kntronov.makespace.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logging setup of the benchmarks and load tests.
+ */
+public final class BenchmarkLogging {
+
+    private BenchmarkLogging() {
+    }
+
+    /**
+     * Lower logging to warnings, so that the info logs of every request or service call are not measured.
+     * Logs are written by logback, which comes with Javalin.
+     */
+    public static void warnOnly() {
+        if (LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME) instanceof ch.qos.logback.classic.Logger root) {
+            root.setLevel(Level.WARN);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.kntronov.makespace.benchmarks;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.infrastructure.common.BookingMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of a booking row read by BookingRepositoryImpl, with the room read from the row or looked up among the
+ * rooms already loaded with the system state.
+ * <p>
+ * The row is a ResultSet returning fixed column values, so only the mapping and the conversions of the values are
+ * measured, not the decoding done by the driver.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingMapperBenchmark {
+
+    private ResultSet row;
+    private Map<String, Room> rooms;
+
+    @Setup
+    public void setUp() {
+        final Map<String, Object> columns = Map.of(
+                "id", UUID.randomUUID().toString(),
+                "date", Date.valueOf(LocalDate.of(2020, 12, 10)),
+                "start", Time.valueOf(LocalTime.of(10, 0)),
+                "end", Time.valueOf(LocalTime.of(11, 30)),
+                "room_name", "G-Mansion",
+                "people_capacity", 20,
+                "num_people", 5
+        );
+        row = (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> columns.get((String) args[0])
+        );
+        rooms = Map.of(
+                "C-Cave", new Room("C-Cave", 3),
+                "D-Tower", new Room("D-Tower", 7),
+                "G-Mansion", new Room("G-Mansion", 20)
+        );
+    }
+
+    @Benchmark
+    public Booking fromResult() throws SQLException {
+        return BookingMapper.fromResult(row);
+    }
+
+    @Benchmark
+    public Booking fromResultWithLoadedRooms() throws SQLException {
+        return BookingMapper.fromResult(row, rooms);
+    }
+}
@@ -0,0 +1,99 @@
+package com.kntronov.makespace.benchmarks;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.services.BookingService;
+import com.kntronov.makespace.domain.services.impl.BookingServiceImpl;
+import com.kntronov.makespace.domain.services.impl.UUIDProviderImpl;
+import com.kntronov.makespace.testing.Mocks;
+import com.kntronov.makespace.util.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingServiceImpl over in-memory repositories serving the same state of a date on every call,
+ * with as many bookings as rooms. Saved bookings are not kept, so every call sees the same state.
+ * <p>
+ * The service logs every state it reads at info level, logging is lowered to warnings to measure the service alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingServiceBenchmark {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final TimeSlot target = new TimeSlot(LocalTime.of(14, 0), LocalTime.of(15, 30));
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private BookingService service;
+
+    @Setup
+    public void setUp() {
+        BenchmarkLogging.warnOnly();
+        final var random = new Random(42);
+        final var rooms = new ArrayList<Room>(size);
+        for (int i = 0; i < size; i++) {
+            rooms.add(new Room("room-" + i, 2 + random.nextInt(30)));
+        }
+        final var bookings = new ArrayList<Booking>(size);
+        for (final var room : rooms) {
+            final var start = LocalTime.of(8 + random.nextInt(12), 15 * random.nextInt(4));
+            bookings.add(new Booking(UUID.randomUUID(), date, new TimeSlot(start, start.plusMinutes(45)), room, 1));
+        }
+        final var bufferTimes = List.of(
+                new TimeSlot(LocalTime.of(9, 0), LocalTime.of(9, 15)),
+                new TimeSlot(LocalTime.of(13, 15), LocalTime.of(13, 45)),
+                new TimeSlot(LocalTime.of(18, 45), LocalTime.of(19, 0))
+        );
+        final var state = new SystemState(date, rooms, bookings, bufferTimes);
+        service = new BookingServiceImpl(
+                new UUIDProviderImpl(),
+                new Mocks.SystemStateRepositoryMock() {
+                    @Override
+                    public SystemState findByDate(LocalDate date) {
+                        return state;
+                    }
+                },
+                new Mocks.BookingRepositoryMock() {
+                    @Override
+                    public Booking save(Booking booking) {
+                        return booking;
+                    }
+                }
+        );
+    }
+
+    @Benchmark
+    public List<Room> getAvailableRooms() {
+        return service.getAvailableRooms(date, target);
+    }
+
+    @Benchmark
+    public Result<Booking> bookNextAvailableRoom() {
+        return service.bookNextAvailableRoom(date, target, 10);
+    }
+}
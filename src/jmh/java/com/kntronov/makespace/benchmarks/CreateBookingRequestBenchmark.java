@@ -0,0 +1,59 @@
+package com.kntronov.makespace.benchmarks;
+
+import com.kntronov.makespace.application.schema.CreateBookingRequest;
+import com.kntronov.makespace.domain.entities.BookingRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of a booking request against the rules also applied to the request bodies,
+ * and its conversion to the domain request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateBookingRequestBenchmark {
+
+    private final CreateBookingRequest valid = new CreateBookingRequest(
+            LocalDate.of(2020, 12, 10),
+            LocalTime.of(10, 0),
+            LocalTime.of(11, 30),
+            5
+    );
+    private final CreateBookingRequest invalid = new CreateBookingRequest(
+            LocalDate.of(2020, 12, 10),
+            LocalTime.of(11, 10),
+            LocalTime.of(10, 0),
+            0
+    );
+
+    @Benchmark
+    public List<String> validateValid() {
+        return valid.validationErrors();
+    }
+
+    @Benchmark
+    public List<String> validateInvalid() {
+        return invalid.validationErrors();
+    }
+
+    @Benchmark
+    public BookingRequest toDomainEntity() {
+        return valid.toDomainEntity();
+    }
+}
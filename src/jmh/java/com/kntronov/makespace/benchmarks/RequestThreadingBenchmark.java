@@ -0,0 +1,233 @@
+package com.kntronov.makespace.benchmarks;
+
+import com.kntronov.makespace.application.AppContext;
+import com.kntronov.makespace.application.JavalinApp;
+import com.kntronov.makespace.application.controllers.AdminController;
+import com.kntronov.makespace.application.controllers.BookingsController;
+import com.kntronov.makespace.application.controllers.ExportController;
+import com.kntronov.makespace.application.controllers.ImportController;
+import com.kntronov.makespace.application.controllers.MetricsController;
+import com.kntronov.makespace.application.controllers.RoomsController;
+import com.kntronov.makespace.application.metrics.BookingOutcomeMetrics;
+import com.kntronov.makespace.application.metrics.HttpMetrics;
+import com.kntronov.makespace.config.AppConfig;
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.services.AllocationMetrics;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+import com.kntronov.makespace.infrastructure.db.ConnectionMetrics;
+import com.kntronov.makespace.infrastructure.db.LeanConnection;
+import com.kntronov.makespace.testing.Mocks;
+import com.kntronov.makespace.util.Result;
+import com.kntronov.makespace.util.tracing.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Compares request handling on the bounded pool of platform threads with handling on virtual threads, with 1024
+ * concurrent clients.
+ * <p>
+ * Half of the clients list the bookings of a date, which holds a connection for {@code queryMillis} through a
+ * LeanConnection bounded to {@code poolSize} connections, the other half get a booking without touching the database.
+ * On platform threads the slow requests take every thread of the pool and the fast ones queue behind them, on virtual
+ * threads only the slow requests wait, on the connection permits. Both throughput and the latency percentiles are
+ * reported for each kind of request.
+ * <p>
+ * Every client keeps a connection open, the limit of open files may have to be raised above 2048 with ulimit.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestThreadingBenchmark {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final Booking booking = new Booking(
+            UUID.randomUUID(),
+            date,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            new Room("C-Cave", 3),
+            2
+    );
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"250"})
+    private int maxThreads;
+
+    @Param({"16"})
+    private int poolSize;
+
+    @Param({"20"})
+    private int queryMillis;
+
+    private JavalinApp app;
+    private HttpClient client;
+    private HttpRequest listRequest;
+    private HttpRequest getRequest;
+
+    @Setup
+    public void setUp() {
+        BenchmarkLogging.warnOnly();
+        final var leanConnection = new LeanConnection(
+                idleDataSource(),
+                new ConnectionMetrics(),
+                Duration.ZERO,
+                poolSize,
+                Duration.ofMinutes(1)
+        );
+        final var bookingService = new Mocks.BookingServiceMock() {
+            @Override
+            public List<Booking> getAllBookingsByDate(LocalDate date) {
+                return leanConnection.use(c -> {
+                    try {
+                        Thread.sleep(queryMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return List.of(booking);
+                });
+            }
+
+            @Override
+            public Result<Booking> getBooking(UUID id) {
+                return Result.pure(booking);
+            }
+        };
+        final var allocationMetrics = new AllocationMetrics();
+        final var httpMetrics = new HttpMetrics();
+        final var tracer = Tracer.disabled();
+        final var context = new AppContext(
+                null,
+                new BookingsController(bookingService),
+                new RoomsController(bookingService),
+                new AdminController(new SystemStateCache(64, Clock.systemUTC()), allocationMetrics, null, tracer),
+                new ImportController(null),
+                new ExportController(null),
+                null,
+                null,
+                httpMetrics,
+                new MetricsController(httpMetrics, new BookingOutcomeMetrics(), allocationMetrics, null),
+                tracer
+        );
+        app = new JavalinApp(context, new AppConfig.ServerConfig(0, virtualThreads, maxThreads));
+        app.start();
+        final var baseUrl = "http://localhost:" + app.getJavalin().port() + "/api/bookings";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        listRequest = HttpRequest.newBuilder(URI.create(baseUrl + "?date=" + date)).GET().build();
+        getRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/" + booking.id())).GET().build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        app.getJavalin().stop();
+    }
+
+    /**
+     * A data source whose connections do nothing, only their acquisition through LeanConnection matters here.
+     */
+    private static DataSource idleDataSource() {
+        final var connection = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> null
+        );
+        return new DataSource() {
+            @Override
+            public Connection getConnection() {
+                return connection;
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) {
+                return connection;
+            }
+
+            @Override
+            public PrintWriter getLogWriter() {
+                return null;
+            }
+
+            @Override
+            public void setLogWriter(PrintWriter out) {
+            }
+
+            @Override
+            public void setLoginTimeout(int seconds) {
+            }
+
+            @Override
+            public int getLoginTimeout() {
+                return 0;
+            }
+
+            @Override
+            public Logger getParentLogger() {
+                return Logger.getGlobal();
+            }
+
+            @Override
+            public <T> T unwrap(Class<T> iface) {
+                return null;
+            }
+
+            @Override
+            public boolean isWrapperFor(Class<?> iface) {
+                return false;
+            }
+        };
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(512)
+    public int listBookings() throws IOException, InterruptedException {
+        return send(listRequest);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(512)
+    public int getBooking() throws IOException, InterruptedException {
+        return send(getRequest);
+    }
+}
@@ -0,0 +1,95 @@
+package com.kntronov.makespace.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kntronov.makespace.application.SchemaJsonMapper;
+import com.kntronov.makespace.application.schema.BookingResponse;
+import com.kntronov.makespace.application.schema.BookingsListResponse;
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import io.javalin.json.JavalinJackson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the list of bookings of a date with an ObjectMapper configured as the one of JavalinApp, and with
+ * the SchemaJsonMapper writing the same JSON by hand. Javalin asks its JsonMapper for a string, which the
+ * {@code AsString} variants measure.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+
+    @Param({"10", "1000"})
+    private int numBookings;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SchemaJsonMapper schemaJsonMapper = new SchemaJsonMapper(new JavalinJackson(objectMapper));
+    private List<Booking> bookings;
+    private BookingsListResponse response;
+
+    @Setup
+    public void setUp() {
+        final var random = new Random(42);
+        bookings = new ArrayList<>(numBookings);
+        for (int i = 0; i < numBookings; i++) {
+            final var start = LocalTime.of(random.nextInt(23), 15 * random.nextInt(4));
+            final var room = new Room("room-" + random.nextInt(100), 2 + random.nextInt(30));
+            bookings.add(new Booking(UUID.randomUUID(), date, new TimeSlot(start, start.plusMinutes(45)), room, 1));
+        }
+        response = new BookingsListResponse(bookings.stream().map(BookingResponse::fromDomainEntity).toList());
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(
+                new BookingsListResponse(bookings.stream().map(BookingResponse::fromDomainEntity).toList())
+        );
+    }
+
+    @Benchmark
+    public String serializeAsString() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public String serializeAsStringBySchemaJsonMapper() {
+        return schemaJsonMapper.toJsonString(response, BookingsListResponse.class);
+    }
+
+    @Benchmark
+    public byte[] serializeBySchemaJsonMapper() {
+        return schemaJsonMapper.toJsonString(response, BookingsListResponse.class).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,48 @@
+package com.kntronov.makespace.benchmarks;
+
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of a validated TimeSlot and overlap checks, done for every booking of a date on each allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimeSlotBenchmark {
+
+    private final LocalTime start = LocalTime.of(10, 15);
+    private final LocalTime end = LocalTime.of(11, 45);
+    private final TimeSlot slot = new TimeSlot(start, end);
+    private final TimeSlot overlapping = new TimeSlot(LocalTime.of(11, 30), LocalTime.of(12, 0));
+    private final TimeSlot disjoint = new TimeSlot(LocalTime.of(11, 45), LocalTime.of(12, 0));
+
+    @Benchmark
+    public TimeSlot construct() {
+        return new TimeSlot(start, end);
+    }
+
+    @Benchmark
+    public boolean isOverlapping() {
+        return slot.isOverlapping(overlapping);
+    }
+
+    @Benchmark
+    public boolean isNotOverlapping() {
+        return slot.isOverlapping(disjoint);
+    }
+}
@@ -0,0 +1,58 @@
+package com.kntronov.makespace.benchmarks;
+
+import com.kntronov.makespace.util.tracing.Tracer;
+import com.kntronov.makespace.util.tracing.Tracing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracing of a request going through the controller, service and connection layers down to two statements,
+ * with tracing off and with every request sampled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TracingBenchmark {
+
+    private final Tracer disabled = Tracer.disabled();
+    private final Tracer sampled = new Tracer(1, 100, 20);
+
+    @Benchmark
+    public void requestNotTraced() {
+        request(disabled);
+    }
+
+    @Benchmark
+    public void requestTraced() {
+        request(sampled);
+    }
+
+    private static void request(Tracer tracer) {
+        try (final var root = tracer.start("POST /api/bookings/create-best-matching")) {
+            try (final var controller = Tracing.span("BookingsController.bookNextAvailableRoom")) {
+                try (final var service = Tracing.span("BookingServiceImpl.bookNextAvailableRoom")) {
+                    try (final var connection = Tracing.span("LeanConnection.transact")) {
+                        try (final var select = Tracing.span("sql SELECT")) {
+                            // statements are not run, only the spans are measured
+                        }
+                        try (final var insert = Tracing.span("sql INSERT")) {
+                            // statements are not run, only the spans are measured
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
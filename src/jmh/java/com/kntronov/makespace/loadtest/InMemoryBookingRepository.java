@@ -0,0 +1,131 @@
+package com.kntronov.makespace.loadtest;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
+import com.kntronov.makespace.domain.repositories.BookingRepository;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BookingRepository keeping the bookings in memory, standing in for the database in load tests.
+ * <p>
+ * Like the database it rejects a booking overlapping another booking of the same room with a
+ * BookingConflictException. Writes are serialized, reads never wait for them.
+ * Allocation by the database is not supported, the service has to allocate rooms in memory.
+ */
+public class InMemoryBookingRepository implements BookingRepository {
+
+    private static final Comparator<BookingCursor> order = Comparator.comparing(BookingCursor::start)
+            .thenComparing(BookingCursor::roomName)
+            .thenComparing(BookingCursor::id);
+
+    private final Map<UUID, Booking> bookings = new ConcurrentHashMap<>();
+    private final Map<LocalDate, Map<UUID, Booking>> bookingsByDate = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Booking> find(UUID id) {
+        return Optional.ofNullable(bookings.get(id));
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        return bookingsByDate.getOrDefault(date, Map.of()).values().stream()
+                .sorted(Comparator.comparing(BookingCursor::of, order))
+                .toList();
+    }
+
+    @Override
+    public List<Booking> findPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+        return findByDate(date).stream()
+                .filter(booking -> after.isEmpty() || order.compare(BookingCursor.of(booking), after.get()) > 0)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public synchronized int delete(UUID id) {
+        final var booking = bookings.remove(id);
+        if (booking == null) {
+            return 0;
+        }
+        bookingsByDate.get(booking.date()).remove(id);
+        return 1;
+    }
+
+    @Override
+    public synchronized Booking save(Booking booking) {
+        rejectOverlapping(booking, Set.of());
+        put(booking);
+        return booking;
+    }
+
+    @Override
+    public Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople) {
+        throw new UnsupportedOperationException("rooms are not allocated by the in-memory repository");
+    }
+
+    @Override
+    public synchronized List<Booking> saveAll(List<Booking> newBookings) {
+        for (int i = 0; i < newBookings.size(); i++) {
+            final var booking = newBookings.get(i);
+            rejectOverlapping(booking, Set.of());
+            for (final var earlier : newBookings.subList(0, i)) {
+                if (overlap(booking, earlier)) {
+                    throw conflict(booking);
+                }
+            }
+        }
+        newBookings.forEach(this::put);
+        return newBookings;
+    }
+
+    @Override
+    public synchronized boolean moveAll(List<BookingMove> moves, Set<UUID> knownBookingIds) {
+        for (final var move : moves) {
+            final var current = bookings.get(move.booking().id());
+            if (current == null || !current.room().equals(move.booking().room())) {
+                return false;
+            }
+            try {
+                rejectOverlapping(move.moved(), knownBookingIds);
+            } catch (BookingConflictException e) {
+                return false;
+            }
+        }
+        moves.forEach(move -> put(move.moved()));
+        return true;
+    }
+
+    private void put(Booking booking) {
+        bookings.put(booking.id(), booking);
+        bookingsByDate.computeIfAbsent(booking.date(), date -> new ConcurrentHashMap<>()).put(booking.id(), booking);
+    }
+
+    private void rejectOverlapping(Booking booking, Set<UUID> ignoredIds) {
+        for (final var other : bookingsByDate.getOrDefault(booking.date(), Map.of()).values()) {
+            if (!other.id().equals(booking.id()) && !ignoredIds.contains(other.id()) && overlap(booking, other)) {
+                throw conflict(booking);
+            }
+        }
+    }
+
+    private static boolean overlap(Booking booking, Booking other) {
+        return booking.room().name().equals(other.room().name()) && booking.timeSlot().isOverlapping(other.timeSlot());
+    }
+
+    private static BookingConflictException conflict(Booking booking) {
+        return new BookingConflictException(new IllegalStateException(
+                "room " + booking.room().name() + " is already booked on " + booking.date() + " at " + booking.timeSlot()
+        ));
+    }
+}
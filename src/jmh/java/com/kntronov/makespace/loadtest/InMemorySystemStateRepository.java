@@ -0,0 +1,37 @@
+package com.kntronov.makespace.loadtest;
+
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.repositories.BookingRepository;
+import com.kntronov.makespace.domain.repositories.SystemStateRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * SystemStateRepository over fixed rooms and buffer times and the bookings of a repository,
+ * standing in for the database in load tests.
+ */
+public class InMemorySystemStateRepository implements SystemStateRepository {
+
+    private final List<Room> rooms;
+    private final List<TimeSlot> bufferTimes;
+    private final BookingRepository bookingRepository;
+
+    public InMemorySystemStateRepository(List<Room> rooms, List<TimeSlot> bufferTimes, BookingRepository bookingRepository) {
+        this.rooms = rooms;
+        this.bufferTimes = bufferTimes;
+        this.bookingRepository = bookingRepository;
+    }
+
+    @Override
+    public SystemState findByDate(LocalDate date) {
+        return new SystemState(date, rooms, bookingRepository.findByDate(date), bufferTimes);
+    }
+
+    @Override
+    public List<SystemState> findByDates(List<LocalDate> dates) {
+        return dates.stream().map(this::findByDate).toList();
+    }
+}
@@ -0,0 +1,225 @@
+package com.kntronov.makespace.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: requests are sent at a fixed rate whether or not the earlier ones completed, and their
+ * latency is measured from the time they were due to be sent, so that a stalled server is not hidden by a client
+ * waiting for it.
+ * <p>
+ * Get and delete requests use the bookings created by the test: a get fetches a random booking not deleted yet and a
+ * delete takes one out of them, so that no request is sent for a booking known to be missing. While no booking is
+ * available, get and delete requests are not sent and are counted as not found, as are the bookings reported
+ * missing by the server, e.g. fetched while their deletion was in flight; neither is counted as an error.
+ */
+class LoadGenerator {
+
+    private static final LocalDate firstDate = LocalDate.of(2030, 1, 1);
+    private static final Duration drainTimeout = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Random random;
+    private final Route[] routes;
+    private final int[] cumulativeWeights;
+    private final Map<Route, RouteStats> stats = new EnumMap<>(Route.class);
+    private final List<UUID> createdIds = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    LoadGenerator(HttpClient client, String baseUrl, LoadTestOptions options) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.random = new Random(options.seed());
+        this.routes = options.mix().keySet().toArray(Route[]::new);
+        this.cumulativeWeights = new int[routes.length];
+        var total = 0;
+        for (int i = 0; i < routes.length; i++) {
+            total += options.mix().get(routes[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (final var route : Route.values()) {
+            stats.put(route, new RouteStats());
+        }
+    }
+
+    /**
+     * Apply the load for the warmup and then the measured duration, and wait for the pending requests.
+     *
+     * @return stats of each route over the measured duration
+     */
+    LoadReport run() {
+        final var intervalNanos = TimeUnit.SECONDS.toNanos(1) / (double) options.rate();
+        final var start = System.nanoTime();
+        final var measureStart = start + options.warmup().toNanos();
+        final var end = measureStart + options.duration().toNanos();
+        for (long i = 0; ; i++) {
+            final var dueAt = start + (long) (i * intervalNanos);
+            if (dueAt - end >= 0) {
+                break;
+            }
+            final var wait = dueAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            final var route = nextRoute();
+            final var measured = dueAt - measureStart >= 0;
+            if (inFlight.get() >= options.maxInFlight()) {
+                if (measured) {
+                    stats.get(route).recordDropped();
+                }
+                continue;
+            }
+            final var request = request(route);
+            if (request == null) {
+                if (measured) {
+                    stats.get(route).recordSkipped();
+                }
+                continue;
+            }
+            send(route, request, dueAt, measured);
+        }
+        final var drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() - drainDeadline < 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return new LoadReport(stats, Duration.ofNanos(System.nanoTime() - measureStart));
+    }
+
+    /**
+     * Stats of a load test.
+     *
+     * @param stats   stats of each route
+     * @param elapsed time from the start of the measured duration until the last request completed
+     */
+    record LoadReport(Map<Route, RouteStats> stats, Duration elapsed) {
+    }
+
+    private Route nextRoute() {
+        final var value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < routes.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return routes[i];
+            }
+        }
+        throw new IllegalStateException("no route for " + value);
+    }
+
+    private void send(Route route, HttpRequest request, long dueAt, boolean measured) {
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            final var latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueAt);
+            final var notFound = error == null && isNotFound(route, response.statusCode());
+            final var failed = !notFound && (error != null || response.statusCode() >= 400);
+            if (measured) {
+                if (notFound) {
+                    stats.get(route).recordNotFound(latencyMicros);
+                } else if (failed) {
+                    stats.get(route).recordError(latencyMicros);
+                } else {
+                    stats.get(route).recordSuccess(latencyMicros);
+                }
+            }
+            if (!failed && route == Route.CREATE && response.statusCode() == 201) {
+                addCreated(idOf(response.body()));
+            }
+        });
+    }
+
+    /**
+     * A booking that does not exist is answered with 204 No Content by the get and delete endpoints.
+     */
+    private static boolean isNotFound(Route route, int statusCode) {
+        return (route == Route.GET || route == Route.DELETE) && (statusCode == 204 || statusCode == 404);
+    }
+
+    /**
+     * Build the next request of a route.
+     *
+     * @return request, null if it needs a booking and none is available
+     */
+    private HttpRequest request(Route route) {
+        final var date = firstDate.plusDays(random.nextInt(options.days()));
+        final var start = LocalTime.of(7 + random.nextInt(12), 15 * random.nextInt(4));
+        final var end = start.plusMinutes(15L * (1 + random.nextInt(8)));
+        return switch (route) {
+            case CREATE -> HttpRequest.newBuilder(uri("/api/bookings/create-best-matching"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("""
+                            {"date": "%s", "timeSlotStart": "%s", "timeSlotEnd": "%s", "numPeople": %d}
+                            """.formatted(date, start, end, 1 + random.nextInt(10))))
+                    .build();
+            case LIST -> HttpRequest.newBuilder(uri("/api/bookings?date=" + date)).GET().build();
+            case GET -> {
+                final var id = pickCreated(false);
+                yield id == null ? null : HttpRequest.newBuilder(uri("/api/bookings/" + id)).GET().build();
+            }
+            case DELETE -> {
+                final var id = pickCreated(true);
+                yield id == null ? null : HttpRequest.newBuilder(uri("/api/bookings/" + id)).DELETE().build();
+            }
+            case AVAILABLE -> HttpRequest.newBuilder(
+                    uri("/api/rooms/available?date=" + date + "&from=" + start + "&to=" + end)
+            ).GET().build();
+        };
+    }
+
+    private void addCreated(UUID id) {
+        synchronized (createdIds) {
+            createdIds.add(id);
+        }
+    }
+
+    /**
+     * Pick a random booking created and not deleted yet, taking it out of the available ones if it is to be deleted.
+     *
+     * @return booking id, null if none is available
+     */
+    private UUID pickCreated(boolean remove) {
+        synchronized (createdIds) {
+            if (createdIds.isEmpty()) {
+                return null;
+            }
+            final var index = random.nextInt(createdIds.size());
+            final var id = createdIds.get(index);
+            if (remove) {
+                createdIds.set(index, createdIds.getLast());
+                createdIds.removeLast();
+            }
+            return id;
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private UUID idOf(String body) {
+        try {
+            return UUID.fromString(objectMapper.readTree(body).get("id").asText());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("unexpected create response " + body, e);
+        }
+    }
+}
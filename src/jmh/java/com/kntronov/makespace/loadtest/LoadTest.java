@@ -0,0 +1,205 @@
+package com.kntronov.makespace.loadtest;
+
+import com.kntronov.makespace.application.AppContext;
+import com.kntronov.makespace.application.JavalinApp;
+import com.kntronov.makespace.application.Launcher;
+import com.kntronov.makespace.application.controllers.AdminController;
+import com.kntronov.makespace.application.controllers.BookingsController;
+import com.kntronov.makespace.application.controllers.ExportController;
+import com.kntronov.makespace.application.controllers.ImportController;
+import com.kntronov.makespace.application.controllers.MetricsController;
+import com.kntronov.makespace.application.controllers.RoomsController;
+import com.kntronov.makespace.application.metrics.BookingOutcomeMetrics;
+import com.kntronov.makespace.application.metrics.HttpMetrics;
+import com.kntronov.makespace.application.metrics.MeteredBookingService;
+import com.kntronov.makespace.benchmarks.BenchmarkLogging;
+import com.kntronov.makespace.config.AppConfig;
+import com.kntronov.makespace.config.ConfigLoader;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.repositories.BookingRepository;
+import com.kntronov.makespace.domain.repositories.SystemStateRepository;
+import com.kntronov.makespace.domain.services.AllocationMetrics;
+import com.kntronov.makespace.domain.services.impl.BookingServiceImpl;
+import com.kntronov.makespace.domain.services.impl.UUIDProviderImpl;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+import com.kntronov.makespace.infrastructure.embedded.EmbeddedStore;
+import com.kntronov.makespace.infrastructure.repositories.EmbeddedBookingRepository;
+import com.kntronov.makespace.infrastructure.repositories.EmbeddedSystemStateRepository;
+import com.kntronov.makespace.util.tracing.Tracer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line entry point starting the application and driving it with an open-loop mix of booking calls,
+ * reporting the latency percentiles, error rate and throughput of each route.
+ * <p>
+ * With the in-memory backend the bookings are kept by in-memory repositories, so that the server stack (Jetty,
+ * Javalin, Jackson, controllers and the booking service) is measured without a database. The embedded backend adds
+ * the journal of the embedded store, in a temporary directory. With the database backend
+ * the application is wired as by Launcher, from the usual env variables.
+ */
+public class LoadTest {
+
+    private static final int[] roomCapacities = {3, 7, 20};
+    private static final List<TimeSlot> bufferTimes = List.of(
+            new TimeSlot(LocalTime.of(9, 0), LocalTime.of(9, 15)),
+            new TimeSlot(LocalTime.of(13, 15), LocalTime.of(13, 45)),
+            new TimeSlot(LocalTime.of(18, 45), LocalTime.of(19, 0))
+    );
+
+    public static void main(String[] args) {
+        final var options = LoadTestOptions.parse(args);
+        if (!options.logs()) {
+            BenchmarkLogging.warnOnly();
+        }
+        final var serverConfig = new AppConfig.ServerConfig(0, options.virtualThreads(), options.maxThreads());
+        final var app = switch (options.backend()) {
+            case MEMORY -> new JavalinApp(inMemoryContext(options.rooms(), tracer(options)), serverConfig);
+            case EMBEDDED -> new JavalinApp(embeddedContext(options.rooms(), tracer(options)), serverConfig);
+            case DATABASE -> new JavalinApp(databaseContext(), serverConfig);
+        };
+        app.start();
+        try (final var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            System.out.printf(
+                    "%s backend, %s threads, %d requests/s for %ds after a %ds warmup%n",
+                    options.backend(),
+                    options.virtualThreads() ? "virtual" : "platform",
+                    options.rate(),
+                    options.duration().toSeconds(),
+                    options.warmup().toSeconds()
+            );
+            final var report = new LoadGenerator(client, "http://localhost:" + app.getJavalin().port(), options).run();
+            print(report, options, System.out);
+        } finally {
+            app.getJavalin().stop();
+        }
+    }
+
+    private static Tracer tracer(LoadTestOptions options) {
+        return options.tracing() > 0 ? new Tracer(options.tracing(), 100, 20) : Tracer.disabled();
+    }
+
+    private static AppContext inMemoryContext(int numRooms, Tracer tracer) {
+        final var bookingRepository = new InMemoryBookingRepository();
+        return context(bookingRepository, new InMemorySystemStateRepository(rooms(numRooms), bufferTimes, bookingRepository), tracer);
+    }
+
+    /**
+     * Context storing the bookings in an embedded store, syncing its journal with the default group commit interval.
+     */
+    private static AppContext embeddedContext(int numRooms, Tracer tracer) {
+        final Path directory;
+        try {
+            directory = Files.createTempDirectory("makespace-loadtest");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final var store = EmbeddedStore.open(
+                directory, rooms(numRooms), bufferTimes, true, Duration.ofMillis(2), Duration.ZERO
+        );
+        return context(new EmbeddedBookingRepository(store), new EmbeddedSystemStateRepository(store), tracer);
+    }
+
+    private static List<Room> rooms(int numRooms) {
+        final var rooms = new ArrayList<Room>(numRooms);
+        for (int i = 0; i < numRooms; i++) {
+            rooms.add(new Room("room-" + i, roomCapacities[i % roomCapacities.length]));
+        }
+        return rooms;
+    }
+
+    private static AppContext context(
+            BookingRepository bookingRepository,
+            SystemStateRepository systemStateRepository,
+            Tracer tracer
+    ) {
+        final var allocationMetrics = new AllocationMetrics();
+        final var bookingOutcomeMetrics = new BookingOutcomeMetrics();
+        final var bookingService = new MeteredBookingService(
+                new BookingServiceImpl(new UUIDProviderImpl(), systemStateRepository, bookingRepository),
+                bookingOutcomeMetrics
+        );
+        final var httpMetrics = new HttpMetrics();
+        return new AppContext(
+                null,
+                new BookingsController(bookingService),
+                new RoomsController(bookingService),
+                new AdminController(new SystemStateCache(2, Clock.systemDefaultZone()), allocationMetrics, null, tracer),
+                new ImportController(null),
+                new ExportController(null),
+                null,
+                null,
+                httpMetrics,
+                new MetricsController(httpMetrics, bookingOutcomeMetrics, allocationMetrics, null),
+                tracer
+        );
+    }
+
+    private static AppContext databaseContext() {
+        final var context = AppContext.createDefault(ConfigLoader.loadConfigFromEnvVariables());
+        Launcher.runMigrations(context.dataSource());
+        context.dataSource().start();
+        return context;
+    }
+
+    /**
+     * Print the stats of each route, the throughput is the number of requests over the time until the last one
+     * completed, lower than the requested rate if the server could not keep up.
+     */
+    private static void print(LoadGenerator.LoadReport report, LoadTestOptions options, PrintStream out) {
+        final var seconds = report.elapsed().toNanos() / 1e9;
+        out.printf(
+                "%-10s %10s %8s %8s %10s %12s %9s %9s %9s %9s %9s%n",
+                "route", "requests", "errors", "error %", "not found", "requests/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"
+        );
+        var totalRequests = 0L;
+        var totalErrors = 0L;
+        var totalNotFound = 0L;
+        for (final var route : options.mix().keySet()) {
+            final var routeStats = report.stats().get(route);
+            final var latencies = routeStats.latencies();
+            totalRequests += routeStats.requests();
+            totalErrors += routeStats.errors();
+            totalNotFound += routeStats.notFound();
+            out.printf(
+                    "%-10s %10d %8d %8.2f %10d %12.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    route.key(),
+                    routeStats.requests(),
+                    routeStats.errors(),
+                    percent(routeStats.errors(), routeStats.requests()),
+                    routeStats.notFound(),
+                    routeStats.requests() / seconds,
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(90)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue())
+            );
+        }
+        out.printf(
+                "%-10s %10d %8d %8.2f %10d %12.1f%n",
+                "total", totalRequests, totalErrors, percent(totalErrors, totalRequests), totalNotFound,
+                totalRequests / seconds
+        );
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,92 @@
+package com.kntronov.makespace.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options of a load test, parsed from {@code key=value} arguments.
+ *
+ * @param backend        where the bookings are stored, in memory, in an embedded store journaling to a temporary
+ *                       directory, or in the database configured by the env variables
+ * @param rate           requests started per second, whether or not earlier requests completed
+ * @param warmup         time the load is applied before latencies are recorded
+ * @param duration       time latencies are recorded
+ * @param mix            relative weight of each route in the requests
+ * @param days           number of consecutive dates the requests are spread over
+ * @param rooms          number of rooms of the in-memory and embedded backends
+ * @param virtualThreads if the server handles requests on virtual threads
+ * @param maxThreads     maximum number of platform threads of the server
+ * @param maxInFlight    requests pending at once above which new requests are dropped and counted as errors
+ * @param seed           seed of the random requests
+ * @param logs           if the application logs at info level
+ * @param tracing        fraction of the finished traces kept among the recent ones by the in-memory and embedded
+ *                       backends, every request is traced unless zero
+ */
+record LoadTestOptions(
+        Backend backend,
+        int rate,
+        Duration warmup,
+        Duration duration,
+        Map<Route, Integer> mix,
+        int days,
+        int rooms,
+        boolean virtualThreads,
+        int maxThreads,
+        int maxInFlight,
+        long seed,
+        boolean logs,
+        double tracing
+) {
+
+    private static final Set<String> keys = Set.of(
+            "backend", "rate", "warmup", "duration", "mix", "days", "rooms",
+            "virtualThreads", "maxThreads", "maxInFlight", "seed", "logs", "tracing"
+    );
+
+    enum Backend {
+        MEMORY,
+        EMBEDDED,
+        DATABASE
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        final var values = new HashMap<String, String>();
+        for (final var arg : args) {
+            final var separator = arg.indexOf('=');
+            if (separator < 0 || !keys.contains(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("unknown option " + arg + ", options are " + keys);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(
+                Backend.valueOf(values.getOrDefault("backend", "memory").toUpperCase()),
+                Integer.parseInt(values.getOrDefault("rate", "500")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "30"))),
+                parseMix(values.getOrDefault("mix", "create:20,list:30,get:30,delete:10,available:10")),
+                Integer.parseInt(values.getOrDefault("days", "30")),
+                Integer.parseInt(values.getOrDefault("rooms", "30")),
+                Boolean.parseBoolean(values.getOrDefault("virtualThreads", "false")),
+                Integer.parseInt(values.getOrDefault("maxThreads", "250")),
+                Integer.parseInt(values.getOrDefault("maxInFlight", "10000")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Boolean.parseBoolean(values.getOrDefault("logs", "false")),
+                Double.parseDouble(values.getOrDefault("tracing", "0"))
+        );
+    }
+
+    private static Map<Route, Integer> parseMix(String value) {
+        final var mix = new EnumMap<Route, Integer>(Route.class);
+        for (final var entry : value.split(",")) {
+            final var parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("mix entries must be route:weight, not " + entry);
+            }
+            mix.put(Route.ofKey(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,31 @@
+package com.kntronov.makespace.loadtest;
+
+/**
+ * Calls driven by the load test, each named by the key used in the request mix.
+ */
+enum Route {
+    CREATE("create"),
+    LIST("list"),
+    GET("get"),
+    DELETE("delete"),
+    AVAILABLE("available");
+
+    private final String key;
+
+    Route(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static Route ofKey(String key) {
+        for (final var route : values()) {
+            if (route.key.equals(key)) {
+                return route;
+            }
+        }
+        throw new IllegalArgumentException("unknown route " + key);
+    }
+}
@@ -0,0 +1,79 @@
+package com.kntronov.makespace.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and errors of the requests of a route, recorded concurrently by the completing requests.
+ * Latencies are recorded in microseconds from the time a request was due to be sent.
+ * Requests for a booking that does not exist are counted apart from the errors.
+ */
+final class RouteStats {
+
+    private static final long maxLatencyMicros = TimeUnit.MINUTES.toMicros(1);
+
+    private final Histogram latencies = new ConcurrentHistogram(maxLatencyMicros, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    void recordSuccess(long latencyMicros) {
+        latencies.recordValue(Math.min(latencyMicros, maxLatencyMicros));
+    }
+
+    void recordError(long latencyMicros) {
+        recordSuccess(latencyMicros);
+        errors.increment();
+    }
+
+    void recordNotFound(long latencyMicros) {
+        recordSuccess(latencyMicros);
+        notFound.increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Record a request not sent as no booking was available for it.
+     */
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * Returns the number of requests, completed, dropped or skipped.
+     *
+     * @return number of requests
+     */
+    long requests() {
+        return latencies.getTotalCount() + dropped.sum() + skipped.sum();
+    }
+
+    /**
+     * Returns the number of requests for a booking that did not exist or was not available.
+     *
+     * @return number of requests answered as not found or skipped
+     */
+    long notFound() {
+        return notFound.sum() + skipped.sum();
+    }
+
+    /**
+     * Returns the number of failed or dropped requests.
+     *
+     * @return number of errors
+     */
+    long errors() {
+        return errors.sum() + dropped.sum();
+    }
+
+    Histogram latencies() {
+        return latencies;
+    }
+}
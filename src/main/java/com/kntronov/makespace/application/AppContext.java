@@ -1,24 +1,84 @@
 package com.kntronov.makespace.application;
 
+import com.kntronov.makespace.application.controllers.AdminController;
 import com.kntronov.makespace.application.controllers.BookingsController;
+import com.kntronov.makespace.application.controllers.ExportController;
+import com.kntronov.makespace.application.controllers.ImportController;
+import com.kntronov.makespace.application.controllers.MetricsController;
 import com.kntronov.makespace.application.controllers.RoomsController;
+import com.kntronov.makespace.application.metrics.BookingOutcomeMetrics;
+import com.kntronov.makespace.application.metrics.HttpMetrics;
+import com.kntronov.makespace.application.metrics.MeteredBookingService;
 import com.kntronov.makespace.config.AppConfig;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.repositories.BookingRepository;
+import com.kntronov.makespace.domain.repositories.SystemStateRepository;
+import com.kntronov.makespace.domain.repositories.UnitOfWork;
+import com.kntronov.makespace.domain.services.AllocationMetrics;
+import com.kntronov.makespace.domain.services.BookingService;
+import com.kntronov.makespace.domain.services.UUIDProvider;
 import com.kntronov.makespace.domain.services.impl.BookingServiceImpl;
+import com.kntronov.makespace.domain.services.impl.DatabaseAllocatingBookingService;
 import com.kntronov.makespace.domain.services.impl.UUIDProviderImpl;
+import com.kntronov.makespace.infrastructure.archive.BookingArchive;
+import com.kntronov.makespace.infrastructure.archive.BookingArchiver;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+import com.kntronov.makespace.infrastructure.db.BookingPartitions;
+import com.kntronov.makespace.infrastructure.db.JdbcUnitOfWork;
 import com.kntronov.makespace.infrastructure.db.PooledDataSource;
+import com.kntronov.makespace.infrastructure.db.ReplicaSelection;
+import com.kntronov.makespace.infrastructure.embedded.EmbeddedStore;
+import com.kntronov.makespace.infrastructure.exports.BookingExporter;
+import com.kntronov.makespace.infrastructure.imports.BookingImporter;
+import com.kntronov.makespace.infrastructure.repositories.ArchivingBookingRepository;
+import com.kntronov.makespace.infrastructure.repositories.ArchivingSystemStateRepository;
 import com.kntronov.makespace.infrastructure.repositories.BookingRepositoryImpl;
+import com.kntronov.makespace.infrastructure.repositories.CachingBookingRepository;
+import com.kntronov.makespace.infrastructure.repositories.CachingSystemStateRepository;
+import com.kntronov.makespace.infrastructure.repositories.EmbeddedBookingRepository;
+import com.kntronov.makespace.infrastructure.repositories.EmbeddedSystemStateRepository;
 import com.kntronov.makespace.infrastructure.repositories.SystemStateRepositoryImpl;
+import com.kntronov.makespace.util.KeyedLocks;
+import com.kntronov.makespace.util.tracing.Tracer;
 import com.zaxxer.hikari.HikariConfig;
 
+import java.time.Clock;
+import java.time.LocalTime;
+import java.util.List;
+
 /**
  * Holds application facing dependencies.
+ * The data source and partition maintenance scheduler are null with the embedded storage.
  */
 public record AppContext(
         PooledDataSource dataSource,
         BookingsController bookingsController,
-        RoomsController roomsController
+        RoomsController roomsController,
+        AdminController adminController,
+        ImportController importController,
+        ExportController exportController,
+        RepackingScheduler repackingScheduler,
+        PartitionMaintenanceScheduler partitionMaintenanceScheduler,
+        HttpMetrics httpMetrics,
+        MetricsController metricsController,
+        Tracer tracer
 ) {
 
+    /**
+     * The rooms and buffer times seeded in the database by the migrations, used by the embedded storage.
+     */
+    private static final List<Room> embeddedRooms = List.of(
+            new Room("C-Cave", 3),
+            new Room("D-Tower", 7),
+            new Room("G-Mansion", 20)
+    );
+    private static final List<TimeSlot> embeddedBufferTimes = List.of(
+            new TimeSlot(LocalTime.of(9, 0), LocalTime.of(9, 15)),
+            new TimeSlot(LocalTime.of(13, 15), LocalTime.of(13, 45)),
+            new TimeSlot(LocalTime.of(18, 45), LocalTime.of(19, 0))
+    );
+
     /**
      * Create and wire default dependencies to be used in a normal app execution
      *
@@ -26,26 +86,188 @@ public record AppContext(
      * @return application context with default dependencies
      */
     public static AppContext createDefault(AppConfig config) {
+        return switch (config.storageConfig().mode()) {
+            case POSTGRES -> createWithDatabase(config);
+            case EMBEDDED -> createWithEmbeddedStore(config);
+        };
+    }
+
+    private static AppContext createWithDatabase(AppConfig config) {
         final var dataSource = setUpDatabaseDataSource(config.dbConfig());
 
         final var uuidProvider = new UUIDProviderImpl();
 
-        final var bookingRepository = new BookingRepositoryImpl(dataSource);
-        final var systemStateRepository = new SystemStateRepositoryImpl(dataSource, bookingRepository);
+        final var unitOfWork = new JdbcUnitOfWork(dataSource, config.dbConfig().isolationLevel().jdbcLevel());
 
-        final var bookingService = new BookingServiceImpl(uuidProvider, systemStateRepository, bookingRepository);
+        final var systemStateCache = new SystemStateCache(config.cacheConfig().systemStateCacheSize(), Clock.systemDefaultZone());
+        final var archive = new BookingArchive(config.archiveConfig().directory());
+        final var sqlBookingRepository = new ArchivingBookingRepository(new BookingRepositoryImpl(dataSource), archive);
+        final var sqlSystemStateRepository = new ArchivingSystemStateRepository(new SystemStateRepositoryImpl(dataSource), archive);
+        final var bookingRepository = new CachingBookingRepository(sqlBookingRepository, systemStateCache, unitOfWork);
+        final var systemStateRepository = new CachingSystemStateRepository(sqlSystemStateRepository, systemStateCache);
+
+        final var allocationMetrics = new AllocationMetrics();
+        final var bookingOutcomeMetrics = new BookingOutcomeMetrics();
+        final var bookingService = createBookingService(
+                config,
+                uuidProvider,
+                systemStateRepository,
+                bookingRepository,
+                allocationMetrics,
+                bookingOutcomeMetrics,
+                unitOfWork
+        );
 
         final var bookingsController = new BookingsController(bookingService);
         final var roomsController = new RoomsController(bookingService);
+        final var tracer = createTracer(config);
+        final var adminController = new AdminController(systemStateCache, allocationMetrics, dataSource, tracer);
+        final var importController = new ImportController(new BookingImporter(dataSource, archive, systemStateCache));
+        final var exportController = new ExportController(new BookingExporter(dataSource, archive));
+        final var httpMetrics = new HttpMetrics();
+        final var metricsController = new MetricsController(httpMetrics, bookingOutcomeMetrics, allocationMetrics, dataSource);
+
+        final var partitionMaintenanceScheduler = new PartitionMaintenanceScheduler(
+                new BookingPartitions(dataSource, systemStateCache),
+                new BookingArchiver(dataSource, archive, systemStateCache),
+                config.partitionConfig().monthsAhead(),
+                config.archiveConfig().horizonMonths(),
+                config.partitionConfig().retentionMonths(),
+                Clock.systemDefaultZone()
+        );
+
+        return new AppContext(
+                dataSource,
+                bookingsController,
+                roomsController,
+                adminController,
+                importController,
+                exportController,
+                createRepackingScheduler(config, bookingService),
+                partitionMaintenanceScheduler,
+                httpMetrics,
+                metricsController,
+                tracer
+        );
+    }
+
+    /**
+     * Wire the bookings to the embedded store. Its states are read from memory and need no cache, the cache of the
+     * admin endpoints stays empty. There is no data source, so bulk imports, exports, pool stats and partition
+     * maintenance are unavailable.
+     */
+    private static AppContext createWithEmbeddedStore(AppConfig config) {
+        final var storageConfig = config.storageConfig();
+        final var store = EmbeddedStore.open(
+                storageConfig.directory(),
+                embeddedRooms,
+                embeddedBufferTimes,
+                storageConfig.fsync(),
+                storageConfig.groupCommitInterval(),
+                storageConfig.snapshotInterval()
+        );
+        final var allocationMetrics = new AllocationMetrics();
+        final var bookingOutcomeMetrics = new BookingOutcomeMetrics();
+        final var bookingService = createBookingService(
+                config,
+                new UUIDProviderImpl(),
+                new EmbeddedSystemStateRepository(store),
+                new EmbeddedBookingRepository(store),
+                allocationMetrics,
+                bookingOutcomeMetrics,
+                UnitOfWork.none()
+        );
+        final var httpMetrics = new HttpMetrics();
+        final var tracer = createTracer(config);
+        final var systemStateCache = new SystemStateCache(config.cacheConfig().systemStateCacheSize(), Clock.systemDefaultZone());
+
+        return new AppContext(
+                null,
+                new BookingsController(bookingService),
+                new RoomsController(bookingService),
+                new AdminController(systemStateCache, allocationMetrics, null, tracer),
+                new ImportController(null),
+                new ExportController(null),
+                createRepackingScheduler(config, bookingService),
+                null,
+                httpMetrics,
+                new MetricsController(httpMetrics, bookingOutcomeMetrics, allocationMetrics, null),
+                tracer
+        );
+    }
+
+    private static Tracer createTracer(AppConfig config) {
+        final var tracingConfig = config.tracingConfig();
+        if (!tracingConfig.enabled()) {
+            return Tracer.disabled();
+        }
+        return new Tracer(tracingConfig.sampleRate(), tracingConfig.recentTraces(), tracingConfig.slowestTraces());
+    }
+
+    private static BookingService createBookingService(
+            AppConfig config,
+            UUIDProvider uuidProvider,
+            SystemStateRepository systemStateRepository,
+            BookingRepository bookingRepository,
+            AllocationMetrics allocationMetrics,
+            BookingOutcomeMetrics bookingOutcomeMetrics,
+            UnitOfWork unitOfWork
+    ) {
+        final var inMemoryBookingService = new BookingServiceImpl(
+                uuidProvider,
+                systemStateRepository,
+                bookingRepository,
+                new KeyedLocks<>(),
+                allocationMetrics,
+                unitOfWork
+        );
+        final BookingService bookingService = switch (config.allocationConfig().mode()) {
+            case IN_MEMORY -> inMemoryBookingService;
+            case DATABASE -> new DatabaseAllocatingBookingService(
+                    inMemoryBookingService,
+                    uuidProvider,
+                    bookingRepository,
+                    allocationMetrics
+            );
+        };
+        return new MeteredBookingService(bookingService, bookingOutcomeMetrics);
+    }
+
+    private static RepackingScheduler createRepackingScheduler(AppConfig config, BookingService bookingService) {
+        return new RepackingScheduler(
+                bookingService,
+                config.repackConfig().interval(),
+                config.repackConfig().daysAhead(),
+                Clock.systemDefaultZone()
+        );
+    }
 
-        return new AppContext(dataSource, bookingsController, roomsController);
+    static PooledDataSource setUpDatabaseDataSource(AppConfig.DBConfig config) {
+        final var replicaConfigs = config.replicaUrls().stream()
+                .map(url -> {
+                    final var replicaConfig = hikariConfig(config, url);
+                    // an unreachable replica must not keep the application from starting, reads use the primary
+                    replicaConfig.setInitializationFailTimeout(-1);
+                    replicaConfig.setReadOnly(true);
+                    return replicaConfig;
+                })
+                .toList();
+        final var replicaSelection = switch (config.replicaSelection()) {
+            case ROUND_ROBIN -> ReplicaSelection.ROUND_ROBIN;
+            case LEAST_LOADED -> ReplicaSelection.LEAST_LOADED;
+        };
+        return new PooledDataSource(hikariConfig(config, config.url()), replicaConfigs, replicaSelection, config.maxReplicaLag());
     }
 
-    private static PooledDataSource setUpDatabaseDataSource(AppConfig.DBConfig config) {
+    private static HikariConfig hikariConfig(AppConfig.DBConfig config, String url) {
         final var hikariConfig = new HikariConfig();
-        hikariConfig.setJdbcUrl(config.url());
+        hikariConfig.setJdbcUrl(url);
         hikariConfig.setUsername(config.username());
         hikariConfig.setPassword(config.password());
-        return new PooledDataSource(hikariConfig);
+        hikariConfig.setMaximumPoolSize(config.maximumPoolSize());
+        hikariConfig.setMinimumIdle(config.minimumIdle());
+        hikariConfig.setConnectionTimeout(config.connectionTimeout().toMillis());
+        hikariConfig.setLeakDetectionThreshold(config.leakDetectionThreshold().toMillis());
+        return hikariConfig;
     }
 }
@@ -0,0 +1,55 @@
+package com.kntronov.makespace.application;
+
+import com.kntronov.makespace.config.ConfigLoader;
+import com.kntronov.makespace.infrastructure.archive.BookingArchive;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+import com.kntronov.makespace.infrastructure.imports.BookingImporter;
+import com.kntronov.makespace.infrastructure.imports.ImportFormat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+
+/**
+ * Command line entry point importing a CSV or NDJSON file of bookings, selected by the file extension.
+ * Only the database and archive configurations are read from the env variables.
+ */
+public class ImportLauncher {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: ImportLauncher <bookings.csv|bookings.ndjson>");
+            System.exit(2);
+        }
+        final var path = Path.of(args[0]);
+        final var format = formatOf(path);
+        final var dataSource = AppContext.setUpDatabaseDataSource(ConfigLoader.loadDBConfigFromEnvVariables());
+        try (dataSource) {
+            Launcher.runMigrations(dataSource);
+            final var importer = new BookingImporter(
+                    dataSource,
+                    new BookingArchive(ConfigLoader.loadArchiveConfigFromEnvVariables().directory()),
+                    new SystemStateCache(1, Clock.systemDefaultZone())
+            );
+            try (final var input = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                final var report = importer.importBookings(input, format);
+                System.out.printf("accepted: %d, rejected: %d%n", report.accepted(), report.rejected());
+                report.rejections().forEach(rejection ->
+                        System.out.printf("line %d: %s%n", rejection.line(), rejection.reason())
+                );
+            }
+        }
+    }
+
+    private static ImportFormat formatOf(Path path) {
+        final var fileName = path.getFileName().toString();
+        if (fileName.endsWith(".csv")) {
+            return ImportFormat.CSV;
+        } else if (fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl")) {
+            return ImportFormat.NDJSON;
+        }
+        throw new IllegalArgumentException("unsupported file extension of " + fileName);
+    }
+}
@@ -3,14 +3,22 @@ package com.kntronov.makespace.application;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.kntronov.makespace.application.errors.HttpError;
+import com.kntronov.makespace.application.metrics.HttpMetrics;
 import com.kntronov.makespace.application.routes.RootRoutes;
+import com.kntronov.makespace.application.schema.BookingCursors;
 import com.kntronov.makespace.application.schema.ErrorResponse;
 import com.kntronov.makespace.config.AppConfig;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.util.tracing.Span;
+import com.kntronov.makespace.util.tracing.Tracer;
 import io.javalin.Javalin;
 import io.javalin.config.JavalinConfig;
 import io.javalin.http.Context;
 import io.javalin.json.JavalinJackson;
 import io.javalin.validation.JavalinValidation;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,19 +33,72 @@ public class JavalinApp {
 
     private static final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int minThreads = 8;
+    private static final String startAttribute = "metrics-start-nanos";
+    private static final String traceAttribute = "trace-root-span";
+    private static final String routeAttribute = "metrics-route";
+    private static final String unmatchedRoute = "unmatched";
 
     private final AppConfig.ServerConfig config;
+    private final Tracer tracer;
     private final Javalin javalin;
 
     public JavalinApp(AppContext context, AppConfig.ServerConfig config) {
         this.config = config;
+        this.tracer = context.tracer();
+        final var httpMetrics = context.httpMetrics();
         this.javalin = Javalin.create(this::configureJavalin)
                 .routes(() -> RootRoutes.configure(context))
                 .exception(Exception.class, this::configureExceptionHandling)
-                .after(ctx -> applicationLogger.info(
-                        "[response] {} {} {} {}",
-                        ctx.path(), ctx.queryString(), ctx.status(), ctx.result()
-                ));
+                .before(ctx -> {
+                    final var route = routeOf(ctx);
+                    ctx.attribute(startAttribute, System.nanoTime());
+                    ctx.attribute(routeAttribute, route);
+                    httpMetrics.recordStart(route);
+                    if (tracer.isEnabled()) {
+                        ctx.attribute(traceAttribute, tracer.start(ctx.method().name() + " " + ctx.path()));
+                    }
+                })
+                .after(ctx -> {
+                    final Span rootSpan = ctx.attribute(traceAttribute);
+                    if (rootSpan != null) {
+                        rootSpan.close();
+                    }
+                    recordCompletion(httpMetrics, ctx);
+                    // the response body is copied into a string when read, which only debug logging pays for
+                    if (applicationLogger.isDebugEnabled()) {
+                        applicationLogger.debug(
+                                "[response] {} {} {} {}",
+                                ctx.path(), ctx.queryString(), ctx.status(), ctx.result()
+                        );
+                    } else {
+                        applicationLogger.info("[response] {} {} {}", ctx.path(), ctx.queryString(), ctx.status());
+                    }
+                });
+    }
+
+    /**
+     * Requests are recorded by the path template of their endpoint, not by their path, so that ids and dates do not
+     * create a series each. Requests matching no endpoint share one series.
+     * The endpoint is only matched by Javalin after the before handlers, so it is looked up here the same way, at the
+     * start of the request, for the request to be counted in flight under the route it completes with.
+     */
+    private String routeOf(Context ctx) {
+        final var path = ctx.path().substring(ctx.contextPath().length());
+        final var entries = javalin.javalinServlet().getMatcher().findEntries(ctx.method(), path);
+        return entries.isEmpty() ? unmatchedRoute : entries.getFirst().getPath();
+    }
+
+    private static void recordCompletion(HttpMetrics httpMetrics, Context ctx) {
+        final Long start = ctx.attribute(startAttribute);
+        final String route = ctx.attribute(routeAttribute);
+        if (start == null || route == null) {
+            return;
+        }
+        httpMetrics.recordCompletion(
+                new HttpMetrics.Series(ctx.method().name(), route, ctx.statusCode()),
+                System.nanoTime() - start
+        );
     }
 
     private static ErrorResponse createErrorResponse(HttpError error) {
@@ -57,14 +118,36 @@ public class JavalinApp {
     }
 
     private void configureJavalin(JavalinConfig config) {
+        config.jetty.server(() -> new Server(threadPool()));
         var jsonMapper = new ObjectMapper();
         jsonMapper.registerModule(new JavaTimeModule());
         configureConverters();
-        config.jsonMapper(new JavalinJackson(jsonMapper));
-        config.requestLogger.http((ctx, ms) -> applicationLogger.info(
-                "[request] {} {} {}",
-                ctx.path(), ctx.queryString(), ctx.body()
-        ));
+        final var schemaJsonMapper = new SchemaJsonMapper(new JavalinJackson(jsonMapper));
+        if (tracer.isEnabled()) {
+            config.jsonMapper(new TracedJsonMapper(schemaJsonMapper));
+        } else {
+            config.jsonMapper(schemaJsonMapper);
+        }
+        config.requestLogger.http((ctx, ms) -> {
+            if (applicationLogger.isDebugEnabled()) {
+                applicationLogger.debug("[request] {} {} {} {} ms", ctx.path(), ctx.queryString(), ctx.body(), ms);
+            } else {
+                applicationLogger.info("[request] {} {} {} ms", ctx.path(), ctx.queryString(), ms);
+            }
+        });
+    }
+
+    /**
+     * Requests are handled either on virtual threads or on a bounded pool of platform threads, never implicitly
+     * on whatever pool the Javalin version at hand picks for the running JVM.
+     */
+    private ThreadPool threadPool() {
+        if (config.virtualThreads()) {
+            return new VirtualThreadPool();
+        }
+        final var threadPool = new QueuedThreadPool(config.maxThreads(), Math.min(minThreads, config.maxThreads()));
+        threadPool.setName("jetty-platform");
+        return threadPool;
     }
 
     private void configureExceptionHandling(Exception e, Context context) {
@@ -78,5 +161,6 @@ public class JavalinApp {
         JavalinValidation.register(LocalDate.class, s -> LocalDate.parse(s, dateFormatter));
         JavalinValidation.register(LocalTime.class, s -> LocalTime.parse(s, timeFormatter));
         JavalinValidation.register(UUID.class, UUID::fromString);
+        JavalinValidation.register(BookingCursor.class, BookingCursors::decode);
     }
 }
@@ -1,5 +1,6 @@
 package com.kntronov.makespace.application;
 
+import com.kntronov.makespace.config.AppConfig;
 import com.kntronov.makespace.config.ConfigLoader;
 import com.kntronov.makespace.infrastructure.db.PooledDataSource;
 import org.flywaydb.core.Flyway;
@@ -10,11 +11,16 @@ public class Launcher {
         var config = ConfigLoader.loadConfigFromEnvVariables();
         var context = AppContext.createDefault(config);
         var app = new JavalinApp(context, config.serverConfig());
-        runMigrations(context.dataSource());
+        if (config.storageConfig().mode() == AppConfig.StorageMode.POSTGRES) {
+            runMigrations(context.dataSource());
+            context.dataSource().start();
+            context.partitionMaintenanceScheduler().start();
+        }
         app.start();
+        context.repackingScheduler().start();
     }
 
-    private static void runMigrations(PooledDataSource pooledDataSource) {
+    public static void runMigrations(PooledDataSource pooledDataSource) {
         var flyway =
                 Flyway.configure()
                         .dataSource(pooledDataSource.getDataSource())
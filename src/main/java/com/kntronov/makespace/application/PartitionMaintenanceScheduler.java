@@ -0,0 +1,88 @@
+package com.kntronov.makespace.application;
+
+import com.kntronov.makespace.infrastructure.archive.BookingArchiver;
+import com.kntronov.makespace.infrastructure.db.BookingPartitions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the partitions of the booking table ahead of time, archives the months older than the archive horizon and
+ * drops the partitions older than the retention, once at start and then daily in the background.
+ * Months are never archived if the configured horizon is not positive,
+ * partitions are never dropped if the configured retention is not positive.
+ */
+public class PartitionMaintenanceScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger("PartitionMaintenanceScheduler");
+
+    private static final Duration interval = Duration.ofDays(1);
+
+    private final BookingPartitions bookingPartitions;
+    private final BookingArchiver bookingArchiver;
+    private final int monthsAhead;
+    private final int archiveHorizonMonths;
+    private final int retentionMonths;
+    private final Clock clock;
+    private ScheduledExecutorService executor;
+
+    public PartitionMaintenanceScheduler(
+            BookingPartitions bookingPartitions,
+            BookingArchiver bookingArchiver,
+            int monthsAhead,
+            int archiveHorizonMonths,
+            int retentionMonths,
+            Clock clock
+    ) {
+        this.bookingPartitions = bookingPartitions;
+        this.bookingArchiver = bookingArchiver;
+        this.monthsAhead = monthsAhead;
+        this.archiveHorizonMonths = archiveHorizonMonths;
+        this.retentionMonths = retentionMonths;
+        this.clock = clock;
+    }
+
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "partition-maintenance-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::maintainPartitions, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("partition maintenance scheduled every {} for {} months ahead", interval, monthsAhead);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    void maintainPartitions() {
+        final var currentMonth = YearMonth.now(clock);
+        try {
+            bookingPartitions.create(currentMonth, currentMonth.plusMonths(monthsAhead));
+            if (archiveHorizonMonths > 0) {
+                bookingArchiver.archiveBefore(currentMonth.minusMonths(archiveHorizonMonths));
+            }
+            if (retentionMonths > 0) {
+                final var dropped = bookingPartitions.dropBefore(currentMonth.minusMonths(retentionMonths));
+                if (!dropped.isEmpty()) {
+                    logger.info("dropped booking partitions: {}", dropped);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("scheduled maintenance of the booking partitions failed", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.kntronov.makespace.application;
+
+import com.kntronov.makespace.domain.services.BookingService;
+import com.kntronov.makespace.util.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically repacks the bookings of today and of the following days in the background.
+ * The scheduler does nothing if the configured interval is not positive.
+ */
+public class RepackingScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger("RepackingScheduler");
+
+    private final BookingService bookingService;
+    private final Duration interval;
+    private final int daysAhead;
+    private final Clock clock;
+    private ScheduledExecutorService executor;
+
+    public RepackingScheduler(BookingService bookingService, Duration interval, int daysAhead, Clock clock) {
+        this.bookingService = bookingService;
+        this.interval = interval;
+        this.daysAhead = daysAhead;
+        this.clock = clock;
+    }
+
+    public synchronized void start() {
+        if (executor != null || interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "repacking-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::repackUpcomingDays, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("repacking scheduled every {} for {} days ahead", interval, daysAhead);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    void repackUpcomingDays() {
+        final var today = LocalDate.now(clock);
+        for (int i = 0; i <= daysAhead; i++) {
+            final var date = today.plusDays(i);
+            try {
+                if (bookingService.repack(date) instanceof Result.Failure<?> failure) {
+                    logger.warn("scheduled repacking of date: {} failed", date, failure.error());
+                }
+            } catch (RuntimeException e) {
+                logger.error("scheduled repacking of date: {} failed", date, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.kntronov.makespace.application;
+
+import com.kntronov.makespace.application.schema.AvailableRoomsResponse;
+import com.kntronov.makespace.application.schema.BatchBookingResponse;
+import com.kntronov.makespace.application.schema.BookingResponse;
+import com.kntronov.makespace.application.schema.BookingSeriesResponse;
+import com.kntronov.makespace.application.schema.BookingsListResponse;
+import com.kntronov.makespace.application.schema.RoomResponse;
+import com.kntronov.makespace.application.schema.TimeSlotResponse;
+import io.javalin.json.JsonMapper;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * JsonMapper writing the booking and room responses by hand, every other type and every parsing going to the
+ * delegate.
+ * <p>
+ * The responses returned by the booking endpoints are the largest ones, a list of bookings running to thousands of
+ * entries, and Jackson spends most of their serialization looking up bean properties and serializers and formatting
+ * java.time values. Here every response is appended to a single StringBuilder: the field names and separators are
+ * constants, and the time slot boundaries, always on a quarter of an hour, are copied from a table of the 96 encoded
+ * quarter hours. The output is the one of the ObjectMapper of JavalinApp, character for character: records in
+ * declaration order, dates as [year,month,day] arrays and times as [hour,minute] arrays.
+ */
+public final class SchemaJsonMapper implements JsonMapper {
+
+    private static final int QUARTERS_PER_DAY = 96;
+    private static final int BOOKING_LENGTH_ESTIMATE = 192;
+    private static final String[] quarterHours = new String[QUARTERS_PER_DAY];
+    private static final char[] hexDigits = "0123456789ABCDEF".toCharArray();
+
+    static {
+        for (int i = 0; i < QUARTERS_PER_DAY; i++) {
+            quarterHours[i] = "[" + i / 4 + "," + i % 4 * 15 + "]";
+        }
+    }
+
+    private final JsonMapper delegate;
+
+    /**
+     * @param delegate mapper of the other types, configured with the JavaTimeModule and the default settings
+     */
+    public SchemaJsonMapper(JsonMapper delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String toJsonString(Object obj, Type type) {
+        return switch (obj) {
+            case BookingResponse booking -> write(new StringBuilder(BOOKING_LENGTH_ESTIMATE), booking).toString();
+            case BookingsListResponse list -> write(list).toString();
+            case BookingSeriesResponse series -> write(series).toString();
+            case BatchBookingResponse batch -> write(batch).toString();
+            case AvailableRoomsResponse rooms -> write(rooms).toString();
+            case null, default -> delegate.toJsonString(obj, type);
+        };
+    }
+
+    @Override
+    public InputStream toJsonStream(Object obj, Type type) {
+        return delegate.toJsonStream(obj, type);
+    }
+
+    @Override
+    public void writeToOutputStream(Stream<?> stream, OutputStream outputStream) {
+        delegate.writeToOutputStream(stream, outputStream);
+    }
+
+    @Override
+    public <T> T fromJsonString(String json, Type targetType) {
+        return delegate.fromJsonString(json, targetType);
+    }
+
+    @Override
+    public <T> T fromJsonStream(InputStream json, Type targetType) {
+        return delegate.fromJsonStream(json, targetType);
+    }
+
+    private StringBuilder write(BookingsListResponse response) {
+        final var out = new StringBuilder(32 + sizeOf(response.bookings()) * BOOKING_LENGTH_ESTIMATE);
+        out.append("{\"bookings\":");
+        writeBookings(out, response.bookings());
+        if (response.next() != null) {
+            out.append(",\"next\":");
+            writeString(out, response.next());
+        }
+        return out.append('}');
+    }
+
+    private StringBuilder write(BookingSeriesResponse response) {
+        final var out = new StringBuilder(128 + sizeOf(response.bookings()) * BOOKING_LENGTH_ESTIMATE);
+        out.append("{\"room\":");
+        write(out, response.room());
+        out.append(",\"bookings\":");
+        writeBookings(out, response.bookings());
+        out.append(",\"fallbackDates\":");
+        writeDates(out, response.fallbackDates());
+        out.append(",\"unavailableDates\":");
+        writeDates(out, response.unavailableDates());
+        return out.append('}');
+    }
+
+    private StringBuilder write(BatchBookingResponse response) {
+        if (response.results() == null) {
+            return new StringBuilder("{\"results\":null}");
+        }
+        final var out = new StringBuilder(16 + response.results().size() * (BOOKING_LENGTH_ESTIMATE + 32));
+        out.append("{\"results\":[");
+        for (int i = 0; i < response.results().size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            final var result = response.results().get(i);
+            if (result == null) {
+                out.append("null");
+                continue;
+            }
+            out.append("{\"statusCode\":").append(result.statusCode());
+            if (result.booking() != null) {
+                out.append(",\"booking\":");
+                write(out, result.booking());
+            }
+            if (result.error() != null) {
+                out.append(",\"error\":");
+                writeString(out, result.error());
+            }
+            out.append('}');
+        }
+        return out.append("]}");
+    }
+
+    private StringBuilder write(AvailableRoomsResponse response) {
+        final var rooms = response.availableRooms();
+        final var out = new StringBuilder(24 + sizeOf(rooms) * 48);
+        out.append("{\"availableRooms\":");
+        if (rooms == null) {
+            out.append("null");
+        } else {
+            out.append('[');
+            for (int i = 0; i < rooms.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                write(out, rooms.get(i));
+            }
+            out.append(']');
+        }
+        return out.append('}');
+    }
+
+    private void writeBookings(StringBuilder out, List<BookingResponse> bookings) {
+        if (bookings == null) {
+            out.append("null");
+            return;
+        }
+        out.append('[');
+        for (int i = 0; i < bookings.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            write(out, bookings.get(i));
+        }
+        out.append(']');
+    }
+
+    private StringBuilder write(StringBuilder out, BookingResponse booking) {
+        if (booking == null) {
+            return out.append("null");
+        }
+        out.append("{\"id\":");
+        writeId(out, booking.id());
+        out.append(",\"date\":");
+        writeDate(out, booking.date());
+        out.append(",\"timeSlot\":");
+        write(out, booking.timeSlot());
+        out.append(",\"room\":");
+        write(out, booking.room());
+        return out.append(",\"numPeople\":").append(booking.numPeople()).append('}');
+    }
+
+    private void write(StringBuilder out, TimeSlotResponse timeSlot) {
+        if (timeSlot == null) {
+            out.append("null");
+            return;
+        }
+        out.append("{\"start\":");
+        writeTime(out, timeSlot.start());
+        out.append(",\"end\":");
+        writeTime(out, timeSlot.end());
+        out.append('}');
+    }
+
+    private static void write(StringBuilder out, RoomResponse room) {
+        if (room == null) {
+            out.append("null");
+            return;
+        }
+        out.append("{\"name\":");
+        writeString(out, room.name());
+        out.append(",\"peopleCapacity\":").append(room.peopleCapacity()).append('}');
+    }
+
+    private static void writeId(StringBuilder out, UUID id) {
+        if (id == null) {
+            out.append("null");
+        } else {
+            out.append('"').append(id).append('"');
+        }
+    }
+
+    private static void writeDates(StringBuilder out, List<LocalDate> dates) {
+        if (dates == null) {
+            out.append("null");
+            return;
+        }
+        out.append('[');
+        for (int i = 0; i < dates.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            writeDate(out, dates.get(i));
+        }
+        out.append(']');
+    }
+
+    private static void writeDate(StringBuilder out, LocalDate date) {
+        if (date == null) {
+            out.append("null");
+            return;
+        }
+        out.append('[').append(date.getYear())
+                .append(',').append(date.getMonthValue())
+                .append(',').append(date.getDayOfMonth())
+                .append(']');
+    }
+
+    /**
+     * Seconds and fractions of a second are never part of a booking, the few times carrying them are left to the
+     * delegate, which appends them to the array.
+     */
+    private void writeTime(StringBuilder out, LocalTime time) {
+        if (time == null) {
+            out.append("null");
+        } else if (time.getSecond() != 0 || time.getNano() != 0) {
+            out.append(delegate.toJsonString(time, LocalTime.class));
+        } else if (time.getMinute() % 15 == 0) {
+            out.append(quarterHours[time.getHour() * 4 + time.getMinute() / 15]);
+        } else {
+            out.append('[').append(time.getHour()).append(',').append(time.getMinute()).append(']');
+        }
+    }
+
+    /**
+     * Escapes quotes, backslashes and control characters the way Jackson does, every other character is written as
+     * it is.
+     */
+    private static void writeString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        int written = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final var c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.append(value, written, i).append('\\');
+            switch (c) {
+                case '"', '\\' -> out.append(c);
+                case '\b' -> out.append('b');
+                case '\t' -> out.append('t');
+                case '\n' -> out.append('n');
+                case '\f' -> out.append('f');
+                case '\r' -> out.append('r');
+                default -> out.append("u00").append(hexDigits[c >> 4]).append(hexDigits[c & 0xF]);
+            }
+            written = i + 1;
+        }
+        out.append(value, written, value.length()).append('"');
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
@@ -0,0 +1,67 @@
+package com.kntronov.makespace.application;
+
+import com.kntronov.makespace.util.tracing.Tracing;
+import io.javalin.json.JsonMapper;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.stream.Stream;
+
+/**
+ * JsonMapper decorator recording a span for each request body parsed and each response serialized,
+ * so that the time spent on JSON shows up in the trace of a request.
+ */
+@SuppressWarnings("try")
+class TracedJsonMapper implements JsonMapper {
+
+    private final JsonMapper delegate;
+
+    TracedJsonMapper(JsonMapper delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String toJsonString(Object obj, Type type) {
+        if (!Tracing.isActive()) {
+            return delegate.toJsonString(obj, type);
+        }
+        try (final var span = Tracing.span("json.write " + typeName(type))) {
+            return delegate.toJsonString(obj, type);
+        }
+    }
+
+    @Override
+    public InputStream toJsonStream(Object obj, Type type) {
+        return delegate.toJsonStream(obj, type);
+    }
+
+    @Override
+    public void writeToOutputStream(Stream<?> stream, OutputStream outputStream) {
+        delegate.writeToOutputStream(stream, outputStream);
+    }
+
+    @Override
+    public <T> T fromJsonString(String json, Type targetType) {
+        if (!Tracing.isActive()) {
+            return delegate.fromJsonString(json, targetType);
+        }
+        try (final var span = Tracing.span("json.read " + typeName(targetType))) {
+            return delegate.fromJsonString(json, targetType);
+        }
+    }
+
+    @Override
+    public <T> T fromJsonStream(InputStream json, Type targetType) {
+        if (!Tracing.isActive()) {
+            return delegate.fromJsonStream(json, targetType);
+        }
+        try (final var span = Tracing.span("json.read " + typeName(targetType))) {
+            return delegate.fromJsonStream(json, targetType);
+        }
+    }
+
+    private static String typeName(Type type) {
+        return type instanceof Class<?> typeClass ? typeClass.getSimpleName() : type.getTypeName();
+    }
+}
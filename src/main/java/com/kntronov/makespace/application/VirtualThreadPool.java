@@ -0,0 +1,102 @@
+package com.kntronov.makespace.application;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jetty thread pool that runs every task on a new virtual thread.
+ * <p>
+ * It has no bound on the number of threads, so it is never low on threads and a handler blocked on I/O does not keep
+ * other requests waiting. Resources that must be bounded, such as database connections, have to be bounded by the code
+ * using them.
+ * <p>
+ * The pool is started and stopped with the server: stopping it waits up to {@link #stopTimeout} for the running tasks
+ * to finish, the way the default Jetty pool does, and then interrupts them.
+ */
+class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+    private static final Logger logger = LoggerFactory.getLogger("VirtualThreadPool");
+
+    private static final Duration stopTimeout = Duration.ofSeconds(5);
+
+    private final AtomicInteger threads = new AtomicInteger();
+    private volatile ExecutorService executor;
+
+    @Override
+    protected void doStart() throws Exception {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jetty-virtual-", 0).factory());
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+        final var running = executor;
+        running.shutdown();
+        if (!running.awaitTermination(stopTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            logger.warn("{} tasks still running after {} ms, interrupting them", threads.get(), stopTimeout.toMillis());
+            running.shutdownNow();
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        final var running = executor;
+        if (running == null) {
+            throw new RejectedExecutionException("thread pool is not started");
+        }
+        running.execute(() -> {
+            threads.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                threads.decrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        final var running = executor;
+        if (running != null) {
+            while (!running.awaitTermination(1, TimeUnit.DAYS)) {
+                // the pool is not stopped yet
+            }
+        }
+    }
+
+    /**
+     * Returns the number of threads running a task, a virtual thread lives for a single task.
+     *
+     * @return running threads
+     */
+    @Override
+    public int getThreads() {
+        return threads.get();
+    }
+
+    /**
+     * Returns the number of threads waiting for a task, always zero as virtual threads are not pooled: every task
+     * gets a new one.
+     *
+     * @return idle threads
+     */
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+}
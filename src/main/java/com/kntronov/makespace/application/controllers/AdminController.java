@@ -0,0 +1,53 @@
+package com.kntronov.makespace.application.controllers;
+
+import com.kntronov.makespace.application.errors.HttpError;
+import com.kntronov.makespace.application.schema.AllocationStatsResponse;
+import com.kntronov.makespace.application.schema.CacheStatsResponse;
+import com.kntronov.makespace.application.schema.PoolStatsResponse;
+import com.kntronov.makespace.application.schema.TracesResponse;
+import com.kntronov.makespace.domain.services.AllocationMetrics;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+import com.kntronov.makespace.infrastructure.db.PooledDataSource;
+import com.kntronov.makespace.util.tracing.Tracer;
+
+/**
+ * Controller responsible for operational endpoints.
+ */
+public class AdminController {
+
+    private final SystemStateCache systemStateCache;
+    private final AllocationMetrics allocationMetrics;
+    private final PooledDataSource dataSource;
+    private final Tracer tracer;
+
+    public AdminController(
+            SystemStateCache systemStateCache,
+            AllocationMetrics allocationMetrics,
+            PooledDataSource dataSource,
+            Tracer tracer
+    ) {
+        this.systemStateCache = systemStateCache;
+        this.allocationMetrics = allocationMetrics;
+        this.dataSource = dataSource;
+        this.tracer = tracer;
+    }
+
+    public CacheStatsResponse getSystemStateCacheStats() {
+        return CacheStatsResponse.fromCacheStats(systemStateCache.stats());
+    }
+
+    public AllocationStatsResponse getAllocationStats() {
+        return AllocationStatsResponse.fromAllocationMetrics(allocationMetrics);
+    }
+
+    public PoolStatsResponse getConnectionPoolStats() {
+        if (dataSource == null) {
+            throw new HttpError.NotImplementedException("connection pool stats need the postgres storage");
+        }
+        return PoolStatsResponse.fromPoolStats(dataSource.stats(), dataSource.replicaStats());
+    }
+
+    public TracesResponse getTraces() {
+        return TracesResponse.fromTraces(tracer.sampleRate(), tracer.recent(), tracer.slowest());
+    }
+}
@@ -1,23 +1,44 @@
 package com.kntronov.makespace.application.controllers;
 
 import com.kntronov.makespace.application.errors.HttpError;
+import com.kntronov.makespace.application.schema.BatchBookingItemResponse;
+import com.kntronov.makespace.application.schema.BatchBookingResponse;
+import com.kntronov.makespace.application.schema.BookingCursors;
+import com.kntronov.makespace.application.schema.BookingMoveResponse;
 import com.kntronov.makespace.application.schema.BookingResponse;
+import com.kntronov.makespace.application.schema.BookingSeriesResponse;
 import com.kntronov.makespace.application.schema.BookingsListResponse;
 import com.kntronov.makespace.application.schema.CreateBookingRequest;
+import com.kntronov.makespace.application.schema.CreateBookingsBatchRequest;
+import com.kntronov.makespace.application.schema.CreateRecurringBookingRequest;
+import com.kntronov.makespace.application.schema.RepackResponse;
 import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.BookingRequest;
+import com.kntronov.makespace.domain.entities.BookingSeries;
 import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.ArchivedDateException;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
 import com.kntronov.makespace.domain.errors.NoRoomAvailableException;
+import com.kntronov.makespace.domain.errors.RepackConflictException;
 import com.kntronov.makespace.domain.errors.RoomNotFoundException;
 import com.kntronov.makespace.domain.services.BookingService;
 import com.kntronov.makespace.util.Nothing;
 import com.kntronov.makespace.util.Result;
+import com.kntronov.makespace.util.tracing.Tracing;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Controller responsible for bookings endpoints.
  */
+@SuppressWarnings("try")
 public class BookingsController {
 
     private final BookingService bookingService;
@@ -27,53 +48,148 @@ public class BookingsController {
     }
 
     public BookingsListResponse getAllBookings(LocalDate date) {
-        return new BookingsListResponse(bookingService.getAllBookingsByDate(date).stream().map(BookingResponse::fromDomainEntity).toList());
+        try (final var span = Tracing.span("BookingsController.getAllBookings")) {
+            return new BookingsListResponse(bookingService.getAllBookingsByDate(date).stream().map(BookingResponse::fromDomainEntity).toList());
+        }
+    }
+
+    public BookingsListResponse getBookingsPage(LocalDate date, Optional<BookingCursor> after, int limit) {
+        try (final var span = Tracing.span("BookingsController.getBookingsPage")) {
+            final var page = bookingService.getBookingsPageByDate(date, after, limit);
+            return new BookingsListResponse(
+                    page.bookings().stream().map(BookingResponse::fromDomainEntity).toList(),
+                    page.next().map(BookingCursors::encode).orElse(null)
+            );
+        }
     }
 
     public BookingResponse getBooking(UUID id) {
-        return switch (bookingService.getBooking(id)) {
-            case Result.Success<Booking> success -> BookingResponse.fromDomainEntity(success.value());
-            case Result.Failure<Booking> failure -> {
-                switch (failure.error()) {
-                    case RoomNotFoundException ignored ->
-                            throw new HttpError.NoContentException("room " + id + " does not exist");
-                    default -> throw new HttpError.InternalServerErrorException();
+        try (final var span = Tracing.span("BookingsController.getBooking")) {
+            return switch (bookingService.getBooking(id)) {
+                case Result.Success<Booking> success -> BookingResponse.fromDomainEntity(success.value());
+                case Result.Failure<Booking> failure -> {
+                    switch (failure.error()) {
+                        case RoomNotFoundException ignored ->
+                                throw new HttpError.NoContentException("room " + id + " does not exist");
+                        default -> throw new HttpError.InternalServerErrorException();
+                    }
                 }
-            }
-        };
+            };
+        }
     }
 
     public Nothing deleteBooking(UUID id) {
-        return switch (bookingService.deleteBooking(id)) {
-            case Result.Success<Nothing> ignored -> Nothing.get();
-            case Result.Failure<Nothing> failure -> {
-                switch (failure.error()) {
-                    case RoomNotFoundException ignored ->
-                            throw new HttpError.NoContentException("room " + id + " does not exist");
-                    default -> throw new HttpError.InternalServerErrorException();
+        try (final var span = Tracing.span("BookingsController.deleteBooking")) {
+            return switch (bookingService.deleteBooking(id)) {
+                case Result.Success<Nothing> ignored -> Nothing.get();
+                case Result.Failure<Nothing> failure -> {
+                    switch (failure.error()) {
+                        case RoomNotFoundException ignored ->
+                                throw new HttpError.NoContentException("room " + id + " does not exist");
+                        case ArchivedDateException e -> throw new HttpError.ConflictException(e.getMessage());
+                        default -> throw new HttpError.InternalServerErrorException();
+                    }
                 }
-            }
-        };
+            };
+        }
     }
 
     public BookingResponse bookNextAvailableRoom(CreateBookingRequest request) {
-        final var saveResult = bookingService.bookNextAvailableRoom(
-                request.date(),
-                new TimeSlot(
-                        request.timeSlotStart(),
-                        request.timeSlotEnd()
-                ),
-                request.numPeople()
-        );
-        return switch (saveResult) {
-            case Result.Success<Booking> success -> BookingResponse.fromDomainEntity(success.value());
-            case Result.Failure<Booking> failure -> {
-                switch (failure.error()) {
-                    case NoRoomAvailableException ignored ->
-                            throw new HttpError.NoContentException("no room availability found");
-                    default -> throw new HttpError.InternalServerErrorException();
+        try (final var span = Tracing.span("BookingsController.bookNextAvailableRoom")) {
+            final var saveResult = bookingService.bookNextAvailableRoom(
+                    request.date(),
+                    new TimeSlot(
+                            request.timeSlotStart(),
+                            request.timeSlotEnd()
+                    ),
+                    request.numPeople()
+            );
+            return switch (saveResult) {
+                case Result.Success<Booking> success -> BookingResponse.fromDomainEntity(success.value());
+                case Result.Failure<Booking> failure -> {
+                    switch (failure.error()) {
+                        case NoRoomAvailableException ignored ->
+                                throw new HttpError.NoContentException("no room availability found");
+                        case BookingConflictException ignored ->
+                                throw new HttpError.ConflictException("rooms were booked concurrently, please retry");
+                        case ArchivedDateException e -> throw new HttpError.ConflictException(e.getMessage());
+                        default -> throw new HttpError.InternalServerErrorException();
+                    }
+                }
+            };
+        }
+    }
+
+    public BatchBookingResponse bookAll(CreateBookingsBatchRequest request) {
+        try (final var span = Tracing.span("BookingsController.bookAll")) {
+            final var items = new BatchBookingItemResponse[request.bookings().size()];
+            final var validRequests = new ArrayList<BookingRequest>();
+            final var validPositions = new ArrayList<Integer>();
+            for (int i = 0; i < items.length; i++) {
+                final var item = request.bookings().get(i);
+                final var errors = item.validationErrors();
+                if (errors.isEmpty()) {
+                    validRequests.add(item.toDomainEntity());
+                    validPositions.add(i);
+                } else {
+                    items[i] = new BatchBookingItemResponse(400, null, String.join(",", errors));
                 }
             }
+            final var results = bookingService.bookAll(validRequests);
+            for (int i = 0; i < results.size(); i++) {
+                items[validPositions.get(i)] = toBatchItemResponse(results.get(i));
+            }
+            return new BatchBookingResponse(Arrays.asList(items));
+        }
+    }
+
+    public BookingSeriesResponse bookRecurring(CreateRecurringBookingRequest request) {
+        try (final var span = Tracing.span("BookingsController.bookRecurring")) {
+            return switch (bookingService.bookRecurring(request.toDomainEntity())) {
+                case Result.Success<BookingSeries> success -> BookingSeriesResponse.fromDomainEntity(success.value());
+                case Result.Failure<BookingSeries> failure -> {
+                    switch (failure.error()) {
+                        case NoRoomAvailableException ignored ->
+                                throw new HttpError.NoContentException("no room availability found");
+                        case BookingConflictException ignored ->
+                                throw new HttpError.ConflictException("rooms were booked concurrently, please retry");
+                        case ArchivedDateException e -> throw new HttpError.ConflictException(e.getMessage());
+                        default -> throw new HttpError.InternalServerErrorException();
+                    }
+                }
+            };
+        }
+    }
+
+    public RepackResponse repack(LocalDate date) {
+        try (final var span = Tracing.span("BookingsController.repack")) {
+            return switch (bookingService.repack(date)) {
+                case Result.Success<List<BookingMove>> success ->
+                        new RepackResponse(success.value().stream().map(BookingMoveResponse::fromDomainEntity).toList());
+                case Result.Failure<List<BookingMove>> failure -> {
+                    switch (failure.error()) {
+                        case RepackConflictException ignored ->
+                                throw new HttpError.ConflictException("bookings of " + date + " changed while repacking");
+                        case ArchivedDateException e -> throw new HttpError.ConflictException(e.getMessage());
+                        default -> throw new HttpError.InternalServerErrorException();
+                    }
+                }
+            };
+        }
+    }
+
+    private static BatchBookingItemResponse toBatchItemResponse(Result<Booking> result) {
+        return switch (result) {
+            case Result.Success<Booking> success ->
+                    new BatchBookingItemResponse(201, BookingResponse.fromDomainEntity(success.value()), null);
+            case Result.Failure<Booking> failure -> switch (failure.error()) {
+                case NoRoomAvailableException ignored ->
+                        new BatchBookingItemResponse(204, null, "no room availability found");
+                case BookingConflictException ignored ->
+                        new BatchBookingItemResponse(409, null, "rooms were booked concurrently, please retry");
+                case ArchivedDateException e -> new BatchBookingItemResponse(409, null, e.getMessage());
+                default -> new BatchBookingItemResponse(500, null, "something went wrong");
+            };
         };
     }
 }
@@ -0,0 +1,30 @@
+package com.kntronov.makespace.application.controllers;
+
+import com.kntronov.makespace.application.errors.HttpError;
+import com.kntronov.makespace.infrastructure.exports.BookingExporter;
+import com.kntronov.makespace.infrastructure.exports.ExportFormat;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Controller responsible for bulk export endpoints.
+ */
+public class ExportController {
+
+    private final BookingExporter bookingExporter;
+
+    /**
+     * @param bookingExporter exporter of the bookings, null if the storage does not support bulk exports
+     */
+    public ExportController(BookingExporter bookingExporter) {
+        this.bookingExporter = bookingExporter;
+    }
+
+    public void exportBookings(LocalDate from, LocalDate to, ExportFormat format, OutputStream output) {
+        if (bookingExporter == null) {
+            throw new HttpError.NotImplementedException("bulk exports need the postgres storage");
+        }
+        bookingExporter.export(from, to, format, output);
+    }
+}
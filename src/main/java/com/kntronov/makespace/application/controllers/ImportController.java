@@ -0,0 +1,30 @@
+package com.kntronov.makespace.application.controllers;
+
+import com.kntronov.makespace.application.errors.HttpError;
+import com.kntronov.makespace.application.schema.ImportResponse;
+import com.kntronov.makespace.infrastructure.imports.BookingImporter;
+import com.kntronov.makespace.infrastructure.imports.ImportFormat;
+
+import java.io.Reader;
+
+/**
+ * Controller responsible for bulk import endpoints.
+ */
+public class ImportController {
+
+    private final BookingImporter bookingImporter;
+
+    /**
+     * @param bookingImporter importer of the bookings, null if the storage does not support bulk imports
+     */
+    public ImportController(BookingImporter bookingImporter) {
+        this.bookingImporter = bookingImporter;
+    }
+
+    public ImportResponse importBookings(Reader input, ImportFormat format) {
+        if (bookingImporter == null) {
+            throw new HttpError.NotImplementedException("bulk imports need the postgres storage");
+        }
+        return ImportResponse.fromImportReport(bookingImporter.importBookings(input, format));
+    }
+}
@@ -0,0 +1,163 @@
+package com.kntronov.makespace.application.controllers;
+
+import com.kntronov.makespace.application.metrics.BookingOutcomeMetrics;
+import com.kntronov.makespace.application.metrics.HttpMetrics;
+import com.kntronov.makespace.application.metrics.LatencyHistogram;
+import com.kntronov.makespace.application.metrics.PrometheusText;
+import com.kntronov.makespace.domain.services.AllocationMetrics;
+import com.kntronov.makespace.infrastructure.db.PooledDataSource;
+import com.kntronov.makespace.infrastructure.logging.LoggingStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Controller responsible for the metrics scraped by Prometheus.
+ */
+public class MetricsController {
+
+    private static final String[] upperBounds = Arrays.stream(LatencyHistogram.upperBoundsSeconds())
+            .mapToObj(String::valueOf)
+            .toArray(String[]::new);
+    private static final double MICROS_PER_SECOND = 1_000_000.0;
+
+    private final HttpMetrics httpMetrics;
+    private final BookingOutcomeMetrics bookingOutcomeMetrics;
+    private final AllocationMetrics allocationMetrics;
+    private final PooledDataSource dataSource;
+
+    /**
+     * @param dataSource data source whose pools are reported, null if the storage has none
+     */
+    public MetricsController(
+            HttpMetrics httpMetrics,
+            BookingOutcomeMetrics bookingOutcomeMetrics,
+            AllocationMetrics allocationMetrics,
+            PooledDataSource dataSource
+    ) {
+        this.httpMetrics = httpMetrics;
+        this.bookingOutcomeMetrics = bookingOutcomeMetrics;
+        this.allocationMetrics = allocationMetrics;
+        this.dataSource = dataSource;
+    }
+
+    public String getMetrics() {
+        final var text = new PrometheusText();
+        writeHttpMetrics(text);
+        writeBookingMetrics(text);
+        writeLoggingMetrics(text);
+        if (dataSource != null) {
+            writePoolMetrics(text);
+        }
+        return text.toString();
+    }
+
+    private void writeHttpMetrics(PrometheusText text) {
+        text.family("http_server_requests_in_flight", "gauge", "Requests started and not answered yet by route.");
+        httpMetrics.inFlight().forEach((route, requests) ->
+                text.sample("http_server_requests_in_flight", requests, "route", route)
+        );
+        text.family("http_server_requests_seconds", "histogram", "Latency of the requests by method, route and status.");
+        httpMetrics.latencies().forEach((series, histogram) -> {
+            final var method = series.method();
+            final var route = series.route();
+            final var status = String.valueOf(series.status());
+            // the count is the one of the last bucket, read once, so that it never disagrees with the buckets
+            final var counts = histogram.cumulativeCounts();
+            for (int i = 0; i < upperBounds.length; i++) {
+                text.sample("http_server_requests_seconds_bucket", counts[i],
+                        "method", method, "route", route, "status", status, "le", upperBounds[i]);
+            }
+            final var count = counts[counts.length - 1];
+            text.sample("http_server_requests_seconds_bucket", count,
+                    "method", method, "route", route, "status", status, "le", "+Inf");
+            text.sample("http_server_requests_seconds_sum", histogram.sumMicros() / MICROS_PER_SECOND,
+                    "method", method, "route", route, "status", status);
+            text.sample("http_server_requests_seconds_count", count,
+                    "method", method, "route", route, "status", status);
+        });
+    }
+
+    private void writeBookingMetrics(PrometheusText text) {
+        text.family("booking_outcomes_total", "counter", "Booking requests by outcome, one per booking asked for.");
+        for (final var outcome : BookingOutcomeMetrics.Outcome.values()) {
+            text.sample(
+                    "booking_outcomes_total",
+                    bookingOutcomeMetrics.count(outcome),
+                    "outcome", outcome.name().toLowerCase(Locale.ROOT)
+            );
+        }
+        text.family("booking_allocation_conflict_retries_total", "counter", "Allocations retried after a conflict.")
+                .sample("booking_allocation_conflict_retries_total", allocationMetrics.conflictRetries());
+        text.family("booking_allocation_exhausted_retries_total", "counter", "Allocations given up after the last attempt.")
+                .sample("booking_allocation_exhausted_retries_total", allocationMetrics.exhaustedRetries());
+    }
+
+    private static void writeLoggingMetrics(PrometheusText text) {
+        final var stats = LoggingStats.current();
+        text.family("log_events_total", "counter", "Log events by outcome, written, dropped on a full queue or sampled out.")
+                .sample("log_events_total", stats.written(), "outcome", "written")
+                .sample("log_events_total", stats.dropped(), "outcome", "dropped")
+                .sample("log_events_total", stats.sampledOut(), "outcome", "sampled_out");
+    }
+
+    private void writePoolMetrics(PrometheusText text) {
+        final var pools = new ArrayList<String>();
+        final var stats = new ArrayList<PooledDataSource.PoolStats>();
+        pools.add("primary");
+        stats.add(dataSource.stats());
+        final var replicas = dataSource.replicaStats();
+        for (final var replica : replicas) {
+            pools.add(replica.url());
+            stats.add(replica.pool());
+        }
+        text.family("db_pool_connections", "gauge", "Connections of the pool by state.");
+        for (int i = 0; i < pools.size(); i++) {
+            text.sample("db_pool_connections", stats.get(i).active(), "pool", pools.get(i), "state", "active");
+            text.sample("db_pool_connections", stats.get(i).idle(), "pool", pools.get(i), "state", "idle");
+        }
+        writePoolFamily(text, pools, "db_pool_awaiting_threads", "gauge", "Threads waiting for a connection.",
+                stats.stream().map(PooledDataSource.PoolStats::awaiting).map(Integer::longValue).toList());
+        writePoolFamily(text, pools, "db_pool_max_connections", "gauge", "Maximum number of open connections.",
+                stats.stream().map(PooledDataSource.PoolStats::maximumPoolSize).map(Integer::longValue).toList());
+        writePoolFamily(text, pools, "db_pool_acquisitions_total", "counter", "Connections acquired from the pool.",
+                stats.stream().map(PooledDataSource.PoolStats::acquisitions).toList());
+        text.family("db_pool_acquire_wait_seconds_total", "counter", "Time spent waiting for a permit and a pooled connection.");
+        for (int i = 0; i < pools.size(); i++) {
+            text.sample("db_pool_acquire_wait_seconds_total", stats.get(i).acquireWaitMillis() / 1000.0, "pool", pools.get(i));
+        }
+        writePoolFamily(text, pools, "db_pool_long_held_total", "counter",
+                "Connections held longer than the leak detection threshold.",
+                stats.stream().map(PooledDataSource.PoolStats::longHeld).toList());
+        if (!replicas.isEmpty()) {
+            text.family("db_replica_lag_seconds", "gauge", "Last measured replication lag, NaN if it could not be measured.");
+            for (final var replica : replicas) {
+                text.sample(
+                        "db_replica_lag_seconds",
+                        replica.lagMillis() < 0 ? Double.NaN : replica.lagMillis() / 1000.0,
+                        "pool", replica.url()
+                );
+            }
+            text.family("db_replica_fresh", "gauge", "1 if the replica receives reads, 0 if it lags too much.");
+            for (final var replica : replicas) {
+                text.sample("db_replica_fresh", replica.fresh() ? 1 : 0, "pool", replica.url());
+            }
+        }
+    }
+
+    private static void writePoolFamily(
+            PrometheusText text,
+            List<String> pools,
+            String name,
+            String type,
+            String help,
+            List<Long> values
+    ) {
+        text.family(name, type, help);
+        for (int i = 0; i < pools.size(); i++) {
+            text.sample(name, values.get(i), "pool", pools.get(i));
+        }
+    }
+}
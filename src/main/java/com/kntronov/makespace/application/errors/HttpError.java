@@ -89,4 +89,46 @@ public sealed interface HttpError {
             return getMessage();
         }
     }
+
+    final class ConflictException extends RuntimeException implements HttpError {
+        public ConflictException(String message) {
+            super(message);
+        }
+
+        @Override
+        public int code() {
+            return 409;
+        }
+
+        @Override
+        public String errorName() {
+            return "Conflict";
+        }
+
+        @Override
+        public String message() {
+            return getMessage();
+        }
+    }
+
+    final class NotImplementedException extends RuntimeException implements HttpError {
+        public NotImplementedException(String message) {
+            super(message);
+        }
+
+        @Override
+        public int code() {
+            return 501;
+        }
+
+        @Override
+        public String errorName() {
+            return "NotImplemented";
+        }
+
+        @Override
+        public String message() {
+            return getMessage();
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package com.kntronov.makespace.application.metrics;
+
+import com.kntronov.makespace.domain.errors.ArchivedDateException;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
+import com.kntronov.makespace.domain.errors.NoRoomAvailableException;
+
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the outcomes of the booking requests, one per booking asked for.
+ */
+public final class BookingOutcomeMetrics {
+
+    /**
+     * Outcome of a booking request.
+     * SQL_ERROR is any failure caused by a SQLException, ERROR any other unexpected failure.
+     */
+    public enum Outcome {
+        SUCCESS,
+        NO_ROOM_AVAILABLE,
+        CONFLICT,
+        SQL_ERROR,
+        ERROR
+    }
+
+    private final Map<Outcome, LongAdder> counts = new EnumMap<>(Outcome.class);
+
+    public BookingOutcomeMetrics() {
+        for (final var outcome : Outcome.values()) {
+            counts.put(outcome, new LongAdder());
+        }
+    }
+
+    public void recordSuccess() {
+        counts.get(Outcome.SUCCESS).increment();
+    }
+
+    public void recordFailure(Throwable error) {
+        counts.get(outcomeOf(error)).increment();
+    }
+
+    public long count(Outcome outcome) {
+        return counts.get(outcome).sum();
+    }
+
+    static Outcome outcomeOf(Throwable error) {
+        return switch (error) {
+            case NoRoomAvailableException ignored -> Outcome.NO_ROOM_AVAILABLE;
+            case BookingConflictException ignored -> Outcome.CONFLICT;
+            case ArchivedDateException ignored -> Outcome.CONFLICT;
+            default -> {
+                for (var cause = error; cause != null; cause = cause.getCause()) {
+                    if (cause instanceof SQLException) {
+                        yield Outcome.SQL_ERROR;
+                    }
+                }
+                yield Outcome.ERROR;
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.kntronov.makespace.application.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of the http requests by method, route and status code, and the number of requests in flight by route.
+ * Series are created on the first request of their route and status, later requests only update striped counters.
+ */
+public final class HttpMetrics {
+
+    private final Map<Series, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Latency series of the requests of a route answered with a status.
+     *
+     * @param method http method
+     * @param route  path template of the matched endpoint, e.g. {@code /api/bookings/{id}}
+     * @param status response status code
+     */
+    public record Series(
+            String method,
+            String route,
+            int status
+    ) {
+    }
+
+    /**
+     * Record a started request.
+     *
+     * @param route path template of the matched endpoint, the route of its completion
+     */
+    public void recordStart(String route) {
+        inFlightOf(route).increment();
+    }
+
+    /**
+     * Record a completed request.
+     *
+     * @param series       method, route and status of the request
+     * @param latencyNanos time from the start of the request to its response
+     */
+    public void recordCompletion(Series series, long latencyNanos) {
+        inFlightOf(series.route()).decrement();
+        var histogram = latencies.get(series);
+        if (histogram == null) {
+            histogram = latencies.computeIfAbsent(series, ignored -> new LatencyHistogram());
+        }
+        histogram.record(latencyNanos);
+    }
+
+    /**
+     * Returns the number of requests started and not completed yet by route, routes without a request in flight
+     * being reported with zero once they had one.
+     *
+     * @return requests in flight by route
+     */
+    public Map<String, Long> inFlight() {
+        final var requests = new TreeMap<String, Long>();
+        inFlight.forEach((route, counter) -> requests.put(route, counter.sum()));
+        return requests;
+    }
+
+    public Map<Series, LatencyHistogram> latencies() {
+        return latencies;
+    }
+
+    private LongAdder inFlightOf(String route) {
+        final var counter = inFlight.get(route);
+        return counter != null ? counter : inFlight.computeIfAbsent(route, ignored -> new LongAdder());
+    }
+}
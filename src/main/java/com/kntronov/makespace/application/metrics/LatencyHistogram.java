@@ -0,0 +1,89 @@
+package com.kntronov.makespace.application.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies with the fixed buckets of a Prometheus histogram, recorded concurrently without locks.
+ * <p>
+ * Counts are never reset: they are exported as cumulative counters, and quantiles over any window are computed by
+ * Prometheus from their increase, e.g. {@code histogram_quantile(0.99, rate(..._bucket[5m]))}, so that a quantile
+ * follows the current latencies instead of every latency since the start of the service. The bucket boundaries go
+ * from 250 microseconds to 10 seconds, a quantile is interpolated within its bucket.
+ * Each bucket is a LongAdder, so that concurrent recordings update separate cells instead of contending on one
+ * counter. Reading while recording gives an approximate, never torn, view.
+ */
+public final class LatencyHistogram {
+
+    private static final double[] upperBoundsSeconds = {
+            0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final long[] upperBoundsNanos = Arrays.stream(upperBoundsSeconds)
+            .mapToLong(seconds -> Math.round(seconds * TimeUnit.SECONDS.toNanos(1)))
+            .toArray();
+
+    /**
+     * Number of buckets, the last one counting the latencies above the highest upper bound.
+     */
+    static final int BUCKETS = upperBoundsSeconds.length + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sumMicros = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the inclusive upper bounds of the buckets but the last, unbounded, one.
+     *
+     * @return upper bounds in seconds, in increasing order
+     */
+    public static double[] upperBoundsSeconds() {
+        return upperBoundsSeconds.clone();
+    }
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+        final var latency = Math.max(0L, nanos);
+        buckets[bucketOf(latency)].increment();
+        sumMicros.add(TimeUnit.NANOSECONDS.toMicros(latency));
+    }
+
+    /**
+     * Returns the number of recorded latencies at most each upper bound, the last count being the number of
+     * recorded latencies.
+     *
+     * @return cumulative counts, one per bucket
+     */
+    public long[] cumulativeCounts() {
+        final var counts = new long[BUCKETS];
+        var cumulative = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += buckets[i].sum();
+            counts[i] = cumulative;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the sum of the recorded latencies.
+     *
+     * @return sum in microseconds
+     */
+    public long sumMicros() {
+        return sumMicros.sum();
+    }
+
+    static int bucketOf(long nanos) {
+        final var index = Arrays.binarySearch(upperBoundsNanos, nanos);
+        return index >= 0 ? index : -index - 1;
+    }
+}
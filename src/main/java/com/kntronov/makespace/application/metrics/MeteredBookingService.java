@@ -0,0 +1,107 @@
+package com.kntronov.makespace.application.metrics;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.BookingPage;
+import com.kntronov.makespace.domain.entities.BookingRequest;
+import com.kntronov.makespace.domain.entities.BookingSeries;
+import com.kntronov.makespace.domain.entities.RecurringBookingRequest;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.services.BookingService;
+import com.kntronov.makespace.util.Nothing;
+import com.kntronov.makespace.util.Result;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Decorator of a BookingService counting the outcomes of the booking requests in BookingOutcomeMetrics,
+ * whether the failures are returned or thrown. A recurring booking counts as one request.
+ */
+public class MeteredBookingService implements BookingService {
+
+    private final BookingService delegate;
+    private final BookingOutcomeMetrics metrics;
+
+    public MeteredBookingService(BookingService delegate, BookingOutcomeMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Result<Booking> bookNextAvailableRoom(LocalDate date, TimeSlot timeSlot, int numPeople) {
+        return record(() -> delegate.bookNextAvailableRoom(date, timeSlot, numPeople));
+    }
+
+    @Override
+    public List<Result<Booking>> bookAll(List<BookingRequest> requests) {
+        final List<Result<Booking>> results;
+        try {
+            results = delegate.bookAll(requests);
+        } catch (RuntimeException e) {
+            requests.forEach(ignored -> metrics.recordFailure(e));
+            throw e;
+        }
+        results.forEach(this::record);
+        return results;
+    }
+
+    @Override
+    public Result<BookingSeries> bookRecurring(RecurringBookingRequest request) {
+        return record(() -> delegate.bookRecurring(request));
+    }
+
+    @Override
+    public Result<List<BookingMove>> repack(LocalDate date) {
+        return delegate.repack(date);
+    }
+
+    @Override
+    public List<Room> getAvailableRooms(LocalDate date, TimeSlot timeSlot) {
+        return delegate.getAvailableRooms(date, timeSlot);
+    }
+
+    @Override
+    public List<Booking> getAllBookingsByDate(LocalDate date) {
+        return delegate.getAllBookingsByDate(date);
+    }
+
+    @Override
+    public BookingPage getBookingsPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+        return delegate.getBookingsPageByDate(date, after, limit);
+    }
+
+    @Override
+    public Result<Nothing> deleteBooking(UUID id) {
+        return delegate.deleteBooking(id);
+    }
+
+    @Override
+    public Result<Booking> getBooking(UUID id) {
+        return delegate.getBooking(id);
+    }
+
+    private <T> Result<T> record(Supplier<Result<T>> booking) {
+        final Result<T> result;
+        try {
+            result = booking.get();
+        } catch (RuntimeException e) {
+            metrics.recordFailure(e);
+            throw e;
+        }
+        return record(result);
+    }
+
+    private <T> Result<T> record(Result<T> result) {
+        switch (result) {
+            case Result.Success<T> ignored -> metrics.recordSuccess();
+            case Result.Failure<T> failure -> metrics.recordFailure(failure.error());
+        }
+        return result;
+    }
+}
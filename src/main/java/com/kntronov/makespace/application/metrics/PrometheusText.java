@@ -0,0 +1,91 @@
+package com.kntronov.makespace.application.metrics;
+
+/**
+ * Writer of metrics in the Prometheus text exposition format.
+ * Each family is declared once with its type and help, followed by its samples.
+ */
+public final class PrometheusText {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder out = new StringBuilder(4096);
+
+    /**
+     * Declare a metric family.
+     *
+     * @param name family name
+     * @param type one of counter, gauge, summary, histogram or untyped
+     * @param help description of the family
+     * @return this writer
+     */
+    public PrometheusText family(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * Write a sample.
+     *
+     * @param name   sample name, the family name or one of its suffixed names
+     * @param value  sample value
+     * @param labels label names and values, alternating
+     * @return this writer
+     */
+    public PrometheusText sample(String name, long value, String... labels) {
+        appendName(name, labels);
+        out.append(value).append('\n');
+        return this;
+    }
+
+    /**
+     * Write a sample.
+     *
+     * @param name   sample name, the family name or one of its suffixed names
+     * @param value  sample value
+     * @param labels label names and values, alternating
+     * @return this writer
+     */
+    public PrometheusText sample(String name, double value, String... labels) {
+        appendName(name, labels);
+        out.append(value).append('\n');
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void appendName(String name, String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("labels must be name and value pairs");
+        }
+        out.append(name);
+        if (labels.length > 0) {
+            out.append('{');
+            for (int i = 0; i < labels.length; i += 2) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(labels[i]).append("=\"");
+                appendEscaped(labels[i + 1]);
+                out.append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ');
+    }
+
+    private void appendEscaped(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final var c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+    }
+}
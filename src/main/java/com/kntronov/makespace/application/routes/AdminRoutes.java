@@ -0,0 +1,35 @@
+package com.kntronov.makespace.application.routes;
+
+import com.kntronov.makespace.application.AppContext;
+
+import static io.javalin.apibuilder.ApiBuilder.get;
+import static io.javalin.apibuilder.ApiBuilder.path;
+
+/**
+ * DSL definition for /admin routes.
+ */
+public class AdminRoutes {
+    private AdminRoutes() {
+    }
+
+    public static void configure(AppContext context) {
+        path("admin", () -> {
+            get("cache", ctx -> {
+                final var response = context.adminController().getSystemStateCacheStats();
+                ctx.status(200).json(response);
+            });
+            get("allocation", ctx -> {
+                final var response = context.adminController().getAllocationStats();
+                ctx.status(200).json(response);
+            });
+            get("pool", ctx -> {
+                final var response = context.adminController().getConnectionPoolStats();
+                ctx.status(200).json(response);
+            });
+            get("traces", ctx -> {
+                final var response = context.adminController().getTraces();
+                ctx.status(200).json(response);
+            });
+        });
+    }
+}
@@ -1,9 +1,21 @@
 package com.kntronov.makespace.application.routes;
 
 import com.kntronov.makespace.application.AppContext;
+import com.kntronov.makespace.application.errors.HttpError;
 import com.kntronov.makespace.application.schema.CreateBookingRequest;
+import com.kntronov.makespace.application.schema.CreateBookingsBatchRequest;
+import com.kntronov.makespace.application.schema.CreateRecurringBookingRequest;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.infrastructure.exports.ExportFormat;
+import com.kntronov.makespace.infrastructure.imports.ImportFormat;
+import io.javalin.http.Context;
 
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static io.javalin.apibuilder.ApiBuilder.*;
@@ -12,6 +24,9 @@ import static io.javalin.apibuilder.ApiBuilder.*;
  * DSL definition for /bookings routes.
  */
 public class BookingRoutes {
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
     private BookingRoutes() {
 
     }
@@ -23,11 +38,56 @@ public class BookingRoutes {
                 final var response = context.bookingsController().bookNextAvailableRoom(request);
                 ctx.status(201).json(response);
             });
-            get(ctx -> {
+            post("create-best-matching/batch", ctx -> {
+                final var request = CreateBookingsBatchRequest.validated(ctx).getOrThrow(RouteCommons::createBadRequestException);
+                final var response = context.bookingsController().bookAll(request);
+                ctx.status(200).json(response);
+            });
+            post("create-recurring", ctx -> {
+                final var request = CreateRecurringBookingRequest.validated(ctx).getOrThrow(RouteCommons::createBadRequestException);
+                final var response = context.bookingsController().bookRecurring(request);
+                ctx.status(201).json(response);
+            });
+            post("repack", ctx -> {
                 final var date = ctx.queryParamAsClass("date", LocalDate.class).getOrThrow(RouteCommons::createBadRequestException);
-                final var response = context.bookingsController().getAllBookings(date);
+                final var response = context.bookingsController().repack(date);
                 ctx.status(200).json(response);
             });
+            get(ctx -> {
+                final var date = ctx.queryParamAsClass("date", LocalDate.class).getOrThrow(RouteCommons::createBadRequestException);
+                final var cursor = ctx.queryParamAsClass("cursor", BookingCursor.class).allowNullable().getOrThrow(RouteCommons::createBadRequestException);
+                final var limit = ctx.queryParamAsClass("limit", Integer.class)
+                        .allowNullable()
+                        .check(value -> value == null || (value > 0 && value <= MAX_PAGE_SIZE), "limit must be between 1 and " + MAX_PAGE_SIZE)
+                        .getOrThrow(RouteCommons::createBadRequestException);
+                if (limit == null && cursor == null) {
+                    final var response = context.bookingsController().getAllBookings(date);
+                    ctx.status(200).json(response);
+                } else {
+                    final var response = context.bookingsController().getBookingsPage(
+                            date,
+                            Optional.ofNullable(cursor),
+                            limit == null ? DEFAULT_PAGE_SIZE : limit
+                    );
+                    ctx.status(200).json(response);
+                }
+            });
+            post("import", ctx -> {
+                final var format = importFormat(ctx);
+                try (final var input = new InputStreamReader(ctx.bodyInputStream(), StandardCharsets.UTF_8)) {
+                    final var response = context.importController().importBookings(input, format);
+                    ctx.status(200).json(response);
+                }
+            });
+            get("export", ctx -> {
+                final var from = ctx.queryParamAsClass("from", LocalDate.class).getOrThrow(RouteCommons::createBadRequestException);
+                final var to = ctx.queryParamAsClass("to", LocalDate.class)
+                        .check(date -> !date.isBefore(from), "to must not be before from")
+                        .getOrThrow(RouteCommons::createBadRequestException);
+                final var format = exportFormat(ctx);
+                ctx.status(200).contentType(format.contentType());
+                context.exportController().exportBookings(from, to, format, ctx.outputStream());
+            });
             path("{id}", () -> {
                 get(ctx -> {
                     final var id = ctx.pathParamAsClass("id", UUID.class).getOrThrow(RouteCommons::createBadRequestException);
@@ -42,4 +102,29 @@ public class BookingRoutes {
             });
         });
     }
+
+    private static ImportFormat importFormat(Context ctx) {
+        final var contentType = ctx.contentType() == null ? "" : ctx.contentType();
+        if (contentType.startsWith("text/csv")) {
+            return ImportFormat.CSV;
+        } else if (contentType.startsWith("application/x-ndjson")) {
+            return ImportFormat.NDJSON;
+        }
+        throw new HttpError.BadRequestException(List.of(
+                "[Content-Type] error: must be text/csv or application/x-ndjson"
+        ));
+    }
+
+    private static ExportFormat exportFormat(Context ctx) {
+        final var format = ctx.queryParam("format");
+        if (format == null) {
+            return ExportFormat.NDJSON;
+        }
+        return Arrays.stream(ExportFormat.values())
+                .filter(value -> value.name().equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new HttpError.BadRequestException(List.of(
+                        "[format] error: must be one of " + Arrays.toString(ExportFormat.values())
+                )));
+    }
 }
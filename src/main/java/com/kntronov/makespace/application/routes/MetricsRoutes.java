@@ -0,0 +1,20 @@
+package com.kntronov.makespace.application.routes;
+
+import com.kntronov.makespace.application.AppContext;
+import com.kntronov.makespace.application.metrics.PrometheusText;
+
+import static io.javalin.apibuilder.ApiBuilder.get;
+
+/**
+ * DSL definition for the /metrics route scraped by Prometheus.
+ */
+public class MetricsRoutes {
+    private MetricsRoutes() {
+    }
+
+    public static void configure(AppContext context) {
+        get("metrics", ctx -> ctx.status(200)
+                .contentType(PrometheusText.CONTENT_TYPE)
+                .result(context.metricsController().getMetrics()));
+    }
+}
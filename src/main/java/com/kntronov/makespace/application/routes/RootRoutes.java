@@ -16,6 +16,8 @@ public class RootRoutes {
         path("api", () -> {
             BookingRoutes.configure(context);
             RoomRoutes.configure(context);
+            AdminRoutes.configure(context);
         });
+        MetricsRoutes.configure(context);
     }
 }
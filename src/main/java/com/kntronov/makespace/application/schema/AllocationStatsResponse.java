@@ -0,0 +1,22 @@
+package com.kntronov.makespace.application.schema;
+
+import com.kntronov.makespace.domain.services.AllocationMetrics;
+
+/**
+ * Retry counters of the room allocation.
+ *
+ * @param conflictRetries  number of allocations retried because the allocated room was booked concurrently
+ * @param exhaustedRetries number of allocations that gave up after the maximum number of attempts
+ */
+public record AllocationStatsResponse(
+        long conflictRetries,
+        long exhaustedRetries
+) {
+
+    public static AllocationStatsResponse fromAllocationMetrics(AllocationMetrics metrics) {
+        return new AllocationStatsResponse(
+                metrics.conflictRetries(),
+                metrics.exhaustedRetries()
+        );
+    }
+}
@@ -0,0 +1,18 @@
+package com.kntronov.makespace.application.schema;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of a single booking request of a batch.
+ *
+ * @param statusCode status code the request would have had as a single booking request
+ * @param booking    created booking, present only if the booking was created
+ * @param error      error message, present only if the booking was not created
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchBookingItemResponse(
+        int statusCode,
+        BookingResponse booking,
+        String error
+) {
+}
@@ -0,0 +1,41 @@
+package com.kntronov.makespace.application.schema;
+
+import com.kntronov.makespace.domain.entities.BookingCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Converts booking cursors from and to the opaque strings handed to clients.
+ */
+public class BookingCursors {
+
+    private static final String SEPARATOR = "|";
+
+    private BookingCursors() {
+    }
+
+    public static String encode(BookingCursor cursor) {
+        // the room name goes last since it is the only component that can contain the separator
+        final var value = cursor.start() + SEPARATOR + cursor.id() + SEPARATOR + cursor.roomName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a cursor handed to a client.
+     *
+     * @param value opaque cursor
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the value is not a cursor
+     */
+    public static BookingCursor decode(String value) {
+        final var decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+        final var parts = decoded.split("\\|", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("malformed cursor " + value);
+        }
+        return new BookingCursor(LocalTime.parse(parts[0]), parts[2], UUID.fromString(parts[1]));
+    }
+}
@@ -0,0 +1,22 @@
+package com.kntronov.makespace.application.schema;
+
+import com.kntronov.makespace.domain.entities.BookingMove;
+
+/**
+ * BookingMoveResponse represents a booking that was reassigned to another room.
+ *
+ * @param booking      booking after the move
+ * @param previousRoom room the booking was assigned to before the move
+ */
+public record BookingMoveResponse(
+        BookingResponse booking,
+        RoomResponse previousRoom
+) {
+
+    public static BookingMoveResponse fromDomainEntity(BookingMove move) {
+        return new BookingMoveResponse(
+                BookingResponse.fromDomainEntity(move.moved()),
+                RoomResponse.fromDomainEntity(move.booking().room())
+        );
+    }
+}
@@ -0,0 +1,63 @@
+package com.kntronov.makespace.application.schema;
+
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import io.javalin.validation.BodyValidator;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Validation rules of the booking requests, the time slot and number of people rules being shared by every request
+ * booking a time slot so that single and recurring bookings accept the same slots.
+ */
+final class BookingRequestRules {
+
+    private BookingRequestRules() {
+
+    }
+
+    /**
+     * Returns the rules of a time slot and a number of people, read from a request by the given accessors.
+     *
+     * @param timeSlotStart accessor of the time slot start
+     * @param timeSlotEnd   accessor of the time slot end
+     * @param numPeople     accessor of the number of people
+     * @param <T>           request type
+     * @return rules in the order their messages are reported
+     */
+    static <T> List<Rule<T>> timeSlotAndPeople(
+            Function<T, LocalTime> timeSlotStart,
+            Function<T, LocalTime> timeSlotEnd,
+            ToIntFunction<T> numPeople
+    ) {
+        return List.of(
+                new Rule<>(req -> timeSlotStart.apply(req) != null, "timeSlotStart is mandatory"),
+                new Rule<>(req -> timeSlotEnd.apply(req) != null, "timeSlotEnd is mandatory"),
+                new Rule<>(req -> numPeople.applyAsInt(req) > 0, "numPeople must be > 0"),
+                new Rule<>(req -> timeSlotStart.apply(req) == null || timeSlotEnd.apply(req) == null || timeSlotEnd.apply(req).isAfter(timeSlotStart.apply(req)), "timeSlotEnd must be after timeSlotStart"),
+                new Rule<>(req -> timeSlotStart.apply(req) == null || TimeSlot.getValidMinutes().contains(timeSlotStart.apply(req).getMinute()), "timeSlotStart minutes must be in " + TimeSlot.getValidMinutes()),
+                new Rule<>(req -> timeSlotEnd.apply(req) == null || TimeSlot.getValidMinutes().contains(timeSlotEnd.apply(req).getMinute()), "timeSlotEnd minutes must be in " + TimeSlot.getValidMinutes())
+        );
+    }
+
+    static <T> BodyValidator<T> check(BodyValidator<T> validator, List<Rule<T>> rules) {
+        var checked = validator;
+        for (final var rule : rules) {
+            checked = checked.check(rule.check()::test, rule.message());
+        }
+        return checked;
+    }
+
+    static <T> List<String> validationErrors(T request, List<Rule<T>> rules) {
+        return rules.stream()
+                .filter(rule -> !rule.check().test(request))
+                .map(Rule::message)
+                .toList();
+    }
+
+    record Rule<T>(Predicate<T> check, String message) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.kntronov.makespace.application.schema;
+
+import com.kntronov.makespace.domain.entities.BookingSeries;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * BookingSeriesResponse represents the booked occurrences of a recurring booking.
+ *
+ * @param room             room kept across the occurrences whenever possible
+ * @param bookings         booked occurrences
+ * @param fallbackDates    dates booked in a different room
+ * @param unavailableDates dates that could not be booked
+ */
+public record BookingSeriesResponse(
+        RoomResponse room,
+        List<BookingResponse> bookings,
+        List<LocalDate> fallbackDates,
+        List<LocalDate> unavailableDates
+) {
+
+    public static BookingSeriesResponse fromDomainEntity(BookingSeries series) {
+        return new BookingSeriesResponse(
+                RoomResponse.fromDomainEntity(series.room()),
+                series.bookings().stream().map(BookingResponse::fromDomainEntity).toList(),
+                series.fallbackDates(),
+                series.unavailableDates()
+        );
+    }
+}
@@ -1,6 +1,21 @@
 package com.kntronov.makespace.application.schema;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
-public record BookingsListResponse(List<BookingResponse> bookings) {
+/**
+ * List of bookings, possibly a page of a longer list.
+ *
+ * @param bookings bookings
+ * @param next     opaque cursor to pass to get the next page, absent if there are no more bookings
+ */
+public record BookingsListResponse(
+        List<BookingResponse> bookings,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String next
+) {
+
+    public BookingsListResponse(List<BookingResponse> bookings) {
+        this(bookings, null);
+    }
 }
@@ -0,0 +1,31 @@
+package com.kntronov.makespace.application.schema;
+
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+
+/**
+ * Usage counters of a cache.
+ *
+ * @param hits        number of lookups served from the cache
+ * @param misses      number of lookups that loaded from the database
+ * @param evictions   number of entries evicted to respect the maximum size
+ * @param size        current number of entries
+ * @param maximumSize maximum number of entries
+ */
+public record CacheStatsResponse(
+        long hits,
+        long misses,
+        long evictions,
+        int size,
+        int maximumSize
+) {
+
+    public static CacheStatsResponse fromCacheStats(SystemStateCache.CacheStats stats) {
+        return new CacheStatsResponse(
+                stats.hits(),
+                stats.misses(),
+                stats.evictions(),
+                stats.size(),
+                stats.maximumSize()
+        );
+    }
+}
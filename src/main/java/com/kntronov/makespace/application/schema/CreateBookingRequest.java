@@ -1,11 +1,14 @@
 package com.kntronov.makespace.application.schema;
 
+import com.kntronov.makespace.domain.entities.BookingRequest;
 import com.kntronov.makespace.domain.entities.TimeSlot;
 import io.javalin.http.Context;
 import io.javalin.validation.BodyValidator;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 public record CreateBookingRequest(
         LocalDate date,
@@ -13,14 +16,33 @@ public record CreateBookingRequest(
         LocalTime timeSlotEnd,
         int numPeople
 ) {
+    private static final List<BookingRequestRules.Rule<CreateBookingRequest>> rules = Stream.concat(
+            Stream.of(new BookingRequestRules.Rule<CreateBookingRequest>(req -> req.date() != null, "date is mandatory")),
+            BookingRequestRules.timeSlotAndPeople(
+                    CreateBookingRequest::timeSlotStart,
+                    CreateBookingRequest::timeSlotEnd,
+                    CreateBookingRequest::numPeople
+            ).stream()
+    ).toList();
+
     public static BodyValidator<CreateBookingRequest> validated(Context ctx) {
-        return ctx.bodyValidator(CreateBookingRequest.class)
-                .check(req -> req.date() != null, "date is mandatory")
-                .check(req -> req.timeSlotStart() != null, "timeSlotStart is mandatory")
-                .check(req -> req.timeSlotEnd() != null, "timeSlotEnd is mandatory")
-                .check(req -> req.numPeople() > 0, "numPeople must be > 0")
-                .check(req -> req.timeSlotStart() == null || req.timeSlotEnd() == null || req.timeSlotEnd().isAfter(req.timeSlotStart()), "timeSlotEnd must be after timeSlotStart")
-                .check(req -> req.timeSlotStart() == null || TimeSlot.getValidMinutes().contains(req.timeSlotStart().getMinute()), "timeSlotStart minutes must be in " + TimeSlot.getValidMinutes())
-                .check(req -> req.timeSlotEnd() == null || TimeSlot.getValidMinutes().contains(req.timeSlotEnd().getMinute()), "timeSlotEnd minutes must be in " + TimeSlot.getValidMinutes());
+        return BookingRequestRules.check(ctx.bodyValidator(CreateBookingRequest.class), rules);
+    }
+
+    /**
+     * Returns the messages of the validation rules this request does not satisfy.
+     *
+     * @return validation error messages, empty if the request is valid
+     */
+    public List<String> validationErrors() {
+        return BookingRequestRules.validationErrors(this, rules);
+    }
+
+    public BookingRequest toDomainEntity() {
+        return new BookingRequest(
+                this.date,
+                new TimeSlot(this.timeSlotStart, this.timeSlotEnd),
+                this.numPeople
+        );
     }
 }
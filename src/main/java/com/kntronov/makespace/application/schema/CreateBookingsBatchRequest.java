@@ -0,0 +1,24 @@
+package com.kntronov.makespace.application.schema;
+
+import io.javalin.http.Context;
+import io.javalin.validation.BodyValidator;
+
+import java.util.List;
+
+/**
+ * Batch of booking requests, each item is validated and allocated independently.
+ *
+ * @param bookings booking requests
+ */
+public record CreateBookingsBatchRequest(
+        List<CreateBookingRequest> bookings
+) {
+    public static final int MAX_BATCH_SIZE = 500;
+
+    public static BodyValidator<CreateBookingsBatchRequest> validated(Context ctx) {
+        return ctx.bodyValidator(CreateBookingsBatchRequest.class)
+                .check(req -> req.bookings() != null && !req.bookings().isEmpty(), "bookings must not be empty")
+                .check(req -> req.bookings() == null || req.bookings().size() <= MAX_BATCH_SIZE, "bookings must be at most " + MAX_BATCH_SIZE)
+                .check(req -> req.bookings() == null || req.bookings().stream().allMatch(item -> item != null), "bookings must not contain null items");
+    }
+}
@@ -0,0 +1,63 @@
+package com.kntronov.makespace.application.schema;
+
+import com.kntronov.makespace.domain.entities.Recurrence;
+import com.kntronov.makespace.domain.entities.RecurringBookingRequest;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import io.javalin.http.Context;
+import io.javalin.validation.BodyValidator;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Request to book the same time slot on every occurrence of a daily or weekly series.
+ *
+ * @param firstDate     date of the first occurrence
+ * @param lastDate      last date an occurrence can fall on
+ * @param recurrence    DAILY or WEEKLY
+ * @param timeSlotStart time slot start
+ * @param timeSlotEnd   time slot end
+ * @param numPeople     number of people
+ */
+public record CreateRecurringBookingRequest(
+        LocalDate firstDate,
+        LocalDate lastDate,
+        Recurrence recurrence,
+        LocalTime timeSlotStart,
+        LocalTime timeSlotEnd,
+        int numPeople
+) {
+    public static final int MAX_SERIES_DAYS = 366;
+
+    private static final List<BookingRequestRules.Rule<CreateRecurringBookingRequest>> rules = Stream.concat(
+            Stream.<BookingRequestRules.Rule<CreateRecurringBookingRequest>>of(
+                    new BookingRequestRules.Rule<>(req -> req.firstDate() != null, "firstDate is mandatory"),
+                    new BookingRequestRules.Rule<>(req -> req.lastDate() != null, "lastDate is mandatory"),
+                    new BookingRequestRules.Rule<>(req -> req.recurrence() != null, "recurrence is mandatory"),
+                    new BookingRequestRules.Rule<>(req -> req.firstDate() == null || req.lastDate() == null || !req.lastDate().isBefore(req.firstDate()), "lastDate must not be before firstDate"),
+                    new BookingRequestRules.Rule<>(req -> req.firstDate() == null || req.lastDate() == null || ChronoUnit.DAYS.between(req.firstDate(), req.lastDate()) < MAX_SERIES_DAYS, "series must span at most " + MAX_SERIES_DAYS + " days")
+            ),
+            BookingRequestRules.timeSlotAndPeople(
+                    CreateRecurringBookingRequest::timeSlotStart,
+                    CreateRecurringBookingRequest::timeSlotEnd,
+                    CreateRecurringBookingRequest::numPeople
+            ).stream()
+    ).toList();
+
+    public static BodyValidator<CreateRecurringBookingRequest> validated(Context ctx) {
+        return BookingRequestRules.check(ctx.bodyValidator(CreateRecurringBookingRequest.class), rules);
+    }
+
+    public RecurringBookingRequest toDomainEntity() {
+        return new RecurringBookingRequest(
+                this.firstDate,
+                this.lastDate,
+                this.recurrence,
+                new TimeSlot(this.timeSlotStart, this.timeSlotEnd),
+                this.numPeople
+        );
+    }
+}
@@ -0,0 +1,41 @@
+package com.kntronov.makespace.application.schema;
+
+import com.kntronov.makespace.infrastructure.imports.ImportReport;
+
+import java.util.List;
+
+/**
+ * Outcome of a booking import.
+ *
+ * @param accepted   number of imported bookings
+ * @param rejected   number of rejected rows
+ * @param rejections first rejected rows in line order
+ */
+public record ImportResponse(
+        long accepted,
+        long rejected,
+        List<RejectedRowResponse> rejections
+) {
+
+    public static ImportResponse fromImportReport(ImportReport report) {
+        return new ImportResponse(
+                report.accepted(),
+                report.rejected(),
+                report.rejections().stream()
+                        .map(rejection -> new RejectedRowResponse(rejection.line(), rejection.reason()))
+                        .toList()
+        );
+    }
+
+    /**
+     * A row of the input that was not imported.
+     *
+     * @param line   line number of the row in the input, starting from 1
+     * @param reason why the row was rejected
+     */
+    public record RejectedRowResponse(
+            long line,
+            String reason
+    ) {
+    }
+}
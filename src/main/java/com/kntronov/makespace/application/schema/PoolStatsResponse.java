@@ -0,0 +1,80 @@
+package com.kntronov.makespace.application.schema;
+
+import com.kntronov.makespace.infrastructure.db.PooledDataSource;
+
+import java.util.List;
+
+/**
+ * Usage of the database connection pool.
+ *
+ * @param active          number of connections in use
+ * @param idle            number of connections waiting in the pool
+ * @param total           number of open connections
+ * @param awaiting        number of threads waiting for a connection
+ * @param maximumPoolSize maximum number of open connections
+ * @param acquisitions         number of connections acquired
+ * @param acquireWaitMillis    total time spent waiting to acquire a connection in milliseconds
+ * @param maxAcquireWaitMillis longest time spent waiting to acquire a connection in milliseconds
+ * @param longHeld             number of connections held longer than the leak detection threshold
+ * @param maxHeldMillis        longest time a connection has been held in milliseconds, from its acquisition
+ * @param replicas             usage and lag of the read replica pools
+ */
+public record PoolStatsResponse(
+        int active,
+        int idle,
+        int total,
+        int awaiting,
+        int maximumPoolSize,
+        long acquisitions,
+        long acquireWaitMillis,
+        long maxAcquireWaitMillis,
+        long longHeld,
+        long maxHeldMillis,
+        List<ReplicaStatsResponse> replicas
+) {
+
+    public static PoolStatsResponse fromPoolStats(PooledDataSource.PoolStats stats) {
+        return fromPoolStats(stats, List.of());
+    }
+
+    public static PoolStatsResponse fromPoolStats(PooledDataSource.PoolStats stats, List<PooledDataSource.ReplicaStats> replicas) {
+        return new PoolStatsResponse(
+                stats.active(),
+                stats.idle(),
+                stats.total(),
+                stats.awaiting(),
+                stats.maximumPoolSize(),
+                stats.acquisitions(),
+                stats.acquireWaitMillis(),
+                stats.maxAcquireWaitMillis(),
+                stats.longHeld(),
+                stats.maxHeldMillis(),
+                replicas.stream().map(ReplicaStatsResponse::fromReplicaStats).toList()
+        );
+    }
+
+    /**
+     * Usage and lag of a read replica pool.
+     *
+     * @param url       replica connection url
+     * @param pool      usage of the replica pool
+     * @param lagMillis last measured replication lag in milliseconds, -1 if it could not be measured
+     * @param fresh     if the replica lags less than the configured bound and receives reads
+     */
+    public record ReplicaStatsResponse(
+            String url,
+            PoolStatsResponse pool,
+            long lagMillis,
+            boolean fresh
+    ) {
+
+        public static ReplicaStatsResponse fromReplicaStats(PooledDataSource.ReplicaStats stats) {
+            return new ReplicaStatsResponse(
+                    stats.url(),
+                    PoolStatsResponse.fromPoolStats(stats.pool()),
+                    stats.lagMillis(),
+                    stats.fresh()
+            );
+        }
+    }
+}
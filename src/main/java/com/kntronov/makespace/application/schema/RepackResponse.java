@@ -0,0 +1,6 @@
+package com.kntronov.makespace.application.schema;
+
+import java.util.List;
+
+public record RepackResponse(List<BookingMoveResponse> moves) {
+}
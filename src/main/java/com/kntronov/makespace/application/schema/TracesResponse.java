@@ -0,0 +1,81 @@
+package com.kntronov.makespace.application.schema;
+
+import com.kntronov.makespace.util.tracing.Trace;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traces of recent and slow requests.
+ *
+ * @param sampleRate fraction of the finished traces kept among the recent ones
+ * @param recent     most recent traces, the most recent first
+ * @param slowest    slowest traces, the slowest first
+ */
+public record TracesResponse(
+        double sampleRate,
+        List<TraceResponse> recent,
+        List<TraceResponse> slowest
+) {
+
+    public static TracesResponse fromTraces(double sampleRate, List<Trace> recent, List<Trace> slowest) {
+        return new TracesResponse(
+                sampleRate,
+                recent.stream().map(TraceResponse::fromTrace).toList(),
+                slowest.stream().map(TraceResponse::fromTrace).toList()
+        );
+    }
+
+    /**
+     * Trace of a request.
+     *
+     * @param name           request method and path
+     * @param startedAt      time the request started, ISO-8601
+     * @param durationMicros duration of the request in microseconds
+     * @param droppedSpans   number of spans not recorded because the trace had too many
+     * @param spans          spans in order of start, the request first
+     */
+    public record TraceResponse(
+            String name,
+            String startedAt,
+            long durationMicros,
+            int droppedSpans,
+            List<SpanResponse> spans
+    ) {
+
+        public static TraceResponse fromTrace(Trace trace) {
+            return new TraceResponse(
+                    trace.name(),
+                    trace.startedAt().toString(),
+                    TimeUnit.NANOSECONDS.toMicros(trace.durationNanos()),
+                    trace.droppedSpans(),
+                    trace.spans().stream().map(SpanResponse::fromSpanRecord).toList()
+            );
+        }
+    }
+
+    /**
+     * Timed section of a request.
+     *
+     * @param name           span name
+     * @param depth          number of enclosing spans, 0 for the request
+     * @param offsetMicros   time from the start of the request to the start of the span in microseconds
+     * @param durationMicros duration of the span in microseconds
+     */
+    public record SpanResponse(
+            String name,
+            int depth,
+            long offsetMicros,
+            long durationMicros
+    ) {
+
+        public static SpanResponse fromSpanRecord(Trace.SpanRecord span) {
+            return new SpanResponse(
+                    span.name(),
+                    span.depth(),
+                    TimeUnit.NANOSECONDS.toMicros(span.offsetNanos()),
+                    TimeUnit.NANOSECONDS.toMicros(span.durationNanos())
+            );
+        }
+    }
+}
@@ -1,38 +1,214 @@
 package com.kntronov.makespace.config;
 
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
 /**
  * AppConfig holds all the application configuration values.
  *
- * @param dbConfig     database configuration
+ * @param dbConfig     database configuration, null with the embedded storage
  * @param serverConfig server configuration
+ * @param cacheConfig  cache configuration
+ * @param repackConfig     repacking configuration
+ * @param allocationConfig room allocation configuration
+ * @param partitionConfig  booking table partitioning configuration
+ * @param archiveConfig    booking archive configuration
+ * @param storageConfig    booking storage configuration
+ * @param tracingConfig    request tracing configuration
  */
 public record AppConfig(
         DBConfig dbConfig,
-        ServerConfig serverConfig
+        ServerConfig serverConfig,
+        CacheConfig cacheConfig,
+        RepackConfig repackConfig,
+        AllocationConfig allocationConfig,
+        PartitionConfig partitionConfig,
+        ArchiveConfig archiveConfig,
+        StorageConfig storageConfig,
+        TracingConfig tracingConfig
 ) {
     /**
      * DBConfig holds configuration related to the the database connection.
      *
-     * @param url      database connection  url
-     * @param username database connection user
-     * @param password database connection password
+     * @param url                    database connection  url
+     * @param username               database connection user
+     * @param password               database connection password
+     * @param maximumPoolSize        maximum number of pooled connections
+     * @param minimumIdle            minimum number of idle pooled connections
+     * @param connectionTimeout      maximum time to wait for a pooled connection
+     * @param leakDetectionThreshold time a connection can be held before being reported, not reported if zero
+     * @param isolationLevel         isolation level of the transaction of a unit of work
+     * @param replicaUrls            connection urls of the read replicas, sharing the credentials of the primary
+     * @param replicaSelection       how reads are spread among the replicas
+     * @param maxReplicaLag          replication lag above which reads fall back to the primary
      */
     public record DBConfig(
             String url,
             String username,
-            String password
+            String password,
+            int maximumPoolSize,
+            int minimumIdle,
+            Duration connectionTimeout,
+            Duration leakDetectionThreshold,
+            IsolationLevel isolationLevel,
+            List<String> replicaUrls,
+            ReplicaSelection replicaSelection,
+            Duration maxReplicaLag
     ) {
     }
 
+    /**
+     * IsolationLevel selects the isolation level of the transaction of a unit of work.
+     */
+    public enum IsolationLevel {
+        READ_COMMITTED(Connection.TRANSACTION_READ_COMMITTED),
+        REPEATABLE_READ(Connection.TRANSACTION_REPEATABLE_READ),
+        SERIALIZABLE(Connection.TRANSACTION_SERIALIZABLE);
+
+        private final int jdbcLevel;
+
+        IsolationLevel(int jdbcLevel) {
+            this.jdbcLevel = jdbcLevel;
+        }
+
+        public int jdbcLevel() {
+            return jdbcLevel;
+        }
+    }
+
+    /**
+     * ReplicaSelection selects how reads are spread among the fresh replicas.
+     * ROUND_ROBIN takes them in turn, LEAST_LOADED takes the one with the fewest connections in use.
+     */
+    public enum ReplicaSelection {
+        ROUND_ROBIN,
+        LEAST_LOADED
+    }
+
     /**
      * ServerConfig holds configuration related to the http server.
      *
-     * @param port port the http server listens on
+     * @param port           port the http server listens on
+     * @param virtualThreads if requests are handled on virtual threads instead of a bounded pool of platform threads
+     * @param maxThreads     maximum number of platform threads handling requests, ignored with virtual threads
      */
     public record ServerConfig(
-            int port
+            int port,
+            boolean virtualThreads,
+            int maxThreads
+    ) {
+    }
+
+    /**
+     * CacheConfig holds configuration related to in-memory caches.
+     *
+     * @param systemStateCacheSize maximum number of dates whose system state is cached
+     */
+    public record CacheConfig(
+            int systemStateCacheSize
+    ) {
+    }
+
+    /**
+     * RepackConfig holds configuration related to the scheduled repacking of bookings.
+     *
+     * @param interval  delay between two repacking runs, repacking is not scheduled if not positive
+     * @param daysAhead number of days after today to repack on each run
+     */
+    public record RepackConfig(
+            Duration interval,
+            int daysAhead
+    ) {
+    }
+
+    /**
+     * AllocationConfig holds configuration related to the allocation of rooms to new bookings.
+     *
+     * @param mode where the best fitting room of a single booking is selected
+     */
+    public record AllocationConfig(
+            AllocationMode mode
     ) {
     }
-}
 
+    /**
+     * PartitionConfig holds configuration related to the monthly partitions of the booking table.
+     *
+     * @param monthsAhead     number of months after the current one whose partitions are created in advance
+     * @param retentionMonths number of months before the current one whose partitions are kept, kept forever if not positive
+     */
+    public record PartitionConfig(
+            int monthsAhead,
+            int retentionMonths
+    ) {
+    }
+
+    /**
+     * ArchiveConfig holds configuration related to the archive of the bookings of past months.
+     *
+     * @param directory     directory of the archive segment files
+     * @param horizonMonths number of months before the current one kept in the database, nothing is archived if not positive
+     */
+    public record ArchiveConfig(
+            Path directory,
+            int horizonMonths
+    ) {
+    }
 
+    /**
+     * StorageConfig holds configuration related to where the bookings are stored.
+     *
+     * @param mode                storage of the bookings
+     * @param directory           directory of the snapshot and journal files of the embedded storage
+     * @param fsync               if embedded writes are synced to disk before being acknowledged
+     * @param groupCommitInterval time embedded writes are gathered before being synced together, synced one by one if zero
+     * @param snapshotInterval    delay between two snapshots of the embedded storage, no snapshot is scheduled if not positive
+     */
+    public record StorageConfig(
+            StorageMode mode,
+            Path directory,
+            boolean fsync,
+            Duration groupCommitInterval,
+            Duration snapshotInterval
+    ) {
+    }
+
+    /**
+     * TracingConfig holds configuration related to the tracing of requests.
+     *
+     * @param enabled       if every request is traced
+     * @param sampleRate    fraction of the finished traces kept among the most recent ones
+     * @param recentTraces  number of the most recent traces kept
+     * @param slowestTraces number of the slowest traces kept
+     */
+    public record TracingConfig(
+            boolean enabled,
+            double sampleRate,
+            int recentTraces,
+            int slowestTraces
+    ) {
+    }
+
+    /**
+     * StorageMode selects where the bookings are stored.
+     * POSTGRES stores them in the database, EMBEDDED keeps them in memory and journals writes to local files,
+     * in which case the rooms and buffer times are the ones seeded by the database migrations
+     * and bulk imports, exports and partition maintenance are unavailable.
+     */
+    public enum StorageMode {
+        POSTGRES,
+        EMBEDDED
+    }
+
+    /**
+     * AllocationMode selects where the best fitting room of a single booking is selected.
+     * IN_MEMORY selects it from the cached system state of the date,
+     * DATABASE selects it and inserts the booking with a single SQL statement.
+     */
+    public enum AllocationMode {
+        IN_MEMORY,
+        DATABASE
+    }
+}
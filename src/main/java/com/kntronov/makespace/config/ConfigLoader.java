@@ -3,6 +3,10 @@ package com.kntronov.makespace.config;
 import com.kntronov.makespace.config.errors.MissingConfigKeyException;
 import com.kntronov.makespace.config.errors.UnableToParseConfigValueTypeException;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Function;
 
 /**
@@ -13,21 +17,103 @@ public class ConfigLoader {
     }
 
     public static AppConfig loadConfigFromEnvVariables() {
-        final var dbConfig = new AppConfig.DBConfig(
+        final var storageConfig = new AppConfig.StorageConfig(
+                getOrDefault("STORAGE_MODE", AppConfig.StorageMode::valueOf, AppConfig.StorageMode.POSTGRES),
+                getOrDefault("EMBEDDED_STORAGE_DIRECTORY", Path::of, Path.of("data")),
+                getOrDefault("EMBEDDED_STORAGE_FSYNC", Boolean::parseBoolean, true),
+                Duration.ofMillis(getOrDefault("EMBEDDED_STORAGE_GROUP_COMMIT_MS", Long::parseLong, 2L)),
+                Duration.ofMinutes(getOrDefault("EMBEDDED_STORAGE_SNAPSHOT_INTERVAL_MINUTES", Long::parseLong, 10L))
+        );
+        final var dbConfig = storageConfig.mode() == AppConfig.StorageMode.POSTGRES ? loadDBConfigFromEnvVariables() : null;
+        final var serverConfig = new AppConfig.ServerConfig(
+                getOrFail("SERVER_PORT", Integer::parseInt),
+                getOrDefault("SERVER_VIRTUAL_THREADS", Boolean::parseBoolean, false),
+                getOrDefault("SERVER_MAX_THREADS", Integer::parseInt, 250)
+        );
+        final var cacheConfig = new AppConfig.CacheConfig(
+                getOrDefault("SYSTEM_STATE_CACHE_SIZE", Integer::parseInt, 64)
+        );
+        final var repackConfig = new AppConfig.RepackConfig(
+                Duration.ofMinutes(getOrDefault("REPACK_INTERVAL_MINUTES", Long::parseLong, 0L)),
+                getOrDefault("REPACK_DAYS_AHEAD", Integer::parseInt, 7)
+        );
+        final var allocationConfig = new AppConfig.AllocationConfig(
+                getOrDefault("ALLOCATION_MODE", AppConfig.AllocationMode::valueOf, AppConfig.AllocationMode.IN_MEMORY)
+        );
+        final var partitionConfig = new AppConfig.PartitionConfig(
+                getOrDefault("BOOKING_PARTITION_MONTHS_AHEAD", Integer::parseInt, 12),
+                getOrDefault("BOOKING_PARTITION_RETENTION_MONTHS", Integer::parseInt, 0)
+        );
+        final var archiveConfig = loadArchiveConfigFromEnvVariables();
+        final var tracingConfig = new AppConfig.TracingConfig(
+                getOrDefault("TRACING_ENABLED", Boolean::parseBoolean, false),
+                getOrDefault("TRACING_SAMPLE_RATE", Double::parseDouble, 0.1),
+                getOrDefault("TRACING_RECENT_TRACES", Integer::parseInt, 100),
+                getOrDefault("TRACING_SLOWEST_TRACES", Integer::parseInt, 20)
+        );
+        return new AppConfig(
+                dbConfig,
+                serverConfig,
+                cacheConfig,
+                repackConfig,
+                allocationConfig,
+                partitionConfig,
+                archiveConfig,
+                storageConfig,
+                tracingConfig
+        );
+    }
+
+    public static AppConfig.DBConfig loadDBConfigFromEnvVariables() {
+        final var maximumPoolSize = getOrDefault("POSTGRES_POOL_SIZE", Integer::parseInt, defaultPoolSize());
+        return new AppConfig.DBConfig(
                 getOrFail("POSTGRES_URL"),
                 getOrFail("POSTGRES_USERNAME"),
-                getOrFail("POSTGRES_PASSWORD")
+                getOrFail("POSTGRES_PASSWORD"),
+                maximumPoolSize,
+                getOrDefault("POSTGRES_MINIMUM_IDLE", Integer::parseInt, maximumPoolSize),
+                Duration.ofMillis(getOrDefault("POSTGRES_CONNECTION_TIMEOUT_MS", Long::parseLong, 5_000L)),
+                Duration.ofMillis(getOrDefault("POSTGRES_LEAK_DETECTION_THRESHOLD_MS", Long::parseLong, 10_000L)),
+                getOrDefault("POSTGRES_ISOLATION_LEVEL", AppConfig.IsolationLevel::valueOf, AppConfig.IsolationLevel.READ_COMMITTED),
+                getOrDefault("POSTGRES_REPLICA_URLS", ConfigLoader::parseList, List.of()),
+                getOrDefault("POSTGRES_REPLICA_SELECTION", AppConfig.ReplicaSelection::valueOf, AppConfig.ReplicaSelection.ROUND_ROBIN),
+                Duration.ofMillis(getOrDefault("POSTGRES_REPLICA_MAX_LAG_MS", Long::parseLong, 1_000L))
         );
-        final var serverConfig = new AppConfig.ServerConfig(
-                getOrFail("SERVER_PORT", Integer::parseInt)
+    }
+
+    public static AppConfig.ArchiveConfig loadArchiveConfigFromEnvVariables() {
+        return new AppConfig.ArchiveConfig(
+                getOrDefault("BOOKING_ARCHIVE_DIRECTORY", Path::of, Path.of("archive")),
+                getOrDefault("BOOKING_ARCHIVE_HORIZON_MONTHS", Integer::parseInt, 0)
         );
-        return new AppConfig(dbConfig, serverConfig);
+    }
+
+    /**
+     * Two connections per core, the usual starting point for a pool in front of PostgreSQL.
+     */
+    private static int defaultPoolSize() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    private static List<String> parseList(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .toList();
     }
 
     private static String getOrFail(String envConfigKey) {
         return getOrFail(envConfigKey, Function.identity());
     }
 
+    private static <T> T getOrDefault(String envConfigKey, Function<String, T> mapper, T defaultValue) {
+        if (System.getenv(envConfigKey) != null) {
+            return getOrFail(envConfigKey, mapper);
+        } else {
+            return defaultValue;
+        }
+    }
+
     private static <T> T getOrFail(String envConfigKey, Function<String, T> mapper) {
         var variable = System.getenv(envConfigKey);
         if (variable != null) {
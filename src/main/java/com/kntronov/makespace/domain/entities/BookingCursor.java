@@ -0,0 +1,36 @@
+package com.kntronov.makespace.domain.entities;
+
+import java.time.LocalTime;
+import java.util.UUID;
+
+import static com.kntronov.makespace.domain.entities.validation.Validations.validateNotNull;
+
+/**
+ * BookingCursor is the position of a booking in the order of the bookings of a date,
+ * by start time, then room name, then id.
+ *
+ * @param start    start time of the booking
+ * @param roomName name of the booked room
+ * @param id       booking id
+ */
+public record BookingCursor(
+        LocalTime start,
+        String roomName,
+        UUID id
+) {
+    public BookingCursor {
+        validateNotNull("start", start);
+        validateNotNull("roomName", roomName);
+        validateNotNull("id", id);
+    }
+
+    /**
+     * Returns the position of a booking.
+     *
+     * @param booking booking
+     * @return cursor pointing at the booking
+     */
+    public static BookingCursor of(Booking booking) {
+        return new BookingCursor(booking.timeSlot().start(), booking.room().name(), booking.id());
+    }
+}
@@ -0,0 +1,28 @@
+package com.kntronov.makespace.domain.entities;
+
+import static com.kntronov.makespace.domain.entities.validation.Validations.validateNotNull;
+
+/**
+ * BookingMove represents the reassignment of an existing booking to another room, keeping its time slot.
+ *
+ * @param booking booking to be moved
+ * @param room    room the booking is moved to
+ */
+public record BookingMove(
+        Booking booking,
+        Room room
+) {
+    public BookingMove {
+        validateNotNull("booking", booking);
+        validateNotNull("room", room);
+    }
+
+    /**
+     * Returns the booking as it is after the move.
+     *
+     * @return moved booking
+     */
+    public Booking moved() {
+        return new Booking(booking.id(), booking.date(), booking.timeSlot(), room, booking.numPeople());
+    }
+}
@@ -0,0 +1,22 @@
+package com.kntronov.makespace.domain.entities;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.kntronov.makespace.domain.entities.validation.Validations.validateNotNull;
+
+/**
+ * BookingPage is a page of the bookings of a date.
+ *
+ * @param bookings bookings of the page, in order of start time, room name and id
+ * @param next     cursor of the last booking of the page, empty if there are no more bookings
+ */
+public record BookingPage(
+        List<Booking> bookings,
+        Optional<BookingCursor> next
+) {
+    public BookingPage {
+        validateNotNull("bookings", bookings);
+        validateNotNull("next", next);
+    }
+}
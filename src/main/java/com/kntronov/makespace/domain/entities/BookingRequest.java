@@ -0,0 +1,25 @@
+package com.kntronov.makespace.domain.entities;
+
+import java.time.LocalDate;
+
+import static com.kntronov.makespace.domain.entities.validation.Validations.validateGreaterThanZero;
+import static com.kntronov.makespace.domain.entities.validation.Validations.validateNotNull;
+
+/**
+ * BookingRequest represents a request to book the best matching room for a time slot and a number of people.
+ *
+ * @param date      date to book meeting on
+ * @param timeSlot  time slot to be booked
+ * @param numPeople number of people to be booked
+ */
+public record BookingRequest(
+        LocalDate date,
+        TimeSlot timeSlot,
+        int numPeople
+) {
+    public BookingRequest {
+        validateNotNull("date", date);
+        validateNotNull("timeSlot", timeSlot);
+        validateGreaterThanZero("numPeople", numPeople);
+    }
+}
@@ -0,0 +1,28 @@
+package com.kntronov.makespace.domain.entities;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.kntronov.makespace.domain.entities.validation.Validations.validateNotNull;
+
+/**
+ * BookingSeries is the outcome of a recurring booking.
+ *
+ * @param room             room kept across the occurrences whenever possible
+ * @param bookings         booked occurrences
+ * @param fallbackDates    dates booked in a different room than the series room
+ * @param unavailableDates dates that could not be booked
+ */
+public record BookingSeries(
+        Room room,
+        List<Booking> bookings,
+        List<LocalDate> fallbackDates,
+        List<LocalDate> unavailableDates
+) {
+    public BookingSeries {
+        validateNotNull("room", room);
+        validateNotNull("bookings", bookings);
+        validateNotNull("fallbackDates", fallbackDates);
+        validateNotNull("unavailableDates", unavailableDates);
+    }
+}
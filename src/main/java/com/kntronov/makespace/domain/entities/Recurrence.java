@@ -0,0 +1,28 @@
+package com.kntronov.makespace.domain.entities;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Recurrence is the interval between two occurrences of a recurring booking.
+ */
+public enum Recurrence {
+    DAILY(Period.ofDays(1)),
+    WEEKLY(Period.ofWeeks(1));
+
+    private final Period interval;
+
+    Recurrence(Period interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Returns the date of the occurrence following the given one.
+     *
+     * @param date date of an occurrence
+     * @return date of the next occurrence
+     */
+    public LocalDate next(LocalDate date) {
+        return date.plus(interval);
+    }
+}
@@ -0,0 +1,49 @@
+package com.kntronov.makespace.domain.entities;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.kntronov.makespace.domain.entities.validation.Validations.validateGreaterThanZero;
+import static com.kntronov.makespace.domain.entities.validation.Validations.validateNotNull;
+
+/**
+ * RecurringBookingRequest represents a request to book the same time slot on every occurrence of a series of dates.
+ *
+ * @param firstDate  date of the first occurrence
+ * @param lastDate   last date an occurrence can fall on
+ * @param recurrence interval between two occurrences
+ * @param timeSlot   time slot to be booked on every occurrence
+ * @param numPeople  number of people to be booked
+ */
+public record RecurringBookingRequest(
+        LocalDate firstDate,
+        LocalDate lastDate,
+        Recurrence recurrence,
+        TimeSlot timeSlot,
+        int numPeople
+) {
+    public RecurringBookingRequest {
+        validateNotNull("firstDate", firstDate);
+        validateNotNull("lastDate", lastDate);
+        validateNotNull("recurrence", recurrence);
+        validateNotNull("timeSlot", timeSlot);
+        validateGreaterThanZero("numPeople", numPeople);
+        if (lastDate.isBefore(firstDate)) {
+            throw new IllegalArgumentException("lastDate must not be before firstDate");
+        }
+    }
+
+    /**
+     * Returns the dates of all the occurrences of the series in ascending order.
+     *
+     * @return occurrence dates
+     */
+    public List<LocalDate> dates() {
+        final var dates = new ArrayList<LocalDate>();
+        for (var date = firstDate; !date.isAfter(lastDate); date = recurrence.next(date)) {
+            dates.add(date);
+        }
+        return dates;
+    }
+}
@@ -0,0 +1,21 @@
+package com.kntronov.makespace.domain.errors;
+
+import java.time.LocalDate;
+
+/**
+ * Exception to be raised when bookings of an archived date are to be created, moved or deleted,
+ * archived dates being read-only.
+ */
+public class ArchivedDateException extends RuntimeException {
+
+    private final LocalDate date;
+
+    public ArchivedDateException(LocalDate date) {
+        super("bookings of " + date + " are archived and read-only");
+        this.date = date;
+    }
+
+    public LocalDate date() {
+        return date;
+    }
+}
@@ -0,0 +1,12 @@
+package com.kntronov.makespace.domain.errors;
+
+/**
+ * Exception to be raised when a booking cannot be persisted because its room was booked concurrently
+ * for an overlapping time slot.
+ */
+public class BookingConflictException extends RuntimeException {
+
+    public BookingConflictException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.kntronov.makespace.domain.errors;
+
+/**
+ * Exception to be raised when the bookings of a date changed while a repacking of that date was being applied.
+ */
+public class RepackConflictException extends RuntimeException {
+}
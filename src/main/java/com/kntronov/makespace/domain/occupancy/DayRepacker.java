@@ -0,0 +1,65 @@
+package com.kntronov.makespace.domain.occupancy;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.SystemState;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Computes a reassignment of the bookings of a date to rooms that frees up larger rooms, keeping every time slot.
+ * <p>
+ * Bookings are placed first-fit decreasing: by descending number of people then by descending duration,
+ * each one in the smallest room that is free for its time slot. If a booking cannot be placed, the whole plan is
+ * dropped. The plan is only returned if it lowers the booked capacity, i.e. the sum over bookings of room capacity
+ * times duration, so an applied plan never makes the day worse.
+ */
+public class DayRepacker {
+
+    private static final Comparator<Booking> placementOrder = Comparator
+            .comparing(Booking::numPeople, Comparator.reverseOrder())
+            .thenComparing(DayRepacker::duration, Comparator.reverseOrder())
+            .thenComparing(booking -> booking.timeSlot().start())
+            .thenComparing(Booking::id);
+
+    private DayRepacker() {
+    }
+
+    /**
+     * Compute the moves that repack the bookings of a system state.
+     *
+     * @param state system state of a date
+     * @return moves to apply, empty if the current assignment cannot be improved
+     */
+    public static List<BookingMove> plan(SystemState state) {
+        final var index = OccupancyIndex.ofRooms(state.date(), state.availableRooms());
+        final var bookings = state.currentBookings().stream().sorted(placementOrder).toList();
+        final var moves = new ArrayList<BookingMove>();
+        long currentCost = 0;
+        long plannedCost = 0;
+        for (final var booking : bookings) {
+            final var timeSlot = booking.timeSlot();
+            final var room = index.bestFit(timeSlot, booking.numPeople());
+            if (room.isEmpty()) {
+                return List.of();
+            }
+            index.occupy(room.get(), timeSlot);
+            currentCost += cost(booking.room().peopleCapacity(), booking);
+            plannedCost += cost(room.get().peopleCapacity(), booking);
+            if (!room.get().equals(booking.room())) {
+                moves.add(new BookingMove(booking, room.get()));
+            }
+        }
+        return plannedCost < currentCost ? moves : List.of();
+    }
+
+    private static long cost(int capacity, Booking booking) {
+        return (long) capacity * duration(booking);
+    }
+
+    private static int duration(Booking booking) {
+        return OccupancyIndex.quarterOf(booking.timeSlot().end()) - OccupancyIndex.quarterOf(booking.timeSlot().start());
+    }
+}
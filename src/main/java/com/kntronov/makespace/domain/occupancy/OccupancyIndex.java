@@ -0,0 +1,222 @@
+package com.kntronov.makespace.domain.occupancy;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Occupancy of every room for a single date, stored as a 96-bit quarter-hour mask per room.
+ * <p>
+ * Bit i of a mask represents the quarter-hour starting at i * 15 minutes, a time slot [start, end) covers
+ * the bits from the quarter of start (inclusive) to the quarter of end (exclusive).
+ * The 96 bits are split in a low word (quarters 0..63) and a high word (quarters 64..95).
+ * Rooms are kept sorted in ascending order of capacity and all buffer times are folded into a single mask.
+ * <p>
+ * The index is mutable through {@link #occupy(Room, TimeSlot)} and is not thread safe.
+ */
+public final class OccupancyIndex {
+
+    public static final int QUARTERS_PER_DAY = 96;
+
+    private static final int MINUTES_PER_QUARTER = 15;
+
+    private final LocalDate date;
+    private final Room[] rooms;
+    private final int[] capacities;
+    private final Map<String, Integer> positions;
+    private final long[] low;
+    private final long[] high;
+    private final long bufferLow;
+    private final long bufferHigh;
+
+    private OccupancyIndex(LocalDate date, List<Room> rooms, List<Booking> bookings, List<TimeSlot> bufferTimes) {
+        this.date = date;
+        this.rooms = rooms.stream()
+                .sorted(Comparator.comparing(Room::peopleCapacity))
+                .toArray(Room[]::new);
+        this.capacities = new int[this.rooms.length];
+        this.positions = HashMap.newHashMap(this.rooms.length);
+        for (int i = 0; i < this.rooms.length; i++) {
+            capacities[i] = this.rooms[i].peopleCapacity();
+            positions.putIfAbsent(this.rooms[i].name(), i);
+        }
+        this.low = new long[this.rooms.length];
+        this.high = new long[this.rooms.length];
+        for (final var booking : bookings) {
+            final var position = positions.get(booking.room().name());
+            if (position != null) {
+                final var from = quarterOf(booking.timeSlot().start());
+                final var to = quarterOf(booking.timeSlot().end());
+                low[position] |= wordMask(from, to, 0);
+                high[position] |= wordMask(from, to, Long.SIZE);
+            }
+        }
+        var foldedLow = 0L;
+        var foldedHigh = 0L;
+        for (final var bufferTime : bufferTimes) {
+            foldedLow |= lowMask(bufferTime);
+            foldedHigh |= highMask(bufferTime);
+        }
+        this.bufferLow = foldedLow;
+        this.bufferHigh = foldedHigh;
+    }
+
+    /**
+     * Build the occupancy index of a system state snapshot.
+     *
+     * @param state system state for a date
+     * @return occupancy index for the state date
+     */
+    public static OccupancyIndex of(SystemState state) {
+        return new OccupancyIndex(state.date(), state.availableRooms(), state.currentBookings(), state.bufferTimes());
+    }
+
+    /**
+     * Build an occupancy index of a date where all the rooms are free and there are no buffer times.
+     *
+     * @param date  date
+     * @param rooms rooms to index
+     * @return occupancy index with no occupied slots
+     */
+    public static OccupancyIndex ofRooms(LocalDate date, List<Room> rooms) {
+        return new OccupancyIndex(date, rooms, List.of(), List.of());
+    }
+
+    /**
+     * Returns the quarter-hour index [0, 96) of a time.
+     *
+     * @param time time in 15 minute increments
+     * @return quarter-hour index of the time
+     */
+    public static int quarterOf(LocalTime time) {
+        return time.getHour() * 4 + time.getMinute() / MINUTES_PER_QUARTER;
+    }
+
+    static long lowMask(TimeSlot timeSlot) {
+        return wordMask(quarterOf(timeSlot.start()), quarterOf(timeSlot.end()), 0);
+    }
+
+    static long highMask(TimeSlot timeSlot) {
+        return wordMask(quarterOf(timeSlot.start()), quarterOf(timeSlot.end()), Long.SIZE);
+    }
+
+    private static long wordMask(int from, int to, int offset) {
+        final var start = Math.clamp(from - offset, 0, Long.SIZE);
+        final var end = Math.clamp(to - offset, 0, Long.SIZE);
+        if (start >= end) {
+            return 0L;
+        }
+        return (-1L >>> (Long.SIZE - (end - start))) << start;
+    }
+
+    public LocalDate date() {
+        return date;
+    }
+
+    /**
+     * Retrieve the rooms not booked for the given time slot, in ascending order of capacity.
+     * No rooms are returned if the time slot overlaps with a buffer time.
+     *
+     * @param timeSlot time slot range
+     * @return available rooms ordered in ascending order by capacity
+     */
+    public List<Room> availableRooms(TimeSlot timeSlot) {
+        final var slotLow = lowMask(timeSlot);
+        final var slotHigh = highMask(timeSlot);
+        if (overlapsBufferTime(slotLow, slotHigh)) {
+            return List.of();
+        }
+        final var result = new ArrayList<Room>(rooms.length);
+        for (int i = 0; i < rooms.length; i++) {
+            if (isFree(i, slotLow, slotHigh)) {
+                result.add(rooms[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retrieve the smallest room not booked for the given time slot that can accommodate the number of people.
+     *
+     * @param timeSlot  time slot range
+     * @param numPeople number of people to accommodate
+     * @return best fitting room if any
+     */
+    public Optional<Room> bestFit(TimeSlot timeSlot, int numPeople) {
+        final var slotLow = lowMask(timeSlot);
+        final var slotHigh = highMask(timeSlot);
+        if (overlapsBufferTime(slotLow, slotHigh)) {
+            return Optional.empty();
+        }
+        for (int i = firstPositionWithCapacity(numPeople); i < rooms.length; i++) {
+            if (isFree(i, slotLow, slotHigh)) {
+                return Optional.of(rooms[i]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns true if the room is not booked for the given time slot and the time slot is not in a buffer time.
+     *
+     * @param room     room
+     * @param timeSlot time slot range
+     * @return if the room is available
+     */
+    public boolean isAvailable(Room room, TimeSlot timeSlot) {
+        final var position = positions.get(room.name());
+        if (position == null) {
+            return false;
+        }
+        final var slotLow = lowMask(timeSlot);
+        final var slotHigh = highMask(timeSlot);
+        return !overlapsBufferTime(slotLow, slotHigh) && isFree(position, slotLow, slotHigh);
+    }
+
+    /**
+     * Mark a room as booked for the given time slot.
+     *
+     * @param room     room
+     * @param timeSlot booked time slot
+     */
+    public void occupy(Room room, TimeSlot timeSlot) {
+        final var position = positions.get(room.name());
+        if (position == null) {
+            throw new IllegalArgumentException("room " + room.name() + " is not indexed");
+        }
+        low[position] |= lowMask(timeSlot);
+        high[position] |= highMask(timeSlot);
+    }
+
+    private boolean overlapsBufferTime(long slotLow, long slotHigh) {
+        return (bufferLow & slotLow) != 0 || (bufferHigh & slotHigh) != 0;
+    }
+
+    private boolean isFree(int position, long slotLow, long slotHigh) {
+        return (low[position] & slotLow) == 0 && (high[position] & slotHigh) == 0;
+    }
+
+    private int firstPositionWithCapacity(int numPeople) {
+        var from = 0;
+        var to = capacities.length;
+        while (from < to) {
+            final var middle = (from + to) >>> 1;
+            if (capacities[middle] < numPeople) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+}
@@ -1,10 +1,14 @@
 package com.kntronov.makespace.domain.repositories;
 
 import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.TimeSlot;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -28,11 +32,33 @@ public interface BookingRepository {
      */
     List<Booking> findByDate(LocalDate date);
 
+    /**
+     * Retrieve a page of the bookings of a date, in order of start time, room name and id.
+     *
+     * @param date  date
+     * @param after cursor of the booking the page starts after, the page starts from the first booking if empty
+     * @param limit maximum number of bookings
+     * @return bookings of the page
+     */
+    List<Booking> findPageByDate(LocalDate date, Optional<BookingCursor> after, int limit);
+
+    /**
+     * Returns true if the bookings of the date are archived, archived bookings can be read but not created, moved
+     * or deleted.
+     *
+     * @param date date
+     * @return if the date is archived
+     */
+    default boolean isArchived(LocalDate date) {
+        return false;
+    }
+
     /**
      * Delete a booking by id.
      *
      * @param id UUID
      * @return number of deleted bookings
+     * @throws com.kntronov.makespace.domain.errors.ArchivedDateException if the booking is archived
      */
     int delete(UUID id);
 
@@ -41,6 +67,44 @@ public interface BookingRepository {
      *
      * @param booking booking to be created
      * @return created booking.
+     * @throws com.kntronov.makespace.domain.errors.BookingConflictException if the room is already booked
+     *                                                                      for an overlapping time slot
      */
     Booking save(Booking booking);
+
+    /**
+     * Create a new booking in the smallest room that can accommodate the number of people and is free for the
+     * time slot, selecting the room and creating the booking atomically.
+     * No room is selected if the time slot overlaps with a buffer time.
+     *
+     * @param id        id of the booking to be created
+     * @param date      booking date
+     * @param timeSlot  booked time slot
+     * @param numPeople number of people
+     * @return created booking, empty if no room is available
+     * @throws com.kntronov.makespace.domain.errors.BookingConflictException if the selected room was booked
+     *                                                                      concurrently
+     */
+    Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople);
+
+    /**
+     * Create many new bookings at once, either all or none of them are created.
+     *
+     * @param bookings bookings to be created
+     * @return created bookings
+     * @throws com.kntronov.makespace.domain.errors.BookingConflictException if any room is already booked
+     *                                                                      for an overlapping time slot
+     */
+    List<Booking> saveAll(List<Booking> bookings);
+
+    /**
+     * Move many bookings to other rooms at once, either all or none of them are moved.
+     * A move is only applied if the booking is still in its original room and no booking
+     * other than the known ones overlaps with it in the target room.
+     *
+     * @param moves           moves to be applied
+     * @param knownBookingIds ids of the bookings the moves were planned with
+     * @return true if all the moves were applied, false if none were
+     */
+    boolean moveAll(List<BookingMove> moves, Set<UUID> knownBookingIds);
 }
@@ -3,6 +3,7 @@ package com.kntronov.makespace.domain.repositories;
 import com.kntronov.makespace.domain.entities.SystemState;
 
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Repository of the SystemState aggregate entity.
@@ -16,4 +17,12 @@ public interface SystemStateRepository {
      * @return system state
      */
     SystemState findByDate(LocalDate date);
+
+    /**
+     * Retrieve the system states of many dates at once.
+     *
+     * @param dates dates
+     * @return system states in the same order as the dates
+     */
+    List<SystemState> findByDates(List<LocalDate> dates);
 }
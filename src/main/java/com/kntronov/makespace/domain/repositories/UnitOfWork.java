@@ -0,0 +1,46 @@
+package com.kntronov.makespace.domain.repositories;
+
+import java.util.function.Supplier;
+
+/**
+ * Scope in which the repository calls of the current thread share a single connection and transaction.
+ */
+public interface UnitOfWork {
+
+    /**
+     * Run a piece of work in a unit of work, joining the current one if any.
+     * The work is committed if it returns and rolled back if it throws.
+     *
+     * @param work work calling repositories
+     * @param <T>  type of the work result
+     * @return result of the work
+     */
+    <T> T execute(Supplier<T> work);
+
+    /**
+     * Run an action once the current unit of work is committed, or immediately outside a unit of work.
+     * The action is not run if the unit of work is rolled back.
+     *
+     * @param action action to run after commit
+     */
+    void afterCommit(Runnable action);
+
+    /**
+     * Returns a unit of work where every repository call runs on its own.
+     *
+     * @return unit of work running the work directly
+     */
+    static UnitOfWork none() {
+        return new UnitOfWork() {
+            @Override
+            public <T> T execute(Supplier<T> work) {
+                return work.get();
+            }
+
+            @Override
+            public void afterCommit(Runnable action) {
+                action.run();
+            }
+        };
+    }
+}
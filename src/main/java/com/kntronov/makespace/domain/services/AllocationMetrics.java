@@ -0,0 +1,38 @@
+package com.kntronov.makespace.domain.services;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the retries performed when an allocated room turns out to be booked concurrently.
+ */
+public final class AllocationMetrics {
+
+    private final LongAdder conflictRetries = new LongAdder();
+    private final LongAdder exhaustedRetries = new LongAdder();
+
+    public void recordConflictRetry() {
+        conflictRetries.increment();
+    }
+
+    public void recordExhaustedRetries() {
+        exhaustedRetries.increment();
+    }
+
+    /**
+     * Returns the number of allocations retried after a conflict.
+     *
+     * @return number of retries
+     */
+    public long conflictRetries() {
+        return conflictRetries.sum();
+    }
+
+    /**
+     * Returns the number of allocations that gave up after the maximum number of attempts.
+     *
+     * @return number of allocations given up
+     */
+    public long exhaustedRetries() {
+        return exhaustedRetries.sum();
+    }
+}
@@ -1,6 +1,12 @@
 package com.kntronov.makespace.domain.services;
 
 import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.BookingPage;
+import com.kntronov.makespace.domain.entities.BookingRequest;
+import com.kntronov.makespace.domain.entities.BookingSeries;
+import com.kntronov.makespace.domain.entities.RecurringBookingRequest;
 import com.kntronov.makespace.domain.entities.Room;
 import com.kntronov.makespace.domain.entities.TimeSlot;
 import com.kntronov.makespace.util.Nothing;
@@ -8,6 +14,7 @@ import com.kntronov.makespace.util.Result;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -22,6 +29,7 @@ public interface BookingService {
      * - Success with a booked Booking will be returned in case the allocation is successful.
      * - Failure with a NoRoomAvailableError will be returned in case no booking for the given inputs
      * is possible.
+     * - Failure with an ArchivedDateException if the date is archived.
      *
      * @param date      date to book meeting on
      * @param timeSlot  time slot be booked
@@ -30,6 +38,52 @@ public interface BookingService {
      */
     Result<Booking> bookNextAvailableRoom(LocalDate date, TimeSlot timeSlot, int numPeople);
 
+    /**
+     * Schedule many meetings at once, each request is allocated the most optimal room as in
+     * {@link #bookNextAvailableRoom(LocalDate, TimeSlot, int)}.
+     * Requests are allocated in order, so rooms allocated to earlier requests are not available to later ones.
+     * All allocated bookings are persisted together.
+     * <p>
+     * - Success with a booked Booking for each request whose allocation and persistence are successful.
+     * - Failure with a NoRoomAvailableError for each request that could not be allocated.
+     * - Failure with an ArchivedDateException for each request on an archived date.
+     * - Failure with the persistence error for every allocated request if the bookings could not be persisted.
+     *
+     * @param requests booking requests
+     * @return booking results in the same order as the requests
+     */
+    List<Result<Booking>> bookAll(List<BookingRequest> requests);
+
+    /**
+     * Schedule a meeting on every occurrence of a recurring series, keeping the same room across occurrences
+     * whenever possible. The series room is the smallest room that can accommodate the number of people
+     * and is available on the most occurrences, the other occurrences fall back to the most optimal available room.
+     * All booked occurrences are persisted together.
+     * <p>
+     * - Success with the booked series, reporting the dates that fell back to another room or could not be booked.
+     * - Failure with a NoRoomAvailableError in case no occurrence could be booked.
+     * - Failure with an ArchivedDateException if any occurrence is on an archived date.
+     * - Failure with the persistence error if the bookings could not be persisted.
+     *
+     * @param request recurring booking request
+     * @return booked series
+     */
+    Result<BookingSeries> bookRecurring(RecurringBookingRequest request);
+
+    /**
+     * Reassign the bookings of a date to the smallest fitting rooms without changing their time slots,
+     * to free up larger rooms for later requests. All moves are persisted together.
+     * <p>
+     * - Success with the applied moves, empty if the current assignment cannot be improved.
+     * - Failure with a RepackConflictException if the bookings of the date changed while the moves were applied,
+     * in which case no move is applied.
+     * - Failure with an ArchivedDateException if the date is archived.
+     *
+     * @param date date to repack
+     * @return applied moves
+     */
+    Result<List<BookingMove>> repack(LocalDate date);
+
     /**
      * Retrieve a list of available (not booked) rooms for a given a time slot in a given date.
      * The returned list of rooms is in the ascending order of the room capacity.
@@ -49,7 +103,17 @@ public interface BookingService {
     List<Booking> getAllBookingsByDate(LocalDate date);
 
     /**
-     * Delete a booking by id.
+     * Retrieve a page of the bookings of a date, in order of start time, room name and id.
+     *
+     * @param date  booking date
+     * @param after cursor of the booking the page starts after, the page starts from the first booking if empty
+     * @param limit maximum number of bookings of the page
+     * @return page of bookings with the cursor of the next page if there are more bookings
+     */
+    BookingPage getBookingsPageByDate(LocalDate date, Optional<BookingCursor> after, int limit);
+
+    /**
+     * Delete a booking by id, archived bookings are read-only and cannot be deleted.
      *
      * @param id UUID
      * @return Success if deletion is successful, Failure otherwise
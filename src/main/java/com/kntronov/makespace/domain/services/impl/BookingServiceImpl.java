@@ -1,105 +1,449 @@
 package com.kntronov.makespace.domain.services.impl;
 
 import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.BookingPage;
+import com.kntronov.makespace.domain.entities.BookingRequest;
+import com.kntronov.makespace.domain.entities.BookingSeries;
+import com.kntronov.makespace.domain.entities.RecurringBookingRequest;
 import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.SystemState;
 import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.ArchivedDateException;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
 import com.kntronov.makespace.domain.errors.NoRoomAvailableException;
+import com.kntronov.makespace.domain.errors.RepackConflictException;
 import com.kntronov.makespace.domain.errors.RoomNotFoundException;
+import com.kntronov.makespace.domain.occupancy.DayRepacker;
+import com.kntronov.makespace.domain.occupancy.OccupancyIndex;
 import com.kntronov.makespace.domain.repositories.BookingRepository;
 import com.kntronov.makespace.domain.repositories.SystemStateRepository;
+import com.kntronov.makespace.domain.repositories.UnitOfWork;
+import com.kntronov.makespace.domain.services.AllocationMetrics;
 import com.kntronov.makespace.domain.services.BookingService;
 import com.kntronov.makespace.domain.services.UUIDProvider;
+import com.kntronov.makespace.util.KeyedLocks;
 import com.kntronov.makespace.util.Nothing;
 import com.kntronov.makespace.util.Result;
+import com.kntronov.makespace.util.tracing.Tracing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+/**
+ * Implementation of the BookingService interface.
+ * <p>
+ * Writes are serialized per date: allocating and persisting bookings of a date happens while holding the lock of
+ * that date, so that two concurrent requests cannot be allocated the same room for overlapping time slots.
+ * Writes spanning many dates hold the locks of all of them. Reads never wait for a lock.
+ * <p>
+ * The lock only protects a single process, the database rejects overlapping bookings of a room across processes.
+ * A rejected allocation is retried up to {@value #MAX_ALLOCATION_ATTEMPTS} attempts, single bookings leaving out the
+ * rooms rejected before.
+ * <p>
+ * Each attempt reading and then writing runs in its own unit of work, inside the date locks so that no connection
+ * is held while waiting for them. A rejected attempt is rolled back and the next one reads a fresh state in a new
+ * transaction, which a transaction reading from a REPEATABLE_READ or SERIALIZABLE snapshot could not.
+ * <p>
+ * Archived dates are read-only, writes on them fail with an ArchivedDateException before any lock is taken.
+ */
+@SuppressWarnings("try")
 public class BookingServiceImpl implements BookingService {
 
     private static final Logger logger = LoggerFactory.getLogger("BookingService");
 
+    static final int MAX_ALLOCATION_ATTEMPTS = 3;
+
     private final UUIDProvider uuidProvider;
 
     private final SystemStateRepository systemStateRepository;
     private final BookingRepository bookingRepository;
+    private final KeyedLocks<LocalDate> dateLocks;
+    private final AllocationMetrics allocationMetrics;
+    private final UnitOfWork unitOfWork;
 
     public BookingServiceImpl(UUIDProvider uuidProvider, SystemStateRepository systemStateRepository, BookingRepository bookingRepository) {
+        this(uuidProvider, systemStateRepository, bookingRepository, new KeyedLocks<>(), new AllocationMetrics());
+    }
+
+    public BookingServiceImpl(
+            UUIDProvider uuidProvider,
+            SystemStateRepository systemStateRepository,
+            BookingRepository bookingRepository,
+            KeyedLocks<LocalDate> dateLocks,
+            AllocationMetrics allocationMetrics
+    ) {
+        this(uuidProvider, systemStateRepository, bookingRepository, dateLocks, allocationMetrics, UnitOfWork.none());
+    }
+
+    public BookingServiceImpl(
+            UUIDProvider uuidProvider,
+            SystemStateRepository systemStateRepository,
+            BookingRepository bookingRepository,
+            KeyedLocks<LocalDate> dateLocks,
+            AllocationMetrics allocationMetrics,
+            UnitOfWork unitOfWork
+    ) {
         this.uuidProvider = uuidProvider;
         this.systemStateRepository = systemStateRepository;
         this.bookingRepository = bookingRepository;
+        this.dateLocks = dateLocks;
+        this.allocationMetrics = allocationMetrics;
+        this.unitOfWork = unitOfWork;
     }
 
     @Override
     public Result<Booking> bookNextAvailableRoom(LocalDate date, TimeSlot timeSlot, int numPeople) {
+        try (final var span = Tracing.span("BookingServiceImpl.bookNextAvailableRoom")) {
+            if (bookingRepository.isArchived(date)) {
+                return Result.fail(new ArchivedDateException(date));
+            }
+            return dateLocks.withLock(date, () -> allocate(date, timeSlot, numPeople));
+        }
+    }
+
+    private Result<Booking> allocate(LocalDate date, TimeSlot timeSlot, int numPeople) {
+        final var conflictingRooms = new ArrayList<Room>();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return unitOfWork.execute(() -> allocateOnce(date, timeSlot, numPeople, conflictingRooms));
+            } catch (BookingConflictException e) {
+                if (attempt == MAX_ALLOCATION_ATTEMPTS) {
+                    logger.warn("room was booked concurrently, giving up after {} attempts", attempt);
+                    allocationMetrics.recordExhaustedRetries();
+                    return new Result.Failure<>(e);
+                }
+                logger.info("room was booked concurrently, retrying with the next room");
+                allocationMetrics.recordConflictRetry();
+            }
+        }
+    }
+
+    /**
+     * Rooms rejected by earlier attempts are left out even if the new state does not show them booked yet,
+     * which happens when the conflicting booking is not committed or the state is served from a cache.
+     */
+    private Result<Booking> allocateOnce(LocalDate date, TimeSlot timeSlot, int numPeople, List<Room> conflictingRooms) {
         logger.info("searching for available rooms for date: {}, timeSlot: {}, numPeople: {}", date, timeSlot, numPeople);
-        final var maybeAvailableRoom = getAvailableRooms(date, timeSlot)
-                .stream()
-                .filter(room -> room.peopleCapacity() >= numPeople)
-                .min(Comparator.comparing(Room::peopleCapacity));
-        if (maybeAvailableRoom.isPresent()) {
-            final var room = maybeAvailableRoom.get();
-            logger.info("found available room {}", maybeAvailableRoom.get());
-            final var booking = new Booking(
-                    uuidProvider.generateUuid(),
-                    date,
-                    timeSlot,
-                    room,
-                    numPeople
-            );
+        final var system = systemStateRepository.findByDate(date);
+        logger.debug("system state: {}", system);
+        final var index = OccupancyIndex.of(system);
+        conflictingRooms.forEach(room -> index.occupy(room, timeSlot));
+        final var maybeAvailableRoom = index.bestFit(timeSlot, numPeople);
+        if (maybeAvailableRoom.isEmpty()) {
+            logger.info("no booking found");
+            return new Result.Failure<>(new NoRoomAvailableException());
+        }
+        final var room = maybeAvailableRoom.get();
+        logger.info("found available room {}", room);
+        final var booking = new Booking(
+                uuidProvider.generateUuid(),
+                date,
+                timeSlot,
+                room,
+                numPeople
+        );
+        try {
             final var savedBooking = bookingRepository.save(booking);
             logger.info("booking {} successfully created", savedBooking);
             return new Result.Success<>(savedBooking);
-        } else {
-            logger.info("no booking found");
-            return new Result.Failure<>(new NoRoomAvailableException());
+        } catch (BookingConflictException e) {
+            logger.info("room {} was booked concurrently", room);
+            conflictingRooms.add(room);
+            throw e;
         }
     }
 
     @Override
-    public List<Room> getAvailableRooms(LocalDate date, TimeSlot timeSlot) {
-        logger.info("searching for available rooms for date: {} timeSlot: {}", date, timeSlot);
-        final var system = systemStateRepository.findByDate(date);
-        logger.info("system state: {}", system);
-        final var rooms = system.availableRooms();
-        final var roomsWithBookingsForTimeSlot = system.currentBookings()
-                .stream()
-                .filter(booking -> booking.timeSlot().isOverlapping(timeSlot))
-                .map(Booking::room)
-                .toList();
-        final var result = rooms.stream()
-                .filter(ignored -> system.bufferTimes().stream().noneMatch(timeSlot::isOverlapping))
-                .filter(room -> !roomsWithBookingsForTimeSlot.contains(room))
+    public List<Result<Booking>> bookAll(List<BookingRequest> requests) {
+        try (final var span = Tracing.span("BookingServiceImpl.bookAll")) {
+            final var results = new ArrayList<Result<Booking>>(requests.size());
+            final var stored = new ArrayList<BookingRequest>(requests.size());
+            for (final var request : requests) {
+                if (bookingRepository.isArchived(request.date())) {
+                    results.add(Result.fail(new ArchivedDateException(request.date())));
+                } else {
+                    stored.add(request);
+                    results.add(null);
+                }
+            }
+            if (stored.isEmpty()) {
+                return results;
+            }
+            final var dates = stored.stream().map(BookingRequest::date).toList();
+            final var allocated = dateLocks.withLocks(dates, () -> allocateAll(stored)).iterator();
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) == null) {
+                    results.set(i, allocated.next());
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Every attempt runs in a new unit of work reading a fresh state, the last one reporting the conflicting
+     * bookings as failed rather than throwing.
+     */
+    private List<Result<Booking>> allocateAll(List<BookingRequest> requests) {
+        for (int attempt = 1; ; attempt++) {
+            final var lastAttempt = attempt == MAX_ALLOCATION_ATTEMPTS;
+            try {
+                return unitOfWork.execute(() -> allocateAllOnce(requests, lastAttempt));
+            } catch (BookingConflictException e) {
+                if (lastAttempt) {
+                    // the commit of the last attempt conflicted, none of its bookings is persisted
+                    logger.warn("allocated rooms were booked concurrently, giving up after {} attempts", attempt);
+                    allocationMetrics.recordExhaustedRetries();
+                    return requests.stream().<Result<Booking>>map(request -> Result.fail(e)).toList();
+                }
+                logger.info("allocated rooms were booked concurrently, retrying the allocation");
+                allocationMetrics.recordConflictRetry();
+            }
+        }
+    }
+
+    private List<Result<Booking>> allocateAllOnce(List<BookingRequest> requests, boolean lastAttempt) {
+        logger.info("allocating {} booking requests", requests.size());
+        final var results = new ArrayList<Result<Booking>>(requests.size());
+        final var indexes = new HashMap<LocalDate, OccupancyIndex>();
+        final var allocated = new ArrayList<Booking>();
+        final var allocatedPositions = new ArrayList<Integer>();
+        for (final var request : requests) {
+            final var index = indexes.computeIfAbsent(
+                    request.date(),
+                    date -> OccupancyIndex.of(systemStateRepository.findByDate(date))
+            );
+            final var maybeAvailableRoom = index.bestFit(request.timeSlot(), request.numPeople());
+            if (maybeAvailableRoom.isPresent()) {
+                final var room = maybeAvailableRoom.get();
+                index.occupy(room, request.timeSlot());
+                allocated.add(new Booking(
+                        uuidProvider.generateUuid(),
+                        request.date(),
+                        request.timeSlot(),
+                        room,
+                        request.numPeople()
+                ));
+                allocatedPositions.add(results.size());
+                results.add(null);
+            } else {
+                results.add(Result.fail(new NoRoomAvailableException()));
+            }
+        }
+        if (!allocated.isEmpty()) {
+            try {
+                final var savedBookings = bookingRepository.saveAll(allocated);
+                for (int i = 0; i < savedBookings.size(); i++) {
+                    results.set(allocatedPositions.get(i), Result.pure(savedBookings.get(i)));
+                }
+            } catch (BookingConflictException e) {
+                if (!lastAttempt) {
+                    throw e;
+                }
+                logger.warn("allocated rooms were booked concurrently, giving up after {} attempts", MAX_ALLOCATION_ATTEMPTS);
+                allocationMetrics.recordExhaustedRetries();
+                allocatedPositions.forEach(position -> results.set(position, Result.fail(e)));
+            } catch (RuntimeException e) {
+                logger.error("unable to persist {} allocated bookings", allocated.size(), e);
+                allocatedPositions.forEach(position -> results.set(position, Result.fail(e)));
+            }
+        }
+        logger.info("{} of {} booking requests allocated", allocated.size(), requests.size());
+        return results;
+    }
+
+    @Override
+    public Result<BookingSeries> bookRecurring(RecurringBookingRequest request) {
+        try (final var span = Tracing.span("BookingServiceImpl.bookRecurring")) {
+            final var dates = request.dates();
+            final var archivedDate = dates.stream().filter(bookingRepository::isArchived).findFirst();
+            if (archivedDate.isPresent()) {
+                return Result.fail(new ArchivedDateException(archivedDate.get()));
+            }
+            return dateLocks.withLocks(dates, () -> allocateSeries(request, dates));
+        }
+    }
+
+    private Result<BookingSeries> allocateSeries(RecurringBookingRequest request, List<LocalDate> dates) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return unitOfWork.execute(() -> allocateSeriesOnce(request, dates));
+            } catch (BookingConflictException e) {
+                if (attempt == MAX_ALLOCATION_ATTEMPTS) {
+                    logger.warn("allocated rooms were booked concurrently, giving up after {} attempts", attempt);
+                    allocationMetrics.recordExhaustedRetries();
+                    return Result.fail(e);
+                }
+                logger.info("allocated rooms were booked concurrently, retrying the series allocation");
+                allocationMetrics.recordConflictRetry();
+            }
+        }
+    }
+
+    private Result<BookingSeries> allocateSeriesOnce(RecurringBookingRequest request, List<LocalDate> dates) {
+        logger.info("allocating a series of {} occurrences for timeSlot: {}, numPeople: {}", dates.size(), request.timeSlot(), request.numPeople());
+        final var states = systemStateRepository.findByDates(dates);
+        final var indexes = states.stream().map(OccupancyIndex::of).toList();
+        final var maybeSeriesRoom = seriesRoom(states, indexes, request);
+        if (maybeSeriesRoom.isEmpty()) {
+            logger.info("no room available on any occurrence");
+            return Result.fail(new NoRoomAvailableException());
+        }
+        final var seriesRoom = maybeSeriesRoom.get();
+        final var bookings = new ArrayList<Booking>();
+        final var fallbackDates = new ArrayList<LocalDate>();
+        final var unavailableDates = new ArrayList<LocalDate>();
+        for (int i = 0; i < dates.size(); i++) {
+            final var date = dates.get(i);
+            final var index = indexes.get(i);
+            final Optional<Room> maybeRoom;
+            if (index.isAvailable(seriesRoom, request.timeSlot())) {
+                maybeRoom = Optional.of(seriesRoom);
+            } else {
+                maybeRoom = index.bestFit(request.timeSlot(), request.numPeople());
+                if (maybeRoom.isPresent()) {
+                    fallbackDates.add(date);
+                } else {
+                    unavailableDates.add(date);
+                }
+            }
+            maybeRoom.ifPresent(room -> bookings.add(new Booking(
+                    uuidProvider.generateUuid(),
+                    date,
+                    request.timeSlot(),
+                    room,
+                    request.numPeople()
+            )));
+        }
+        try {
+            final var savedBookings = bookingRepository.saveAll(bookings);
+            logger.info("{} of {} occurrences booked in {}, {} fallbacks", savedBookings.size(), dates.size(), seriesRoom, fallbackDates.size());
+            return Result.pure(new BookingSeries(seriesRoom, savedBookings, fallbackDates, unavailableDates));
+        } catch (BookingConflictException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            logger.error("unable to persist {} occurrences", bookings.size(), e);
+            return Result.fail(e);
+        }
+    }
+
+    private static Optional<Room> seriesRoom(List<SystemState> states, List<OccupancyIndex> indexes, RecurringBookingRequest request) {
+        final var candidates = states.getFirst().availableRooms().stream()
+                .filter(room -> room.peopleCapacity() >= request.numPeople())
                 .sorted(Comparator.comparing(Room::peopleCapacity))
                 .toList();
-        logger.info("available rooms: {}", result);
-        return result;
+        Room best = null;
+        var bestCount = 0;
+        for (final var room : candidates) {
+            var count = 0;
+            for (final var index : indexes) {
+                if (index.isAvailable(room, request.timeSlot())) {
+                    count++;
+                }
+            }
+            if (count > bestCount) {
+                best = room;
+                bestCount = count;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    @Override
+    public Result<List<BookingMove>> repack(LocalDate date) {
+        try (final var span = Tracing.span("BookingServiceImpl.repack")) {
+            if (bookingRepository.isArchived(date)) {
+                return Result.fail(new ArchivedDateException(date));
+            }
+            return dateLocks.withLock(date, () -> unitOfWork.execute(() -> applyRepack(date)));
+        }
+    }
+
+    private Result<List<BookingMove>> applyRepack(LocalDate date) {
+        final var system = systemStateRepository.findByDate(date);
+        final var moves = DayRepacker.plan(system);
+        if (moves.isEmpty()) {
+            logger.info("no repacking possible for date: {}", date);
+            return Result.pure(List.of());
+        }
+        final var knownBookingIds = system.currentBookings().stream()
+                .map(Booking::id)
+                .collect(Collectors.toSet());
+        if (bookingRepository.moveAll(moves, knownBookingIds)) {
+            logger.info("{} bookings moved for date: {}", moves.size(), date);
+            return Result.pure(moves);
+        } else {
+            logger.info("repacking of date: {} aborted due to a concurrent change", date);
+            return Result.fail(new RepackConflictException());
+        }
+    }
+
+    @Override
+    public List<Room> getAvailableRooms(LocalDate date, TimeSlot timeSlot) {
+        try (final var span = Tracing.span("BookingServiceImpl.getAvailableRooms")) {
+            logger.info("searching for available rooms for date: {} timeSlot: {}", date, timeSlot);
+            final var system = systemStateRepository.findByDate(date);
+            logger.debug("system state: {}", system);
+            final var result = OccupancyIndex.of(system).availableRooms(timeSlot);
+            logger.info("available rooms: {}", result);
+            return result;
+        }
     }
 
     @Override
     public List<Booking> getAllBookingsByDate(LocalDate date) {
-        return bookingRepository.findByDate(date);
+        try (final var span = Tracing.span("BookingServiceImpl.getAllBookingsByDate")) {
+            return bookingRepository.findByDate(date);
+        }
     }
 
     @Override
-    public Result<Nothing> deleteBooking(UUID id) {
-        return switch (getBooking(id)) {
-            case Result.Success<Booking> ignored -> {
-                bookingRepository.delete(id);
-                yield Result.pure(Nothing.get());
+    public BookingPage getBookingsPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+        try (final var span = Tracing.span("BookingServiceImpl.getBookingsPageByDate")) {
+            // one more booking than the limit tells whether there is a next page
+            final var bookings = bookingRepository.findPageByDate(date, after, limit + 1);
+            if (bookings.size() <= limit) {
+                return new BookingPage(bookings, Optional.empty());
             }
-            case Result.Failure<Booking> failure -> Result.fail(failure.error());
-        };
+            final var page = List.copyOf(bookings.subList(0, limit));
+            return new BookingPage(page, Optional.of(BookingCursor.of(page.getLast())));
+        }
+    }
+
+    @Override
+    public Result<Nothing> deleteBooking(UUID id) {
+        try (final var span = Tracing.span("BookingServiceImpl.deleteBooking")) {
+            return unitOfWork.execute(() -> switch (getBooking(id)) {
+                case Result.Success<Booking> success when bookingRepository.isArchived(success.value().date()) ->
+                        Result.<Nothing>fail(new ArchivedDateException(success.value().date()));
+                case Result.Success<Booking> ignored -> {
+                    // the booking may have been deleted concurrently since it was found
+                    if (bookingRepository.delete(id) == 0) {
+                        yield Result.<Nothing>fail(new RoomNotFoundException());
+                    }
+                    yield Result.pure(Nothing.get());
+                }
+                case Result.Failure<Booking> failure -> Result.<Nothing>fail(failure.error());
+            });
+        }
     }
 
     @Override
     public Result<Booking> getBooking(UUID id) {
-        return bookingRepository.find(id)
-                .map(Result::pure)
-                .orElse(Result.fail(new RoomNotFoundException()));
+        try (final var span = Tracing.span("BookingServiceImpl.getBooking")) {
+            return bookingRepository.find(id)
+                    .map(Result::pure)
+                    .orElse(Result.fail(new RoomNotFoundException()));
+        }
     }
 }
@@ -0,0 +1,129 @@
+package com.kntronov.makespace.domain.services.impl;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.BookingPage;
+import com.kntronov.makespace.domain.entities.BookingRequest;
+import com.kntronov.makespace.domain.entities.BookingSeries;
+import com.kntronov.makespace.domain.entities.RecurringBookingRequest;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.ArchivedDateException;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
+import com.kntronov.makespace.domain.errors.NoRoomAvailableException;
+import com.kntronov.makespace.domain.repositories.BookingRepository;
+import com.kntronov.makespace.domain.services.AllocationMetrics;
+import com.kntronov.makespace.domain.services.BookingService;
+import com.kntronov.makespace.domain.services.UUIDProvider;
+import com.kntronov.makespace.util.Nothing;
+import com.kntronov.makespace.util.Result;
+import com.kntronov.makespace.util.tracing.Tracing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Decorator of a BookingService that books single meetings with one database statement, selecting the best
+ * fitting room and inserting the booking at once, instead of loading the system state of the date first.
+ * Every other operation is delegated.
+ * <p>
+ * A statement rejected because the selected room was booked concurrently is retried
+ * up to {@value BookingServiceImpl#MAX_ALLOCATION_ATTEMPTS} attempts.
+ */
+@SuppressWarnings("try")
+public class DatabaseAllocatingBookingService implements BookingService {
+
+    private static final Logger logger = LoggerFactory.getLogger("BookingService");
+
+    private final BookingService delegate;
+    private final UUIDProvider uuidProvider;
+    private final BookingRepository bookingRepository;
+    private final AllocationMetrics allocationMetrics;
+
+    public DatabaseAllocatingBookingService(
+            BookingService delegate,
+            UUIDProvider uuidProvider,
+            BookingRepository bookingRepository,
+            AllocationMetrics allocationMetrics
+    ) {
+        this.delegate = delegate;
+        this.uuidProvider = uuidProvider;
+        this.bookingRepository = bookingRepository;
+        this.allocationMetrics = allocationMetrics;
+    }
+
+    @Override
+    public Result<Booking> bookNextAvailableRoom(LocalDate date, TimeSlot timeSlot, int numPeople) {
+        try (final var span = Tracing.span("DatabaseAllocatingBookingService.bookNextAvailableRoom")) {
+            if (bookingRepository.isArchived(date)) {
+                return Result.fail(new ArchivedDateException(date));
+            }
+            logger.info("allocating in database for date: {}, timeSlot: {}, numPeople: {}", date, timeSlot, numPeople);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    final var maybeBooking = bookingRepository.saveInBestFittingRoom(uuidProvider.generateUuid(), date, timeSlot, numPeople);
+                    if (maybeBooking.isPresent()) {
+                        logger.info("booking {} successfully created", maybeBooking.get());
+                        return Result.pure(maybeBooking.get());
+                    } else {
+                        logger.info("no booking found");
+                        return Result.fail(new NoRoomAvailableException());
+                    }
+                } catch (BookingConflictException e) {
+                    if (attempt == BookingServiceImpl.MAX_ALLOCATION_ATTEMPTS) {
+                        logger.warn("selected rooms were booked concurrently, giving up after {} attempts", attempt);
+                        allocationMetrics.recordExhaustedRetries();
+                        return Result.fail(e);
+                    }
+                    logger.info("selected room was booked concurrently, retrying");
+                    allocationMetrics.recordConflictRetry();
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Result<Booking>> bookAll(List<BookingRequest> requests) {
+        return delegate.bookAll(requests);
+    }
+
+    @Override
+    public Result<BookingSeries> bookRecurring(RecurringBookingRequest request) {
+        return delegate.bookRecurring(request);
+    }
+
+    @Override
+    public Result<List<BookingMove>> repack(LocalDate date) {
+        return delegate.repack(date);
+    }
+
+    @Override
+    public List<Room> getAvailableRooms(LocalDate date, TimeSlot timeSlot) {
+        return delegate.getAvailableRooms(date, timeSlot);
+    }
+
+    @Override
+    public List<Booking> getAllBookingsByDate(LocalDate date) {
+        return delegate.getAllBookingsByDate(date);
+    }
+
+    @Override
+    public BookingPage getBookingsPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+        return delegate.getBookingsPageByDate(date, after, limit);
+    }
+
+    @Override
+    public Result<Nothing> deleteBooking(UUID id) {
+        return delegate.deleteBooking(id);
+    }
+
+    @Override
+    public Result<Booking> getBooking(UUID id) {
+        return delegate.getBooking(id);
+    }
+}
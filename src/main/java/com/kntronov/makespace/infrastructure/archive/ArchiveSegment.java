@@ -0,0 +1,294 @@
+package com.kntronov.makespace.infrastructure.archive;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Immutable, memory-mapped file holding the bookings of a month in columns.
+ * <p>
+ * Bookings are sorted by date, start time, room name and id. Dates are not stored per booking, the header holds the
+ * first booking of each day of the month instead. Start times are stored as a quarter-hour of the day and end times as
+ * a number of quarter-hours after the start, one byte each. Rooms are stored once in a dictionary and referenced by
+ * index, the room capacity being the one at the time of archiving. A last column holds the bookings sorted by id
+ * to look them up by binary search.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header   magic (int), version (int), year (int), month (int), booking count (int),
+ *          first booking of each day (32 ints, the last one being the booking count),
+ *          room count (int), rooms (name length as short, UTF-8 name, capacity as int)
+ * columns  ids (2 longs), start quarters (byte), duration in quarters (byte), room indexes (short),
+ *          number of people (short), bookings in id order (int)
+ * </pre>
+ * Reads do not move the position of the mapped buffer, a segment can be read by many threads at once.
+ */
+public final class ArchiveSegment {
+
+    private static final int MAGIC = 0x4D4B5341;
+    private static final int VERSION = 1;
+    private static final int DAYS = 31;
+    private static final int MINUTES_PER_QUARTER = 15;
+    private static final int MAX_UNSIGNED_SHORT = 0xFFFF;
+
+    static final Comparator<Booking> order = Comparator.comparing(Booking::date)
+            .thenComparing(booking -> booking.timeSlot().start())
+            .thenComparing(booking -> booking.room().name())
+            .thenComparing(Booking::id, ArchiveSegment::compareIds);
+
+    private final YearMonth month;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int[] dayOffsets;
+    private final Room[] rooms;
+    private final int idsOffset;
+    private final int startsOffset;
+    private final int durationsOffset;
+    private final int roomsOffset;
+    private final int peopleOffset;
+    private final int idOrderOffset;
+
+    private ArchiveSegment(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException("not a booking archive segment");
+        }
+        this.buffer = buffer;
+        this.month = YearMonth.of(buffer.getInt(), buffer.getInt());
+        this.size = buffer.getInt();
+        this.dayOffsets = new int[DAYS + 1];
+        for (int i = 0; i <= DAYS; i++) {
+            dayOffsets[i] = buffer.getInt();
+        }
+        this.rooms = new Room[buffer.getInt()];
+        for (int i = 0; i < rooms.length; i++) {
+            final var name = new byte[buffer.getShort()];
+            buffer.get(name);
+            rooms[i] = new Room(new String(name, StandardCharsets.UTF_8), buffer.getInt());
+        }
+        this.idsOffset = buffer.position();
+        this.startsOffset = idsOffset + size * 2 * Long.BYTES;
+        this.durationsOffset = startsOffset + size;
+        this.roomsOffset = durationsOffset + size;
+        this.peopleOffset = roomsOffset + size * Short.BYTES;
+        this.idOrderOffset = peopleOffset + size * Short.BYTES;
+    }
+
+    /**
+     * Map a segment file in memory.
+     *
+     * @param path segment file
+     * @return segment backed by the mapped file
+     */
+    public static ArchiveSegment open(Path path) {
+        try (final var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid once the channel is closed
+            return new ArchiveSegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the bookings of a month to a segment file.
+     * The file is synced to disk and atomically moved to its path, an existing segment is replaced.
+     *
+     * @param path     segment file
+     * @param month    month of the bookings
+     * @param bookings bookings of the month
+     */
+    public static void write(Path path, YearMonth month, List<Booking> bookings) {
+        final var sorted = bookings.stream().sorted(order).toList();
+        final var roomIndexes = new LinkedHashMap<Room, Integer>();
+        final var dayOffsets = new int[DAYS + 1];
+        for (final var booking : sorted) {
+            if (!YearMonth.from(booking.date()).equals(month)) {
+                throw new IllegalArgumentException("booking " + booking.id() + " is not in " + month);
+            }
+            if (booking.numPeople() > MAX_UNSIGNED_SHORT) {
+                throw new IllegalArgumentException("booking " + booking.id() + " has too many people to be archived");
+            }
+            roomIndexes.putIfAbsent(booking.room(), roomIndexes.size());
+            dayOffsets[booking.date().getDayOfMonth()]++;
+        }
+        if (roomIndexes.size() > MAX_UNSIGNED_SHORT + 1) {
+            throw new IllegalArgumentException("too many rooms to be archived");
+        }
+        for (int i = 1; i <= DAYS; i++) {
+            dayOffsets[i] += dayOffsets[i - 1];
+        }
+        final var roomNames = new ArrayList<byte[]>(roomIndexes.size());
+        var roomsLength = 0;
+        for (final var room : roomIndexes.keySet()) {
+            final var name = room.name().getBytes(StandardCharsets.UTF_8);
+            roomNames.add(name);
+            roomsLength += Short.BYTES + name.length + Integer.BYTES;
+        }
+        final var size = sorted.size();
+        final var headerLength = Integer.BYTES * (5 + DAYS + 1 + 1) + roomsLength;
+        final var rowLength = 2 * Long.BYTES + 2 + 2 * Short.BYTES + Integer.BYTES;
+        final var buffer = ByteBuffer.allocate(headerLength + size * rowLength);
+
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(month.getYear()).putInt(month.getMonthValue()).putInt(size);
+        for (final var offset : dayOffsets) {
+            buffer.putInt(offset);
+        }
+        buffer.putInt(roomIndexes.size());
+        var roomIndex = 0;
+        for (final var room : roomIndexes.keySet()) {
+            final var name = roomNames.get(roomIndex++);
+            buffer.putShort((short) name.length).put(name).putInt(room.peopleCapacity());
+        }
+        for (final var booking : sorted) {
+            buffer.putLong(booking.id().getMostSignificantBits()).putLong(booking.id().getLeastSignificantBits());
+        }
+        for (final var booking : sorted) {
+            buffer.put((byte) quarterOf(booking.timeSlot().start()));
+        }
+        for (final var booking : sorted) {
+            buffer.put((byte) (quarterOf(booking.timeSlot().end()) - quarterOf(booking.timeSlot().start())));
+        }
+        for (final var booking : sorted) {
+            buffer.putShort((short) (int) roomIndexes.get(booking.room()));
+        }
+        for (final var booking : sorted) {
+            buffer.putShort((short) booking.numPeople());
+        }
+        final var idOrder = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            idOrder.add(i);
+        }
+        idOrder.sort((a, b) -> compareIds(sorted.get(a).id(), sorted.get(b).id()));
+        for (final var row : idOrder) {
+            buffer.putInt(row);
+        }
+
+        final var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (final var channel = FileChannel.open(
+                temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public YearMonth month() {
+        return month;
+    }
+
+    /**
+     * Returns the number of bookings in the segment.
+     *
+     * @return number of bookings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieve the bookings of a date, ordered by start time, room name and id.
+     *
+     * @param date date of the segment month
+     * @return bookings of the date
+     */
+    public List<Booking> findByDate(LocalDate date) {
+        if (!YearMonth.from(date).equals(month)) {
+            return List.of();
+        }
+        final var day = date.getDayOfMonth();
+        final var bookings = new ArrayList<Booking>(dayOffsets[day] - dayOffsets[day - 1]);
+        for (int row = dayOffsets[day - 1]; row < dayOffsets[day]; row++) {
+            bookings.add(bookingAt(row, date));
+        }
+        return bookings;
+    }
+
+    /**
+     * Retrieve a booking by id.
+     *
+     * @param id booking id
+     * @return booking if it is in the segment
+     */
+    public Optional<Booking> find(UUID id) {
+        var from = 0;
+        var to = size;
+        while (from < to) {
+            final var middle = (from + to) >>> 1;
+            final var row = buffer.getInt(idOrderOffset + middle * Integer.BYTES);
+            final var comparison = compareIds(idAt(row), id);
+            if (comparison < 0) {
+                from = middle + 1;
+            } else if (comparison > 0) {
+                to = middle;
+            } else {
+                return Optional.of(bookingAt(row, month.atDay(dayOf(row))));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Booking bookingAt(int row, LocalDate date) {
+        final var start = buffer.get(startsOffset + row);
+        final var duration = buffer.get(durationsOffset + row);
+        final var room = rooms[Short.toUnsignedInt(buffer.getShort(roomsOffset + row * Short.BYTES))];
+        final var numPeople = Short.toUnsignedInt(buffer.getShort(peopleOffset + row * Short.BYTES));
+        return new Booking(idAt(row), date, new TimeSlot(timeOf(start), timeOf(start + duration)), room, numPeople);
+    }
+
+    private UUID idAt(int row) {
+        final var offset = idsOffset + row * 2 * Long.BYTES;
+        return new UUID(buffer.getLong(offset), buffer.getLong(offset + Long.BYTES));
+    }
+
+    private int dayOf(int row) {
+        var day = 1;
+        while (dayOffsets[day] <= row) {
+            day++;
+        }
+        return day;
+    }
+
+    private static int quarterOf(LocalTime time) {
+        return time.getHour() * 4 + time.getMinute() / MINUTES_PER_QUARTER;
+    }
+
+    private static LocalTime timeOf(int quarter) {
+        return LocalTime.of(quarter / 4, quarter % 4 * MINUTES_PER_QUARTER);
+    }
+
+    /**
+     * Compares ids as unsigned 128-bit numbers, the order PostgreSQL sorts uuid values in.
+     */
+    static int compareIds(UUID a, UUID b) {
+        final var most = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return most != 0 ? most : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
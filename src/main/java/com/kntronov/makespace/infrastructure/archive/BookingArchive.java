@@ -0,0 +1,140 @@
+package com.kntronov.makespace.infrastructure.archive;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Archive of the bookings of past months, one ArchiveSegment file per month in a local directory.
+ * <p>
+ * Archived months are read-only, their bookings are read from the mapped segments and never from the database.
+ */
+public class BookingArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger("BookingArchive");
+
+    private static final Pattern segmentFileName = Pattern.compile("bookings-(\\d{4}-\\d{2})\\.segment");
+
+    private static final Comparator<BookingCursor> cursorOrder = Comparator.comparing(BookingCursor::start)
+            .thenComparing(BookingCursor::roomName)
+            .thenComparing(BookingCursor::id, ArchiveSegment::compareIds);
+
+    private final Path directory;
+    private final ConcurrentSkipListMap<YearMonth, ArchiveSegment> segments = new ConcurrentSkipListMap<>();
+
+    /**
+     * Create an archive of a directory, mapping the segments already in it.
+     * The directory is created when the first month is archived.
+     *
+     * @param directory segments directory
+     */
+    public BookingArchive(Path directory) {
+        this.directory = directory;
+        if (Files.isDirectory(directory)) {
+            try (final var files = Files.list(directory)) {
+                files.forEach(file -> {
+                    final var matcher = segmentFileName.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        segments.put(YearMonth.parse(matcher.group(1)), ArchiveSegment.open(file));
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            logger.info("mapped {} archived months from {}", segments.size(), directory);
+        }
+    }
+
+    /**
+     * Returns true if the bookings of the month are archived.
+     *
+     * @param month month
+     * @return if the month is archived
+     */
+    public boolean isArchived(YearMonth month) {
+        return segments.containsKey(month);
+    }
+
+    /**
+     * Returns true if the bookings of the month of the date are archived.
+     *
+     * @param date date
+     * @return if the date is archived
+     */
+    public boolean isArchived(LocalDate date) {
+        return isArchived(YearMonth.from(date));
+    }
+
+    /**
+     * Retrieve an archived booking by id, probing the segments from the most recent.
+     *
+     * @param id booking id
+     * @return booking if it is archived
+     */
+    public Optional<Booking> find(UUID id) {
+        for (final var segment : segments.descendingMap().values()) {
+            final var booking = segment.find(id);
+            if (booking.isPresent()) {
+                return booking;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Retrieve the archived bookings of a date, ordered by start time, room name and id.
+     *
+     * @param date archived date
+     * @return bookings of the date, empty if the date is not archived
+     */
+    public List<Booking> findByDate(LocalDate date) {
+        final var segment = segments.get(YearMonth.from(date));
+        return segment == null ? List.of() : segment.findByDate(date);
+    }
+
+    /**
+     * Retrieve a page of the archived bookings of a date, ordered by start time, room name and id.
+     *
+     * @param date  archived date
+     * @param after sort key of the last booking of the previous page, first page if empty
+     * @param limit maximum number of bookings
+     * @return bookings of the page
+     */
+    public List<Booking> findPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+        return findByDate(date).stream()
+                .filter(booking -> after.isEmpty() || cursorOrder.compare(BookingCursor.of(booking), after.get()) > 0)
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Write the bookings of a month to its segment and serve the month from the archive from now on.
+     *
+     * @param month    month
+     * @param bookings every booking of the month
+     */
+    public void store(YearMonth month, List<Booking> bookings) {
+        final var path = directory.resolve("bookings-" + month + ".segment");
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ArchiveSegment.write(path, month, bookings);
+        segments.put(month, ArchiveSegment.open(path));
+    }
+}
@@ -0,0 +1,103 @@
+package com.kntronov.makespace.infrastructure.archive;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+import com.kntronov.makespace.infrastructure.common.BookingMapper;
+import com.kntronov.makespace.infrastructure.db.PooledDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Moves the bookings of past months from the database to the BookingArchive.
+ * <p>
+ * A month is archived in a single transaction: its bookings are read under a lock that keeps them from changing,
+ * written to a segment synced to disk, and then its partition is dropped. If the transaction fails after the segment
+ * is written the bookings are left in the database as well, where they are no longer read.
+ */
+public class BookingArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger("BookingArchiver");
+
+    private final PooledDataSource dataSource;
+    private final BookingArchive archive;
+    private final SystemStateCache cache;
+
+    public BookingArchiver(PooledDataSource dataSource, BookingArchive archive, SystemStateCache cache) {
+        this.dataSource = dataSource;
+        this.archive = archive;
+        this.cache = cache;
+    }
+
+    /**
+     * Archive every month not archived yet from the first month with bookings up to the given one, excluded.
+     * Months without bookings get an empty segment, so that archived months are contiguous.
+     *
+     * @param horizon first month to keep in the database
+     * @return archived months
+     */
+    public List<YearMonth> archiveBefore(YearMonth horizon) {
+        final var archived = new ArrayList<YearMonth>();
+        final var firstMonth = firstMonthWithBookings();
+        if (firstMonth.isEmpty()) {
+            return archived;
+        }
+        for (var month = firstMonth.get(); month.isBefore(horizon); month = month.plusMonths(1)) {
+            if (!archive.isArchived(month)) {
+                final var count = archive(month);
+                logger.info("archived {} bookings of {}", count, month);
+                archived.add(month);
+            }
+        }
+        if (!archived.isEmpty()) {
+            // cached states of archived dates still offer their rooms
+            cache.invalidateAll();
+        }
+        return archived;
+    }
+
+    private Optional<YearMonth> firstMonthWithBookings() {
+        return dataSource.getLeanConnection().use(c -> {
+            try (final var statement = c.prepareStatement("SELECT min(date) FROM booking")) {
+                final var result = statement.executeQuery();
+                result.next();
+                final var date = result.getDate(1);
+                return Optional.ofNullable(date).map(d -> YearMonth.from(d.toLocalDate()));
+            }
+        });
+    }
+
+    private int archive(YearMonth month) {
+        final var sql = """
+                SELECT b.id, b.date, b.start, b."end", b.room_name, b.num_people, r.people_capacity
+                FROM booking b, room r
+                WHERE b.room_name = r.name
+                AND b.date >= ?
+                AND b.date < ?
+                """;
+        return dataSource.getLeanConnection().transact(c -> {
+            try (final var lock = c.createStatement();
+                 final var select = c.prepareStatement(sql);
+                 final var drop = c.prepareStatement("SELECT drop_booking_partition(?)")) {
+                // self-conflicting mode, the same the importer takes, readers are not blocked until the drop
+                lock.execute("LOCK TABLE booking IN SHARE ROW EXCLUSIVE MODE");
+                select.setDate(1, Date.valueOf(month.atDay(1)));
+                select.setDate(2, Date.valueOf(month.plusMonths(1).atDay(1)));
+                final var result = select.executeQuery();
+                final var bookings = new ArrayList<Booking>();
+                while (result.next()) {
+                    bookings.add(BookingMapper.fromResult(result));
+                }
+                archive.store(month, bookings);
+                drop.setDate(1, Date.valueOf(month.atDay(1)));
+                drop.execute();
+                return bookings.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,208 @@
+package com.kntronov.makespace.infrastructure.cache;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.SystemState;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded, least recently used cache of SystemState snapshots by date.
+ * <p>
+ * Hot dates (today and tomorrow according to the clock) are never evicted, once loaded they are only patched by writes.
+ * Cached snapshots are immutable, writes replace them with patched copies.
+ * A load that raced with a write is returned to the caller but not cached, so a snapshot read before a write
+ * can never overwrite the patched one.
+ */
+public class SystemStateCache {
+
+    private final int maximumSize;
+    private final Clock clock;
+
+    private final LinkedHashMap<LocalDate, SystemState> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long writeGeneration = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SystemStateCache(int maximumSize, Clock clock) {
+        if (maximumSize < 2) {
+            throw new IllegalArgumentException("maximumSize must be at least 2 to hold the hot dates");
+        }
+        this.maximumSize = maximumSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Retrieve the cached state for a date, loading and caching it on a miss.
+     *
+     * @param date   date
+     * @param loader loads the state on a cache miss
+     * @return system state
+     */
+    public SystemState get(LocalDate date, Function<LocalDate, SystemState> loader) {
+        final long generation;
+        synchronized (this) {
+            final var cached = entries.get(date);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            generation = writeGeneration;
+        }
+        misses.increment();
+        final var loaded = immutableCopy(loader.apply(date));
+        synchronized (this) {
+            if (generation == writeGeneration) {
+                entries.put(date, loaded);
+                evictIfNeeded();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Retrieve the states of many dates, serving the cached ones and loading all the others with a single call.
+     * States loaded this way are not cached, so that a long series of dates does not evict the recently used ones.
+     *
+     * @param dates  dates
+     * @param loader loads the states of the dates missing from the cache, in the given order
+     * @return system states in the same order as the dates
+     */
+    public List<SystemState> getAll(List<LocalDate> dates, Function<List<LocalDate>, List<SystemState>> loader) {
+        final var states = new HashMap<LocalDate, SystemState>();
+        final var missing = new LinkedHashSet<LocalDate>();
+        synchronized (this) {
+            for (final var date : dates) {
+                final var cached = entries.get(date);
+                if (cached != null) {
+                    hits.increment();
+                    states.put(date, cached);
+                } else {
+                    missing.add(date);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            misses.add(missing.size());
+            for (final var loaded : loader.apply(List.copyOf(missing))) {
+                states.put(loaded.date(), immutableCopy(loaded));
+            }
+        }
+        return dates.stream().map(states::get).toList();
+    }
+
+    /**
+     * Add a booking to the cached state of its date, if cached.
+     *
+     * @param booking created booking
+     */
+    public synchronized void addBooking(Booking booking) {
+        patch(booking.date(), state -> {
+            final var bookings = new ArrayList<>(state.currentBookings());
+            bookings.add(booking);
+            return withBookings(state, bookings);
+        });
+    }
+
+    /**
+     * Remove a booking from every cached state.
+     *
+     * @param id booking id
+     */
+    public synchronized void removeBooking(UUID id) {
+        writeGeneration++;
+        entries.replaceAll((date, state) -> state.currentBookings().stream().anyMatch(b -> b.id().equals(id))
+                ? withBookings(state, state.currentBookings().stream().filter(b -> !b.id().equals(id)).toList())
+                : state
+        );
+    }
+
+    /**
+     * Drop the cached state of a date.
+     *
+     * @param date date
+     */
+    public synchronized void invalidate(LocalDate date) {
+        writeGeneration++;
+        entries.remove(date);
+    }
+
+    /**
+     * Drop every cached state.
+     */
+    public synchronized void invalidateAll() {
+        writeGeneration++;
+        entries.clear();
+    }
+
+    public CacheStats stats() {
+        final int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size, maximumSize);
+    }
+
+    private void patch(LocalDate date, UnaryOperator<SystemState> patch) {
+        writeGeneration++;
+        entries.computeIfPresent(date, (ignored, state) -> patch.apply(state));
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() <= maximumSize) {
+            return;
+        }
+        final var today = LocalDate.now(clock);
+        final var tomorrow = today.plusDays(1);
+        final var iterator = entries.keySet().iterator();
+        while (entries.size() > maximumSize && iterator.hasNext()) {
+            final var date = iterator.next();
+            if (!date.equals(today) && !date.equals(tomorrow)) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static SystemState immutableCopy(SystemState state) {
+        return new SystemState(
+                state.date(),
+                List.copyOf(state.availableRooms()),
+                List.copyOf(state.currentBookings()),
+                List.copyOf(state.bufferTimes())
+        );
+    }
+
+    private static SystemState withBookings(SystemState state, List<Booking> bookings) {
+        return new SystemState(state.date(), state.availableRooms(), List.copyOf(bookings), state.bufferTimes());
+    }
+
+    /**
+     * Counters of the cache usage.
+     *
+     * @param hits        number of lookups served from the cache
+     * @param misses      number of lookups that loaded the state
+     * @param evictions   number of states evicted to respect the maximum size
+     * @param size        current number of cached states
+     * @param maximumSize maximum number of cached states
+     */
+    public record CacheStats(
+            long hits,
+            long misses,
+            long evictions,
+            int size,
+            int maximumSize
+    ) {
+    }
+}
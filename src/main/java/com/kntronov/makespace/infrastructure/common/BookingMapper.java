@@ -6,6 +6,7 @@ import com.kntronov.makespace.domain.entities.TimeSlot;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -16,13 +17,34 @@ public class BookingMapper {
     }
 
     public static Booking fromResult(ResultSet result) throws SQLException {
+        final var roomName = result.getString("room_name");
+        final var roomCapacity = result.getInt("people_capacity");
+        return fromResult(result, new Room(roomName, roomCapacity));
+    }
+
+    /**
+     * Maps a booking whose room is looked up by name among already loaded rooms instead of being read from the row.
+     *
+     * @param result result set positioned on a booking row
+     * @param rooms  loaded rooms by name
+     * @return booking sharing the Room instance of its room
+     * @throws SQLException if the row cannot be read
+     */
+    public static Booking fromResult(ResultSet result, Map<String, Room> rooms) throws SQLException {
+        final var roomName = result.getString("room_name");
+        final var room = rooms.get(roomName);
+        if (room == null) {
+            throw new IllegalStateException("booking references unknown room " + roomName);
+        }
+        return fromResult(result, room);
+    }
+
+    private static Booking fromResult(ResultSet result, Room room) throws SQLException {
         final var resultId = UUID.fromString(result.getString("id"));
         final var resultDate = result.getDate("date").toLocalDate();
         final var start = result.getTime("start").toLocalTime();
         final var end = result.getTime("end").toLocalTime();
-        final var roomName = result.getString("room_name");
-        final var roomCapacity = result.getInt("people_capacity");
         final var numPeople = result.getInt("num_people");
-        return new Booking(resultId, resultDate, new TimeSlot(start, end), new Room(roomName, roomCapacity), numPeople);
+        return new Booking(resultId, resultDate, new TimeSlot(start, end), room, numPeople);
     }
 }
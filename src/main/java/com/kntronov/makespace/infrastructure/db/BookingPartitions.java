@@ -0,0 +1,76 @@
+package com.kntronov.makespace.infrastructure.db;
+
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintenance of the monthly partitions of the booking table.
+ * <p>
+ * Bookings of a month without a partition land in the default partition and are moved to the partition of their month
+ * when it is created. Dropping the partitions of old months detaches and drops whole tables, no row is deleted
+ * one by one.
+ */
+public class BookingPartitions {
+
+    private final PooledDataSource dataSource;
+    private final SystemStateCache cache;
+
+    public BookingPartitions(PooledDataSource dataSource, SystemStateCache cache) {
+        this.dataSource = dataSource;
+        this.cache = cache;
+    }
+
+    /**
+     * Create the partitions of a range of months that do not exist yet.
+     *
+     * @param from first month, inclusive
+     * @param to   last month, inclusive
+     * @return names of the partitions of the range
+     */
+    public List<String> create(YearMonth from, YearMonth to) {
+        final var sql = "SELECT create_booking_partition(?)";
+        final var partitions = new ArrayList<String>();
+        for (var month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            final var firstDay = month.atDay(1);
+            // one transaction per month, so that the locks on the booking table are held briefly
+            partitions.add(dataSource.getLeanConnection().transact(c -> {
+                try (final var statement = c.prepareStatement(sql)) {
+                    statement.setDate(1, Date.valueOf(firstDay));
+                    final var result = statement.executeQuery();
+                    result.next();
+                    return result.getString(1);
+                }
+            }));
+        }
+        return partitions;
+    }
+
+    /**
+     * Detach and drop the partitions of the months before the given one, together with their bookings.
+     *
+     * @param month first month to keep
+     * @return names of the dropped partitions
+     */
+    public List<String> dropBefore(YearMonth month) {
+        final var sql = "SELECT drop_booking_partitions_before(?)";
+        final var dropped = dataSource.getLeanConnection().transact(c -> {
+            try (final var statement = c.prepareStatement(sql)) {
+                statement.setDate(1, Date.valueOf(month.atDay(1)));
+                final var result = statement.executeQuery();
+                final var names = new ArrayList<String>();
+                while (result.next()) {
+                    names.add(result.getString(1));
+                }
+                return names;
+            }
+        });
+        if (!dropped.isEmpty()) {
+            cache.invalidateAll();
+        }
+        return dropped;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kntronov.makespace.infrastructure.db;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the connections acquired through LeanConnection.
+ */
+public final class ConnectionMetrics {
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireWaitNanos = new LongAdder();
+    private final LongAccumulator maxAcquireWaitNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAdder longHeld = new LongAdder();
+    private final LongAccumulator maxHeldNanos = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * @param waitNanos time from asking for a connection to getting it, waiting for a permit and for the pool
+     */
+    void recordAcquisition(long waitNanos) {
+        acquisitions.increment();
+        acquireWaitNanos.add(waitNanos);
+        maxAcquireWaitNanos.accumulate(waitNanos);
+    }
+
+    void recordRelease(long heldNanos, boolean heldTooLong) {
+        maxHeldNanos.accumulate(heldNanos);
+        if (heldTooLong) {
+            longHeld.increment();
+        }
+    }
+
+    /**
+     * Returns the number of connections acquired from the pool.
+     *
+     * @return number of acquisitions
+     */
+    public long acquisitions() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * Returns the total time spent waiting to acquire a connection, the hold times not including it.
+     *
+     * @return total acquisition wait in milliseconds
+     */
+    public long acquireWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(acquireWaitNanos.sum());
+    }
+
+    /**
+     * Returns the longest time spent waiting to acquire a connection.
+     *
+     * @return longest acquisition wait in milliseconds
+     */
+    public long maxAcquireWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxAcquireWaitNanos.get());
+    }
+
+    /**
+     * Returns the number of connections held longer than the leak detection threshold.
+     *
+     * @return number of connections held too long
+     */
+    public long longHeld() {
+        return longHeld.sum();
+    }
+
+    /**
+     * Returns the longest time a connection has been held, from its acquisition to its release.
+     *
+     * @return longest hold time in milliseconds
+     */
+    public long maxHeldMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxHeldNanos.get());
+    }
+}
@@ -0,0 +1,46 @@
+package com.kntronov.makespace.infrastructure.db;
+
+import com.kntronov.makespace.domain.errors.BookingConflictException;
+import com.kntronov.makespace.domain.repositories.UnitOfWork;
+import com.kntronov.makespace.infrastructure.errors.UncheckedSQLException;
+
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the UnitOfWork interface that binds a pooled connection and a transaction to the current thread.
+ * <p>
+ * A unit of work failing to commit because of a concurrent write, such as a serialization failure under the
+ * REPEATABLE_READ or SERIALIZABLE isolation levels, throws BookingConflictException, so that callers retry it in a
+ * new unit of work as they retry the writes rejected by the booking constraints.
+ */
+public class JdbcUnitOfWork implements UnitOfWork {
+
+    private final LeanConnection leanConnection;
+    private final int isolationLevel;
+
+    /**
+     * @param dataSource     data source whose repositories join the unit of work
+     * @param isolationLevel transaction isolation level, one of the Connection.TRANSACTION_* constants
+     */
+    public JdbcUnitOfWork(PooledDataSource dataSource, int isolationLevel) {
+        this.leanConnection = dataSource.getLeanConnection();
+        this.isolationLevel = isolationLevel;
+    }
+
+    @Override
+    public <T> T execute(Supplier<T> work) {
+        try {
+            return leanConnection.bind(isolationLevel, work);
+        } catch (UncheckedSQLException e) {
+            if (SqlConflicts.isConflict(e)) {
+                throw new BookingConflictException(e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void afterCommit(Runnable action) {
+        leanConnection.afterCommit(action);
+    }
+}
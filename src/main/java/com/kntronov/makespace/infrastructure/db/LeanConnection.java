@@ -1,49 +1,336 @@
 package com.kntronov.makespace.infrastructure.db;
 
 import com.kntronov.makespace.infrastructure.errors.UncheckedSQLException;
+import com.kntronov.makespace.util.tracing.Tracing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * A wrapper over JDBC Connection that abstracts boilerplate to streamline code and converts checked SQLException
  * into unchecked UncheckedSQLException.
+ * <p>
+ * A connection is acquired from the data source for the scope of each {@link #use} or {@link #transact} call
+ * and is always returned to the pool when the call completes, with its autocommit mode restored.
+ * Since the scope is a single call, the stack of the code releasing a connection held longer than the
+ * leak detection threshold is also the stack of the code that acquired it, and is logged as such.
+ * <p>
+ * Within {@link #bind(int, Supplier)} a single connection and transaction are bound to the current thread:
+ * {@link #use} runs on the bound connection and {@link #transact} runs in a savepoint of the bound transaction,
+ * so that a failed nested write does not abort the enclosing work.
+ * <p>
+ * Callers take a permit before asking the pool for a connection, with as many permits as pooled connections. Threads
+ * in excess wait in arrival order on the permits instead of all contending for the pool, which keeps a large number
+ * of virtual threads from stampeding the pool and timing out unfairly. Nested calls within a bound connection do not
+ * take another permit. The wait for a permit and the wait of the pool share a single acquisition timeout: a permit is
+ * awaited until the timeout, less the time the pool may wait on its own, counted from the request of the connection.
+ * <p>
+ * In a traced request each call records a span, with the permit wait, the pool acquisition and each statement
+ * executed as child spans.
  */
+@SuppressWarnings("try")
 public class LeanConnection {
 
-    private final Connection connection;
+    private static final Logger logger = LoggerFactory.getLogger("LeanConnection");
 
-    public LeanConnection(DataSource dataSource) {
-        try {
-            this.connection = dataSource.getConnection();
-        } catch (SQLException e) {
-            throw new UncheckedSQLException(e);
-        }
+    private final DataSource dataSource;
+    private final ConnectionMetrics metrics;
+    private final long leakDetectionThresholdNanos;
+    private final Semaphore permits;
+    private final long acquisitionTimeoutNanos;
+    private final long poolTimeoutNanos;
+    private final ThreadLocal<BoundConnection> bound = new ThreadLocal<>();
+
+    /**
+     * @param dataSource             data source connections are acquired from
+     * @param metrics                counters updated on each acquisition and release
+     * @param leakDetectionThreshold hold time after which a connection is reported, not reported if zero
+     * @param maxConnections         maximum number of connections acquired at the same time, the pool size
+     * @param acquisitionTimeout     maximum time waiting for a permit to acquire a connection
+     */
+    public LeanConnection(
+            DataSource dataSource,
+            ConnectionMetrics metrics,
+            Duration leakDetectionThreshold,
+            int maxConnections,
+            Duration acquisitionTimeout
+    ) {
+        this(dataSource, metrics, leakDetectionThreshold, maxConnections, acquisitionTimeout, Duration.ZERO);
+    }
+
+    /**
+     * @param dataSource             data source connections are acquired from
+     * @param metrics                counters updated on each acquisition and release
+     * @param leakDetectionThreshold hold time after which a connection is reported, not reported if zero
+     * @param maxConnections         maximum number of connections acquired at the same time, the pool size
+     * @param acquisitionTimeout     maximum time waiting for a permit and then for the data source to acquire
+     *                               a connection
+     * @param poolTimeout            maximum time the data source itself waits for a connection, at most the
+     *                               acquisition timeout
+     */
+    public LeanConnection(
+            DataSource dataSource,
+            ConnectionMetrics metrics,
+            Duration leakDetectionThreshold,
+            int maxConnections,
+            Duration acquisitionTimeout,
+            Duration poolTimeout
+    ) {
+        this.dataSource = dataSource;
+        this.metrics = metrics;
+        this.leakDetectionThresholdNanos = leakDetectionThreshold.toNanos();
+        this.permits = new Semaphore(maxConnections, true);
+        this.acquisitionTimeoutNanos = acquisitionTimeout.toNanos();
+        this.poolTimeoutNanos = poolTimeout.toNanos();
     }
 
     public <T> T use(ConnectionConsumer<T> executable) {
-        try {
-            return executable.apply(connection);
-        } catch (SQLException e) {
-            throw new UncheckedSQLException(e);
+        try (final var span = Tracing.span("LeanConnection.use")) {
+            final var boundConnection = bound.get();
+            if (boundConnection != null) {
+                try {
+                    return executable.apply(TracedConnection.wrap(boundConnection.connection()));
+                } catch (SQLException e) {
+                    throw new UncheckedSQLException(e);
+                }
+            }
+            final var requestedAt = System.nanoTime();
+            acquirePermit(requestedAt);
+            try {
+                try (final var connection = acquire(requestedAt)) {
+                    final var acquiredAt = System.nanoTime();
+                    try {
+                        return executable.apply(TracedConnection.wrap(connection));
+                    } finally {
+                        release(acquiredAt);
+                    }
+                } catch (SQLException e) {
+                    throw new UncheckedSQLException(e);
+                }
+            } finally {
+                permits.release();
+            }
         }
     }
 
     public <T> T transact(ConnectionConsumer<T> executable) {
+        try (final var span = Tracing.span("LeanConnection.transact")) {
+            final var boundConnection = bound.get();
+            if (boundConnection != null) {
+                return transactInSavepoint(TracedConnection.wrap(boundConnection.connection()), executable);
+            }
+            final var requestedAt = System.nanoTime();
+            acquirePermit(requestedAt);
+            try {
+                try (final var connection = acquire(requestedAt)) {
+                    final var acquiredAt = System.nanoTime();
+                    try {
+                        return transact(TracedConnection.wrap(connection), executable);
+                    } finally {
+                        release(acquiredAt);
+                    }
+                } catch (SQLException e) {
+                    throw new UncheckedSQLException(e);
+                }
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private static <T> T transact(Connection connection, ConnectionConsumer<T> executable) throws SQLException {
+        final var autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
         try {
-            connection.setAutoCommit(false);
-            var result = executable.apply(connection);
+            final var result = executable.apply(connection);
             connection.commit();
             return result;
         } catch (Exception e1) {
             try {
                 connection.rollback();
             } catch (SQLException e2) {
-                throw new UncheckedSQLException(e2);
+                e1.addSuppressed(e2);
             }
             throw new UncheckedSQLException(e1);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Bind a connection and a transaction with the given isolation level to the current thread for the scope of
+     * the work. The transaction is committed if the work returns and rolled back if it throws.
+     * If a connection is already bound the work joins its transaction.
+     *
+     * @param isolationLevel transaction isolation level, one of the Connection.TRANSACTION_* constants
+     * @param work           work to run on the bound connection
+     * @param <T>            type of the work result
+     * @return result of the work
+     */
+    public <T> T bind(int isolationLevel, Supplier<T> work) {
+        if (bound.get() != null) {
+            return work.get();
         }
+        try (final var span = Tracing.span("LeanConnection.bind")) {
+            return acquireAndBind(isolationLevel, work);
+        }
+    }
+
+    private <T> T acquireAndBind(int isolationLevel, Supplier<T> work) {
+        final T result;
+        final BoundConnection boundConnection;
+        final var requestedAt = System.nanoTime();
+        acquirePermit(requestedAt);
+        try {
+            boundConnection = new BoundConnection(acquireUnchecked(requestedAt), new ArrayList<>());
+            final var acquiredAt = System.nanoTime();
+            try (final var connection = boundConnection.connection()) {
+                try {
+                    final var autoCommit = connection.getAutoCommit();
+                    final var previousIsolationLevel = connection.getTransactionIsolation();
+                    connection.setAutoCommit(false);
+                    connection.setTransactionIsolation(isolationLevel);
+                    bound.set(boundConnection);
+                    try {
+                        result = work.get();
+                        connection.commit();
+                    } catch (RuntimeException | SQLException e1) {
+                        try {
+                            connection.rollback();
+                        } catch (SQLException e2) {
+                            e1.addSuppressed(e2);
+                        }
+                        throw e1;
+                    } finally {
+                        bound.remove();
+                        connection.setTransactionIsolation(previousIsolationLevel);
+                        connection.setAutoCommit(autoCommit);
+                    }
+                } finally {
+                    release(acquiredAt);
+                }
+            } catch (SQLException e) {
+                throw new UncheckedSQLException(e);
+            }
+        } finally {
+            permits.release();
+        }
+        boundConnection.afterCommit().forEach(Runnable::run);
+        return result;
+    }
+
+    /**
+     * Returns true if a connection is bound to the current thread by {@link #bind(int, Supplier)}.
+     *
+     * @return if a connection is bound
+     */
+    public boolean isBound() {
+        return bound.get() != null;
+    }
+
+    /**
+     * Run an action once the transaction bound to the current thread is committed,
+     * or immediately if no transaction is bound.
+     *
+     * @param action action to run after commit
+     */
+    public void afterCommit(Runnable action) {
+        final var boundConnection = bound.get();
+        if (boundConnection != null) {
+            boundConnection.afterCommit().add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    private static <T> T transactInSavepoint(Connection connection, ConnectionConsumer<T> executable) {
+        try {
+            final var savepoint = connection.setSavepoint();
+            try {
+                final var result = executable.apply(connection);
+                connection.releaseSavepoint(savepoint);
+                return result;
+            } catch (Exception e1) {
+                try {
+                    connection.rollback(savepoint);
+                } catch (SQLException e2) {
+                    e1.addSuppressed(e2);
+                }
+                throw new UncheckedSQLException(e1);
+            }
+        } catch (SQLException e) {
+            throw new UncheckedSQLException(e);
+        }
+    }
+
+    /**
+     * Returns the number of threads waiting for a permit to acquire a connection.
+     *
+     * @return number of waiting threads
+     */
+    int awaiting() {
+        return permits.getQueueLength();
+    }
+
+    private void acquirePermit(long requestedAt) {
+        try (final var span = Tracing.span("LeanConnection.awaitPermit")) {
+            final var remainingNanos = acquisitionTimeoutNanos - poolTimeoutNanos - (System.nanoTime() - requestedAt);
+            if (!permits.tryAcquire(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS)) {
+                throw new UncheckedSQLException(new SQLTransientConnectionException(
+                        "no connection available after " + Duration.ofNanos(acquisitionTimeoutNanos).toMillis() + " ms"
+                ));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedSQLException(new SQLTransientConnectionException("interrupted waiting for a connection", e));
+        }
+    }
+
+    private Connection acquireUnchecked(long requestedAt) {
+        try {
+            return acquire(requestedAt);
+        } catch (SQLException e) {
+            throw new UncheckedSQLException(e);
+        }
+    }
+
+    /**
+     * The wait for the permit and for the pool is recorded apart from the hold time, which starts once the
+     * connection is returned, so that slow acquisitions and connections held too long can be told apart.
+     */
+    private Connection acquire(long requestedAt) throws SQLException {
+        try (final var span = Tracing.span("LeanConnection.acquire")) {
+            final var connection = dataSource.getConnection();
+            metrics.recordAcquisition(System.nanoTime() - requestedAt);
+            return connection;
+        }
+    }
+
+    private void release(long acquiredAt) {
+        final var heldNanos = System.nanoTime() - acquiredAt;
+        final var heldTooLong = leakDetectionThresholdNanos > 0 && heldNanos > leakDetectionThresholdNanos;
+        metrics.recordRelease(heldNanos, heldTooLong);
+        if (heldTooLong) {
+            logger.warn(
+                    "connection held for {} ms, longer than the leak detection threshold of {} ms",
+                    Duration.ofNanos(heldNanos).toMillis(),
+                    Duration.ofNanos(leakDetectionThresholdNanos).toMillis(),
+                    new Exception("connection acquired here")
+            );
+        }
+    }
+
+    private record BoundConnection(Connection connection, List<Runnable> afterCommit) {
     }
 
     @FunctionalInterface
@@ -6,19 +6,173 @@ import com.zaxxer.hikari.HikariDataSource;
 
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A wrapper around a pooled DB connection that exposes LeanConnection.
+ * <p>
+ * Besides the primary pool it can manage a pool per read replica. Reads that tolerate a bounded staleness are routed
+ * to a replica through {@link #getReadConnection()}, everything else goes to the primary. The lag of every replica is
+ * measured in the background against the WAL positions of the primary, so that a replica that stopped receiving or
+ * replaying the WAL falls behind, and a replica lagging more than the configured bound, or whose lag cannot be
+ * measured, is skipped until it catches up. Reads fall back to the primary when no replica is fresh enough.
+ * <p>
+ * The lag is measured once {@link #start()} is called, until the data source is closed with its pools.
  */
-public class PooledDataSource {
+public class PooledDataSource implements AutoCloseable {
+    private static final Duration maxLagCheckInterval = Duration.ofSeconds(1);
+    private static final Duration minLagCheckInterval = Duration.ofMillis(50);
+    private static final long minPoolTimeoutMillis = 250;
+
     private final HikariDataSource dataSource;
+    private final ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+    private final LeanConnection leanConnection;
+    private final List<Replica> replicas;
+    private final ReplicaSelection replicaSelection;
+    private final long maxReplicaLagMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final PrimaryWalHistory primaryWalHistory;
+    private final Duration lagCheckInterval;
+    private ScheduledExecutorService lagMonitor;
 
     public PooledDataSource(HikariConfig config) {
+        this(config, List.of(), ReplicaSelection.ROUND_ROBIN, Duration.ZERO);
+    }
+
+    /**
+     * @param config           primary pool configuration
+     * @param replicaConfigs   pool configuration of each read replica
+     * @param replicaSelection how a read picks one of the fresh replicas
+     * @param maxReplicaLag    replication lag above which a replica is not read from
+     */
+    public PooledDataSource(
+            HikariConfig config,
+            List<HikariConfig> replicaConfigs,
+            ReplicaSelection replicaSelection,
+            Duration maxReplicaLag
+    ) {
         registerDriver();
-        config.addDataSourceProperty("cachePrepStmts", "true");
-        config.addDataSourceProperty("prepStmtCacheSize", "250");
-        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-        dataSource = new HikariDataSource(config);
+        dataSource = createDataSource(config);
+        leanConnection = createLeanConnection(dataSource, connectionMetrics, config);
+        replicas = replicaConfigs.stream()
+                .map(replicaConfig -> {
+                    final var replicaMetrics = new ConnectionMetrics();
+                    final var replicaDataSource = createDataSource(replicaConfig);
+                    return new Replica(
+                            replicaDataSource,
+                            replicaMetrics,
+                            createLeanConnection(replicaDataSource, replicaMetrics, replicaConfig)
+                    );
+                })
+                .toList();
+        this.replicaSelection = replicaSelection;
+        this.maxReplicaLagMillis = maxReplicaLag.toMillis();
+        // retained well beyond the bound, so that a replica behind every retained position is still known as stale
+        this.primaryWalHistory = new PrimaryWalHistory(maxReplicaLag.multipliedBy(2).plus(maxLagCheckInterval).toNanos());
+        this.lagCheckInterval = lagCheckInterval(maxReplicaLag);
+    }
+
+    /**
+     * The connection timeout of the configuration is the whole wait for a connection, the pool waits for a share of
+     * it once the caller got its permit, see {@link LeanConnection}.
+     * The leak detection threshold of the configuration goes to the LeanConnection, which reports each hold longer
+     * than it with the stack of the holder. The pool's own detection is turned off: connections are held for the
+     * scope of a single call and cannot leak, its reports would only duplicate the ones of the long holds.
+     * The pool is built from a copy of the configuration, which is left as the caller set it.
+     */
+    private static HikariDataSource createDataSource(HikariConfig config) {
+        final var poolConfig = new HikariConfig();
+        config.copyStateTo(poolConfig);
+        // the properties are copied by reference, the ones added below must not end up in the caller's configuration
+        final var dataSourceProperties = new Properties();
+        dataSourceProperties.putAll(config.getDataSourceProperties());
+        poolConfig.setDataSourceProperties(dataSourceProperties);
+        poolConfig.setConnectionTimeout(Math.max(minPoolTimeoutMillis, config.getConnectionTimeout() / 4));
+        poolConfig.setLeakDetectionThreshold(0);
+        poolConfig.addDataSourceProperty("cachePrepStmts", "true");
+        poolConfig.addDataSourceProperty("prepStmtCacheSize", "250");
+        poolConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        poolConfig.addDataSourceProperty("reWriteBatchedInserts", "true");
+        return new HikariDataSource(poolConfig);
+    }
+
+    private static LeanConnection createLeanConnection(
+            HikariDataSource dataSource,
+            ConnectionMetrics metrics,
+            HikariConfig config
+    ) {
+        return new LeanConnection(
+                dataSource,
+                metrics,
+                Duration.ofMillis(config.getLeakDetectionThreshold()),
+                dataSource.getMaximumPoolSize(),
+                Duration.ofMillis(config.getConnectionTimeout()),
+                Duration.ofMillis(dataSource.getConnectionTimeout())
+        );
+    }
+
+    /**
+     * The lag is checked at least twice within the lag bound, so that a replica falling behind is noticed in time.
+     */
+    private static Duration lagCheckInterval(Duration maxReplicaLag) {
+        final var interval = maxReplicaLag.dividedBy(2);
+        if (interval.compareTo(maxLagCheckInterval) > 0) {
+            return maxLagCheckInterval;
+        } else if (interval.compareTo(minLagCheckInterval) < 0) {
+            return minLagCheckInterval;
+        }
+        return interval;
+    }
+
+    /**
+     * Start measuring the lag of the replicas in the background. Until then the lag of every replica is unknown and
+     * reads go to the primary. Does nothing without replicas or if already started.
+     */
+    public synchronized void start() {
+        if (lagMonitor != null || replicas.isEmpty()) {
+            return;
+        }
+        lagMonitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagMonitor.scheduleWithFixedDelay(this::measureReplicaLag, 0, lagCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop measuring the lag of the replicas and close the primary and replica pools.
+     */
+    @Override
+    public synchronized void close() {
+        if (lagMonitor != null) {
+            lagMonitor.shutdownNow();
+            lagMonitor = null;
+        }
+        replicas.forEach(replica -> replica.dataSource().close());
+        dataSource.close();
+    }
+
+    void measureReplicaLag() {
+        try {
+            primaryWalHistory.record(System.nanoTime(), leanConnection.use(c -> {
+                try (final var statement = c.createStatement()) {
+                    final var result = statement.executeQuery("SELECT (pg_current_wal_lsn() - '0/0'::pg_lsn)::BIGINT");
+                    result.next();
+                    return result.getLong(1);
+                }
+            }));
+        } catch (RuntimeException e) {
+            replicas.forEach(replica -> replica.markUnknownLag(e));
+            return;
+        }
+        replicas.forEach(replica -> replica.measureLag(primaryWalHistory));
     }
 
     private void registerDriver() {
@@ -30,11 +184,148 @@ public class PooledDataSource {
         }
     }
 
+    /**
+     * Returns a LeanConnection that acquires a pooled connection for the scope of each call.
+     *
+     * @return lean connection over the pool
+     */
     public LeanConnection getLeanConnection() {
-        return new LeanConnection(dataSource);
+        return leanConnection;
+    }
+
+    /**
+     * Returns a LeanConnection for reads that tolerate the configured replication lag.
+     * It is the one of a fresh replica, or the primary one if there is none or if a unit of work is bound to the
+     * current thread, so that the reads of a unit of work see its own writes.
+     *
+     * @return lean connection over a replica pool or the primary pool
+     */
+    public LeanConnection getReadConnection() {
+        if (replicas.isEmpty() || leanConnection.isBound()) {
+            return leanConnection;
+        }
+        final var replica = switch (replicaSelection) {
+            case ROUND_ROBIN -> nextFreshReplica();
+            case LEAST_LOADED -> leastLoadedFreshReplica();
+        };
+        return replica == null ? leanConnection : replica.leanConnection();
+    }
+
+    private Replica nextFreshReplica() {
+        final var start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            final var replica = replicas.get((start + i) % replicas.size());
+            if (isFresh(replica)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private Replica leastLoadedFreshReplica() {
+        Replica leastLoaded = null;
+        var leastActive = Integer.MAX_VALUE;
+        for (final var replica : replicas) {
+            if (isFresh(replica)) {
+                final var active = replica.activeConnections();
+                if (active < leastActive) {
+                    leastLoaded = replica;
+                    leastActive = active;
+                }
+            }
+        }
+        return leastLoaded;
+    }
+
+    private boolean isFresh(Replica replica) {
+        return replica.lagMillis() <= maxReplicaLagMillis;
     }
 
     public HikariDataSource getDataSource() {
         return dataSource;
     }
+
+    public PoolStats stats() {
+        return statsOf(dataSource, connectionMetrics, leanConnection);
+    }
+
+    /**
+     * Returns the usage and the lag of the replica pools.
+     *
+     * @return stats of each replica pool
+     */
+    public List<ReplicaStats> replicaStats() {
+        return replicas.stream()
+                .map(replica -> new ReplicaStats(
+                        replica.dataSource().getJdbcUrl(),
+                        statsOf(replica.dataSource(), replica.metrics(), replica.leanConnection()),
+                        replica.lagMillis() == Replica.UNKNOWN_LAG ? -1 : replica.lagMillis(),
+                        isFresh(replica)
+                ))
+                .toList();
+    }
+
+    private static PoolStats statsOf(
+            HikariDataSource dataSource,
+            ConnectionMetrics connectionMetrics,
+            LeanConnection leanConnection
+    ) {
+        final var pool = dataSource.getHikariPoolMXBean();
+        return new PoolStats(
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection() + leanConnection.awaiting(),
+                dataSource.getMaximumPoolSize(),
+                connectionMetrics.acquisitions(),
+                connectionMetrics.acquireWaitMillis(),
+                connectionMetrics.maxAcquireWaitMillis(),
+                connectionMetrics.longHeld(),
+                connectionMetrics.maxHeldMillis()
+        );
+    }
+
+    /**
+     * Usage of the connection pool.
+     *
+     * @param active          number of connections in use
+     * @param idle            number of connections waiting in the pool
+     * @param total           number of open connections
+     * @param awaiting        number of threads waiting for a connection
+     * @param maximumPoolSize maximum number of open connections
+     * @param acquisitions         number of connections acquired
+     * @param acquireWaitMillis    total time spent waiting to acquire a connection in milliseconds
+     * @param maxAcquireWaitMillis longest time spent waiting to acquire a connection in milliseconds
+     * @param longHeld             number of connections held longer than the leak detection threshold
+     * @param maxHeldMillis        longest time a connection has been held in milliseconds, from its acquisition
+     */
+    public record PoolStats(
+            int active,
+            int idle,
+            int total,
+            int awaiting,
+            int maximumPoolSize,
+            long acquisitions,
+            long acquireWaitMillis,
+            long maxAcquireWaitMillis,
+            long longHeld,
+            long maxHeldMillis
+    ) {
+    }
+
+    /**
+     * Usage and lag of a replica pool.
+     *
+     * @param url       replica connection url
+     * @param pool      usage of the replica pool
+     * @param lagMillis last measured replication lag in milliseconds, -1 if it could not be measured
+     * @param fresh     if the replica lags less than the configured bound and receives reads
+     */
+    public record ReplicaStats(
+            String url,
+            PoolStats pool,
+            long lagMillis,
+            boolean fresh
+    ) {
+    }
 }
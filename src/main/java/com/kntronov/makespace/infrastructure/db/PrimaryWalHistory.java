@@ -0,0 +1,72 @@
+package com.kntronov.makespace.infrastructure.db;
+
+import java.util.ArrayDeque;
+
+/**
+ * Recent WAL positions of the primary with the time each was sampled, to turn the position a replica has replayed
+ * into a lag in time.
+ * <p>
+ * A replica that replayed the position the primary had at a sample holds every write committed before that sample,
+ * so its lag is at most the age of the most recent such sample. A replica that stopped replaying keeps the same
+ * position while the primary moves on, and its lag grows with the age of the sample, while an idle primary keeps every
+ * replica fresh.
+ */
+final class PrimaryWalHistory {
+
+    private record Sample(long nanoTime, long walPosition) {
+    }
+
+    private final long retentionNanos;
+    private final ArrayDeque<Sample> samples = new ArrayDeque<>();
+
+    /**
+     * @param retentionNanos age above which samples are dropped, longer than the largest lag to be told apart
+     */
+    PrimaryWalHistory(long retentionNanos) {
+        this.retentionNanos = retentionNanos;
+    }
+
+    /**
+     * Record the WAL position of the primary.
+     *
+     * @param nanoTime    time the position was read, from System.nanoTime()
+     * @param walPosition WAL position in bytes
+     */
+    synchronized void record(long nanoTime, long walPosition) {
+        samples.addLast(new Sample(nanoTime, walPosition));
+        // the most recent sample is always kept, the oldest ones only within the retention
+        while (samples.size() > 1 && nanoTime - samples.peekFirst().nanoTime() > retentionNanos) {
+            samples.removeFirst();
+        }
+    }
+
+    /**
+     * Returns the lag of a replica that has replayed the WAL up to a position.
+     *
+     * @param nanoTime       current time, from System.nanoTime()
+     * @param replayPosition WAL position replayed by the replica in bytes
+     * @return lag in milliseconds, zero if the replica replayed the last recorded position, or -1 if nothing was
+     * recorded yet
+     */
+    synchronized long lagMillis(long nanoTime, long replayPosition) {
+        if (samples.isEmpty()) {
+            return -1;
+        }
+        Sample caughtUp = null;
+        for (final var iterator = samples.descendingIterator(); iterator.hasNext(); ) {
+            final var sample = iterator.next();
+            if (sample.walPosition() <= replayPosition) {
+                caughtUp = sample;
+                break;
+            }
+        }
+        if (caughtUp == samples.peekLast()) {
+            return 0;
+        }
+        if (caughtUp == null) {
+            // behind every retained sample, older than the oldest one and than the retention
+            return Math.max(nanoTime - samples.peekFirst().nanoTime(), retentionNanos) / 1_000_000;
+        }
+        return Math.max(0, (nanoTime - caughtUp.nanoTime()) / 1_000_000);
+    }
+}
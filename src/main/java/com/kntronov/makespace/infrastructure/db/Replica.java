@@ -0,0 +1,94 @@
+package com.kntronov.makespace.infrastructure.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of connections to a read replica together with its last measured replication lag.
+ */
+final class Replica {
+
+    private static final Logger logger = LoggerFactory.getLogger("Replica");
+
+    static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    /**
+     * WAL position replayed by the replica in bytes, null if it has not replayed anything yet.
+     * A server that is not in recovery is a primary and has no lag.
+     */
+    private static final String replayPositionSql = """
+            SELECT pg_is_in_recovery(), (pg_last_wal_replay_lsn() - '0/0'::pg_lsn)::BIGINT
+            """;
+
+    private final HikariDataSource dataSource;
+    private final ConnectionMetrics metrics;
+    private final LeanConnection leanConnection;
+    private volatile long lagMillis = UNKNOWN_LAG;
+
+    Replica(HikariDataSource dataSource, ConnectionMetrics metrics, LeanConnection leanConnection) {
+        this.dataSource = dataSource;
+        this.metrics = metrics;
+        this.leanConnection = leanConnection;
+    }
+
+    HikariDataSource dataSource() {
+        return dataSource;
+    }
+
+    ConnectionMetrics metrics() {
+        return metrics;
+    }
+
+    LeanConnection leanConnection() {
+        return leanConnection;
+    }
+
+    long lagMillis() {
+        return lagMillis;
+    }
+
+    int activeConnections() {
+        return dataSource.getHikariPoolMXBean().getActiveConnections();
+    }
+
+    /**
+     * Measure the replication lag against the positions of the primary, an unreachable replica or one that has not
+     * replayed anything yet has an unknown lag.
+     *
+     * @param primary recent WAL positions of the primary
+     */
+    void measureLag(PrimaryWalHistory primary) {
+        try {
+            lagMillis = leanConnection.use(c -> {
+                try (final var statement = c.createStatement()) {
+                    final var result = statement.executeQuery(replayPositionSql);
+                    result.next();
+                    if (!result.getBoolean(1)) {
+                        return 0L;
+                    }
+                    final var replayPosition = result.getLong(2);
+                    if (result.wasNull()) {
+                        return UNKNOWN_LAG;
+                    }
+                    final var lag = primary.lagMillis(System.nanoTime(), replayPosition);
+                    return lag < 0 ? UNKNOWN_LAG : lag;
+                }
+            });
+        } catch (RuntimeException e) {
+            markUnknownLag(e);
+        }
+    }
+
+    /**
+     * Mark the lag as unknown, when it cannot be measured.
+     *
+     * @param cause why the lag cannot be measured
+     */
+    void markUnknownLag(RuntimeException cause) {
+        if (lagMillis != UNKNOWN_LAG) {
+            logger.warn("unable to measure the lag of replica {}", dataSource.getJdbcUrl(), cause);
+        }
+        lagMillis = UNKNOWN_LAG;
+    }
+}
@@ -0,0 +1,10 @@
+package com.kntronov.makespace.infrastructure.db;
+
+/**
+ * ReplicaSelection selects the replica a read is routed to among the ones lagging less than the configured bound.
+ * ROUND_ROBIN takes them in turn, LEAST_LOADED takes the one with the fewest connections in use.
+ */
+public enum ReplicaSelection {
+    ROUND_ROBIN,
+    LEAST_LOADED
+}
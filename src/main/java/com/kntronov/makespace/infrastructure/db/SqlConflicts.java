@@ -0,0 +1,40 @@
+package com.kntronov.makespace.infrastructure.db;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Recognition of the SQL errors raised when a write conflicts with a concurrent one, and that are worth retrying
+ * in a new transaction.
+ */
+public final class SqlConflicts {
+
+    private static final Set<String> conflictSqlStates = Set.of(
+            "23505", // unique_violation
+            "23P01", // exclusion_violation
+            "40001"  // serialization_failure
+    );
+
+    private SqlConflicts() {
+
+    }
+
+    /**
+     * Returns true if the exception or one of its causes is an SQLException with a conflict SQL state.
+     *
+     * @param e exception to inspect
+     * @return if the exception reports a conflict
+     */
+    public static boolean isConflict(Throwable e) {
+        for (var cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                for (var next = sqlException; next != null; next = next.getNextException()) {
+                    if (conflictSqlStates.contains(next.getSQLState())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.kntronov.makespace.infrastructure.db;
+
+import com.kntronov.makespace.util.tracing.Tracing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Connection wrapper recording a span for each statement executed, named after its SQL.
+ * <p>
+ * Only connections handed out to a traced request are wrapped, see {@link LeanConnection}, so untraced requests
+ * run on the pooled connection as is.
+ */
+@SuppressWarnings("try")
+final class TracedConnection {
+
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private TracedConnection() {
+    }
+
+    /**
+     * Wrap a connection if a trace is bound to the current thread.
+     *
+     * @param connection connection
+     * @return connection recording the statements it executes, or the connection itself if no trace is bound
+     */
+    static Connection wrap(Connection connection) {
+        if (!Tracing.isActive()) {
+            return connection;
+        }
+        return proxy(Connection.class, (proxy, method, args) -> {
+            final var result = invoke(connection, method, args);
+            return switch (result) {
+                case PreparedStatement statement when method.getName().equals("prepareStatement") ->
+                        trace(PreparedStatement.class, statement, (String) args[0]);
+                case Statement statement when method.getName().equals("createStatement") ->
+                        trace(Statement.class, statement, null);
+                case null, default -> result;
+            };
+        });
+    }
+
+    private static <S extends Statement> S trace(Class<S> type, S statement, String preparedSql) {
+        return proxy(type, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            final var sql = args != null && args.length > 0 && args[0] instanceof String executedSql
+                    ? executedSql
+                    : preparedSql;
+            try (final var span = Tracing.span(spanName(sql))) {
+                return invoke(statement, method, args);
+            }
+        });
+    }
+
+    private static String spanName(String sql) {
+        if (sql == null) {
+            return "sql";
+        }
+        final var statement = sql.strip().replaceAll("\\s+", " ");
+        return "sql " + (statement.length() > MAX_NAME_LENGTH ? statement.substring(0, MAX_NAME_LENGTH) + "..." : statement);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
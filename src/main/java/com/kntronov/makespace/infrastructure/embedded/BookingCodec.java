@@ -0,0 +1,111 @@
+package com.kntronov.makespace.infrastructure.embedded;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary encoding of the bookings and journal entries of the embedded store, shared by the journal and snapshots.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * booking  id (2 longs), date as epoch day (int), start quarter (byte), duration in quarters (byte),
+ *          room name length (short), UTF-8 room name, number of people (int)
+ * entry    type (byte), booking if saved, id (2 longs) if deleted
+ * </pre>
+ * Rooms are stored by name and resolved against the rooms of the store when read, so that a room capacity
+ * change applies to the bookings already stored.
+ */
+final class BookingCodec {
+
+    private static final byte SAVED = 1;
+    private static final byte DELETED = 2;
+    private static final int MINUTES_PER_QUARTER = 15;
+    private static final int BOOKING_FIXED_LENGTH = 2 * Long.BYTES + Integer.BYTES + 2 + Short.BYTES + Integer.BYTES;
+    private static final int ID_LENGTH = 2 * Long.BYTES;
+
+    private BookingCodec() {
+    }
+
+    static int length(List<JournalEntry> entries) {
+        var length = 0;
+        for (final var entry : entries) {
+            length += 1 + switch (entry) {
+                case JournalEntry.Saved saved -> length(saved.booking());
+                case JournalEntry.Deleted ignored -> ID_LENGTH;
+            };
+        }
+        return length;
+    }
+
+    static int length(Booking booking) {
+        return BOOKING_FIXED_LENGTH + booking.room().name().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    static void write(ByteBuffer buffer, JournalEntry entry) {
+        switch (entry) {
+            case JournalEntry.Saved saved -> write(buffer.put(SAVED), saved.booking());
+            case JournalEntry.Deleted deleted -> write(buffer.put(DELETED), deleted.id());
+        }
+    }
+
+    static JournalEntry readEntry(ByteBuffer buffer, Map<String, Room> rooms) {
+        final var type = buffer.get();
+        return switch (type) {
+            case SAVED -> new JournalEntry.Saved(readBooking(buffer, rooms));
+            case DELETED -> new JournalEntry.Deleted(readId(buffer));
+            default -> throw new IllegalStateException("unknown journal entry type " + type);
+        };
+    }
+
+    static void write(ByteBuffer buffer, Booking booking) {
+        final var start = quarterOf(booking.timeSlot().start());
+        final var name = booking.room().name().getBytes(StandardCharsets.UTF_8);
+        write(buffer, booking.id());
+        buffer.putInt((int) booking.date().toEpochDay())
+                .put((byte) start)
+                .put((byte) (quarterOf(booking.timeSlot().end()) - start))
+                .putShort((short) name.length)
+                .put(name)
+                .putInt(booking.numPeople());
+    }
+
+    static Booking readBooking(ByteBuffer buffer, Map<String, Room> rooms) {
+        final var id = readId(buffer);
+        final var date = LocalDate.ofEpochDay(buffer.getInt());
+        final var start = buffer.get();
+        final var duration = buffer.get();
+        final var name = new byte[buffer.getShort()];
+        buffer.get(name);
+        final var roomName = new String(name, StandardCharsets.UTF_8);
+        final var room = rooms.get(roomName);
+        if (room == null) {
+            throw new IllegalStateException("booking " + id + " is in the unknown room " + roomName);
+        }
+        return new Booking(id, date, new TimeSlot(timeOf(start), timeOf(start + duration)), room, buffer.getInt());
+    }
+
+    private static void write(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readId(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static int quarterOf(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / MINUTES_PER_QUARTER;
+    }
+
+    private static LocalTime timeOf(int quarter) {
+        return LocalTime.ofSecondOfDay((long) quarter * MINUTES_PER_QUARTER * 60);
+    }
+}
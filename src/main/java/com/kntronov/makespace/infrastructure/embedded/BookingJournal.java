@@ -0,0 +1,308 @@
+package com.kntronov.makespace.infrastructure.embedded;
+
+import com.kntronov.makespace.domain.entities.Room;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped file recording the changes of the embedded store.
+ * <p>
+ * Each append writes one record holding the entries of a write, which are replayed all or none. A record is its
+ * payload length and CRC32 followed by the encoded entries, the file being zero after the last record. A record torn
+ * by a crash fails its checksum and ends the replay, along with everything after it.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header   magic (int), version (int)
+ * record   payload length (int), payload CRC32 (int), entries
+ * </pre>
+ * An appended record is in the page cache, and survives a crash of the process, as soon as append returns.
+ * Surviving a crash of the machine takes an fsync of the mapped file, which {@link #awaitDurable} waits for when
+ * syncing is enabled. Writers waiting together share one fsync: with a group commit interval a flusher thread syncs
+ * the appended records once per interval, without one the first waiting writer syncs the records of all the others.
+ */
+public final class BookingJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x4D4B534A;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 2 * Integer.BYTES;
+    private static final int RECORD_HEADER_LENGTH = 2 * Integer.BYTES;
+    private static final long INITIAL_CAPACITY = 16L << 20;
+    private static final long MAX_CAPACITY = Integer.MAX_VALUE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final long groupCommitNanos;
+    private final CRC32 checksum = new CRC32();
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition pending = durableLock.newCondition();
+    private final Condition synced = durableLock.newCondition();
+    private volatile MappedByteBuffer buffer;
+    private volatile int written;
+    private volatile int durable;
+    private volatile boolean closed;
+
+    private BookingJournal(
+            Path path,
+            FileChannel channel,
+            MappedByteBuffer buffer,
+            int written,
+            boolean fsync,
+            Duration groupCommitInterval
+    ) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.written = written;
+        this.durable = written;
+        this.fsync = fsync;
+        this.groupCommitNanos = groupCommitInterval.toNanos();
+        if (fsync && groupCommitNanos > 0) {
+            Thread.ofPlatform().name("booking-journal-flusher").daemon().start(this::flushPeriodically);
+        }
+    }
+
+    /**
+     * Map a journal file, creating it if missing, and replay its records.
+     * A torn record at the end of the file is discarded, appends continue after the last complete record.
+     *
+     * @param path                journal file
+     * @param rooms               rooms of the journaled bookings by name
+     * @param replay              consumer of the entries of the complete records, in order
+     * @param fsync               if appended records are synced to disk before a writer is acknowledged
+     * @param groupCommitInterval time the appended records are gathered before being synced together,
+     *                            each waiting writer syncs immediately if zero
+     * @return journal open for appending
+     */
+    public static BookingJournal open(
+            Path path,
+            Map<String, Room> rooms,
+            Consumer<JournalEntry> replay,
+            boolean fsync,
+            Duration groupCommitInterval
+    ) {
+        try {
+            final var channel = FileChannel.open(
+                    path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+            );
+            try {
+                final var isNew = channel.size() == 0;
+                final var buffer = channel.map(
+                        FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_CAPACITY)
+                );
+                if (isNew) {
+                    buffer.putInt(0, MAGIC).putInt(Integer.BYTES, VERSION);
+                    buffer.force(0, HEADER_LENGTH);
+                } else if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+                    throw new IllegalArgumentException(path + " is not a booking journal");
+                }
+                final var end = replay(buffer, rooms, replay);
+                return new BookingJournal(path, channel, buffer, end, fsync, groupCommitInterval);
+            } catch (RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Append a record holding the entries of a write.
+     *
+     * @param entries entries replayed together
+     * @return position of the end of the record, to wait for with {@link #awaitDurable}
+     * @throws IllegalStateException if the journal is closed or full
+     */
+    public synchronized int append(List<JournalEntry> entries) {
+        if (closed) {
+            throw new IllegalStateException("journal " + path + " is closed");
+        }
+        final var start = written;
+        final var length = BookingCodec.length(entries);
+        final var end = (long) start + RECORD_HEADER_LENGTH + length;
+        ensureCapacity(end);
+        final var payload = buffer.slice(start + RECORD_HEADER_LENGTH, length);
+        for (final var entry : entries) {
+            BookingCodec.write(payload, entry);
+        }
+        checksum.reset();
+        checksum.update(payload.flip());
+        buffer.putInt(start + Integer.BYTES, (int) checksum.getValue());
+        buffer.putInt(start, length);
+        written = (int) end;
+        return written;
+    }
+
+    /**
+     * Wait until the records appended up to a position are synced to disk, returns at once if syncing is disabled.
+     *
+     * @param position position returned by {@link #append}
+     */
+    public void awaitDurable(int position) {
+        if (!fsync || durable >= position) {
+            return;
+        }
+        if (groupCommitNanos == 0) {
+            sync();
+            return;
+        }
+        durableLock.lock();
+        try {
+            pending.signal();
+            while (durable < position) {
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the length of the journal file in use, up to the end of the last record.
+     *
+     * @return journal length in bytes
+     */
+    public int size() {
+        return written;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Sync the appended records to disk and stop appending.
+     * Writers waiting for their records to be durable are released.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        sync();
+        durableLock.lock();
+        try {
+            pending.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+        try {
+            // the mapping stays valid until it is garbage collected
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int replay(MappedByteBuffer buffer, Map<String, Room> rooms, Consumer<JournalEntry> replay) {
+        final var checksum = new CRC32();
+        final var capacity = buffer.capacity();
+        var position = HEADER_LENGTH;
+        while (position + RECORD_HEADER_LENGTH <= capacity) {
+            final var length = buffer.getInt(position);
+            if (length <= 0 || length > capacity - position - RECORD_HEADER_LENGTH) {
+                break;
+            }
+            final var payload = buffer.slice(position + RECORD_HEADER_LENGTH, length);
+            checksum.reset();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            final var entries = new ArrayList<JournalEntry>();
+            while (payload.hasRemaining()) {
+                entries.add(BookingCodec.readEntry(payload, rooms));
+            }
+            entries.forEach(replay);
+            position += RECORD_HEADER_LENGTH + length;
+        }
+        clear(buffer, position);
+        return position;
+    }
+
+    /**
+     * Zero the file after the last complete record, so that the rest of a torn record is not read as part of the
+     * records appended over it.
+     */
+    private static void clear(MappedByteBuffer buffer, int from) {
+        final var zeros = new byte[4096];
+        var position = from;
+        var cleared = false;
+        while (position < buffer.capacity()) {
+            final var length = Math.min(zeros.length, buffer.capacity() - position);
+            if (!buffer.slice(position, length).equals(ByteBuffer.wrap(zeros, 0, length))) {
+                buffer.put(position, zeros, 0, length);
+                cleared = true;
+            }
+            position += length;
+        }
+        if (cleared) {
+            buffer.force();
+        }
+    }
+
+    private void ensureCapacity(long required) {
+        final var capacity = buffer.capacity();
+        if (required <= capacity) {
+            return;
+        }
+        if (required > MAX_CAPACITY) {
+            throw new IllegalStateException("journal " + path + " is full, a snapshot is needed to start a new one");
+        }
+        try {
+            // mapping past the end of the file grows it, the old mapping shares the pages written so far
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(MAX_CAPACITY, Math.max(required, 2L * capacity)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sync the records appended so far, unless a concurrent sync already covered them.
+     */
+    private void sync() {
+        durableLock.lock();
+        try {
+            final var end = written;
+            if (durable < end) {
+                buffer.force(durable, end - durable);
+                durable = end;
+            }
+            synced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void flushPeriodically() {
+        while (!closed) {
+            durableLock.lock();
+            try {
+                while (!closed && written <= durable) {
+                    pending.awaitUninterruptibly();
+                }
+            } finally {
+                durableLock.unlock();
+            }
+            LockSupport.parkNanos(groupCommitNanos);
+            sync();
+        }
+    }
+}
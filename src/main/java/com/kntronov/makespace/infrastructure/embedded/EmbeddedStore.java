@@ -0,0 +1,489 @@
+package com.kntronov.makespace.infrastructure.embedded;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
+import com.kntronov.makespace.domain.occupancy.OccupancyIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Storage engine keeping all the bookings in memory and recording every write in a journal.
+ * <p>
+ * Reads are served from memory and never wait for writes. Writes are serialized: a write is checked against the
+ * bookings in memory, appended to the journal as one record and applied in memory, and the writer then waits for
+ * the record to be durable outside of the lock, so that concurrent writers share a sync. A write is visible to
+ * readers once applied, which can be before it is durable.
+ * <p>
+ * A snapshot writes all the bookings to a file and starts a new journal, the files of a generation being
+ * {@code snapshot-<generation>.bin}, holding the bookings before the writes of {@code journal-<generation>.log}.
+ * The older files are deleted once the snapshot is written. On opening, the store loads the latest snapshot and
+ * replays the journals of its generation and the following ones, a crash between starting a journal and writing its
+ * snapshot leaving the previous journal in place.
+ * <p>
+ * Like the database, the store rejects a booking whose id exists or which overlaps another booking of the same room
+ * with a BookingConflictException. Rooms and buffer times are fixed when the store is opened.
+ */
+public final class EmbeddedStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger("EmbeddedStore");
+    private static final Pattern fileName = Pattern.compile("(snapshot|journal)-(\\d+)\\.(bin|log)");
+    private static final String SNAPSHOT = "snapshot";
+    private static final String JOURNAL = "journal";
+    private static final Comparator<BookingCursor> cursorOrder = Comparator.comparing(BookingCursor::start)
+            .thenComparing(BookingCursor::roomName)
+            .thenComparing(BookingCursor::id);
+    private static final Comparator<Booking> order = Comparator.comparing(BookingCursor::of, cursorOrder);
+
+    private final Path directory;
+    private final List<Room> rooms;
+    private final Map<String, Room> roomsByName;
+    private final List<TimeSlot> bufferTimes;
+    private final boolean fsync;
+    private final Duration groupCommitInterval;
+    private final Map<UUID, Booking> bookings = new ConcurrentHashMap<>();
+    private final Map<LocalDate, List<Booking>> bookingsByDate = new ConcurrentHashMap<>();
+    private final Object snapshotLock = new Object();
+    private final ScheduledExecutorService snapshotExecutor;
+    private BookingJournal journal;
+    private long generation;
+
+    private EmbeddedStore(
+            Path directory,
+            List<Room> rooms,
+            List<TimeSlot> bufferTimes,
+            boolean fsync,
+            Duration groupCommitInterval,
+            Duration snapshotInterval
+    ) {
+        this.directory = directory;
+        this.rooms = List.copyOf(rooms);
+        this.roomsByName = rooms.stream().collect(Collectors.toMap(Room::name, room -> room));
+        this.bufferTimes = List.copyOf(bufferTimes);
+        this.fsync = fsync;
+        this.groupCommitInterval = groupCommitInterval;
+        recover();
+        if (snapshotInterval.isPositive()) {
+            this.snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final var thread = new Thread(runnable, "embedded-store-snapshots");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotExecutor.scheduleWithFixedDelay(
+                    this::scheduledSnapshot,
+                    snapshotInterval.toMillis(),
+                    snapshotInterval.toMillis(),
+                    TimeUnit.MILLISECONDS
+            );
+        } else {
+            this.snapshotExecutor = null;
+        }
+    }
+
+    /**
+     * Open the store of a directory, creating it if missing, and recover its bookings.
+     *
+     * @param directory           directory of the snapshot and journal files
+     * @param rooms               rooms that can be booked
+     * @param bufferTimes         buffer times of every date
+     * @param fsync               if writes are synced to disk before returning
+     * @param groupCommitInterval time writes are gathered before being synced together, synced immediately if zero
+     * @param snapshotInterval    delay between two snapshots, snapshots are only taken on demand if not positive
+     * @return store holding the recovered bookings
+     * @throws IllegalStateException if a stored booking is in a room that is not one of the rooms
+     */
+    public static EmbeddedStore open(
+            Path directory,
+            List<Room> rooms,
+            List<TimeSlot> bufferTimes,
+            boolean fsync,
+            Duration groupCommitInterval,
+            Duration snapshotInterval
+    ) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new EmbeddedStore(directory, rooms, bufferTimes, fsync, groupCommitInterval, snapshotInterval);
+    }
+
+    public List<Room> rooms() {
+        return rooms;
+    }
+
+    /**
+     * Returns the system state of a date.
+     *
+     * @param date date
+     * @return rooms, buffer times and bookings of the date
+     */
+    public SystemState state(LocalDate date) {
+        return new SystemState(date, rooms, findByDate(date), bufferTimes);
+    }
+
+    public Optional<Booking> find(UUID id) {
+        return Optional.ofNullable(bookings.get(id));
+    }
+
+    /**
+     * Retrieve the bookings of a date.
+     *
+     * @param date date
+     * @return bookings in order of start time, room name and id
+     */
+    public List<Booking> findByDate(LocalDate date) {
+        return bookingsByDate.getOrDefault(date, List.of());
+    }
+
+    /**
+     * Retrieve a page of the bookings of a date.
+     *
+     * @param date  date
+     * @param after cursor of the booking the page starts after, the page starts from the first booking if empty
+     * @param limit maximum number of bookings
+     * @return bookings of the page, in order of start time, room name and id
+     */
+    public List<Booking> findPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+        final var dateBookings = findByDate(date);
+        var from = 0;
+        if (after.isPresent()) {
+            final var cursor = after.get();
+            while (from < dateBookings.size() && cursorOrder.compare(BookingCursor.of(dateBookings.get(from)), cursor) <= 0) {
+                from++;
+            }
+        }
+        return dateBookings.subList(from, Math.min(dateBookings.size(), from + limit));
+    }
+
+    /**
+     * Delete a booking.
+     *
+     * @param id booking id
+     * @return number of deleted bookings
+     */
+    public int delete(UUID id) {
+        final Commit commit;
+        synchronized (this) {
+            if (!bookings.containsKey(id)) {
+                return 0;
+            }
+            commit = commit(List.of(new JournalEntry.Deleted(id)));
+        }
+        commit.awaitDurable();
+        return 1;
+    }
+
+    /**
+     * Create a booking.
+     *
+     * @param booking booking to be created
+     * @return created booking
+     * @throws BookingConflictException if the id exists or the room is already booked for an overlapping time slot
+     */
+    public Booking save(Booking booking) {
+        return saveAll(List.of(booking)).get(0);
+    }
+
+    /**
+     * Create many bookings at once, either all or none of them are created.
+     *
+     * @param newBookings bookings to be created
+     * @return created bookings
+     * @throws BookingConflictException if any id exists or any room is already booked for an overlapping time slot
+     */
+    public List<Booking> saveAll(List<Booking> newBookings) {
+        final Commit commit;
+        synchronized (this) {
+            for (int i = 0; i < newBookings.size(); i++) {
+                final var booking = newBookings.get(i);
+                checkRoom(booking);
+                if (bookings.containsKey(booking.id())) {
+                    throw conflict(booking);
+                }
+                rejectOverlapping(booking, Set.of());
+                for (final var earlier : newBookings.subList(0, i)) {
+                    if (earlier.id().equals(booking.id()) || overlap(booking, earlier)) {
+                        throw conflict(booking);
+                    }
+                }
+            }
+            commit = commit(newBookings.stream().<JournalEntry>map(JournalEntry.Saved::new).toList());
+        }
+        commit.awaitDurable();
+        return newBookings;
+    }
+
+    /**
+     * Create a booking in the smallest room that can accommodate the number of people and is free for the
+     * time slot, out of buffer times.
+     *
+     * @param id        id of the booking to be created
+     * @param date      booking date
+     * @param timeSlot  booked time slot
+     * @param numPeople number of people
+     * @return created booking, empty if no room is available
+     * @throws BookingConflictException if the id exists
+     */
+    public Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople) {
+        final Booking booking;
+        final Commit commit;
+        synchronized (this) {
+            final var room = OccupancyIndex.of(state(date)).bestFit(timeSlot, numPeople);
+            if (room.isEmpty()) {
+                return Optional.empty();
+            }
+            booking = new Booking(id, date, timeSlot, room.get(), numPeople);
+            if (bookings.containsKey(id)) {
+                throw conflict(booking);
+            }
+            commit = commit(List.of(new JournalEntry.Saved(booking)));
+        }
+        commit.awaitDurable();
+        return Optional.of(booking);
+    }
+
+    /**
+     * Move many bookings to other rooms at once, either all or none of them are moved.
+     * A move is only applied if the booking is still in its original room and no booking
+     * other than the known ones overlaps with it in the target room.
+     *
+     * @param moves           moves to be applied
+     * @param knownBookingIds ids of the bookings the moves were planned with
+     * @return true if all the moves were applied, false if none were
+     */
+    public boolean moveAll(List<BookingMove> moves, Set<UUID> knownBookingIds) {
+        final Commit commit;
+        synchronized (this) {
+            for (final var move : moves) {
+                final var current = bookings.get(move.booking().id());
+                if (current == null || !current.room().name().equals(move.booking().room().name())) {
+                    return false;
+                }
+                checkRoom(move.moved());
+                try {
+                    rejectOverlapping(move.moved(), knownBookingIds);
+                } catch (BookingConflictException e) {
+                    return false;
+                }
+            }
+            commit = commit(moves.stream().<JournalEntry>map(move -> new JournalEntry.Saved(move.moved())).toList());
+        }
+        commit.awaitDurable();
+        return true;
+    }
+
+    /**
+     * Write all the bookings to a snapshot file and start a new journal, deleting the older files.
+     * Writes are only held while the journal is switched, not while the snapshot is written.
+     */
+    public void snapshot() {
+        synchronized (snapshotLock) {
+            final BookingJournal previous;
+            final List<Booking> snapshot;
+            final long snapshotGeneration;
+            synchronized (this) {
+                snapshotGeneration = generation + 1;
+                previous = journal;
+                journal = openJournal(snapshotGeneration, entry -> {
+                    throw new IllegalStateException("new journal " + snapshotGeneration + " is not empty");
+                });
+                generation = snapshotGeneration;
+                snapshot = List.copyOf(bookings.values());
+            }
+            previous.close();
+            SnapshotFile.write(path(SNAPSHOT, snapshotGeneration), snapshot);
+            deleteGenerationsBefore(snapshotGeneration);
+            logger.info("snapshot {} of {} bookings written", snapshotGeneration, snapshot.size());
+        }
+    }
+
+    /**
+     * Stop taking snapshots and sync the journal to disk.
+     */
+    @Override
+    public void close() {
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdownNow();
+        }
+        synchronized (snapshotLock) {
+            synchronized (this) {
+                journal.close();
+            }
+        }
+    }
+
+    private void recover() {
+        final var snapshotGeneration = generations(SNAPSHOT).stream().max(Long::compare).orElse(0L);
+        if (snapshotGeneration > 0) {
+            SnapshotFile.read(path(SNAPSHOT, snapshotGeneration), roomsByName)
+                    .forEach(booking -> bookings.put(booking.id(), booking));
+        }
+        final var journalGenerations = generations(JOURNAL).stream()
+                .filter(journalGeneration -> journalGeneration >= snapshotGeneration)
+                .sorted()
+                .toList();
+        final var lastGeneration = journalGenerations.isEmpty() ? snapshotGeneration : journalGenerations.getLast();
+        for (final var journalGeneration : journalGenerations) {
+            if (journalGeneration != lastGeneration) {
+                openJournal(journalGeneration, this::replay).close();
+            }
+        }
+        journal = openJournal(lastGeneration, this::replay);
+        generation = lastGeneration;
+        final var byDate = new HashMap<LocalDate, List<Booking>>();
+        for (final var booking : bookings.values()) {
+            byDate.computeIfAbsent(booking.date(), date -> new ArrayList<>()).add(booking);
+        }
+        byDate.forEach((date, dateBookings) -> bookingsByDate.put(date, sorted(dateBookings)));
+        deleteGenerationsBefore(snapshotGeneration);
+        logger.info(
+                "recovered {} bookings from snapshot {} and journals {}",
+                bookings.size(),
+                snapshotGeneration,
+                journalGenerations
+        );
+    }
+
+    private void replay(JournalEntry entry) {
+        switch (entry) {
+            case JournalEntry.Saved saved -> bookings.put(saved.booking().id(), saved.booking());
+            case JournalEntry.Deleted deleted -> bookings.remove(deleted.id());
+        }
+    }
+
+    /**
+     * Append the entries of a write to the journal and apply them, while holding the write lock.
+     */
+    private Commit commit(List<JournalEntry> entries) {
+        final var position = journal.append(entries);
+        final var changedDates = new LinkedHashMap<LocalDate, List<Booking>>();
+        for (final var entry : entries) {
+            final var previous = switch (entry) {
+                case JournalEntry.Saved saved -> bookings.put(saved.booking().id(), saved.booking());
+                case JournalEntry.Deleted deleted -> bookings.remove(deleted.id());
+            };
+            if (previous != null) {
+                changed(changedDates, previous.date()).removeIf(booking -> booking.id().equals(previous.id()));
+            }
+            if (entry instanceof JournalEntry.Saved saved) {
+                changed(changedDates, saved.booking().date()).add(saved.booking());
+            }
+        }
+        changedDates.forEach((date, dateBookings) -> {
+            if (dateBookings.isEmpty()) {
+                bookingsByDate.remove(date);
+            } else {
+                bookingsByDate.put(date, sorted(dateBookings));
+            }
+        });
+        return new Commit(journal, position);
+    }
+
+    private List<Booking> changed(Map<LocalDate, List<Booking>> changedDates, LocalDate date) {
+        return changedDates.computeIfAbsent(date, key -> new ArrayList<>(findByDate(key)));
+    }
+
+    private record Commit(BookingJournal journal, int position) {
+        void awaitDurable() {
+            journal.awaitDurable(position);
+        }
+    }
+
+    private void checkRoom(Booking booking) {
+        if (!roomsByName.containsKey(booking.room().name())) {
+            throw new IllegalArgumentException("room " + booking.room().name() + " does not exist");
+        }
+    }
+
+    private void rejectOverlapping(Booking booking, Set<UUID> ignoredIds) {
+        for (final var other : findByDate(booking.date())) {
+            if (!other.id().equals(booking.id()) && !ignoredIds.contains(other.id()) && overlap(booking, other)) {
+                throw conflict(booking);
+            }
+        }
+    }
+
+    private static boolean overlap(Booking booking, Booking other) {
+        return booking.room().name().equals(other.room().name()) && booking.timeSlot().isOverlapping(other.timeSlot());
+    }
+
+    private static BookingConflictException conflict(Booking booking) {
+        return new BookingConflictException(new IllegalStateException(
+                "booking " + booking.id() + " exists or room " + booking.room().name() + " is already booked on "
+                        + booking.date() + " at " + booking.timeSlot()
+        ));
+    }
+
+    private static List<Booking> sorted(List<Booking> bookings) {
+        return bookings.stream().sorted(order).toList();
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            logger.error("scheduled snapshot of the embedded store failed", e);
+        }
+    }
+
+    private BookingJournal openJournal(long journalGeneration, Consumer<JournalEntry> replay) {
+        return BookingJournal.open(path(JOURNAL, journalGeneration), roomsByName, replay, fsync, groupCommitInterval);
+    }
+
+    private Path path(String kind, long fileGeneration) {
+        return directory.resolve(kind + "-" + fileGeneration + (kind.equals(SNAPSHOT) ? ".bin" : ".log"));
+    }
+
+    private List<Long> generations(String kind) {
+        try (final var files = Files.list(directory)) {
+            return files.map(file -> fileName.matcher(file.getFileName().toString()))
+                    .filter(matcher -> matcher.matches() && matcher.group(1).equals(kind))
+                    .map(matcher -> Long.parseLong(matcher.group(2)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteGenerationsBefore(long oldestKept) {
+        try {
+            for (final var kind : List.of(SNAPSHOT, JOURNAL)) {
+                for (final var fileGeneration : generations(kind)) {
+                    if (fileGeneration < oldestKept) {
+                        Files.deleteIfExists(path(kind, fileGeneration));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
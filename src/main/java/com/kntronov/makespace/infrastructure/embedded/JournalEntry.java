@@ -0,0 +1,27 @@
+package com.kntronov.makespace.infrastructure.embedded;
+
+import com.kntronov.makespace.domain.entities.Booking;
+
+import java.util.UUID;
+
+/**
+ * Change of the stored bookings, as recorded in the journal.
+ */
+public sealed interface JournalEntry {
+
+    /**
+     * A booking was created, or replaced the booking with the same id.
+     *
+     * @param booking booking as it is after the change
+     */
+    record Saved(Booking booking) implements JournalEntry {
+    }
+
+    /**
+     * A booking was deleted.
+     *
+     * @param id id of the deleted booking
+     */
+    record Deleted(UUID id) implements JournalEntry {
+    }
+}
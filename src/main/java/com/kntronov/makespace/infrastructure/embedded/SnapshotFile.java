@@ -0,0 +1,109 @@
+package com.kntronov.makespace.infrastructure.embedded;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * File holding all the bookings of the embedded store at the time of a snapshot.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * magic (int), version (int), booking count (int), bookings, CRC32 of everything before it (int)
+ * </pre>
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x4D4B5353;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 3 * Integer.BYTES;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Write bookings to a snapshot file.
+     * The file is synced to disk and atomically moved to its path, so that a snapshot is either complete or missing.
+     *
+     * @param path     snapshot file
+     * @param bookings bookings of the snapshot
+     */
+    static void write(Path path, Collection<Booking> bookings) {
+        var length = HEADER_LENGTH + Integer.BYTES;
+        for (final var booking : bookings) {
+            length += BookingCodec.length(booking);
+        }
+        final var buffer = ByteBuffer.allocate(length);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(bookings.size());
+        for (final var booking : bookings) {
+            BookingCodec.write(buffer, booking);
+        }
+        final var checksum = new CRC32();
+        checksum.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) checksum.getValue());
+
+        final var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (final var channel = FileChannel.open(
+                temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read the bookings of a snapshot file.
+     *
+     * @param path  snapshot file
+     * @param rooms rooms of the bookings by name
+     * @return bookings of the snapshot
+     * @throws IllegalStateException if the file is not a complete snapshot
+     */
+    static List<Booking> read(Path path, Map<String, Room> rooms) {
+        final ByteBuffer buffer;
+        try (final var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final var checksumOffset = buffer.capacity() - Integer.BYTES;
+        if (checksumOffset < HEADER_LENGTH || buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IllegalStateException(path + " is not a booking snapshot");
+        }
+        final var checksum = new CRC32();
+        checksum.update(buffer.slice(0, checksumOffset));
+        if ((int) checksum.getValue() != buffer.getInt(checksumOffset)) {
+            throw new IllegalStateException("snapshot " + path + " is corrupted");
+        }
+        final var size = buffer.getInt(2 * Integer.BYTES);
+        final var bookings = new ArrayList<Booking>(size);
+        buffer.position(HEADER_LENGTH);
+        for (int i = 0; i < size; i++) {
+            bookings.add(BookingCodec.readBooking(buffer, rooms));
+        }
+        return bookings;
+    }
+}
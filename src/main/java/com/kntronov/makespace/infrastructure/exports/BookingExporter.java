@@ -0,0 +1,247 @@
+package com.kntronov.makespace.infrastructure.exports;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.infrastructure.archive.BookingArchive;
+import com.kntronov.makespace.infrastructure.common.BookingMapper;
+import com.kntronov.makespace.infrastructure.db.PooledDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming exporter of the bookings of a date range.
+ * <p>
+ * Rows are read in pages of {@value #PAGE_SIZE}, each with its own short query continuing after the last booking of
+ * the previous page, and written as JSON tokens straight to the output, so that memory stays flat whatever the size of
+ * the range. No connection is held while a page is written: a slow client does not keep a connection or a transaction
+ * open. As pages are read at different times, bookings made or deleted during the export may or may not be part of
+ * it, every booking is exported at most once.
+ * The output is flushed after each page, the first bookings are sent before the whole range is read.
+ * Bookings have the same JSON shape as the other booking endpoints.
+ * Bookings of archived months are read from the BookingArchive and the ones of the other months from the database.
+ * <p>
+ * The response is already under way when a read fails, so the failure is reported in the output itself: the export
+ * ends with an {@code {"error": ...}} object in place of the next booking, and a JSON array is left without its
+ * closing bracket so that it does not parse as a complete export.
+ */
+public class BookingExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger("BookingExporter");
+
+    static final int PAGE_SIZE = 1000;
+
+    private static final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            // a failed export must not be completed when the generator is closed
+            .disable(StreamWriteFeature.AUTO_CLOSE_CONTENT)
+            .build();
+
+    private final PooledDataSource dataSource;
+    private final BookingArchive archive;
+
+    public BookingExporter(PooledDataSource dataSource, BookingArchive archive) {
+        this.dataSource = dataSource;
+        this.archive = archive;
+    }
+
+    /**
+     * Write the bookings between two dates, in order of date, start time, room name and id.
+     *
+     * @param from   first date, inclusive
+     * @param to     last date, inclusive
+     * @param format export format
+     * @param output output the bookings are written to, left open
+     * @return number of exported bookings
+     */
+    public long export(LocalDate from, LocalDate to, ExportFormat format, OutputStream output) {
+        final long exported;
+        try (final var generator = jsonFactory.createGenerator(output)) {
+            // lines are separated explicitly rather than by the default space between root values
+            generator.setRootValueSeparator(null);
+            if (format == ExportFormat.JSON) {
+                generator.writeStartArray();
+            }
+            final var counter = new Counter(generator, format);
+            try {
+                for (final var run : runs(from, to)) {
+                    if (run.archived()) {
+                        exportArchived(run.from(), run.to(), counter);
+                    } else {
+                        exportStored(run.from(), run.to(), counter);
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.error("export from {} to {} failed after {} bookings", from, to, counter.count, e);
+                writeError(generator, format, counter.count);
+                throw e;
+            }
+            if (format == ExportFormat.JSON) {
+                generator.writeEndArray();
+            }
+            exported = counter.count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.info("exported {} bookings from {} to {}", exported, from, to);
+        return exported;
+    }
+
+    /**
+     * Split a date range in runs of consecutive months that are all archived or all stored in the database,
+     * every stored run is then read with a single query.
+     */
+    private List<Run> runs(LocalDate from, LocalDate to) {
+        final var runs = new ArrayList<Run>();
+        for (var date = from; !date.isAfter(to); ) {
+            final var month = YearMonth.from(date);
+            final var archived = archive.isArchived(month);
+            final var end = month.atEndOfMonth().isBefore(to) ? month.atEndOfMonth() : to;
+            if (!archived && !runs.isEmpty() && !runs.getLast().archived()) {
+                runs.set(runs.size() - 1, new Run(runs.getLast().from(), end, false));
+            } else {
+                runs.add(new Run(date, end, archived));
+            }
+            date = end.plusDays(1);
+        }
+        return runs;
+    }
+
+    private void exportArchived(LocalDate from, LocalDate to, Counter counter) throws IOException {
+        for (var date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            for (final var booking : archive.findByDate(date)) {
+                writeBooking(counter.generator, booking);
+                counter.written();
+            }
+        }
+    }
+
+    private void exportStored(LocalDate from, LocalDate to, Counter counter) throws IOException {
+        List<Booking> page = findPage(from, to, null);
+        while (!page.isEmpty()) {
+            for (final var booking : page) {
+                writeBooking(counter.generator, booking);
+                counter.written();
+            }
+            page = page.size() < PAGE_SIZE ? List.of() : findPage(from, to, page.getLast());
+        }
+    }
+
+    /**
+     * Read the bookings following the given one, in the order of the index on date, start time, room name and id.
+     */
+    private List<Booking> findPage(LocalDate from, LocalDate to, Booking after) {
+        final var sql = """
+                SELECT b.id, b.date, b.start, b."end", b.room_name, b.num_people, r.people_capacity
+                FROM booking b, room r
+                WHERE b.room_name = r.name
+                AND b.date BETWEEN ? AND ?
+                %s
+                ORDER BY b.date, b.start, b.room_name, b.id
+                LIMIT ?
+                """.formatted(after != null ? "AND (b.date, b.start, b.room_name, b.id) > (?, ?, ?, ?)" : "");
+        return dataSource.getReadConnection().use(c -> {
+            try (final var statement = c.prepareStatement(sql)) {
+                var parameter = 1;
+                statement.setDate(parameter++, Date.valueOf(from));
+                statement.setDate(parameter++, Date.valueOf(to));
+                if (after != null) {
+                    statement.setDate(parameter++, Date.valueOf(after.date()));
+                    statement.setTime(parameter++, Time.valueOf(after.timeSlot().start()));
+                    statement.setString(parameter++, after.room().name());
+                    statement.setObject(parameter++, after.id());
+                }
+                statement.setInt(parameter, PAGE_SIZE);
+                final var result = statement.executeQuery();
+                final var bookings = new ArrayList<Booking>(PAGE_SIZE);
+                while (result.next()) {
+                    bookings.add(BookingMapper.fromResult(result));
+                }
+                return bookings;
+            }
+        });
+    }
+
+    private static void writeError(JsonGenerator generator, ExportFormat format, long exported) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("error", "export failed after " + exported + " bookings");
+        generator.writeEndObject();
+        if (format == ExportFormat.NDJSON) {
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    private static void writeBooking(JsonGenerator generator, Booking booking) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", booking.id().toString());
+        generator.writeFieldName("date");
+        writeDate(generator, booking.date());
+        generator.writeObjectFieldStart("timeSlot");
+        generator.writeFieldName("start");
+        writeTime(generator, booking.timeSlot().start());
+        generator.writeFieldName("end");
+        writeTime(generator, booking.timeSlot().end());
+        generator.writeEndObject();
+        generator.writeObjectFieldStart("room");
+        generator.writeStringField("name", booking.room().name());
+        generator.writeNumberField("peopleCapacity", booking.room().peopleCapacity());
+        generator.writeEndObject();
+        generator.writeNumberField("numPeople", booking.numPeople());
+        generator.writeEndObject();
+    }
+
+    private static void writeDate(JsonGenerator generator, LocalDate date) throws IOException {
+        generator.writeStartArray();
+        generator.writeNumber(date.getYear());
+        generator.writeNumber(date.getMonthValue());
+        generator.writeNumber(date.getDayOfMonth());
+        generator.writeEndArray();
+    }
+
+    private static void writeTime(JsonGenerator generator, LocalTime time) throws IOException {
+        generator.writeStartArray();
+        generator.writeNumber(time.getHour());
+        generator.writeNumber(time.getMinute());
+        generator.writeEndArray();
+    }
+
+    private record Run(LocalDate from, LocalDate to, boolean archived) {
+    }
+
+    /**
+     * Counts the written bookings, separating NDJSON lines and flushing the output every {@value #PAGE_SIZE} bookings.
+     */
+    private static final class Counter {
+
+        private final JsonGenerator generator;
+        private final ExportFormat format;
+        private long count;
+
+        private Counter(JsonGenerator generator, ExportFormat format) {
+            this.generator = generator;
+            this.format = format;
+        }
+
+        private void written() throws IOException {
+            if (format == ExportFormat.NDJSON) {
+                generator.writeRaw('\n');
+            }
+            if (++count % PAGE_SIZE == 0) {
+                generator.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.kntronov.makespace.infrastructure.exports;
+
+/**
+ * Format of a booking export.
+ * NDJSON writes one booking object per line, JSON writes a single array of booking objects.
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson"),
+    JSON("application/json");
+
+    private final String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+}
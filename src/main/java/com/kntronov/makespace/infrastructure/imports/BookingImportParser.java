@@ -0,0 +1,153 @@
+package com.kntronov.makespace.infrastructure.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser of booking imports, rows that cannot be parsed or are invalid on their own are rejected here,
+ * the others are handed over for validation against the database.
+ */
+final class BookingImportParser {
+
+    private static final String CSV_HEADER_PREFIX = "id,";
+    private static final int CSV_COLUMNS = 6;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BookingImportParser() {
+    }
+
+    /**
+     * Parse every line of the input, blank lines are skipped.
+     *
+     * @param input    import input
+     * @param format   import format
+     * @param accepted consumer of the parsed rows
+     * @param rejected consumer of the rejected rows
+     * @throws IOException if the input cannot be read or an accepted row cannot be consumed
+     */
+    static void parse(
+            Reader input,
+            ImportFormat format,
+            RowConsumer accepted,
+            Consumer<ImportReport.RejectedRow> rejected
+    ) throws IOException {
+        final var reader = input instanceof BufferedReader bufferedReader ? bufferedReader : new BufferedReader(input);
+        var lineNumber = 0L;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && format == ImportFormat.CSV && line.startsWith(CSV_HEADER_PREFIX))) {
+                continue;
+            }
+            try {
+                accepted.accept(switch (format) {
+                    case CSV -> parseCsv(lineNumber, line);
+                    case NDJSON -> parseNdjson(lineNumber, line);
+                });
+            } catch (InvalidRowException e) {
+                rejected.accept(new ImportReport.RejectedRow(lineNumber, e.getMessage()));
+            }
+        }
+    }
+
+    private static ImportRow parseCsv(long lineNumber, String line) {
+        final var fields = line.split(",", -1);
+        if (fields.length != CSV_COLUMNS) {
+            throw new InvalidRowException("expected " + CSV_COLUMNS + " columns but found " + fields.length);
+        }
+        return toRow(lineNumber, fields[0], fields[1], fields[2], fields[3], fields[4], fields[5]);
+    }
+
+    private static ImportRow parseNdjson(long lineNumber, String line) {
+        final JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRowException("malformed json");
+        }
+        if (!node.isObject()) {
+            throw new InvalidRowException("malformed json");
+        }
+        return toRow(
+                lineNumber,
+                node.path("id").asText(""),
+                node.path("date").asText(""),
+                node.path("start").asText(""),
+                node.path("end").asText(""),
+                node.path("roomName").asText(""),
+                node.path("numPeople").asText("")
+        );
+    }
+
+    private static ImportRow toRow(
+            long lineNumber,
+            String id,
+            String date,
+            String start,
+            String end,
+            String roomName,
+            String numPeople
+    ) {
+        final var timeSlot = parseTimeSlot(start.strip(), end.strip());
+        final var row = new ImportRow(
+                lineNumber,
+                id.isBlank() ? UUID.randomUUID() : parse("id", id, UUID::fromString),
+                parse("date", date, LocalDate::parse),
+                timeSlot.start(),
+                timeSlot.end(),
+                roomName.strip(),
+                parse("numPeople", numPeople, Integer::parseInt)
+        );
+        if (row.roomName().isEmpty()) {
+            throw new InvalidRowException("roomName must not be empty");
+        }
+        if (row.numPeople() <= 0) {
+            throw new InvalidRowException("numPeople must be greater than 0");
+        }
+        return row;
+    }
+
+    private static TimeSlot parseTimeSlot(String start, String end) {
+        try {
+            return new TimeSlot(parse("start", start, LocalTime::parse), parse("end", end, LocalTime::parse));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRowException(e.getMessage());
+        }
+    }
+
+    private static <T> T parse(String field, String value, ValueParser<T> parser) {
+        try {
+            return parser.parse(value.strip());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidRowException("invalid " + field + " " + value);
+        }
+    }
+
+    @FunctionalInterface
+    interface RowConsumer {
+        void accept(ImportRow row) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ValueParser<T> {
+        T parse(String value);
+    }
+
+    private static class InvalidRowException extends RuntimeException {
+        InvalidRowException(String message) {
+            super(message);
+        }
+    }
+}
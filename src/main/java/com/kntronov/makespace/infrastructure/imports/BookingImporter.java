@@ -0,0 +1,404 @@
+package com.kntronov.makespace.infrastructure.imports;
+
+import com.kntronov.makespace.infrastructure.archive.BookingArchive;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+import com.kntronov.makespace.infrastructure.db.PooledDataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bulk importer of bookings.
+ * <p>
+ * Rows are streamed with COPY into a temporary staging table, validated there against archived months, rooms,
+ * buffer times, existing bookings and earlier accepted rows of the same import, and the valid ones are merged into
+ * the booking table. Invalid rows are reported instead of aborting the import. The whole import runs in a single transaction.
+ * <p>
+ * Rows are validated without blocking concurrent bookings. The booking table is only locked against concurrent writes
+ * to check the rows again against the bookings written during the validation, and to merge them.
+ */
+public class BookingImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger("BookingImporter");
+
+    static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final int REJECT_BATCH_SIZE = 1000;
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMPORARY TABLE booking_import (
+                line       BIGINT NOT NULL,
+                id         UUID NOT NULL,
+                date       DATE NOT NULL,
+                start      TIME NOT NULL,
+                "end"      TIME NOT NULL,
+                room_name  TEXT NOT NULL,
+                num_people INT NOT NULL,
+                reason     TEXT
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_TO_STAGING_TABLE = """
+            COPY booking_import (line, id, date, start, "end", room_name, num_people) FROM STDIN
+            """;
+
+    /**
+     * Checks against the rooms, the buffer times and the import itself, which concurrent bookings do not change.
+     */
+    private static final List<String> IMPORT_VALIDATIONS = List.of(
+            """
+                    UPDATE booking_import i
+                    SET reason = 'unknown room ' || i.room_name
+                    WHERE NOT EXISTS (SELECT 1 FROM room r WHERE r.name = i.room_name)
+                    """,
+            """
+                    UPDATE booking_import i
+                    SET reason = 'numPeople exceeds room capacity'
+                    FROM room r
+                    WHERE i.reason IS NULL
+                    AND r.name = i.room_name
+                    AND r.people_capacity < i.num_people
+                    """,
+            """
+                    UPDATE booking_import i
+                    SET reason = 'overlaps buffer time'
+                    WHERE i.reason IS NULL
+                    AND EXISTS (SELECT 1 FROM buffer_time bt WHERE bt.start < i."end" AND bt."end" > i.start)
+                    """,
+            """
+                    UPDATE booking_import i
+                    SET reason = 'duplicate id'
+                    WHERE i.reason IS NULL
+                    AND EXISTS (
+                        SELECT 1
+                        FROM booking_import o
+                        WHERE o.id = i.id
+                        AND o.line < i.line
+                        AND o.reason IS NULL
+                    )
+                    """
+    );
+
+    /**
+     * Checks against the stored bookings, run once before locking the booking table and again once it is locked
+     * for the bookings written in between.
+     */
+    private static final List<String> BOOKING_VALIDATIONS = List.of(
+            """
+                    UPDATE booking_import i
+                    SET reason = 'duplicate id'
+                    WHERE i.reason IS NULL
+                    AND EXISTS (SELECT 1 FROM booking b WHERE b.id = i.id)
+                    """,
+            """
+                    UPDATE booking_import i
+                    SET reason = 'overlaps an existing booking'
+                    WHERE i.reason IS NULL
+                    AND EXISTS (
+                        SELECT 1
+                        FROM booking b
+                        WHERE b.room_name = i.room_name
+                        AND b.date = i.date
+                        AND b.start < i."end"
+                        AND b."end" > i.start
+                    )
+                    """
+    );
+
+    private static final String OVERLAPS_EARLIER_ROW = "overlaps an earlier row";
+
+    private static final String SELECT_CANDIDATES = """
+            SELECT i.line, i.room_name, i.date, i.start, i."end"
+            FROM booking_import i
+            WHERE i.reason IS NULL
+            ORDER BY i.room_name, i.date, i.line
+            """;
+
+    private static final String REJECT_OVERLAPPING = """
+            UPDATE booking_import SET reason = ? WHERE line = ?
+            """;
+
+    private static final String RESET_OVERLAPPING = """
+            UPDATE booking_import SET reason = NULL WHERE reason = ?
+            """;
+
+    private static final String SELECT_MONTHS = """
+            SELECT DISTINCT date_trunc('month', i.date)::date
+            FROM booking_import i
+            WHERE i.reason IS NULL
+            """;
+
+    private static final String REJECT_MONTH = """
+            UPDATE booking_import
+            SET reason = 'date is archived and read-only'
+            WHERE reason IS NULL
+            AND date >= ?
+            AND date < ?
+            """;
+
+    private static final String COUNT_REJECTED = """
+            SELECT count(*) FROM booking_import WHERE reason IS NOT NULL
+            """;
+
+    private static final String MERGE = """
+            INSERT INTO booking (id, date, start, "end", room_name, num_people)
+            SELECT i.id, i.date, i.start, i."end", i.room_name, i.num_people
+            FROM booking_import i
+            WHERE i.reason IS NULL
+            """;
+
+    private static final String SELECT_REJECTIONS = """
+            SELECT i.line, i.reason
+            FROM booking_import i
+            WHERE i.reason IS NOT NULL
+            ORDER BY i.line
+            LIMIT ?
+            """;
+
+    private final PooledDataSource dataSource;
+    private final BookingArchive archive;
+    private final SystemStateCache cache;
+
+    public BookingImporter(PooledDataSource dataSource, BookingArchive archive, SystemStateCache cache) {
+        this.dataSource = dataSource;
+        this.archive = archive;
+        this.cache = cache;
+    }
+
+    /**
+     * Import all the bookings of the input.
+     *
+     * @param input  import input, read until its end
+     * @param format import format
+     * @return import report
+     */
+    public ImportReport importBookings(Reader input, ImportFormat format) {
+        final var started = System.nanoTime();
+        final var report = dataSource.getLeanConnection().transact(c -> {
+            try (final var statement = c.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE);
+            }
+            final var parseRejections = new ArrayList<ImportReport.RejectedRow>();
+            final var parseRejected = new long[1];
+            copyToStagingTable(c, input, format, rejection -> {
+                parseRejected[0]++;
+                if (parseRejections.size() < MAX_REPORTED_REJECTIONS) {
+                    parseRejections.add(rejection);
+                }
+            });
+            try (final var statement = c.createStatement()) {
+                statement.execute("CREATE INDEX ON booking_import (room_name, date)");
+                statement.execute("CREATE INDEX ON booking_import (id)");
+                statement.execute("CREATE INDEX ON booking_import (line)");
+                statement.execute("ANALYZE booking_import");
+                rejectArchivedRows(c);
+                for (final var validation : IMPORT_VALIDATIONS) {
+                    statement.executeUpdate(validation);
+                }
+                for (final var validation : BOOKING_VALIDATIONS) {
+                    statement.executeUpdate(validation);
+                }
+                rejectOverlappingRows(c);
+                // only the bookings written since the checks above are left to check once writes are locked out
+                statement.execute("LOCK TABLE booking IN SHARE ROW EXCLUSIVE MODE");
+                var lateRejected = rejectArchivedRows(c);
+                for (final var validation : BOOKING_VALIDATIONS) {
+                    lateRejected += statement.executeUpdate(validation);
+                }
+                if (lateRejected > 0) {
+                    // rows overlapping a row rejected just now may be accepted after all
+                    resetOverlappingRows(c);
+                    rejectOverlappingRows(c);
+                }
+                final var accepted = statement.executeUpdate(MERGE);
+                final var rejections = new ArrayList<>(parseRejections);
+                rejections.addAll(validationRejections(c));
+                rejections.sort(Comparator.comparingLong(ImportReport.RejectedRow::line));
+                return new ImportReport(
+                        accepted,
+                        parseRejected[0] + countRejected(c),
+                        List.copyOf(rejections.subList(0, Math.min(rejections.size(), MAX_REPORTED_REJECTIONS)))
+                );
+            }
+        });
+        if (report.accepted() > 0) {
+            cache.invalidateAll();
+        }
+        logger.info(
+                "imported {} bookings, rejected {} rows in {} ms",
+                report.accepted(), report.rejected(), (System.nanoTime() - started) / 1_000_000
+        );
+        return report;
+    }
+
+    private static void copyToStagingTable(
+            Connection connection,
+            Reader input,
+            ImportFormat format,
+            Consumer<ImportReport.RejectedRow> rejected
+    ) throws SQLException {
+        final var pgConnection = connection.unwrap(PGConnection.class);
+        try (final var writer = new BufferedWriter(
+                new OutputStreamWriter(
+                        new PGCopyOutputStream(pgConnection, COPY_TO_STAGING_TABLE, COPY_BUFFER_SIZE),
+                        StandardCharsets.UTF_8
+                ),
+                COPY_BUFFER_SIZE
+        )) {
+            BookingImportParser.parse(input, format, row -> writeRow(writer, row), rejected);
+        } catch (IOException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reject the rows of archived months, checked again once the booking table is locked as the archiver locks it
+     * as well to archive a month.
+     */
+    private int rejectArchivedRows(Connection connection) throws SQLException {
+        final var archivedMonths = new ArrayList<YearMonth>();
+        try (final var statement = connection.createStatement()) {
+            final var result = statement.executeQuery(SELECT_MONTHS);
+            while (result.next()) {
+                final var month = YearMonth.from(result.getDate(1).toLocalDate());
+                if (archive.isArchived(month)) {
+                    archivedMonths.add(month);
+                }
+            }
+        }
+        var rejected = 0;
+        try (final var statement = connection.prepareStatement(REJECT_MONTH)) {
+            for (final var month : archivedMonths) {
+                statement.setDate(1, Date.valueOf(month.atDay(1)));
+                statement.setDate(2, Date.valueOf(month.plusMonths(1).atDay(1)));
+                rejected += statement.executeUpdate();
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Reject the rows overlapping an earlier accepted row of the same room and date. Rows are taken in order of line
+     * and accepted unless they overlap a row accepted before them, so that a row rejected for an overlap does not
+     * cause the rejection of the rows after it.
+     */
+    private static void rejectOverlappingRows(Connection connection) throws SQLException {
+        try (final var select = connection.prepareStatement(SELECT_CANDIDATES);
+             final var reject = connection.prepareStatement(REJECT_OVERLAPPING)) {
+            select.setFetchSize(REJECT_BATCH_SIZE);
+            final var result = select.executeQuery();
+            final var accepted = new ArrayList<LocalTime[]>();
+            String roomName = null;
+            LocalDate date = null;
+            var batched = 0;
+            while (result.next()) {
+                final var rowRoomName = result.getString(2);
+                final var rowDate = result.getDate(3).toLocalDate();
+                if (!rowRoomName.equals(roomName) || !rowDate.equals(date)) {
+                    roomName = rowRoomName;
+                    date = rowDate;
+                    accepted.clear();
+                }
+                final var start = result.getTime(4).toLocalTime();
+                final var end = result.getTime(5).toLocalTime();
+                if (accepted.stream().anyMatch(slot -> slot[0].isBefore(end) && slot[1].isAfter(start))) {
+                    reject.setString(1, OVERLAPS_EARLIER_ROW);
+                    reject.setLong(2, result.getLong(1));
+                    reject.addBatch();
+                    if (++batched == REJECT_BATCH_SIZE) {
+                        reject.executeBatch();
+                        batched = 0;
+                    }
+                } else {
+                    accepted.add(new LocalTime[]{start, end});
+                }
+            }
+            if (batched > 0) {
+                reject.executeBatch();
+            }
+        }
+    }
+
+    private static void resetOverlappingRows(Connection connection) throws SQLException {
+        try (final var statement = connection.prepareStatement(RESET_OVERLAPPING)) {
+            statement.setString(1, OVERLAPS_EARLIER_ROW);
+            statement.executeUpdate();
+        }
+    }
+
+    private static long countRejected(Connection connection) throws SQLException {
+        try (final var statement = connection.createStatement()) {
+            final var result = statement.executeQuery(COUNT_REJECTED);
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private static List<ImportReport.RejectedRow> validationRejections(Connection connection) throws SQLException {
+        try (final var statement = connection.prepareStatement(SELECT_REJECTIONS)) {
+            statement.setInt(1, MAX_REPORTED_REJECTIONS);
+            final var result = statement.executeQuery();
+            final var rejections = new ArrayList<ImportReport.RejectedRow>();
+            while (result.next()) {
+                rejections.add(new ImportReport.RejectedRow(result.getLong(1), result.getString(2)));
+            }
+            return rejections;
+        }
+    }
+
+    /**
+     * Write a row in the COPY text format, columns separated by tabs and rows by new lines.
+     */
+    private static void writeRow(Writer writer, ImportRow row) throws IOException {
+        writer.write(Long.toString(row.line()));
+        writer.write('\t');
+        writer.write(row.id().toString());
+        writer.write('\t');
+        writer.write(row.date().toString());
+        writer.write('\t');
+        writer.write(row.start().toString());
+        writer.write('\t');
+        writer.write(row.end().toString());
+        writer.write('\t');
+        writeEscaped(writer, row.roomName());
+        writer.write('\t');
+        writer.write(Integer.toString(row.numPeople()));
+        writer.write('\n');
+    }
+
+    private static void writeEscaped(Writer writer, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            final var character = value.charAt(i);
+            switch (character) {
+                case '\\' -> writer.write("\\\\");
+                case '\t' -> writer.write("\\t");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                default -> writer.write(character);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.kntronov.makespace.infrastructure.imports;
+
+/**
+ * Format of a booking import.
+ * CSV has the columns id,date,start,end,roomName,numPeople with an optional header line and no quoted fields,
+ * NDJSON has one object per line with the same keys.
+ */
+public enum ImportFormat {
+    CSV,
+    NDJSON
+}
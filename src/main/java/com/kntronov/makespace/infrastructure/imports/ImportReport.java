@@ -0,0 +1,29 @@
+package com.kntronov.makespace.infrastructure.imports;
+
+import java.util.List;
+
+/**
+ * Outcome of a booking import.
+ *
+ * @param accepted   number of imported bookings
+ * @param rejected   number of rejected rows
+ * @param rejections rejected rows in line order, truncated to the first {@value BookingImporter#MAX_REPORTED_REJECTIONS}
+ */
+public record ImportReport(
+        long accepted,
+        long rejected,
+        List<RejectedRow> rejections
+) {
+
+    /**
+     * A row of the input that was not imported.
+     *
+     * @param line   line number of the row in the input, starting from 1
+     * @param reason why the row was rejected
+     */
+    public record RejectedRow(
+            long line,
+            String reason
+    ) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.kntronov.makespace.infrastructure.imports;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * A parsed row of a booking import, not validated against rooms, buffer times and bookings yet.
+ */
+record ImportRow(
+        long line,
+        UUID id,
+        LocalDate date,
+        LocalTime start,
+        LocalTime end,
+        String roomName,
+        int numPeople
+) {
+}
@@ -0,0 +1,174 @@
+package com.kntronov.makespace.infrastructure.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logback appender handing the events over to a background writer, which formats them and passes them to the
+ * attached appenders, so that logging threads neither format nor write.
+ * <p>
+ * Events wait in a lock-free queue bounded to {@code queueSize} events. An event arriving at a full queue is dropped
+ * and counted rather than making the logging thread wait, whatever its level. The writer parks while the queue is
+ * empty and is woken by the next event. On stop, the events still queued are written for up to {@code maxFlushTime}
+ * milliseconds.
+ * <p>
+ * Messages are formatted by the writer, after the logging call returned: an event that is dropped or filtered never
+ * has its arguments turned into strings. Arguments are therefore read on another thread and must not be changed after
+ * being logged, which holds for the immutable entities and records logged by this application.
+ */
+public class AsyncLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final ConcurrentLinkedQueue<ILoggingEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private int queueSize = 8192;
+    private int maxFlushTime = 1000;
+    private volatile boolean writerIdle;
+    private Thread writer;
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    /**
+     * Returns the number of events passed to the attached appenders.
+     *
+     * @return number of written events
+     */
+    public long written() {
+        return written.sum();
+    }
+
+    /**
+     * Returns the number of events dropped because the queue was full.
+     *
+     * @return number of dropped events
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (queueSize < 1) {
+            addError("invalid queue size " + queueSize);
+            return;
+        }
+        super.start();
+        writer = Thread.ofPlatform().name("async-log-writer").daemon().start(this::write);
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        LockSupport.unpark(writer);
+        try {
+            writer.join(maxFlushTime);
+            if (writer.isAlive()) {
+                addWarn("stopped after " + maxFlushTime + " ms with " + queued.get() + " events left to write");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (queued.incrementAndGet() > queueSize) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        // the thread name and context are read when first asked for, which must happen on the logging thread
+        event.getThreadName();
+        event.getMDCPropertyMap();
+        queue.offer(event);
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void write() {
+        while (true) {
+            final var event = queue.poll();
+            if (event == null) {
+                if (!isStarted()) {
+                    return;
+                }
+                writerIdle = true;
+                if (queue.isEmpty() && isStarted()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                writerIdle = false;
+                continue;
+            }
+            queued.decrementAndGet();
+            try {
+                appenders.appendLoopOnAppenders(event);
+                written.increment();
+            } catch (RuntimeException e) {
+                addError("unable to write a log event", e);
+            }
+        }
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
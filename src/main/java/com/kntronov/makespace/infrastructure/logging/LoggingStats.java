@@ -0,0 +1,42 @@
+package com.kntronov.makespace.infrastructure.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counters of the logging pipeline, summed over the asynchronous appenders of the root logger and the sampling
+ * filters configured in logback.
+ *
+ * @param written    number of events written
+ * @param dropped    number of events dropped because the queue of an appender was full
+ * @param sampledOut number of events discarded by sampling
+ */
+public record LoggingStats(long written, long dropped, long sampledOut) {
+
+    /**
+     * Read the counters of the logging pipeline in use, all zero if logging does not go through logback.
+     *
+     * @return current counters
+     */
+    public static LoggingStats current() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return new LoggingStats(0, 0, 0);
+        }
+        long written = 0;
+        long dropped = 0;
+        for (final var appenders = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders(); appenders.hasNext(); ) {
+            if (appenders.next() instanceof AsyncLogAppender appender) {
+                written += appender.written();
+                dropped += appender.dropped();
+            }
+        }
+        long sampledOut = 0;
+        for (final var filter : context.getTurboFilterList()) {
+            if (filter instanceof SamplingTurboFilter samplingFilter) {
+                sampledOut += samplingFilter.sampledOut();
+            }
+        }
+        return new LoggingStats(written, dropped, sampledOut);
+    }
+}
@@ -0,0 +1,68 @@
+package com.kntronov.makespace.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback turbo filter keeping a random fraction of the events of chosen loggers, so that the loggers called on every
+ * request can stay on without logging every request.
+ * <p>
+ * Rates are given as {@code logger=rate} pairs separated by commas, e.g. {@code BookingService=0.1}. A logger without
+ * a rate keeps all its events. Warnings and errors are always kept. Turbo filters run before the logging event is
+ * created, so a discarded event costs a random draw and none of its arguments is formatted.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final LongAdder sampledOut = new LongAdder();
+    private Map<String, Double> rates = Map.of();
+
+    /**
+     * @param rates comma separated {@code logger=rate} pairs, rates between 0 (nothing kept) and 1 (everything kept)
+     */
+    public void setRates(String rates) {
+        final var parsed = new HashMap<String, Double>();
+        for (final var entry : rates.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            final var separator = entry.lastIndexOf('=');
+            final var rate = separator < 0 ? Double.NaN : Double.parseDouble(entry.substring(separator + 1).trim());
+            if (!(rate >= 0 && rate <= 1)) {
+                throw new IllegalArgumentException("log sample rates must be logger=rate with a rate between 0 and 1, not " + entry);
+            }
+            parsed.put(entry.substring(0, separator).trim(), rate);
+        }
+        this.rates = Map.copyOf(parsed);
+    }
+
+    /**
+     * Returns the number of events discarded by sampling.
+     *
+     * @return number of discarded events
+     */
+    public long sampledOut() {
+        return sampledOut.sum();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // a null format is a level check, such as isDebugEnabled, which is answered by the level alone
+        if (format == null || level.isGreaterOrEqual(Level.WARN) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        final var rate = rates.get(logger.getName());
+        if (rate == null || ThreadLocalRandom.current().nextDouble() < rate) {
+            return FilterReply.NEUTRAL;
+        }
+        sampledOut.increment();
+        return FilterReply.DENY;
+    }
+}
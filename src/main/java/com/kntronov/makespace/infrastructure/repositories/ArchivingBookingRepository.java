@@ -0,0 +1,97 @@
+package com.kntronov.makespace.infrastructure.repositories;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.ArchivedDateException;
+import com.kntronov.makespace.domain.repositories.BookingRepository;
+import com.kntronov.makespace.infrastructure.archive.BookingArchive;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Decorator of a BookingRepository that reads the bookings of archived months from the BookingArchive.
+ * <p>
+ * Archived dates are never read from the delegate, and bookings are looked up by id in the archive first.
+ * Archived dates are read-only, creating or deleting their bookings throws an ArchivedDateException and moves of
+ * their bookings fail.
+ */
+public class ArchivingBookingRepository implements BookingRepository {
+
+    private final BookingRepository delegate;
+    private final BookingArchive archive;
+
+    public ArchivingBookingRepository(BookingRepository delegate, BookingArchive archive) {
+        this.delegate = delegate;
+        this.archive = archive;
+    }
+
+    @Override
+    public Optional<Booking> find(UUID id) {
+        final var archived = archive.find(id);
+        return archived.isPresent() ? archived : delegate.find(id);
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        return archive.isArchived(date) ? archive.findByDate(date) : delegate.findByDate(date);
+    }
+
+    @Override
+    public List<Booking> findPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+        return archive.isArchived(date)
+                ? archive.findPageByDate(date, after, limit)
+                : delegate.findPageByDate(date, after, limit);
+    }
+
+    @Override
+    public boolean isArchived(LocalDate date) {
+        return archive.isArchived(date);
+    }
+
+    @Override
+    public int delete(UUID id) {
+        final var archived = archive.find(id);
+        if (archived.isPresent()) {
+            throw new ArchivedDateException(archived.get().date());
+        }
+        return delegate.delete(id);
+    }
+
+    @Override
+    public Booking save(Booking booking) {
+        rejectArchived(booking.date());
+        return delegate.save(booking);
+    }
+
+    @Override
+    public Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople) {
+        rejectArchived(date);
+        return delegate.saveInBestFittingRoom(id, date, timeSlot, numPeople);
+    }
+
+    @Override
+    public List<Booking> saveAll(List<Booking> bookings) {
+        bookings.forEach(booking -> rejectArchived(booking.date()));
+        return delegate.saveAll(bookings);
+    }
+
+    @Override
+    public boolean moveAll(List<BookingMove> moves, Set<UUID> knownBookingIds) {
+        if (moves.stream().anyMatch(move -> archive.isArchived(move.booking().date()))) {
+            return false;
+        }
+        return delegate.moveAll(moves, knownBookingIds);
+    }
+
+    private void rejectArchived(LocalDate date) {
+        if (archive.isArchived(date)) {
+            throw new ArchivedDateException(date);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.kntronov.makespace.infrastructure.repositories;
+
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.repositories.SystemStateRepository;
+import com.kntronov.makespace.infrastructure.archive.BookingArchive;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decorator of a SystemStateRepository that reads the system states of archived months from the BookingArchive.
+ * <p>
+ * The state of an archived date holds its archived bookings and no available room, archived dates being read-only,
+ * so that no room is ever offered or allocated on them.
+ */
+public class ArchivingSystemStateRepository implements SystemStateRepository {
+
+    private final SystemStateRepository delegate;
+    private final BookingArchive archive;
+
+    public ArchivingSystemStateRepository(SystemStateRepository delegate, BookingArchive archive) {
+        this.delegate = delegate;
+        this.archive = archive;
+    }
+
+    @Override
+    public SystemState findByDate(LocalDate date) {
+        return archive.isArchived(date) ? archivedState(date) : delegate.findByDate(date);
+    }
+
+    @Override
+    public List<SystemState> findByDates(List<LocalDate> dates) {
+        final var archived = dates.stream().map(archive::isArchived).toList();
+        if (!archived.contains(true)) {
+            return delegate.findByDates(dates);
+        }
+        final var storedDates = new ArrayList<LocalDate>();
+        for (int i = 0; i < dates.size(); i++) {
+            if (!archived.get(i)) {
+                storedDates.add(dates.get(i));
+            }
+        }
+        final var stored = storedDates.isEmpty() ? List.<SystemState>of() : delegate.findByDates(storedDates);
+        final var states = new ArrayList<SystemState>(dates.size());
+        var next = 0;
+        for (int i = 0; i < dates.size(); i++) {
+            states.add(archived.get(i) ? archivedState(dates.get(i)) : stored.get(next++));
+        }
+        return states;
+    }
+
+    private SystemState archivedState(LocalDate date) {
+        return new SystemState(date, List.of(), archive.findByDate(date), List.of());
+    }
+}
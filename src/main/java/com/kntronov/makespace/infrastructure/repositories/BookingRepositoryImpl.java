@@ -1,9 +1,15 @@
 package com.kntronov.makespace.infrastructure.repositories;
 
 import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
 import com.kntronov.makespace.domain.repositories.BookingRepository;
 import com.kntronov.makespace.infrastructure.common.BookingMapper;
 import com.kntronov.makespace.infrastructure.db.PooledDataSource;
+import com.kntronov.makespace.infrastructure.db.SqlConflicts;
+import com.kntronov.makespace.infrastructure.errors.UncheckedSQLException;
 
 import java.sql.Date;
 import java.sql.Time;
@@ -11,10 +17,13 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Implementation of the BookingRepository interface that persists and reads data from a SQL database.
+ * Reads go through the read connection of the data source and may be served by a replica, writes go to the primary.
  */
 public class BookingRepositoryImpl implements BookingRepository {
 
@@ -32,7 +41,7 @@ public class BookingRepositoryImpl implements BookingRepository {
                 WHERE b.room_name = r.name
                 AND b.id = ?
                 """;
-        return dataSource.getLeanConnection().use(c -> {
+        return dataSource.getReadConnection().use(c -> {
             try (final var statement = c.prepareStatement(sql)) {
                 statement.setObject(1, id);
                 final var result = statement.executeQuery();
@@ -53,7 +62,7 @@ public class BookingRepositoryImpl implements BookingRepository {
                 WHERE b.room_name = r.name
                 AND b.date = ?
                 """;
-        return dataSource.getLeanConnection().use(c -> {
+        return dataSource.getReadConnection().use(c -> {
             try (final var statement = c.prepareStatement(sql)) {
                 statement.setDate(1, Date.valueOf(date));
                 final var result = statement.executeQuery();
@@ -67,6 +76,37 @@ public class BookingRepositoryImpl implements BookingRepository {
         });
     }
 
+    @Override
+    public List<Booking> findPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+        final var sql = """
+                SELECT b.id, b.date, b.start, b."end", b.room_name, b.num_people, r.people_capacity
+                FROM booking b, room r
+                WHERE b.room_name = r.name
+                AND b.date = ?
+                %s
+                ORDER BY b.start, b.room_name, b.id
+                LIMIT ?
+                """.formatted(after.isPresent() ? "AND (b.start, b.room_name, b.id) > (?, ?, ?)" : "");
+        return dataSource.getReadConnection().use(c -> {
+            try (final var statement = c.prepareStatement(sql)) {
+                var parameter = 1;
+                statement.setDate(parameter++, Date.valueOf(date));
+                if (after.isPresent()) {
+                    statement.setTime(parameter++, Time.valueOf(after.get().start()));
+                    statement.setString(parameter++, after.get().roomName());
+                    statement.setObject(parameter++, after.get().id());
+                }
+                statement.setInt(parameter, limit);
+                final var result = statement.executeQuery();
+                final var bookings = new ArrayList<Booking>();
+                while (result.next()) {
+                    bookings.add(BookingMapper.fromResult(result));
+                }
+                return bookings;
+            }
+        });
+    }
+
     @Override
     public int delete(UUID id) {
         final var sql = """                    
@@ -74,22 +114,21 @@ public class BookingRepositoryImpl implements BookingRepository {
                 FROM booking b
                 WHERE b.id = ?
                 """;
-        dataSource.getLeanConnection().transact(c -> {
+        return dataSource.getLeanConnection().transact(c -> {
             try (final var statement = c.prepareStatement(sql)) {
                 statement.setObject(1, id);
                 return statement.executeUpdate();
             }
         });
-        return 0;
     }
 
     @Override
     public Booking save(Booking booking) {
         final var sql = """
-                INSERT INTO booking
+                INSERT INTO booking (id, date, start, "end", room_name, num_people)
                 VALUES(?, ?, ?, ?, ?, ?)
                 """;
-        return dataSource.getLeanConnection().transact(c -> {
+        return translateConflicts(() -> dataSource.getLeanConnection().transact(c -> {
             final var statement = c.prepareStatement(sql);
             statement.setObject(1, booking.id());
             statement.setDate(2, Date.valueOf(booking.date()));
@@ -99,6 +138,156 @@ public class BookingRepositoryImpl implements BookingRepository {
             statement.setInt(6, booking.numPeople());
             statement.executeUpdate();
             return booking;
-        });
+        }));
+    }
+
+    @Override
+    public Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople) {
+        final var sql = """
+                WITH candidate AS (
+                    SELECT r.name, r.people_capacity
+                    FROM room r
+                    WHERE r.people_capacity >= ?
+                    AND NOT EXISTS (
+                        SELECT 1
+                        FROM buffer_time bt
+                        WHERE bt.start < ?
+                        AND bt."end" > ?
+                    )
+                    AND NOT EXISTS (
+                        SELECT 1
+                        FROM booking b
+                        WHERE b.room_name = r.name
+                        AND b.date = ?
+                        AND b.start < ?
+                        AND b."end" > ?
+                    )
+                    ORDER BY r.people_capacity, r.name
+                    LIMIT 1
+                ), inserted AS (
+                    INSERT INTO booking (id, date, start, "end", room_name, num_people)
+                    SELECT ?, ?, ?, ?, c.name, ?
+                    FROM candidate c
+                    RETURNING id, date, start, "end", room_name, num_people
+                )
+                SELECT i.id, i.date, i.start, i."end", i.room_name, i.num_people, c.people_capacity
+                FROM inserted i, candidate c
+                """;
+        final var start = Time.valueOf(timeSlot.start());
+        final var end = Time.valueOf(timeSlot.end());
+        return translateConflicts(() -> dataSource.getLeanConnection().transact(c -> {
+            try (final var statement = c.prepareStatement(sql)) {
+                statement.setInt(1, numPeople);
+                statement.setTime(2, end);
+                statement.setTime(3, start);
+                statement.setDate(4, Date.valueOf(date));
+                statement.setTime(5, end);
+                statement.setTime(6, start);
+                statement.setObject(7, id);
+                statement.setDate(8, Date.valueOf(date));
+                statement.setTime(9, start);
+                statement.setTime(10, end);
+                statement.setInt(11, numPeople);
+                final var result = statement.executeQuery();
+                if (result.next()) {
+                    return Optional.of(BookingMapper.fromResult(result));
+                } else {
+                    return Optional.empty();
+                }
+            }
+        }));
+    }
+
+    @Override
+    public List<Booking> saveAll(List<Booking> bookings) {
+        final var sql = """
+                INSERT INTO booking (id, date, start, "end", room_name, num_people)
+                VALUES(?, ?, ?, ?, ?, ?)
+                """;
+        return translateConflicts(() -> dataSource.getLeanConnection().transact(c -> {
+            try (final var statement = c.prepareStatement(sql)) {
+                for (final var booking : bookings) {
+                    statement.setObject(1, booking.id());
+                    statement.setDate(2, Date.valueOf(booking.date()));
+                    statement.setTime(3, Time.valueOf(booking.timeSlot().start()));
+                    statement.setTime(4, Time.valueOf(booking.timeSlot().end()));
+                    statement.setString(5, booking.room().name());
+                    statement.setInt(6, booking.numPeople());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                return bookings;
+            }
+        }));
+    }
+
+    @Override
+    public boolean moveAll(List<BookingMove> moves, Set<UUID> knownBookingIds) {
+        final var sql = """
+                UPDATE booking b
+                SET room_name = ?
+                WHERE b.id = ?
+                AND b.date = ?
+                AND b.room_name = ?
+                AND NOT EXISTS (
+                    SELECT 1
+                    FROM booking o
+                    WHERE o.date = ?
+                    AND o.room_name = ?
+                    AND o.start < b."end"
+                    AND o."end" > b.start
+                    AND NOT (o.id = ANY (?))
+                )
+                """;
+        try {
+            return dataSource.getLeanConnection().transact(c -> {
+                try (final var constraints = c.createStatement();
+                     final var statement = c.prepareStatement(sql)) {
+                    final var savepoint = c.setSavepoint();
+                    constraints.execute("SET CONSTRAINTS ALL DEFERRED");
+                    final var knownIds = c.createArrayOf("uuid", knownBookingIds.toArray());
+                    for (final var move : moves) {
+                        statement.setString(1, move.room().name());
+                        statement.setObject(2, move.booking().id());
+                        statement.setDate(3, Date.valueOf(move.booking().date()));
+                        statement.setString(4, move.booking().room().name());
+                        statement.setDate(5, Date.valueOf(move.booking().date()));
+                        statement.setString(6, move.room().name());
+                        statement.setArray(7, knownIds);
+                        statement.addBatch();
+                    }
+                    for (final var updated : statement.executeBatch()) {
+                        if (updated != 1) {
+                            c.rollback(savepoint);
+                            constraints.execute("SET CONSTRAINTS ALL IMMEDIATE");
+                            return false;
+                        }
+                    }
+                    // checks the deferred constraints now rather than when an enclosing transaction commits
+                    constraints.execute("SET CONSTRAINTS ALL IMMEDIATE");
+                    return true;
+                }
+            });
+        } catch (UncheckedSQLException e) {
+            if (SqlConflicts.isConflict(e)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Translate violations of the booking uniqueness and overlap constraints and serialization failures into
+     * BookingConflictException.
+     */
+    private static <T> T translateConflicts(Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (UncheckedSQLException e) {
+            if (SqlConflicts.isConflict(e)) {
+                throw new BookingConflictException(e);
+            }
+            throw e;
+        }
     }
 }
@@ -0,0 +1,112 @@
+package com.kntronov.makespace.infrastructure.repositories;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.repositories.BookingRepository;
+import com.kntronov.makespace.domain.repositories.UnitOfWork;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Decorator of a BookingRepository that writes through to the delegate and patches the SystemStateCache.
+ * <p>
+ * The cache is patched once the unit of work of the write is committed, so that rolled back writes never reach it.
+ * Failed writes invalidate the dates they touched right away.
+ */
+public class CachingBookingRepository implements BookingRepository {
+
+    private final BookingRepository delegate;
+    private final SystemStateCache cache;
+    private final UnitOfWork unitOfWork;
+
+    public CachingBookingRepository(BookingRepository delegate, SystemStateCache cache) {
+        this(delegate, cache, UnitOfWork.none());
+    }
+
+    public CachingBookingRepository(BookingRepository delegate, SystemStateCache cache, UnitOfWork unitOfWork) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.unitOfWork = unitOfWork;
+    }
+
+    @Override
+    public Optional<Booking> find(UUID id) {
+        return delegate.find(id);
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        return delegate.findByDate(date);
+    }
+
+    @Override
+    public List<Booking> findPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+        return delegate.findPageByDate(date, after, limit);
+    }
+
+    @Override
+    public boolean isArchived(LocalDate date) {
+        return delegate.isArchived(date);
+    }
+
+    @Override
+    public int delete(UUID id) {
+        final var deleted = delegate.delete(id);
+        unitOfWork.afterCommit(() -> cache.removeBooking(id));
+        return deleted;
+    }
+
+    @Override
+    public Booking save(Booking booking) {
+        try {
+            final var saved = delegate.save(booking);
+            unitOfWork.afterCommit(() -> cache.addBooking(saved));
+            return saved;
+        } catch (RuntimeException e) {
+            cache.invalidate(booking.date());
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople) {
+        try {
+            final var saved = delegate.saveInBestFittingRoom(id, date, timeSlot, numPeople);
+            saved.ifPresent(booking -> unitOfWork.afterCommit(() -> cache.addBooking(booking)));
+            return saved;
+        } catch (RuntimeException e) {
+            cache.invalidate(date);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Booking> saveAll(List<Booking> bookings) {
+        try {
+            final var saved = delegate.saveAll(bookings);
+            unitOfWork.afterCommit(() -> saved.forEach(cache::addBooking));
+            return saved;
+        } catch (RuntimeException e) {
+            bookings.stream().map(Booking::date).distinct().forEach(cache::invalidate);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean moveAll(List<BookingMove> moves, Set<UUID> knownBookingIds) {
+        final var dates = moves.stream().map(move -> move.booking().date()).distinct().toList();
+        try {
+            return delegate.moveAll(moves, knownBookingIds);
+        } finally {
+            dates.forEach(cache::invalidate);
+            unitOfWork.afterCommit(() -> dates.forEach(cache::invalidate));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.kntronov.makespace.infrastructure.repositories;
+
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.repositories.SystemStateRepository;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Decorator of a SystemStateRepository that serves system states from a SystemStateCache.
+ * Must be paired with a CachingBookingRepository sharing the same cache so that writes patch the cached states.
+ */
+public class CachingSystemStateRepository implements SystemStateRepository {
+
+    private final SystemStateRepository delegate;
+    private final SystemStateCache cache;
+
+    public CachingSystemStateRepository(SystemStateRepository delegate, SystemStateCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public SystemState findByDate(LocalDate date) {
+        return cache.get(date, delegate::findByDate);
+    }
+
+    @Override
+    public List<SystemState> findByDates(List<LocalDate> dates) {
+        return cache.getAll(dates, delegate::findByDates);
+    }
+}
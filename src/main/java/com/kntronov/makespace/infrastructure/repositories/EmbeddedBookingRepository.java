@@ -0,0 +1,66 @@
+package com.kntronov.makespace.infrastructure.repositories;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.repositories.BookingRepository;
+import com.kntronov.makespace.infrastructure.embedded.EmbeddedStore;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * BookingRepository backed by the EmbeddedStore, reading from memory and journaling writes.
+ */
+public class EmbeddedBookingRepository implements BookingRepository {
+
+    private final EmbeddedStore store;
+
+    public EmbeddedBookingRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Optional<Booking> find(UUID id) {
+        return store.find(id);
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        return store.findByDate(date);
+    }
+
+    @Override
+    public List<Booking> findPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+        return store.findPageByDate(date, after, limit);
+    }
+
+    @Override
+    public int delete(UUID id) {
+        return store.delete(id);
+    }
+
+    @Override
+    public Booking save(Booking booking) {
+        return store.save(booking);
+    }
+
+    @Override
+    public Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople) {
+        return store.saveInBestFittingRoom(id, date, timeSlot, numPeople);
+    }
+
+    @Override
+    public List<Booking> saveAll(List<Booking> bookings) {
+        return store.saveAll(bookings);
+    }
+
+    @Override
+    public boolean moveAll(List<BookingMove> moves, Set<UUID> knownBookingIds) {
+        return store.moveAll(moves, knownBookingIds);
+    }
+}
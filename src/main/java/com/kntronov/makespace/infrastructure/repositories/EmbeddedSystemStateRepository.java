@@ -0,0 +1,31 @@
+package com.kntronov.makespace.infrastructure.repositories;
+
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.repositories.SystemStateRepository;
+import com.kntronov.makespace.infrastructure.embedded.EmbeddedStore;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * SystemStateRepository backed by the EmbeddedStore.
+ * States are built from memory on every call, they need no cache in front of them.
+ */
+public class EmbeddedSystemStateRepository implements SystemStateRepository {
+
+    private final EmbeddedStore store;
+
+    public EmbeddedSystemStateRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public SystemState findByDate(LocalDate date) {
+        return store.state(date);
+    }
+
+    @Override
+    public List<SystemState> findByDates(List<LocalDate> dates) {
+        return dates.stream().map(store::state).toList();
+    }
+}
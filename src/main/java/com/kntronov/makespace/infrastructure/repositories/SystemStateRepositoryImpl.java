@@ -1,78 +1,91 @@
 package com.kntronov.makespace.infrastructure.repositories;
 
+import com.kntronov.makespace.domain.entities.Booking;
 import com.kntronov.makespace.domain.entities.Room;
 import com.kntronov.makespace.domain.entities.SystemState;
 import com.kntronov.makespace.domain.entities.TimeSlot;
-import com.kntronov.makespace.domain.repositories.BookingRepository;
 import com.kntronov.makespace.domain.repositories.SystemStateRepository;
+import com.kntronov.makespace.infrastructure.common.BookingMapper;
 import com.kntronov.makespace.infrastructure.db.PooledDataSource;
 
-import java.sql.Connection;
-import java.sql.SQLException;
+import java.sql.Date;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 
 /**
  * Implementation of the SystemStateRepositoryImpl interface that persists and reads data from a SQL database.
+ * <p>
+ * Rooms, buffer times and bookings are read with a single statement, so the state is a consistent snapshot
+ * loaded in one round trip. Rows are tagged by kind and rooms come first, so that every booking shares
+ * the Room instance of its room.
  */
 public class SystemStateRepositoryImpl implements SystemStateRepository {
 
-    private final PooledDataSource dataSource;
+    private static final int ROOM_ROW = 0;
+    private static final int BUFFER_TIME_ROW = 1;
 
-    private final BookingRepository bookingRepository;
+    private final PooledDataSource dataSource;
 
-    public SystemStateRepositoryImpl(PooledDataSource dataSource, BookingRepository bookingRepository) {
+    public SystemStateRepositoryImpl(PooledDataSource dataSource) {
         this.dataSource = dataSource;
-        this.bookingRepository = bookingRepository;
     }
 
     @Override
     public SystemState findByDate(LocalDate date) {
-        final var bookings = bookingRepository.findByDate(date);
-        return dataSource.getLeanConnection().use(c -> {
-            final var rooms = findAllRooms(c);
-            final var bufferTimes = findAllBufferTimes(c);
-            return new SystemState(
-                    date,
-                    rooms,
-                    bookings,
-                    bufferTimes
-            );
-        });
-    }
-
-    private List<Room> findAllRooms(Connection c) throws SQLException {
-        final var sql = """
-                SELECT name, people_capacity FROM room
-                """;
-        try (final var statement = c.prepareStatement(sql)) {
-            final var result = statement.executeQuery();
-            final var rooms = new ArrayList<Room>();
-            while (result.next()) {
-                final var name = result.getString("name");
-                final var capacity = result.getInt("people_capacity");
-                final var room = new Room(name, capacity);
-                rooms.add(room);
-            }
-            return rooms;
-        }
+        return findByDates(List.of(date)).getFirst();
     }
 
-    private List<TimeSlot> findAllBufferTimes(Connection c) throws SQLException {
+    @Override
+    public List<SystemState> findByDates(List<LocalDate> dates) {
         final var sql = """
-                SELECT start, "end" FROM buffer_time
+                SELECT 0 AS kind, r.name AS room_name, r.people_capacity,
+                       NULL::uuid AS id, NULL::date AS date, NULL::time AS start, NULL::time AS "end", NULL::integer AS num_people
+                FROM room r
+                UNION ALL
+                SELECT 1, NULL, NULL, NULL, NULL, bt.start, bt."end", NULL
+                FROM buffer_time bt
+                UNION ALL
+                SELECT 2, b.room_name, NULL, b.id, b.date, b.start, b."end", b.num_people
+                FROM booking b
+                WHERE b.date = ANY (?)
+                ORDER BY kind
                 """;
-        try (final var statement = c.prepareStatement(sql)) {
-            final var result = statement.executeQuery();
-            final var timeSlots = new ArrayList<TimeSlot>();
-            while (result.next()) {
-                final var name = result.getTime("start").toLocalTime();
-                final var capacity = result.getTime("end").toLocalTime();
-                final var timeSlot = new TimeSlot(name, capacity);
-                timeSlots.add(timeSlot);
+        return dataSource.getLeanConnection().use(c -> {
+            try (final var statement = c.prepareStatement(sql)) {
+                statement.setArray(1, c.createArrayOf("date", dates.stream().map(Date::valueOf).toArray()));
+                final var result = statement.executeQuery();
+                final var rooms = new ArrayList<Room>();
+                final var roomsByName = new HashMap<String, Room>();
+                final var bufferTimes = new ArrayList<TimeSlot>();
+                final var bookingsByDate = new HashMap<LocalDate, List<Booking>>();
+                while (result.next()) {
+                    switch (result.getInt("kind")) {
+                        case ROOM_ROW -> {
+                            final var room = new Room(result.getString("room_name"), result.getInt("people_capacity"));
+                            rooms.add(room);
+                            roomsByName.put(room.name(), room);
+                        }
+                        case BUFFER_TIME_ROW -> bufferTimes.add(new TimeSlot(
+                                result.getTime("start").toLocalTime(),
+                                result.getTime("end").toLocalTime()
+                        ));
+                        default -> {
+                            final var booking = BookingMapper.fromResult(result, roomsByName);
+                            bookingsByDate.computeIfAbsent(booking.date(), ignored -> new ArrayList<>()).add(booking);
+                        }
+                    }
+                }
+                return dates.stream()
+                        .map(date -> new SystemState(
+                                date,
+                                rooms,
+                                bookingsByDate.getOrDefault(date, List.of()),
+                                bufferTimes
+                        ))
+                        .toList();
             }
-            return timeSlots;
-        }
+        });
     }
 }
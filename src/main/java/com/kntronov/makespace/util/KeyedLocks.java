@@ -0,0 +1,91 @@
+package com.kntronov.makespace.util;
+
+import com.kntronov.makespace.util.tracing.Tracing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes actions by key: actions holding the same key run one at a time, actions on different keys run
+ * in parallel on the callers' threads.
+ * <p>
+ * A lock is only kept while it is held or waited on, so the number of keys is unbounded.
+ * Actions holding many keys acquire them in ascending order, which rules out deadlocks between them.
+ * Locks are reentrant, an action may acquire a key it already holds.
+ *
+ * @param <K> key type
+ */
+@SuppressWarnings("try")
+public class KeyedLocks<K extends Comparable<? super K>> {
+
+    private final ConcurrentHashMap<K, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * Run an action while holding the lock of a key.
+     *
+     * @param key    key
+     * @param action action to run
+     * @param <T>    result type
+     * @return result of the action
+     */
+    public <T> T withLock(K key, Supplier<T> action) {
+        final var lane = acquire(key);
+        try {
+            return action.get();
+        } finally {
+            release(key, lane);
+        }
+    }
+
+    /**
+     * Run an action while holding the locks of all the given keys.
+     *
+     * @param keys   keys, duplicates are ignored
+     * @param action action to run
+     * @param <T>    result type
+     * @return result of the action
+     */
+    public <T> T withLocks(Collection<K> keys, Supplier<T> action) {
+        final var sortedKeys = keys.stream().distinct().sorted().toList();
+        final var acquired = new ArrayList<Lane>(sortedKeys.size());
+        try {
+            for (final var key : sortedKeys) {
+                acquired.add(acquire(key));
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                release(sortedKeys.get(i), acquired.get(i));
+            }
+        }
+    }
+
+    int activeKeys() {
+        return lanes.size();
+    }
+
+    private Lane acquire(K key) {
+        final var lane = lanes.compute(key, (ignored, current) -> {
+            final var result = current == null ? new Lane() : current;
+            result.users++;
+            return result;
+        });
+        try (final var span = Tracing.span("KeyedLocks.lock")) {
+            lane.lock.lock();
+        }
+        return lane;
+    }
+
+    private void release(K key, Lane lane) {
+        lane.lock.unlock();
+        lanes.computeIfPresent(key, (ignored, current) -> --current.users == 0 ? null : current);
+    }
+
+    private static final class Lane {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users = 0;
+    }
+}
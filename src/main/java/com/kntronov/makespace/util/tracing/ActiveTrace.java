@@ -0,0 +1,94 @@
+package com.kntronov.makespace.util.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Trace being recorded, confined to the thread handling its request.
+ * <p>
+ * Spans are kept in parallel arrays in order of start, so that starting a span allocates nothing but its handle.
+ * A span ends when closed; closing a span also ends the nesting of the spans started within it that were left open.
+ */
+final class ActiveTrace {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Tracer tracer;
+    private final Instant startedAt;
+    private final long startNanos;
+    private final int maxSpans;
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] depths = new int[INITIAL_CAPACITY];
+    private long[] offsets = new long[INITIAL_CAPACITY];
+    private long[] durations = new long[INITIAL_CAPACITY];
+    private int size;
+    private int depth;
+    private int dropped;
+
+    ActiveTrace(Tracer tracer, String name, int maxSpans) {
+        this.tracer = tracer;
+        this.startedAt = Instant.now();
+        this.startNanos = System.nanoTime();
+        this.maxSpans = maxSpans;
+        names[0] = name;
+        durations[0] = -1;
+        size = 1;
+        depth = 1;
+    }
+
+    Span root() {
+        return new Span(this, 0);
+    }
+
+    Span start(String name) {
+        if (size == maxSpans) {
+            dropped++;
+            return Span.NOOP;
+        }
+        if (size == names.length) {
+            final var capacity = Math.min(maxSpans, 2 * size);
+            names = Arrays.copyOf(names, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+        }
+        names[size] = name;
+        depths[size] = depth;
+        offsets[size] = System.nanoTime() - startNanos;
+        durations[size] = -1;
+        depth++;
+        return new Span(this, size++);
+    }
+
+    void end(int index) {
+        if (durations[index] >= 0) {
+            return;
+        }
+        durations[index] = System.nanoTime() - startNanos - offsets[index];
+        depth = depths[index];
+        if (index == 0) {
+            Tracing.unbind(this);
+            tracer.finish(this);
+        }
+    }
+
+    long durationNanos() {
+        return durations[0];
+    }
+
+    Trace toTrace() {
+        final var duration = durations[0];
+        final var spans = new ArrayList<Trace.SpanRecord>(size);
+        for (int i = 0; i < size; i++) {
+            spans.add(new Trace.SpanRecord(
+                    names[i],
+                    depths[i],
+                    offsets[i],
+                    durations[i] >= 0 ? durations[i] : duration - offsets[i]
+            ));
+        }
+        return new Trace(names[0], startedAt, duration, Collections.unmodifiableList(spans), dropped);
+    }
+}
@@ -0,0 +1,36 @@
+package com.kntronov.makespace.util.tracing;
+
+/**
+ * Timed section of a trace, ended when closed. Meant to be used with try-with-resources, so that spans nest like
+ * the calls they time.
+ * <p>
+ * Outside a traced request {@link Tracing#span} returns a shared span recording nothing, closing it does nothing.
+ */
+public final class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, -1);
+
+    private final ActiveTrace trace;
+    private final int index;
+
+    Span(ActiveTrace trace, int index) {
+        this.trace = trace;
+        this.index = index;
+    }
+
+    /**
+     * Returns true if the span is recorded as part of a trace.
+     *
+     * @return if the span is recorded
+     */
+    public boolean isRecording() {
+        return trace != null;
+    }
+
+    @Override
+    public void close() {
+        if (trace != null) {
+            trace.end(index);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.kntronov.makespace.util.tracing;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Finished trace of a request.
+ *
+ * @param name          name of the root span, the request
+ * @param startedAt     time the request started
+ * @param durationNanos duration of the request
+ * @param spans         spans in order of start, the root span first
+ * @param droppedSpans  number of spans not recorded because the trace reached its maximum number of spans
+ */
+public record Trace(String name, Instant startedAt, long durationNanos, List<SpanRecord> spans, int droppedSpans) {
+
+    /**
+     * Finished span of a trace.
+     *
+     * @param name          span name
+     * @param depth         number of enclosing spans, 0 for the root span
+     * @param offsetNanos   time from the start of the trace to the start of the span
+     * @param durationNanos duration of the span, up to the end of the trace if it was never closed
+     */
+    public record SpanRecord(String name, int depth, long offsetNanos, long durationNanos) {
+    }
+}
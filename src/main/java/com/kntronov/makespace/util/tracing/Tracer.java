@@ -0,0 +1,148 @@
+package com.kntronov.makespace.util.tracing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Starts the traces of requests and keeps some of the finished ones.
+ * <p>
+ * Every request is traced, and which traces are kept is decided once they finish, when their duration is known:
+ * the slowest traces seen so far are kept, so that the rare slow request is never missed, and a sample of the others
+ * goes to a ring buffer of the most recent ones, overwriting the oldest without locking. Recording a trace only fills
+ * arrays, and a trace kept by neither is dropped before its spans are copied out. A trace faster than the fastest of
+ * the slowest is rejected without taking their lock.
+ * <p>
+ * A tracer keeping no trace never starts one, and spans cost a thread local lookup, see {@link Tracing}.
+ */
+public final class Tracer {
+
+    private static final int MAX_SPANS = 512;
+    private static final Comparator<Trace> byDuration = Comparator.comparingLong(Trace::durationNanos);
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final AtomicReferenceArray<Trace> recent;
+    private final AtomicLong recorded = new AtomicLong();
+    private final int slowestCapacity;
+    private final PriorityQueue<Trace> slowest;
+    private volatile long slowestThresholdNanos = Long.MIN_VALUE;
+
+    /**
+     * @param sampleRate      fraction of the finished traces kept among the most recent ones, between 0 and 1
+     * @param recentCapacity  number of the most recent traces kept
+     * @param slowestCapacity number of the slowest traces kept
+     */
+    public Tracer(double sampleRate, int recentCapacity, int slowestCapacity) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sample rate must be between 0 and 1, got " + sampleRate);
+        }
+        this.enabled = (recentCapacity > 0 && sampleRate > 0) || slowestCapacity > 0;
+        this.sampleRate = recentCapacity > 0 ? sampleRate : 0;
+        this.recent = new AtomicReferenceArray<>(recentCapacity);
+        this.slowestCapacity = slowestCapacity;
+        this.slowest = new PriorityQueue<>(Math.max(1, slowestCapacity), byDuration);
+    }
+
+    /**
+     * Returns a tracer that never traces.
+     *
+     * @return disabled tracer
+     */
+    public static Tracer disabled() {
+        return new Tracer(0, 0, 0);
+    }
+
+    /**
+     * Returns true if requests are traced.
+     *
+     * @return if some traces are kept
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double sampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Start the trace of a request on the current thread if tracing is enabled.
+     * The trace ends when the returned root span is closed, and is kept or dropped then; a trace left open on the
+     * thread by an earlier request is discarded.
+     *
+     * @param name request name
+     * @return root span of the trace, recording nothing if tracing is disabled
+     */
+    public Span start(String name) {
+        if (!enabled) {
+            return Span.NOOP;
+        }
+        final var trace = new ActiveTrace(this, name, MAX_SPANS);
+        Tracing.bind(trace);
+        return trace.root();
+    }
+
+    /**
+     * Returns the most recent traces.
+     *
+     * @return traces, the most recent first
+     */
+    public List<Trace> recent() {
+        final var capacity = recent.length();
+        final var end = recorded.get();
+        final var traces = new ArrayList<Trace>();
+        for (long sequence = end - 1; sequence >= 0 && sequence >= end - capacity; sequence--) {
+            final var trace = recent.get((int) (sequence % capacity));
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * Returns the slowest traces.
+     *
+     * @return traces, the slowest first
+     */
+    public List<Trace> slowest() {
+        final List<Trace> traces;
+        synchronized (slowest) {
+            traces = new ArrayList<>(slowest);
+        }
+        traces.sort(byDuration.reversed());
+        return traces;
+    }
+
+    void finish(ActiveTrace trace) {
+        final var durationNanos = trace.durationNanos();
+        final var capacity = recent.length();
+        final var keepRecent = capacity > 0
+                && (sampleRate == 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate));
+        final var keepSlowest = slowestCapacity > 0 && durationNanos > slowestThresholdNanos;
+        if (!keepRecent && !keepSlowest) {
+            return;
+        }
+        final var finished = trace.toTrace();
+        if (keepRecent) {
+            recent.set((int) (recorded.getAndIncrement() % capacity), finished);
+        }
+        if (!keepSlowest) {
+            return;
+        }
+        synchronized (slowest) {
+            slowest.add(finished);
+            if (slowest.size() > slowestCapacity) {
+                slowest.poll();
+            }
+            if (slowest.size() == slowestCapacity) {
+                slowestThresholdNanos = slowest.peek().durationNanos();
+            }
+        }
+    }
+}
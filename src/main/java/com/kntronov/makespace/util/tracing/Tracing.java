@@ -0,0 +1,53 @@
+package com.kntronov.makespace.util.tracing;
+
+/**
+ * Entry point of the code recording spans, whichever layer it is in.
+ * <p>
+ * The trace of a request is bound to the thread handling it by {@link Tracer#start}, and spans started on that
+ * thread join it, so that the trace does not have to be passed through the layers. Each request runs on its own
+ * thread from the first to the last handler, which makes the thread the request scope.
+ * <p>
+ * On a thread without a trace, because tracing is off, starting a span costs a thread local lookup and returns
+ * a span recording nothing. Callers building a span name should check {@link #isActive()} first, so that untraced
+ * requests do not pay for the name either.
+ * <p>
+ * A span is held by a try-with-resources block only to be closed when the block ends, the classes doing so suppress
+ * the "try" lint warning about a resource never referenced in its block.
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<ActiveTrace> current = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    /**
+     * Start a span of the trace bound to the current thread.
+     *
+     * @param name span name, such as the class and method it times
+     * @return span to close when the timed section ends, recording nothing if no trace is bound
+     */
+    public static Span span(String name) {
+        final var trace = current.get();
+        return trace == null ? Span.NOOP : trace.start(name);
+    }
+
+    /**
+     * Returns true if a trace is bound to the current thread.
+     *
+     * @return if spans started on this thread are recorded
+     */
+    public static boolean isActive() {
+        return current.get() != null;
+    }
+
+    static void bind(ActiveTrace trace) {
+        current.set(trace);
+    }
+
+    static void unbind(ActiveTrace trace) {
+        if (current.get() == trace) {
+            current.remove();
+        }
+    }
+}
@@ -0,0 +1,2 @@
+ALTER TABLE booking DROP CONSTRAINT booking_date_start_end_room_name_key;
+ALTER TABLE booking ADD CONSTRAINT booking_date_start_end_room_name_key UNIQUE (date, start, "end", room_name) DEFERRABLE INITIALLY IMMEDIATE;
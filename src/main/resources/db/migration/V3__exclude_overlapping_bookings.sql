@@ -0,0 +1,8 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE booking
+    ADD COLUMN slot TSRANGE GENERATED ALWAYS AS (tsrange(date + start, date + "end", '[)')) STORED;
+
+ALTER TABLE booking
+    ADD CONSTRAINT booking_room_slot_excl EXCLUDE USING gist (room_name WITH =, slot WITH &&)
+        DEFERRABLE INITIALLY IMMEDIATE;
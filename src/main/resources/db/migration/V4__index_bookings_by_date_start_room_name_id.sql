@@ -0,0 +1,2 @@
+-- supports the keyset pagination of the bookings of a date, ordered by start time, room name and id
+CREATE INDEX booking_date_start_room_name_id_idx ON booking (date, start, room_name, id);
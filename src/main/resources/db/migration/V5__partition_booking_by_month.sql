@@ -0,0 +1,97 @@
+-- converts booking into a table partitioned by month of date, every query filtering by date only reads its months
+ALTER TABLE booking RENAME TO booking_unpartitioned;
+ALTER TABLE booking_unpartitioned DROP CONSTRAINT booking_pkey;
+ALTER TABLE booking_unpartitioned DROP CONSTRAINT booking_date_start_end_room_name_key;
+ALTER TABLE booking_unpartitioned DROP CONSTRAINT booking_room_slot_excl;
+DROP INDEX booking_date_start_room_name_id_idx;
+
+-- primary and unique keys of a partitioned table must include the partition key
+CREATE TABLE booking
+(
+    id         UUID,
+    date       DATE,
+    start      TIME,
+    "end"      TIME,
+    room_name  VARCHAR NOT NULL,
+    num_people INTEGER NOT NULL,
+    slot       TSRANGE GENERATED ALWAYS AS (tsrange(date + start, date + "end", '[)')) STORED,
+    CONSTRAINT booking_pkey PRIMARY KEY (id, date),
+    CONSTRAINT booking_date_start_end_room_name_key UNIQUE (date, start, "end", room_name) DEFERRABLE INITIALLY IMMEDIATE,
+    FOREIGN KEY (room_name) REFERENCES room (name)
+) PARTITION BY RANGE (date);
+
+CREATE INDEX booking_date_start_room_name_id_idx ON booking (date, start, room_name, id);
+
+-- a booking never spans two dates, so overlapping bookings always share a partition
+-- and the overlap exclusion constraint is declared on every partition
+CREATE TABLE booking_default PARTITION OF booking DEFAULT;
+ALTER TABLE booking_default
+    ADD CONSTRAINT booking_default_room_slot_excl EXCLUDE USING gist (room_name WITH =, slot WITH &&)
+        DEFERRABLE INITIALLY IMMEDIATE;
+
+-- creates the partition booking_yyyy_mm of the month of a date if it does not exist yet,
+-- moving the bookings of the month out of the default partition
+CREATE FUNCTION create_booking_partition(month DATE) RETURNS TEXT
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    from_date      DATE := date_trunc('month', month)::DATE;
+    until_date     DATE := (date_trunc('month', month) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'booking_' || to_char(month, 'YYYY_MM');
+BEGIN
+    LOCK TABLE booking IN SHARE UPDATE EXCLUSIVE MODE;
+    LOCK TABLE booking_default IN EXCLUSIVE MODE;
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE booking INCLUDING DEFAULTS INCLUDING GENERATED)', partition_name);
+    EXECUTE format(
+            'ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist (room_name WITH =, slot WITH &&) DEFERRABLE INITIALLY IMMEDIATE',
+            partition_name, partition_name || '_room_slot_excl');
+    EXECUTE format(
+            'WITH moved AS (
+                DELETE FROM booking_default WHERE date >= $1 AND date < $2
+                RETURNING id, date, start, "end", room_name, num_people
+             )
+             INSERT INTO %I (id, date, start, "end", room_name, num_people) SELECT * FROM moved',
+            partition_name) USING from_date, until_date;
+    EXECUTE format('ALTER TABLE booking ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', partition_name, from_date, until_date);
+    RETURN partition_name;
+END;
+$$;
+
+-- detaches and drops the partitions of the months before the month of a date, without touching their rows one by one
+CREATE FUNCTION drop_booking_partitions_before(month DATE) RETURNS SETOF TEXT
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    partition_name TEXT;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'booking'::REGCLASS
+          AND c.relname ~ '^booking_\d{4}_\d{2}$'
+          AND to_date(substring(c.relname FROM 9), 'YYYY_MM') < date_trunc('month', month)
+        ORDER BY c.relname
+        LOOP
+            EXECUTE format('ALTER TABLE booking DETACH PARTITION %I', partition_name);
+            EXECUTE format('DROP TABLE %I', partition_name);
+            RETURN NEXT partition_name;
+        END LOOP;
+END;
+$$;
+
+SELECT create_booking_partition(month::DATE)
+FROM generate_series(
+             date_trunc('month', LEAST((SELECT min(date) FROM booking_unpartitioned), current_date)),
+             date_trunc('month', current_date) + INTERVAL '12 months',
+             INTERVAL '1 month'
+     ) AS month;
+
+INSERT INTO booking (id, date, start, "end", room_name, num_people)
+SELECT id, date, start, "end", room_name, num_people
+FROM booking_unpartitioned;
+
+DROP TABLE booking_unpartitioned;
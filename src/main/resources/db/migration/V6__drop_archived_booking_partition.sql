@@ -0,0 +1,18 @@
+-- drops the partition of the month of a date once its bookings are archived,
+-- together with the bookings of the month left in the default partition
+CREATE FUNCTION drop_booking_partition(month DATE) RETURNS VOID
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    partition_name TEXT := 'booking_' || to_char(month, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE booking DETACH PARTITION %I', partition_name);
+        EXECUTE format('DROP TABLE %I', partition_name);
+    END IF;
+    DELETE
+    FROM booking_default
+    WHERE date >= date_trunc('month', month)
+      AND date < date_trunc('month', month) + INTERVAL '1 month';
+END;
+$$;
@@ -11,4 +11,8 @@ public class AppErrors {
     public static String internalServerError() {
         return "{\"statusCode\":500,\"error\":\"InternalServerError\",\"message\":\"something went wrong\"}";
     }
+
+    public static String conflictError(String message) {
+        return "{\"statusCode\":409,\"error\":\"Conflict\",\"message\":\"" + message + "\"}";
+    }
 }
@@ -2,18 +2,31 @@ package com.kntronov.makespace.application;
 
 import com.kntronov.makespace.application.AppContext;
 import com.kntronov.makespace.application.JavalinApp;
+import com.kntronov.makespace.application.controllers.AdminController;
 import com.kntronov.makespace.application.controllers.BookingsController;
+import com.kntronov.makespace.application.controllers.ExportController;
+import com.kntronov.makespace.application.controllers.ImportController;
+import com.kntronov.makespace.application.controllers.MetricsController;
 import com.kntronov.makespace.application.controllers.RoomsController;
+import com.kntronov.makespace.application.metrics.BookingOutcomeMetrics;
+import com.kntronov.makespace.application.metrics.HttpMetrics;
 import com.kntronov.makespace.config.AppConfig;
+import com.kntronov.makespace.domain.services.AllocationMetrics;
 import com.kntronov.makespace.domain.services.BookingService;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
 import com.kntronov.makespace.infrastructure.db.PooledDataSource;
 import com.kntronov.makespace.testing.Mocks;
+import com.kntronov.makespace.util.tracing.Tracer;
 import io.javalin.Javalin;
 
+import java.time.Clock;
+
 public class JavalinTestApp {
 
-    private static final AppConfig.ServerConfig testConfig = new AppConfig.ServerConfig(8080);
-    private final Javalin subject = new JavalinApp(new AppContext(dataSource(), bookingsController(), roomsController()), testConfig).getJavalin();
+    private static final AppConfig.ServerConfig testConfig = new AppConfig.ServerConfig(8080, false, 250);
+    private final HttpMetrics httpMetrics = new HttpMetrics();
+    private final Tracer tracer = new Tracer(1, 16, 4);
+    private final Javalin subject = new JavalinApp(new AppContext(dataSource(), bookingsController(), roomsController(), adminController(), importController(), exportController(), null, null, httpMetrics, metricsController(), tracer), testConfig).getJavalin();
 
     protected BookingService bookingService() {
         return new Mocks.BookingServiceMock() {
@@ -36,4 +49,20 @@ public class JavalinTestApp {
     private RoomsController roomsController() {
         return new RoomsController(bookingService());
     }
+
+    private AdminController adminController() {
+        return new AdminController(new SystemStateCache(64, Clock.systemUTC()), new AllocationMetrics(), null, tracer);
+    }
+
+    private ImportController importController() {
+        return new ImportController(null);
+    }
+
+    private ExportController exportController() {
+        return new ExportController(null);
+    }
+
+    private MetricsController metricsController() {
+        return new MetricsController(httpMetrics, new BookingOutcomeMetrics(), new AllocationMetrics(), null);
+    }
 }
@@ -0,0 +1,111 @@
+package com.kntronov.makespace.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kntronov.makespace.application.schema.AvailableRoomsResponse;
+import com.kntronov.makespace.application.schema.BatchBookingItemResponse;
+import com.kntronov.makespace.application.schema.BatchBookingResponse;
+import com.kntronov.makespace.application.schema.BookingResponse;
+import com.kntronov.makespace.application.schema.BookingSeriesResponse;
+import com.kntronov.makespace.application.schema.BookingsListResponse;
+import com.kntronov.makespace.application.schema.ErrorResponse;
+import com.kntronov.makespace.application.schema.RoomResponse;
+import com.kntronov.makespace.application.schema.TimeSlotResponse;
+import io.javalin.json.JavalinJackson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("SchemaJsonMapper Test")
+class SchemaJsonMapperTest {
+
+    private final JavalinJackson jackson = new JavalinJackson(new ObjectMapper().registerModule(new JavaTimeModule()));
+    private final SchemaJsonMapper subject = new SchemaJsonMapper(jackson);
+
+    private static BookingResponse booking(Random random, String roomName, LocalTime start) {
+        return new BookingResponse(
+                new UUID(random.nextLong(), random.nextLong()),
+                LocalDate.of(2020, 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                new TimeSlotResponse(start, start.plusMinutes(15 + 15 * random.nextInt(8))),
+                new RoomResponse(roomName, 2 + random.nextInt(30)),
+                1 + random.nextInt(20)
+        );
+    }
+
+    private void assertSameAsJackson(Object response) {
+        assertThat(subject.toJsonString(response, response.getClass()))
+                .isEqualTo(jackson.toJsonString(response, response.getClass()));
+    }
+
+    @Test
+    @DisplayName("lists of bookings should be written as Jackson writes them, with and without a next cursor")
+    void bookingsListTest() {
+        final var random = new Random(42);
+        final var bookings = new ArrayList<BookingResponse>();
+        for (int i = 0; i < 200; i++) {
+            final var start = LocalTime.of(random.nextInt(22), 15 * random.nextInt(4));
+            bookings.add(booking(random, "room-" + random.nextInt(100), start));
+        }
+
+        assertSameAsJackson(new BookingsListResponse(bookings));
+        assertSameAsJackson(new BookingsListResponse(bookings, "MjAyMC0xMi0xMHwxMDowMHxELVRvd2Vy"));
+        assertSameAsJackson(new BookingsListResponse(List.of()));
+        assertSameAsJackson(bookings.getFirst());
+    }
+
+    @Test
+    @DisplayName("escaped characters and times off the quarter hours should be written as Jackson writes them")
+    void edgeCasesTest() {
+        final var random = new Random(7);
+        final var bookings = List.of(
+                booking(random, "\"Quoted\" \\ room\n\t\r\b\f\u0001\u001f", LocalTime.of(9, 7)),
+                booking(random, "Salle à manger 😀 </script>", LocalTime.of(0, 0)),
+                booking(random, "", LocalTime.of(10, 30, 15)),
+                booking(random, "C-Cave", LocalTime.of(11, 0, 0, 500_000_000)),
+                new BookingResponse(null, null, null, null, 0),
+                new BookingResponse(UUID.randomUUID(), LocalDate.of(2020, 12, 10), new TimeSlotResponse(null, null), new RoomResponse(null, 3), 1)
+        );
+
+        assertSameAsJackson(new BookingsListResponse(bookings));
+    }
+
+    @Test
+    @DisplayName("series, batch and available rooms responses should be written as Jackson writes them")
+    void otherResponsesTest() {
+        final var random = new Random(3);
+        final var first = booking(random, "D-Tower", LocalTime.of(10, 0));
+        final var second = booking(random, "G-Mansion", LocalTime.of(23, 45));
+
+        assertSameAsJackson(new BookingSeriesResponse(
+                first.room(),
+                List.of(first, second),
+                List.of(LocalDate.of(2020, 12, 17)),
+                List.of(LocalDate.of(2020, 12, 24), LocalDate.of(2020, 12, 31))
+        ));
+        assertSameAsJackson(new BatchBookingResponse(List.of(
+                new BatchBookingItemResponse(201, first, null),
+                new BatchBookingItemResponse(409, null, "no room available for 12 people")
+        )));
+        assertSameAsJackson(new AvailableRoomsResponse(List.of(first.room(), second.room())));
+        assertSameAsJackson(new AvailableRoomsResponse(List.of()));
+    }
+
+    @Test
+    @DisplayName("other types should be written and all types read by the delegate")
+    void delegateTest() {
+        final var error = new ErrorResponse(404, "NOT_FOUND", "booking not found");
+
+        assertSameAsJackson(error);
+        final String json = subject.toJsonString(new RoomResponse("C-Cave", 3), RoomResponse.class);
+        final RoomResponse room = subject.fromJsonString(json, RoomResponse.class);
+        assertThat(room).isEqualTo(new RoomResponse("C-Cave", 3));
+    }
+}
@@ -0,0 +1,51 @@
+package com.kntronov.makespace.application.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("LatencyHistogram Test")
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("cumulativeCounts should count the latencies at most each upper bound")
+    void cumulativeCountsTest() {
+        final var histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        final var counts = histogram.cumulativeCounts();
+        assertThat(counts[0]).isEqualTo(250L);
+        assertThat(counts[1]).isEqualTo(500L);
+        assertThat(counts[2]).isEqualTo(1_000L);
+        assertThat(counts[5]).isEqualTo(10_000L);
+        assertThat(counts[LatencyHistogram.BUCKETS - 1]).isEqualTo(10_000L);
+        assertThat(histogram.sumMicros()).isEqualTo(10_000L * 10_001 / 2);
+    }
+
+    @Test
+    @DisplayName("cumulativeCounts should be zero if nothing was recorded")
+    void emptyTest() {
+        final var counts = new LatencyHistogram().cumulativeCounts();
+
+        assertThat(counts.length).isEqualTo(LatencyHistogram.BUCKETS);
+        assertThat(counts[LatencyHistogram.BUCKETS - 1]).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("buckets should include their upper bound and put the longest latencies in the last one")
+    void bucketsTest() {
+        final var upperBounds = LatencyHistogram.upperBoundsSeconds();
+        for (int bucket = 0; bucket < upperBounds.length; bucket++) {
+            final var upperBound = Math.round(upperBounds[bucket] * TimeUnit.SECONDS.toNanos(1));
+            assertThat(LatencyHistogram.bucketOf(upperBound)).isEqualTo(bucket);
+            assertThat(LatencyHistogram.bucketOf(upperBound + 1)).isEqualTo(bucket + 1);
+        }
+        assertThat(LatencyHistogram.bucketOf(0)).isEqualTo(0);
+        assertThat(LatencyHistogram.bucketOf(TimeUnit.HOURS.toNanos(1))).isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.kntronov.makespace.application.metrics;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingRequest;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
+import com.kntronov.makespace.domain.errors.NoRoomAvailableException;
+import com.kntronov.makespace.infrastructure.errors.UncheckedSQLException;
+import com.kntronov.makespace.testing.Mocks;
+import com.kntronov.makespace.util.Result;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@DisplayName("MeteredBookingService Test")
+class MeteredBookingServiceTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final TimeSlot timeSlot = new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0));
+    private static final Booking booking = new Booking(UUID.randomUUID(), date, timeSlot, new Room("C-Cave", 3), 2);
+
+    @Test
+    @DisplayName("booking calls should count returned and thrown outcomes")
+    void outcomesTest() {
+        final var metrics = new BookingOutcomeMetrics();
+        final var subject = new MeteredBookingService(new Mocks.BookingServiceMock() {
+            @Override
+            public Result<Booking> bookNextAvailableRoom(LocalDate date, TimeSlot timeSlot, int numPeople) {
+                if (numPeople == 1) {
+                    throw new UncheckedSQLException(new SQLException("connection refused"));
+                }
+                return numPeople == 2 ? Result.pure(booking) : Result.fail(new NoRoomAvailableException());
+            }
+
+            @Override
+            public List<Result<Booking>> bookAll(List<BookingRequest> requests) {
+                return List.of(
+                        Result.pure(booking),
+                        Result.fail(new BookingConflictException(new IllegalStateException())),
+                        Result.fail(new IllegalStateException())
+                );
+            }
+        }, metrics);
+
+        subject.bookNextAvailableRoom(date, timeSlot, 2);
+        subject.bookNextAvailableRoom(date, timeSlot, 3);
+        assertThatThrownBy(() -> subject.bookNextAvailableRoom(date, timeSlot, 1))
+                .isInstanceOf(UncheckedSQLException.class);
+        subject.bookAll(List.of());
+
+        assertThat(metrics.count(BookingOutcomeMetrics.Outcome.SUCCESS)).isEqualTo(2L);
+        assertThat(metrics.count(BookingOutcomeMetrics.Outcome.NO_ROOM_AVAILABLE)).isEqualTo(1L);
+        assertThat(metrics.count(BookingOutcomeMetrics.Outcome.SQL_ERROR)).isEqualTo(1L);
+        assertThat(metrics.count(BookingOutcomeMetrics.Outcome.CONFLICT)).isEqualTo(1L);
+        assertThat(metrics.count(BookingOutcomeMetrics.Outcome.ERROR)).isEqualTo(1L);
+    }
+}
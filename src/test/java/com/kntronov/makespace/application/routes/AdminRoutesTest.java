@@ -0,0 +1,72 @@
+package com.kntronov.makespace.application.routes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kntronov.makespace.application.JavalinTestApp;
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.services.BookingService;
+import com.kntronov.makespace.testing.Mocks;
+import com.kntronov.makespace.testing.TestTags;
+import com.kntronov.makespace.util.Result;
+import io.javalin.Javalin;
+import io.javalin.testtools.JavalinTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("AdminRoutes Integration Test")
+@Tag(TestTags.INTEGRATION_TEST)
+class AdminRoutesTest {
+
+    private static final Booking booking = new Booking(
+            UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc1111"),
+            LocalDate.of(2020, 12, 10),
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            new Room("C-Cave", 3),
+            3
+    );
+
+    private final Javalin subject = new JavalinTestApp() {
+        @Override
+        protected BookingService bookingService() {
+            return new Mocks.BookingServiceMock() {
+                @Override
+                public Result<Booking> getBooking(UUID id) {
+                    return Result.pure(booking);
+                }
+            };
+        }
+    }.subject();
+
+    @Test
+    @DisplayName("when GET traces is called should return the spans of the traced requests")
+    void getTracesTest() {
+        JavalinTest.test(subject, (server, client) -> {
+            client.get("/api/bookings/" + booking.id());
+            final var result = client.get("/api/admin/traces");
+            final var body = new ObjectMapper().readTree(result.body().string());
+
+            assertThat(result.code()).isEqualTo(200);
+            assertThat(body.get("sampleRate").asDouble()).isEqualTo(1.0);
+            final var trace = body.get("recent").get(0);
+            assertThat(trace.get("name").asText()).isEqualTo("GET /api/bookings/" + booking.id());
+            final var spans = new ArrayList<String>();
+            trace.get("spans").forEach(span -> spans.add(span.get("name").asText() + "@" + span.get("depth").asInt()));
+            assertThat(spans).isEqualTo(List.of(
+                    "GET /api/bookings/" + booking.id() + "@0",
+                    "BookingsController.getBooking@1",
+                    "json.write BookingResponse@1"
+            ));
+            assertThat(body.get("slowest").size()).isEqualTo(1);
+        });
+    }
+}
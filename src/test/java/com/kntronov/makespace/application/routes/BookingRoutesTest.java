@@ -2,10 +2,18 @@ package com.kntronov.makespace.application.routes;
 
 import com.kntronov.makespace.application.AppErrors;
 import com.kntronov.makespace.application.JavalinTestApp;
+import com.kntronov.makespace.application.schema.BookingCursors;
 import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.BookingPage;
+import com.kntronov.makespace.domain.entities.BookingRequest;
+import com.kntronov.makespace.domain.entities.BookingSeries;
+import com.kntronov.makespace.domain.entities.RecurringBookingRequest;
 import com.kntronov.makespace.domain.entities.Room;
 import com.kntronov.makespace.domain.entities.TimeSlot;
 import com.kntronov.makespace.domain.errors.NoRoomAvailableException;
+import com.kntronov.makespace.domain.errors.RepackConflictException;
 import com.kntronov.makespace.domain.errors.RoomNotFoundException;
 import com.kntronov.makespace.domain.services.BookingService;
 import com.kntronov.makespace.testing.Mocks;
@@ -14,6 +22,8 @@ import com.kntronov.makespace.util.Nothing;
 import com.kntronov.makespace.util.Result;
 import io.javalin.Javalin;
 import io.javalin.testtools.JavalinTest;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Tag;
@@ -25,6 +35,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -178,6 +189,153 @@ class BookingRoutesTest {
         }
     }
 
+    @Nested
+    @DisplayName("/bookings/create-best-matching/batch")
+    class CreateBestMatchingBatchTest {
+        private static final String expectedResponseJson = """
+                {"results":[{"statusCode":201,"booking":{"id":"e58ed763-928c-4155-bee9-fdbaaadc1111","date":[2020,12,10],"timeSlot":{"start":[10,0],"end":[11,0]},"room":{"name":"C-Cave","peopleCapacity":3},"numPeople":3}},{"statusCode":400,"error":"numPeople must be > 0"},{"statusCode":204,"error":"no room availability found"},{"statusCode":500,"error":"something went wrong"}]}""";
+        private static final String requestJson = """
+                {"bookings": [
+                  {"date": "2020-12-12", "timeSlotStart": "10:00", "timeSlotEnd": "11:30", "numPeople": 1},
+                  {"date": "2020-12-12", "timeSlotStart": "10:00", "timeSlotEnd": "11:30", "numPeople": 0},
+                  {"date": "2020-12-12", "timeSlotStart": "10:00", "timeSlotEnd": "11:30", "numPeople": 2},
+                  {"date": "2020-12-12", "timeSlotStart": "10:00", "timeSlotEnd": "11:30", "numPeople": 3}
+                ]}""";
+        private final Javalin subject = new JavalinTestApp() {
+            @Override
+            protected BookingService bookingService() {
+                return new Mocks.BookingServiceMock() {
+                    /*
+                    numPeople = 1 -> success
+                    numPeople = 2 -> success not found
+                    numPeople = 3 -> fail
+                    */
+                    @Override
+                    public List<Result<Booking>> bookAll(List<BookingRequest> requests) {
+                        return requests.stream().<Result<Booking>>map(request -> {
+                            if (request.numPeople() == 1) {
+                                return Result.pure(booking1);
+                            } else if (request.numPeople() == 2) {
+                                return Result.fail(new NoRoomAvailableException());
+                            } else {
+                                return Result.fail(new RuntimeException());
+                            }
+                        }).toList();
+                    }
+                };
+            }
+        }.subject();
+
+        @Test
+        @DisplayName("when POST is called should return 200 and the result of each booking request")
+        void testCreateBatch() {
+            JavalinTest.test(subject, (server, client) -> {
+                final var result = client.post("/api/bookings/create-best-matching/batch", requestJson);
+                assertThat(result.code()).isEqualTo(200);
+                assertThat(result.body().string()).isEqualTo(expectedResponseJson);
+            });
+        }
+
+        @Test
+        @DisplayName("when POST is called with no bookings should return 400 and error")
+        void testCreateBatchEmpty() {
+            JavalinTest.test(subject, (server, client) -> {
+                final var result = client.post("/api/bookings/create-best-matching/batch", "{\"bookings\": []}");
+                assertThat(result.code()).isEqualTo(400);
+                assertThat(result.body().string()).isEqualTo(AppErrors.badRequestError("[REQUEST_BODY] error: bookings must not be empty"));
+            });
+        }
+    }
+
+    @Nested
+    @DisplayName("/bookings/create-recurring")
+    class CreateRecurringTest {
+        private static final String expectedResponseJson = """
+                {"room":{"name":"C-Cave","peopleCapacity":3},"bookings":[{"id":"e58ed763-928c-4155-bee9-fdbaaadc1111","date":[2020,12,10],"timeSlot":{"start":[10,0],"end":[11,0]},"room":{"name":"C-Cave","peopleCapacity":3},"numPeople":3}],"fallbackDates":[],"unavailableDates":[[2020,12,17]]}""";
+        private final Javalin subject = new JavalinTestApp() {
+            @Override
+            protected BookingService bookingService() {
+                return new Mocks.BookingServiceMock() {
+                    @Override
+                    public Result<BookingSeries> bookRecurring(RecurringBookingRequest request) {
+                        return Result.pure(new BookingSeries(room1, List.of(booking1), List.of(), List.of(expectedDate.plusDays(7))));
+                    }
+                };
+            }
+        }.subject();
+
+        @Test
+        @DisplayName("when POST is called should return 201 and the booked series")
+        void testCreateRecurring() {
+            JavalinTest.test(subject, (server, client) -> {
+                final var result = client.post("/api/bookings/create-recurring", """
+                        {"firstDate": "2020-12-10", "lastDate": "2020-12-17", "recurrence": "WEEKLY", "timeSlotStart": "10:00", "timeSlotEnd": "11:00", "numPeople": 3}""");
+                assertThat(result.code()).isEqualTo(201);
+                assertThat(result.body().string()).isEqualTo(expectedResponseJson);
+            });
+        }
+
+        @Test
+        @DisplayName("when POST is called with a last date before the first date should return 400 and error")
+        void testCreateRecurringInvalidRange() {
+            JavalinTest.test(subject, (server, client) -> {
+                final var result = client.post("/api/bookings/create-recurring", """
+                        {"firstDate": "2020-12-10", "lastDate": "2020-12-09", "recurrence": "DAILY", "timeSlotStart": "10:00", "timeSlotEnd": "11:00", "numPeople": 3}""");
+                assertThat(result.code()).isEqualTo(400);
+                assertThat(result.body().string()).isEqualTo(AppErrors.badRequestError("[REQUEST_BODY] error: lastDate must not be before firstDate"));
+            });
+        }
+    }
+
+    @Nested
+    @DisplayName("/bookings/repack")
+    class RepackTest {
+        private static final String expectedResponseJson = """
+                {"moves":[{"booking":{"id":"e58ed763-928c-4155-bee9-fdbaaadc1111","date":[2020,12,10],"timeSlot":{"start":[10,0],"end":[11,0]},"room":{"name":"C-Cave","peopleCapacity":3},"numPeople":3},"previousRoom":{"name":"G-Mansion","peopleCapacity":20}}]}""";
+        private final Javalin subject = new JavalinTestApp() {
+            @Override
+            protected BookingService bookingService() {
+                return new Mocks.BookingServiceMock() {
+                    @Override
+                    public Result<List<BookingMove>> repack(LocalDate date) {
+                        if (date.equals(expectedDate)) {
+                            final var booking = new Booking(
+                                    booking1.id(),
+                                    booking1.date(),
+                                    booking1.timeSlot(),
+                                    new Room("G-Mansion", 20),
+                                    booking1.numPeople()
+                            );
+                            return Result.pure(List.of(new BookingMove(booking, room1)));
+                        } else {
+                            return Result.fail(new RepackConflictException());
+                        }
+                    }
+                };
+            }
+        }.subject();
+
+        @Test
+        @DisplayName("when POST is called should return 200 and the applied moves")
+        void testRepack() {
+            JavalinTest.test(subject, (server, client) -> {
+                final var result = client.post("/api/bookings/repack?date=2020-12-10");
+                assertThat(result.code()).isEqualTo(200);
+                assertThat(result.body().string()).isEqualTo(expectedResponseJson);
+            });
+        }
+
+        @Test
+        @DisplayName("when POST is called and bookings changed concurrently should return 409 and error")
+        void testRepackConflict() {
+            JavalinTest.test(subject, (server, client) -> {
+                final var result = client.post("/api/bookings/repack?date=" + stringExpectedDate);
+                assertThat(result.code()).isEqualTo(409);
+                assertThat(result.body().string()).isEqualTo(AppErrors.conflictError("bookings of 2020-12-12 changed while repacking"));
+            });
+        }
+    }
+
     @Nested
     @DisplayName("/bookings")
     class BookingsRootTest {
@@ -209,6 +367,50 @@ class BookingRoutesTest {
             });
         }
 
+        @Test
+        @DisplayName("when GET is called with a limit should return 200 and a page of bookings with the next cursor")
+        void testGetPage() {
+            final var cursor = BookingCursors.encode(BookingCursor.of(booking1));
+            final var pagedSubject = new JavalinTestApp() {
+                @Override
+                protected BookingService bookingService() {
+                    return new Mocks.BookingServiceMock() {
+                        @Override
+                        public BookingPage getBookingsPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+                            return new BookingPage(List.of(booking1), Optional.of(BookingCursor.of(booking1)));
+                        }
+                    };
+                }
+            }.subject();
+            JavalinTest.test(pagedSubject, (server, client) -> {
+                final var result = client.get("/api/bookings?date=" + stringExpectedDate + "&limit=1");
+                assertThat(result.code()).isEqualTo(200);
+                assertThat(result.body().string()).isEqualTo(
+                        expectedResponseJson.substring(0, expectedResponseJson.length() - 1) + ",\"next\":\"" + cursor + "\"}"
+                );
+            });
+        }
+
+        @Test
+        @DisplayName("when GET is called with a malformed cursor should return 400 and error")
+        void testGetPageInvalidCursor() {
+            JavalinTest.test(subject, (server, client) -> {
+                final var result = client.get("/api/bookings?date=" + stringExpectedDate + "&cursor=xxxx");
+                assertThat(result.code()).isEqualTo(400);
+                assertThat(result.body().string()).isEqualTo(AppErrors.badRequestError("[cursor] error: TYPE_CONVERSION_FAILED"));
+            });
+        }
+
+        @Test
+        @DisplayName("when GET is called with a limit out of range should return 400 and error")
+        void testGetPageInvalidLimit() {
+            JavalinTest.test(subject, (server, client) -> {
+                final var result = client.get("/api/bookings?date=" + stringExpectedDate + "&limit=0");
+                assertThat(result.code()).isEqualTo(400);
+                assertThat(result.body().string()).isEqualTo(AppErrors.badRequestError("[limit] error: limit must be between 1 and 1000"));
+            });
+        }
+
         @Test
         @DisplayName("when GET is called with malformed date query param should return 400 and error")
         void testGetAllInvalidDate() {
@@ -349,4 +551,55 @@ class BookingRoutesTest {
             });
         }
     }
+
+    @Nested
+    @DisplayName("POST api/bookings/import")
+    class ImportTest {
+        private final Javalin subject = new JavalinTestApp().subject();
+
+        @Test
+        @DisplayName("when POST is called with an unsupported content type should return 400 and error")
+        void testImportUnsupportedContentType() {
+            JavalinTest.test(subject, (server, client) -> {
+                final var result = client.request(
+                        "/api/bookings/import",
+                        request -> request.post(RequestBody.create("id,date", MediaType.get("text/plain")))
+                );
+                assertThat(result.code()).isEqualTo(400);
+                assertThat(result.body().string()).isEqualTo(AppErrors.badRequestError(
+                        "[Content-Type] error: must be text/csv or application/x-ndjson"
+                ));
+            });
+        }
+    }
+
+    @Nested
+    @DisplayName("GET api/bookings/export")
+    class ExportTest {
+        private final Javalin subject = new JavalinTestApp().subject();
+
+        @Test
+        @DisplayName("when GET is called with a range ending before it starts should return 400 and error")
+        void testExportInvalidRange() {
+            JavalinTest.test(subject, (server, client) -> {
+                final var result = client.get("/api/bookings/export?from=2020-12-10&to=2020-12-09");
+                assertThat(result.code()).isEqualTo(400);
+                assertThat(result.body().string()).isEqualTo(AppErrors.badRequestError(
+                        "[to] error: to must not be before from"
+                ));
+            });
+        }
+
+        @Test
+        @DisplayName("when GET is called with an unsupported format should return 400 and error")
+        void testExportUnsupportedFormat() {
+            JavalinTest.test(subject, (server, client) -> {
+                final var result = client.get("/api/bookings/export?from=2020-12-10&to=2020-12-10&format=xml");
+                assertThat(result.code()).isEqualTo(400);
+                assertThat(result.body().string()).isEqualTo(AppErrors.badRequestError(
+                        "[format] error: must be one of [NDJSON, JSON]"
+                ));
+            });
+        }
+    }
 }
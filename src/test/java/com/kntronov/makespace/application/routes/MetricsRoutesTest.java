@@ -0,0 +1,68 @@
+package com.kntronov.makespace.application.routes;
+
+import com.kntronov.makespace.application.JavalinTestApp;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.services.BookingService;
+import com.kntronov.makespace.testing.Mocks;
+import com.kntronov.makespace.testing.TestTags;
+import io.javalin.Javalin;
+import io.javalin.testtools.JavalinTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("MetricsRoutes Integration Test")
+@Tag(TestTags.INTEGRATION_TEST)
+class MetricsRoutesTest {
+
+    private final Javalin subject = new JavalinTestApp() {
+        @Override
+        protected BookingService bookingService() {
+            return new Mocks.BookingServiceMock() {
+                @Override
+                public List<Room> getAvailableRooms(LocalDate date, TimeSlot timeSlot) {
+                    return List.of(new Room("C-Cave", 3));
+                }
+            };
+        }
+    }.subject();
+
+    @Test
+    @DisplayName("when GET is called should return the latencies by route template and status in Prometheus format")
+    void getMetricsTest() {
+        JavalinTest.test(subject, (server, client) -> {
+            client.get("/api/rooms/available?date=2020-12-12&from=10:00&to=11:00");
+            client.get("/api/rooms/available?date=2020-12-12");
+            client.get("/api/unknown/route");
+            final var result = client.get("/metrics");
+            final var body = result.body().string();
+
+            assertThat(result.code()).isEqualTo(200);
+            assertThat(result.header("Content-Type")).startsWith("text/plain; version=0.0.4");
+            assertThat(body).contains("# TYPE http_server_requests_seconds histogram");
+            assertThat(body).contains("# TYPE log_events_total counter");
+            assertThat(body).contains(
+                    "http_server_requests_seconds_count{method=\"GET\",route=\"/api/rooms/available\",status=\"200\"} 1"
+            );
+            assertThat(body).contains(
+                    "http_server_requests_seconds_count{method=\"GET\",route=\"/api/rooms/available\",status=\"400\"} 1"
+            );
+            assertThat(body).contains(
+                    "http_server_requests_seconds_count{method=\"GET\",route=\"unmatched\",status=\"404\"} 1"
+            );
+            assertThat(body).contains(
+                    "http_server_requests_seconds_bucket{method=\"GET\",route=\"/api/rooms/available\",status=\"200\",le=\"+Inf\"} 1"
+            );
+            assertThat(body).contains("http_server_requests_in_flight{route=\"/metrics\"} 1");
+            assertThat(body).contains("http_server_requests_in_flight{route=\"/api/rooms/available\"} 0");
+            assertThat(body).contains("booking_outcomes_total{outcome=\"no_room_available\"} 0");
+            assertThat(body).doesNotContain("db_pool_connections");
+        });
+    }
+}
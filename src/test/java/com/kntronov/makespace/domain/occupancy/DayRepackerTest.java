@@ -0,0 +1,98 @@
+package com.kntronov.makespace.domain.occupancy;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("DayRepacker Test")
+class DayRepackerTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final Room cave = new Room("C-Cave", 3);
+    private static final Room tower = new Room("D-Tower", 7);
+    private static final Room mansion = new Room("G-Mansion", 20);
+    private static final List<Room> rooms = List.of(cave, tower, mansion);
+    private static final List<TimeSlot> bufferTimes = List.of(
+            new TimeSlot(LocalTime.of(9, 0), LocalTime.of(9, 15))
+    );
+
+    private static Booking booking(LocalTime start, LocalTime end, Room room, int numPeople) {
+        return new Booking(UUID.randomUUID(), date, new TimeSlot(start, end), room, numPeople);
+    }
+
+    @Test
+    @DisplayName("when small meetings block the largest room should move them to smaller free rooms")
+    void planTest() {
+        final var early = booking(LocalTime.of(10, 0), LocalTime.of(11, 0), mansion, 3);
+        final var overlapping = booking(LocalTime.of(10, 30), LocalTime.of(12, 0), cave, 3);
+        final var state = new SystemState(date, rooms, List.of(early, overlapping), bufferTimes);
+
+        final var result = DayRepacker.plan(state);
+        assertThat(result).isEqualTo(List.of(new BookingMove(early, tower)));
+    }
+
+    @Test
+    @DisplayName("when every booking is in its smallest fitting room should not plan any move")
+    void planAlreadyPackedTest() {
+        final var state = new SystemState(date, rooms, List.of(
+                booking(LocalTime.of(10, 0), LocalTime.of(11, 0), cave, 3),
+                booking(LocalTime.of(10, 0), LocalTime.of(11, 0), tower, 3),
+                booking(LocalTime.of(10, 0), LocalTime.of(11, 0), mansion, 2)
+        ), bufferTimes);
+
+        assertThat(DayRepacker.plan(state)).isEqualTo(List.of());
+    }
+
+    @Test
+    @DisplayName("when a booking overlaps a buffer time should still be able to keep or move it")
+    void planIgnoresBufferTimesTest() {
+        final var inBuffer = booking(LocalTime.of(9, 0), LocalTime.of(10, 0), mansion, 2);
+        final var state = new SystemState(date, rooms, List.of(inBuffer), bufferTimes);
+
+        assertThat(DayRepacker.plan(state)).isEqualTo(List.of(new BookingMove(inBuffer, cave)));
+    }
+
+    @Test
+    @DisplayName("when a day has thousands of bookings should never assign overlapping bookings to the same room")
+    void planLargeDayTest() {
+        final var manyRooms = new ArrayList<Room>();
+        for (int i = 0; i < 40; i++) {
+            manyRooms.add(new Room("room" + i, 2 + i));
+        }
+        final var bookings = new ArrayList<Booking>();
+        for (int i = 0; i < manyRooms.size(); i++) {
+            final var room = manyRooms.get(i);
+            for (int quarter = i % 3; quarter < 95; quarter += 3) {
+                final var start = LocalTime.of(quarter / 4, (quarter % 4) * 15);
+                bookings.add(booking(start, start.plusMinutes(15), room, Math.min(room.peopleCapacity(), 1 + (quarter % 3))));
+            }
+        }
+        final var state = new SystemState(date, manyRooms, bookings, List.of());
+
+        final var moves = DayRepacker.plan(state);
+        final var index = OccupancyIndex.ofRooms(date, manyRooms);
+        final var movedIds = moves.stream().map(move -> move.booking().id()).toList();
+        bookings.stream().filter(booking -> !movedIds.contains(booking.id())).forEach(booking -> {
+            assertThat(index.isAvailable(booking.room(), booking.timeSlot())).isTrue();
+            index.occupy(booking.room(), booking.timeSlot());
+        });
+        moves.forEach(move -> {
+            assertThat(move.room().peopleCapacity() >= move.booking().numPeople()).isTrue();
+            assertThat(index.isAvailable(move.room(), move.booking().timeSlot())).isTrue();
+            index.occupy(move.room(), move.booking().timeSlot());
+        });
+        assertThat(moves.isEmpty()).isFalse();
+    }
+}
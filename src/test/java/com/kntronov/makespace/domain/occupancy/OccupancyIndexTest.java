@@ -0,0 +1,174 @@
+package com.kntronov.makespace.domain.occupancy;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("OccupancyIndex Test")
+class OccupancyIndexTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final Room room1 = new Room("room1", 10);
+    private static final Room room2 = new Room("room2", 5);
+    private static final Room room3 = new Room("room3", 2);
+    private static final List<Room> rooms = List.of(
+            room1, room2, room3
+    );
+    private static final List<Booking> bookings = List.of(
+            new Booking(
+                    UUID.randomUUID(),
+                    date,
+                    new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+                    room1,
+                    8
+            ),
+            new Booking(
+                    UUID.randomUUID(),
+                    date,
+                    new TimeSlot(LocalTime.of(10, 15), LocalTime.of(10, 30)),
+                    room3,
+                    2
+            ),
+            new Booking(
+                    UUID.randomUUID(),
+                    date,
+                    new TimeSlot(LocalTime.of(22, 0), LocalTime.of(23, 45)),
+                    room2,
+                    2
+            )
+    );
+    private static final List<TimeSlot> bufferTimes = List.of(
+            new TimeSlot(LocalTime.of(9, 0), LocalTime.of(9, 45)),
+            new TimeSlot(LocalTime.of(18, 45), LocalTime.of(19, 0))
+    );
+
+    private static OccupancyIndex createSubject() {
+        return OccupancyIndex.of(new SystemState(date, rooms, bookings, bufferTimes));
+    }
+
+    @Nested
+    @DisplayName("masks")
+    class MasksTest {
+
+        private static Stream<Arguments> provideMaskCases() {
+            return Stream.of(
+                    Arguments.of(new TimeSlot(LocalTime.of(0, 0), LocalTime.of(0, 15)), 1L, 0L),
+                    Arguments.of(new TimeSlot(LocalTime.of(15, 45), LocalTime.of(16, 0)), 1L << 63, 0L),
+                    Arguments.of(new TimeSlot(LocalTime.of(16, 0), LocalTime.of(16, 15)), 0L, 1L),
+                    Arguments.of(new TimeSlot(LocalTime.of(15, 45), LocalTime.of(16, 15)), 1L << 63, 1L),
+                    Arguments.of(new TimeSlot(LocalTime.of(0, 0), LocalTime.of(23, 45)), -1L, (1L << 31) - 1)
+            );
+        }
+
+        @ParameterizedTest
+        @MethodSource("provideMaskCases")
+        @DisplayName("when a time slot is converted to a mask should set the bits of the covered quarters")
+        void maskTest(TimeSlot timeSlot, long expectedLow, long expectedHigh) {
+            assertThat(OccupancyIndex.lowMask(timeSlot)).isEqualTo(expectedLow);
+            assertThat(OccupancyIndex.highMask(timeSlot)).isEqualTo(expectedHigh);
+        }
+    }
+
+    @Nested
+    @DisplayName("availableRooms")
+    class AvailableRoomsTest {
+
+        @Test
+        @DisplayName("when time slot is free for some rooms should return them in ascending order of capacity")
+        void availableRoomsTest() {
+            final var result = createSubject().availableRooms(
+                    new TimeSlot(LocalTime.of(9, 45), LocalTime.of(10, 30))
+            );
+            assertThat(result).isEqualTo(List.of(room2));
+        }
+
+        @Test
+        @DisplayName("when time slot ends where a booking starts should consider the room available")
+        void availableRoomsAdjacentTest() {
+            final var result = createSubject().availableRooms(
+                    new TimeSlot(LocalTime.of(9, 45), LocalTime.of(10, 0))
+            );
+            assertThat(result).isEqualTo(List.of(room3, room2, room1));
+        }
+
+        @Test
+        @DisplayName("when time slot overlaps with a buffer time should return empty list")
+        void availableRoomsBufferTimeTest() {
+            final var result = createSubject().availableRooms(
+                    new TimeSlot(LocalTime.of(18, 0), LocalTime.of(19, 0))
+            );
+            assertThat(result.isEmpty()).isTrue();
+        }
+
+        @Test
+        @DisplayName("when time slot is in the high word of the mask should detect bookings")
+        void availableRoomsHighWordTest() {
+            final var result = createSubject().availableRooms(
+                    new TimeSlot(LocalTime.of(23, 0), LocalTime.of(23, 15))
+            );
+            assertThat(result).isEqualTo(List.of(room3, room1));
+        }
+    }
+
+    @Nested
+    @DisplayName("bestFit")
+    class BestFitTest {
+
+        @Test
+        @DisplayName("when rooms are available should return the smallest one with enough capacity")
+        void bestFitTest() {
+            final var result = createSubject().bestFit(
+                    new TimeSlot(LocalTime.of(9, 45), LocalTime.of(10, 15)),
+                    2
+            );
+            assertThat(result).isEqualTo(Optional.of(room3));
+        }
+
+        @Test
+        @DisplayName("when smallest room is booked should walk up the capacity order")
+        void bestFitNextCapacityTest() {
+            final var result = createSubject().bestFit(
+                    new TimeSlot(LocalTime.of(10, 0), LocalTime.of(10, 30)),
+                    1
+            );
+            assertThat(result).isEqualTo(Optional.of(room2));
+        }
+
+        @Test
+        @DisplayName("when no room has enough capacity should return empty")
+        void bestFitCapacityTest() {
+            final var result = createSubject().bestFit(
+                    new TimeSlot(LocalTime.of(12, 0), LocalTime.of(13, 0)),
+                    11
+            );
+            assertThat(result).isEqualTo(Optional.empty());
+        }
+
+        @Test
+        @DisplayName("when a room is occupied should not return it anymore")
+        void bestFitAfterOccupyTest() {
+            final var subject = createSubject();
+            final var timeSlot = new TimeSlot(LocalTime.of(12, 0), LocalTime.of(13, 0));
+            subject.occupy(room3, timeSlot);
+
+            assertThat(subject.bestFit(timeSlot, 2)).isEqualTo(Optional.of(room2));
+            assertThat(subject.isAvailable(room3, timeSlot)).isFalse();
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.kntronov.makespace.domain.services;
 
 import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingRequest;
+import com.kntronov.makespace.domain.entities.BookingSeries;
+import com.kntronov.makespace.domain.entities.Recurrence;
+import com.kntronov.makespace.domain.entities.RecurringBookingRequest;
 import com.kntronov.makespace.domain.entities.Room;
 import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
 import com.kntronov.makespace.domain.errors.NoRoomAvailableException;
 import com.kntronov.makespace.domain.errors.RoomNotFoundException;
 import com.kntronov.makespace.domain.services.impl.BookingServiceImpl;
+import com.kntronov.makespace.domain.services.impl.DatabaseAllocatingBookingService;
 import com.kntronov.makespace.infrastructure.repositories.BookingRepositoryImpl;
 import com.kntronov.makespace.infrastructure.repositories.SystemStateRepositoryImpl;
 import com.kntronov.makespace.testing.IntegrationTest;
@@ -19,11 +26,13 @@ import org.junit.jupiter.api.Test;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static com.kntronov.makespace.testing.ResultTesting.expectFailure;
 import static com.kntronov.makespace.testing.ResultTesting.expectSuccess;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 @DisplayName("BookingService Integration Test")
 @Tag(TestTags.INTEGRATION_TEST)
@@ -33,6 +42,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
     private static final UUID bookingId2 = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc2222");
     private static final UUID bookingId3 = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc3333");
     private static final UUID newBookingId = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc0000");
+    private static final UUID newBookingId2 = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc0001");
     private static final LocalDate date = LocalDate.of(2020, 12, 10);
     private static final Room room1 = new Room("C-Cave", 3);
     private static final Room room2 = new Room("D-Tower", 7);
@@ -74,7 +84,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
                 """)
         void getAvailableRoomsTest() {
             final var bookingRepository = new BookingRepositoryImpl(getDataSource());
-            final var systemRepository = new SystemStateRepositoryImpl(getDataSource(), bookingRepository);
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
             final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
             bookings.forEach(bookingRepository::save);
             final var subject = new BookingServiceImpl(uuidProvider, systemRepository, bookingRepository);
@@ -98,7 +108,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
                 """)
         void getAvailableRoomsBufferTimeOverlapTest() {
             final var bookingRepository = new BookingRepositoryImpl(getDataSource());
-            final var systemRepository = new SystemStateRepositoryImpl(getDataSource(), bookingRepository);
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
             final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
             bookings.forEach(bookingRepository::save);
             final var targetTimeSlot = new TimeSlot(
@@ -120,7 +130,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
         @DisplayName("when booking slot is found, should create a new booking for most optimal slot and return success")
         void bookNextAvailableRoomSuccessTest() {
             final var bookingRepository = new BookingRepositoryImpl(getDataSource());
-            final var systemRepository = new SystemStateRepositoryImpl(getDataSource(), bookingRepository);
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
             final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
             bookings.forEach(bookingRepository::save);
 
@@ -149,7 +159,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
         @DisplayName("when booking slot is not found due to insufficient capacity should return failure with NoRoomAvailableError")
         void bookNextAvailableRoomCapacityFailureTest() {
             final var bookingRepository = new BookingRepositoryImpl(getDataSource());
-            final var systemRepository = new SystemStateRepositoryImpl(getDataSource(), bookingRepository);
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
             final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
             bookings.forEach(bookingRepository::save);
 
@@ -169,7 +179,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
         @DisplayName("when booking slot is not found due to all rooms being booked should return failure with NoRoomAvailableError")
         void bookNextAvailableRoomBookedFailureTest() {
             final var bookingRepository = new BookingRepositoryImpl(getDataSource());
-            final var systemRepository = new SystemStateRepositoryImpl(getDataSource(), bookingRepository);
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
             final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
             final var bookings = List.of(
                     new Booking(
@@ -218,6 +228,140 @@ class BookingServiceIntegrationTest extends IntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("bookAll")
+    class BookAllTest {
+
+        @Test
+        @DisplayName("when many bookings are requested should create them in the most optimal free rooms")
+        void bookAllTest() {
+            final var bookingRepository = new BookingRepositoryImpl(getDataSource());
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
+            final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId, newBookingId2));
+            bookings.forEach(bookingRepository::save);
+
+            final var subject = new BookingServiceImpl(uuidProvider, systemRepository, bookingRepository);
+
+            final var targetTimeSlot = new TimeSlot(
+                    LocalTime.of(9, 45),
+                    LocalTime.of(10, 15)
+            );
+            final var expected1 = new Booking(newBookingId, date, targetTimeSlot, room2, 2);
+            final var expected2 = new Booking(newBookingId2, date, targetTimeSlot, room3, 2);
+            final var result = subject.bookAll(List.of(
+                    new BookingRequest(date, targetTimeSlot, 2),
+                    new BookingRequest(date, targetTimeSlot, 2)
+            ));
+            expectSuccess(result.get(0), r -> assertThat(r).isEqualTo(expected1));
+            expectSuccess(result.get(1), r -> assertThat(r).isEqualTo(expected2));
+            assertThat(subject.getAllBookingsByDate(date).size()).isEqualTo(4);
+        }
+    }
+
+    @Nested
+    @DisplayName("booking conflicts")
+    class BookingConflictsTest {
+
+        @Test
+        @DisplayName("when an overlapping booking of the same room is saved should reject it with a conflict")
+        void overlappingBookingTest() {
+            final var bookingRepository = new BookingRepositoryImpl(getDataSource());
+            bookingRepository.save(booking1);
+
+            final var overlapping = new Booking(
+                    newBookingId,
+                    date,
+                    new TimeSlot(LocalTime.of(10, 30), LocalTime.of(11, 30)),
+                    room1,
+                    2
+            );
+            assertThatThrownBy(() -> bookingRepository.save(overlapping)).isInstanceOf(BookingConflictException.class);
+            assertThat(bookingRepository.findByDate(date).size()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("database allocation")
+    class DatabaseAllocationTest {
+
+        @Test
+        @DisplayName("when booking with the single statement allocation should select the same room as the in-memory allocation")
+        void databaseAllocationTest() {
+            final var bookingRepository = new BookingRepositoryImpl(getDataSource());
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
+            final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId, newBookingId2));
+            bookings.forEach(bookingRepository::save);
+
+            final var inMemory = new BookingServiceImpl(uuidProvider, systemRepository, bookingRepository);
+            final var subject = new DatabaseAllocatingBookingService(inMemory, uuidProvider, bookingRepository, new AllocationMetrics());
+
+            final var timeSlot = new TimeSlot(LocalTime.of(10, 0), LocalTime.of(10, 30));
+            expectSuccess(subject.bookNextAvailableRoom(date, timeSlot, 2), r -> assertThat(r).isEqualTo(new Booking(newBookingId, date, timeSlot, room2, 2)));
+            expectFailure(subject.bookNextAvailableRoom(date, timeSlot, 2), r -> assertThat(r).hasSameClassAs(new NoRoomAvailableException()));
+            expectFailure(
+                    subject.bookNextAvailableRoom(date, new TimeSlot(LocalTime.of(13, 0), LocalTime.of(13, 30)), 2),
+                    r -> assertThat(r).hasSameClassAs(new NoRoomAvailableException())
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("bookRecurring")
+    class BookRecurringTest {
+
+        @Test
+        @DisplayName("when a weekly series is requested should book every occurrence in the same room")
+        void bookRecurringTest() {
+            final var bookingRepository = new BookingRepositoryImpl(getDataSource());
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
+            final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId, newBookingId2));
+            bookings.forEach(bookingRepository::save);
+
+            final var subject = new BookingServiceImpl(uuidProvider, systemRepository, bookingRepository);
+
+            final var timeSlot = new TimeSlot(LocalTime.of(10, 0), LocalTime.of(10, 30));
+            final var result = subject.bookRecurring(new RecurringBookingRequest(
+                    date, date.plusDays(7), Recurrence.WEEKLY, timeSlot, 2
+            ));
+            final var expected = new BookingSeries(
+                    room2,
+                    List.of(
+                            new Booking(newBookingId, date, timeSlot, room2, 2),
+                            new Booking(newBookingId2, date.plusDays(7), timeSlot, room2, 2)
+                    ),
+                    List.of(),
+                    List.of()
+            );
+            expectSuccess(result, r -> assertThat(r).isEqualTo(expected));
+            assertThat(subject.getAllBookingsByDate(date.plusDays(7)).size()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("repack")
+    class RepackTest {
+
+        @Test
+        @DisplayName("when bookings chain into each other's rooms should move all of them in a single transaction")
+        void repackTest() {
+            final var bookingRepository = new BookingRepositoryImpl(getDataSource());
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
+            final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
+            final var timeSlot = new TimeSlot(LocalTime.of(12, 0), LocalTime.of(13, 0));
+            final var large = new Booking(bookingId1, date, timeSlot, room3, 7);
+            final var small = new Booking(bookingId2, date, timeSlot, room2, 3);
+            bookingRepository.save(large);
+            bookingRepository.save(small);
+
+            final var subject = new BookingServiceImpl(uuidProvider, systemRepository, bookingRepository);
+
+            final var result = subject.repack(date);
+            expectSuccess(result, r -> assertThat(r.size()).isEqualTo(2));
+            assertThat(bookingRepository.find(bookingId1).map(Booking::room)).isEqualTo(Optional.of(room2));
+            assertThat(bookingRepository.find(bookingId2).map(Booking::room)).isEqualTo(Optional.of(room1));
+        }
+    }
+
     @Nested
     @DisplayName("getAllBookingsByDate")
     class GetAllBookingsByDateTest {
@@ -226,7 +370,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
         @DisplayName("when retrieving bookings for a date should return bookings")
         void getAllBookingsByDateTest() {
             final var bookingRepository = new BookingRepositoryImpl(getDataSource());
-            final var systemRepository = new SystemStateRepositoryImpl(getDataSource(), bookingRepository);
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
             final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
             bookings.forEach(bookingRepository::save);
 
@@ -240,7 +384,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
         @DisplayName("when retrieving bookings for a date that has no bookings should return empty list")
         void getAllBookingsByDateNotFoundTest() {
             final var bookingRepository = new BookingRepositoryImpl(getDataSource());
-            final var systemRepository = new SystemStateRepositoryImpl(getDataSource(), bookingRepository);
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
             final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
 
             final var subject = new BookingServiceImpl(uuidProvider, systemRepository, bookingRepository);
@@ -249,6 +393,25 @@ class BookingServiceIntegrationTest extends IntegrationTest {
             assertThat(result.isEmpty()).isTrue();
         }
 
+        @Test
+        @DisplayName("when paging through the bookings of a date should return every booking once in order")
+        void getBookingsPageByDateTest() {
+            final var bookingRepository = new BookingRepositoryImpl(getDataSource());
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
+            final var booking3 = new Booking(bookingId3, date, booking1.timeSlot(), room2, 2);
+            bookingRepository.saveAll(List.of(booking2, booking3, booking1));
+
+            final var subject = new BookingServiceImpl(new Mocks.UUIDProviderMock(List.of()), systemRepository, bookingRepository);
+
+            final var firstPage = subject.getBookingsPageByDate(date, Optional.empty(), 2);
+            assertThat(firstPage.bookings()).isEqualTo(List.of(booking1, booking3));
+            assertThat(firstPage.next()).isEqualTo(Optional.of(BookingCursor.of(booking3)));
+
+            final var secondPage = subject.getBookingsPageByDate(date, firstPage.next(), 2);
+            assertThat(secondPage.bookings()).isEqualTo(List.of(booking2));
+            assertThat(secondPage.next()).isEqualTo(Optional.empty());
+        }
+
     }
 
     @Nested
@@ -259,7 +422,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
         @DisplayName("when booking is deleted should delete booking")
         void deleteBookingTest() {
             final var bookingRepository = new BookingRepositoryImpl(getDataSource());
-            final var systemRepository = new SystemStateRepositoryImpl(getDataSource(), bookingRepository);
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
             final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
             bookings.forEach(bookingRepository::save);
 
@@ -276,7 +439,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
         @DisplayName("when booking that does not exist is deleted should fail")
         void deleteBookingNotFoundTest() {
             final var bookingRepository = new BookingRepositoryImpl(getDataSource());
-            final var systemRepository = new SystemStateRepositoryImpl(getDataSource(), bookingRepository);
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
             final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
 
             final var subject = new BookingServiceImpl(uuidProvider, systemRepository, bookingRepository);
@@ -295,7 +458,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
         @DisplayName("when booking is retrieved should retrieve booking")
         void getBookingTest() {
             final var bookingRepository = new BookingRepositoryImpl(getDataSource());
-            final var systemRepository = new SystemStateRepositoryImpl(getDataSource(), bookingRepository);
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
             final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
             bookings.forEach(bookingRepository::save);
 
@@ -311,7 +474,7 @@ class BookingServiceIntegrationTest extends IntegrationTest {
         @DisplayName("when booking that does not exist is retrieved should fail")
         void getBookingNotFoundTest() {
             final var bookingRepository = new BookingRepositoryImpl(getDataSource());
-            final var systemRepository = new SystemStateRepositoryImpl(getDataSource(), bookingRepository);
+            final var systemRepository = new SystemStateRepositoryImpl(getDataSource());
             final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
 
             final var subject = new BookingServiceImpl(uuidProvider, systemRepository, bookingRepository);
@@ -1,13 +1,27 @@
 package com.kntronov.makespace.domain.services;
 
 import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.BookingRequest;
+import com.kntronov.makespace.domain.entities.BookingSeries;
+import com.kntronov.makespace.domain.entities.Recurrence;
+import com.kntronov.makespace.domain.entities.RecurringBookingRequest;
 import com.kntronov.makespace.domain.entities.Room;
 import com.kntronov.makespace.domain.entities.SystemState;
 import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.ArchivedDateException;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
 import com.kntronov.makespace.domain.errors.NoRoomAvailableException;
+import com.kntronov.makespace.domain.errors.RepackConflictException;
+import com.kntronov.makespace.domain.errors.RoomNotFoundException;
 import com.kntronov.makespace.domain.services.impl.BookingServiceImpl;
 import com.kntronov.makespace.testing.Captor;
 import com.kntronov.makespace.testing.Mocks;
+import com.kntronov.makespace.testing.RecordingUnitOfWork;
+import com.kntronov.makespace.util.KeyedLocks;
+import com.kntronov.makespace.util.Nothing;
+import com.kntronov.makespace.util.Result;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -15,8 +29,14 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.kntronov.makespace.testing.ResultTesting.expectFailure;
 import static com.kntronov.makespace.testing.ResultTesting.expectSuccess;
@@ -43,6 +63,9 @@ class BookingServiceTest {
     private static final UUID bookingId1 = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc1111");
     private static final UUID bookingId2 = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc2222");
     private static final UUID newBookingId = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc0000");
+    private static final UUID newBookingId2 = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc0001");
+    private static final UUID newBookingId3 = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc0002");
+    private static final UUID bookingId3 = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc3333");
     private static final LocalDate date = LocalDate.of(2020, 12, 10);
     private static final Room room1 = new Room("room1", 10);
     private static final Room room2 = new Room("room2", 5);
@@ -266,4 +289,605 @@ class BookingServiceTest {
             );
         }
     }
+
+    @Nested
+    @DisplayName("booking conflicts")
+    class BookingConflictsTest {
+
+        private final TimeSlot targetTimeSlot = new TimeSlot(
+                LocalTime.of(11, 0),
+                LocalTime.of(12, 0)
+        );
+
+        private final Mocks.SystemStateRepositoryMock systemRepositoryMock = new Mocks.SystemStateRepositoryMock() {
+            @Override
+            public SystemState findByDate(LocalDate date) {
+                return new SystemState(date, rooms, bookings, bufferTimes);
+            }
+        };
+
+        @Test
+        @DisplayName("when the allocated room was booked concurrently should retry with the next room in capacity order")
+        void conflictRetryTest() {
+            final var savedRooms = new Captor<Room>();
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public Booking save(Booking booking) {
+                    savedRooms.capture(booking.room());
+                    if (booking.room().equals(room3)) {
+                        throw new BookingConflictException(new RuntimeException());
+                    }
+                    return booking;
+                }
+            };
+            final var metrics = new AllocationMetrics();
+            final var subject = new BookingServiceImpl(
+                    new Mocks.UUIDProviderMock(List.of(newBookingId)),
+                    systemRepositoryMock,
+                    bookingRepositoryMock,
+                    new KeyedLocks<>(),
+                    metrics
+            );
+
+            final var result = subject.bookNextAvailableRoom(date, targetTimeSlot, 2);
+            expectSuccess(result, r -> assertThat(r).isEqualTo(new Booking(newBookingId, date, targetTimeSlot, room2, 2)));
+            assertThat(savedRooms.getAll()).isEqualTo(List.of(room3, room2));
+            assertThat(metrics.conflictRetries()).isEqualTo(1L);
+        }
+
+        @Test
+        @DisplayName("when every attempt conflicts should give up after the maximum number of attempts")
+        void conflictExhaustedTest() {
+            final var error = new BookingConflictException(new RuntimeException());
+            final var attempts = new Captor<Room>();
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public Booking save(Booking booking) {
+                    attempts.capture(booking.room());
+                    throw error;
+                }
+            };
+            final var metrics = new AllocationMetrics();
+            final var subject = new BookingServiceImpl(
+                    new Mocks.UUIDProviderMock(List.of(newBookingId)),
+                    systemRepositoryMock,
+                    bookingRepositoryMock,
+                    new KeyedLocks<>(),
+                    metrics
+            );
+
+            final var result = subject.bookNextAvailableRoom(date, targetTimeSlot, 2);
+            expectFailure(result, r -> assertThat(r).isEqualTo(error));
+            assertThat(attempts.getAll()).isEqualTo(List.of(room3, room2, room1));
+            assertThat(metrics.conflictRetries()).isEqualTo(2L);
+            assertThat(metrics.exhaustedRetries()).isEqualTo(1L);
+        }
+    }
+
+    @Nested
+    @DisplayName("getBookingsPageByDate")
+    class GetBookingsPageByDateTest {
+
+        private BookingServiceImpl createSubject(Captor<Optional<BookingCursor>> afterCaptor) {
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public List<Booking> findPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+                    afterCaptor.capture(after);
+                    return bookings.stream().limit(limit).toList();
+                }
+            };
+            return new BookingServiceImpl(new Mocks.UUIDProviderMock(List.of()), new Mocks.SystemStateRepositoryMock() {
+            }, bookingRepositoryMock);
+        }
+
+        @Test
+        @DisplayName("when more bookings than the limit exist should return a page with the cursor of its last booking")
+        void getBookingsPageByDateTest() {
+            final var afterCaptor = new Captor<Optional<BookingCursor>>();
+            final var after = Optional.of(new BookingCursor(LocalTime.of(9, 0), "room2", bookingId3));
+
+            final var result = createSubject(afterCaptor).getBookingsPageByDate(date, after, 1);
+
+            assertThat(result.bookings()).isEqualTo(List.of(bookings.getFirst()));
+            assertThat(result.next()).isEqualTo(Optional.of(BookingCursor.of(bookings.getFirst())));
+            assertThat(afterCaptor.getLast()).isEqualTo(after);
+        }
+
+        @Test
+        @DisplayName("when no more bookings than the limit exist should return a page without cursor")
+        void getBookingsLastPageByDateTest() {
+            final var result = createSubject(new Captor<>()).getBookingsPageByDate(date, Optional.empty(), 2);
+
+            assertThat(result.bookings()).isEqualTo(bookings);
+            assertThat(result.next()).isEqualTo(Optional.empty());
+        }
+    }
+
+    @Nested
+    @DisplayName("unit of work")
+    class UnitOfWorkTest {
+
+        @Test
+        @DisplayName("when a booking is created should read the system state and save in a single unit of work")
+        void bookNextAvailableRoomUnitOfWorkTest() {
+            final var unitOfWork = new RecordingUnitOfWork();
+            final var systemRepositoryMock = new Mocks.SystemStateRepositoryMock() {
+                @Override
+                public SystemState findByDate(LocalDate date) {
+                    assertThat(unitOfWork.isActive()).isTrue();
+                    return new SystemState(date, rooms, bookings, bufferTimes);
+                }
+            };
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public Booking save(Booking booking) {
+                    assertThat(unitOfWork.isActive()).isTrue();
+                    return booking;
+                }
+            };
+            final var subject = new BookingServiceImpl(
+                    new Mocks.UUIDProviderMock(List.of(newBookingId)),
+                    systemRepositoryMock,
+                    bookingRepositoryMock,
+                    new KeyedLocks<>(),
+                    new AllocationMetrics(),
+                    unitOfWork
+            );
+
+            final var result = subject.bookNextAvailableRoom(date, new TimeSlot(LocalTime.of(12, 0), LocalTime.of(13, 0)), 2);
+
+            expectSuccess(result, r -> assertThat(r.room()).isEqualTo(room3));
+            assertThat(unitOfWork.units()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("when the allocated room was booked concurrently should retry in a new unit of work reading a fresh state")
+        void conflictRetryUnitOfWorkTest() {
+            final var unitOfWork = new RecordingUnitOfWork();
+            final var reads = new Captor<Integer>();
+            final var systemRepositoryMock = new Mocks.SystemStateRepositoryMock() {
+                @Override
+                public SystemState findByDate(LocalDate date) {
+                    reads.capture(unitOfWork.units());
+                    return new SystemState(date, rooms, bookings, bufferTimes);
+                }
+            };
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public Booking save(Booking booking) {
+                    if (booking.room().equals(room3)) {
+                        throw new BookingConflictException(new RuntimeException());
+                    }
+                    return booking;
+                }
+            };
+            final var subject = new BookingServiceImpl(
+                    new Mocks.UUIDProviderMock(List.of(newBookingId)),
+                    systemRepositoryMock,
+                    bookingRepositoryMock,
+                    new KeyedLocks<>(),
+                    new AllocationMetrics(),
+                    unitOfWork
+            );
+
+            final var result = subject.bookNextAvailableRoom(date, new TimeSlot(LocalTime.of(12, 0), LocalTime.of(13, 0)), 2);
+
+            expectSuccess(result, r -> assertThat(r.room()).isEqualTo(room2));
+            assertThat(unitOfWork.units()).isEqualTo(2);
+            assertThat(reads.getAll()).isEqualTo(List.of(1, 2));
+        }
+
+        @Test
+        @DisplayName("when a booking is deleted should find and delete it in a single unit of work")
+        void deleteBookingUnitOfWorkTest() {
+            final var unitOfWork = new RecordingUnitOfWork();
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public Optional<Booking> find(UUID id) {
+                    assertThat(unitOfWork.isActive()).isTrue();
+                    return Optional.of(bookings.getFirst());
+                }
+
+                @Override
+                public int delete(UUID id) {
+                    assertThat(unitOfWork.isActive()).isTrue();
+                    return 1;
+                }
+            };
+            final var subject = new BookingServiceImpl(
+                    new Mocks.UUIDProviderMock(List.of()),
+                    new Mocks.SystemStateRepositoryMock() {
+                    },
+                    bookingRepositoryMock,
+                    new KeyedLocks<>(),
+                    new AllocationMetrics(),
+                    unitOfWork
+            );
+
+            final var result = subject.deleteBooking(bookingId1);
+
+            expectSuccess(result, r -> assertThat(r).isEqualTo(Nothing.get()));
+            assertThat(unitOfWork.units()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("concurrent bookings")
+    class ConcurrentBookingsTest {
+
+        @Test
+        @DisplayName("when many overlapping bookings are requested concurrently should never book a room twice")
+        void concurrentBookingsTest() throws Exception {
+            final var saved = new CopyOnWriteArrayList<Booking>();
+            final var systemRepositoryMock = new Mocks.SystemStateRepositoryMock() {
+                @Override
+                public SystemState findByDate(LocalDate date) {
+                    return new SystemState(date, rooms, List.copyOf(saved), List.of());
+                }
+            };
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public Booking save(Booking booking) {
+                    Thread.yield();
+                    saved.add(booking);
+                    return booking;
+                }
+            };
+            final var subject = new BookingServiceImpl(UUID::randomUUID, systemRepositoryMock, bookingRepositoryMock);
+
+            final var results = new ArrayList<Future<Result<Booking>>>();
+            try (final var executor = Executors.newFixedThreadPool(8)) {
+                for (int i = 0; i < 40; i++) {
+                    final var start = LocalTime.of(10, (i % 2) * 15);
+                    results.add(executor.submit(() -> subject.bookNextAvailableRoom(date, new TimeSlot(start, start.plusMinutes(30)), 1)));
+                }
+            }
+            var successes = 0;
+            for (final var result : results) {
+                if (result.get() instanceof Result.Success<Booking>) {
+                    successes++;
+                }
+            }
+            assertThat(successes).isEqualTo(rooms.size());
+            assertThat(saved.stream().map(Booking::room).distinct().count()).isEqualTo((long) rooms.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("bookAll")
+    class BookAllTest {
+
+        private final TimeSlot targetTimeSlot = new TimeSlot(
+                LocalTime.of(9, 45),
+                LocalTime.of(10, 15)
+        );
+        private final List<BookingRequest> requests = List.of(
+                new BookingRequest(date, targetTimeSlot, 2),
+                new BookingRequest(date, targetTimeSlot, 2),
+                new BookingRequest(date, targetTimeSlot, 15)
+        );
+
+        @Test
+        @DisplayName("when many bookings are requested should allocate them in order, persist them together and report each result")
+        void bookAllTest() {
+            final var loadedDates = new Captor<LocalDate>();
+            final var systemRepositoryMock = new Mocks.SystemStateRepositoryMock() {
+                @Override
+                public SystemState findByDate(LocalDate date) {
+                    loadedDates.capture(date);
+                    return new SystemState(date, rooms, bookings, bufferTimes);
+                }
+            };
+            final var savedBookingsCaptor = new Captor<List<Booking>>();
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public List<Booking> saveAll(List<Booking> bookings) {
+                    savedBookingsCaptor.capture(bookings);
+                    return bookings;
+                }
+            };
+            final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId, newBookingId2));
+            final var subject = new BookingServiceImpl(uuidProvider, systemRepositoryMock, bookingRepositoryMock);
+
+            final var expected1 = new Booking(newBookingId, date, targetTimeSlot, room3, 2);
+            final var expected2 = new Booking(newBookingId2, date, targetTimeSlot, room2, 2);
+
+            final var result = subject.bookAll(requests);
+            assertThat(result.size()).isEqualTo(3);
+            expectSuccess(result.get(0), r -> assertThat(r).isEqualTo(expected1));
+            expectSuccess(result.get(1), r -> assertThat(r).isEqualTo(expected2));
+            expectFailure(result.get(2), r -> assertThat(r).hasSameClassAs(new NoRoomAvailableException()));
+            assertThat(savedBookingsCaptor.getAll()).isEqualTo(List.of(List.of(expected1, expected2)));
+            assertThat(loadedDates.getAll()).isEqualTo(List.of(date));
+        }
+
+        @Test
+        @DisplayName("when persisting the bookings fails should return failure for every allocated booking")
+        void bookAllPersistenceFailureTest() {
+            final var error = new RuntimeException("oops");
+            final var systemRepositoryMock = new Mocks.SystemStateRepositoryMock() {
+                @Override
+                public SystemState findByDate(LocalDate date) {
+                    return new SystemState(date, rooms, bookings, bufferTimes);
+                }
+            };
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public List<Booking> saveAll(List<Booking> bookings) {
+                    throw error;
+                }
+            };
+            final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId, newBookingId2));
+            final var subject = new BookingServiceImpl(uuidProvider, systemRepositoryMock, bookingRepositoryMock);
+
+            final var result = subject.bookAll(requests);
+            expectFailure(result.get(0), r -> assertThat(r).isEqualTo(error));
+            expectFailure(result.get(1), r -> assertThat(r).isEqualTo(error));
+            expectFailure(result.get(2), r -> assertThat(r).hasSameClassAs(new NoRoomAvailableException()));
+        }
+    }
+
+    @Nested
+    @DisplayName("repack")
+    class RepackTest {
+
+        private final Booking smallMeeting = new Booking(
+                newBookingId,
+                date,
+                new TimeSlot(LocalTime.of(12, 0), LocalTime.of(13, 0)),
+                room1,
+                2
+        );
+
+        private Mocks.SystemStateRepositoryMock systemRepositoryMock(List<Booking> currentBookings) {
+            return new Mocks.SystemStateRepositoryMock() {
+                @Override
+                public SystemState findByDate(LocalDate date) {
+                    return new SystemState(date, rooms, currentBookings, bufferTimes);
+                }
+            };
+        }
+
+        @Test
+        @DisplayName("when a booking occupies a larger room than needed should move it to the smallest fitting room")
+        void repackTest() {
+            final var knownIdsCaptor = new Captor<Set<UUID>>();
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public boolean moveAll(List<BookingMove> moves, Set<UUID> knownBookingIds) {
+                    knownIdsCaptor.capture(knownBookingIds);
+                    return true;
+                }
+            };
+            final var currentBookings = List.of(bookings.get(0), bookings.get(1), smallMeeting);
+            final var subject = new BookingServiceImpl(new Mocks.UUIDProviderMock(List.of()), systemRepositoryMock(currentBookings), bookingRepositoryMock);
+
+            final var result = subject.repack(date);
+            expectSuccess(result, r -> assertThat(r).isEqualTo(List.of(new BookingMove(smallMeeting, room3))));
+            assertThat(knownIdsCaptor.getAll()).isEqualTo(List.of(Set.of(bookingId1, bookingId2, newBookingId)));
+        }
+
+        @Test
+        @DisplayName("when the assignment cannot be improved should not move any booking")
+        void repackNothingToMoveTest() {
+            final var subject = new BookingServiceImpl(new Mocks.UUIDProviderMock(List.of()), systemRepositoryMock(bookings), new Mocks.BookingRepositoryMock() {
+            });
+
+            final var result = subject.repack(date);
+            expectSuccess(result, r -> assertThat(r).isEqualTo(List.of()));
+        }
+
+        @Test
+        @DisplayName("when the bookings changed while moving should return failure")
+        void repackConflictTest() {
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public boolean moveAll(List<BookingMove> moves, Set<UUID> knownBookingIds) {
+                    return false;
+                }
+            };
+            final var subject = new BookingServiceImpl(new Mocks.UUIDProviderMock(List.of()), systemRepositoryMock(List.of(smallMeeting)), bookingRepositoryMock);
+
+            final var result = subject.repack(date);
+            expectFailure(result, r -> assertThat(r).hasSameClassAs(new RepackConflictException()));
+        }
+    }
+
+    @Nested
+    @DisplayName("bookRecurring")
+    class BookRecurringTest {
+
+        private final TimeSlot targetTimeSlot = new TimeSlot(
+                LocalTime.of(10, 0),
+                LocalTime.of(10, 30)
+        );
+
+        /*
+        room2 is only free on the first date, and only booked on the second date
+         */
+        private final Booking secondDateBooking = new Booking(
+                bookingId3,
+                date.plusDays(7),
+                new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+                room2,
+                4
+        );
+
+        private Mocks.SystemStateRepositoryMock systemRepositoryMock(List<LocalDate> loadedDates) {
+            return new Mocks.SystemStateRepositoryMock() {
+                @Override
+                public List<SystemState> findByDates(List<LocalDate> dates) {
+                    loadedDates.addAll(dates);
+                    return dates.stream()
+                            .map(d -> new SystemState(d, rooms, bookingsOf(d), bufferTimes))
+                            .toList();
+                }
+            };
+        }
+
+        private List<Booking> bookingsOf(LocalDate d) {
+            if (d.equals(date)) {
+                return bookings;
+            } else if (d.equals(secondDateBooking.date())) {
+                return List.of(secondDateBooking);
+            } else {
+                return List.of();
+            }
+        }
+
+        @Test
+        @DisplayName("when the series room is booked on some dates should fall back to the most optimal room on those dates")
+        void bookRecurringFallbackTest() {
+            final var loadedDates = new ArrayList<LocalDate>();
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public List<Booking> saveAll(List<Booking> bookings) {
+                    return bookings;
+                }
+            };
+            final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId, newBookingId2, newBookingId3));
+            final var subject = new BookingServiceImpl(uuidProvider, systemRepositoryMock(loadedDates), bookingRepositoryMock);
+
+            final var result = subject.bookRecurring(new RecurringBookingRequest(
+                    date, date.plusDays(20), Recurrence.WEEKLY, targetTimeSlot, 2
+            ));
+
+            final var expected = new BookingSeries(
+                    room3,
+                    List.of(
+                            new Booking(newBookingId, date, targetTimeSlot, room2, 2),
+                            new Booking(newBookingId2, date.plusDays(7), targetTimeSlot, room3, 2),
+                            new Booking(newBookingId3, date.plusDays(14), targetTimeSlot, room3, 2)
+                    ),
+                    List.of(date),
+                    List.of()
+            );
+            expectSuccess(result, r -> assertThat(r).isEqualTo(expected));
+            assertThat(loadedDates).isEqualTo(List.of(date, date.plusDays(7), date.plusDays(14)));
+        }
+
+        @Test
+        @DisplayName("when no room is available on some dates should report them as unavailable")
+        void bookRecurringUnavailableTest() {
+            final var bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+                @Override
+                public List<Booking> saveAll(List<Booking> bookings) {
+                    return bookings;
+                }
+            };
+            final var uuidProvider = new Mocks.UUIDProviderMock(List.of(newBookingId));
+            final var subject = new BookingServiceImpl(uuidProvider, systemRepositoryMock(new ArrayList<>()), bookingRepositoryMock);
+
+            final var result = subject.bookRecurring(new RecurringBookingRequest(
+                    date, date.plusDays(1), Recurrence.DAILY, targetTimeSlot, 10
+            ));
+
+            final var expected = new BookingSeries(
+                    room1,
+                    List.of(new Booking(newBookingId, date.plusDays(1), targetTimeSlot, room1, 10)),
+                    List.of(),
+                    List.of(date)
+            );
+            expectSuccess(result, r -> assertThat(r).isEqualTo(expected));
+        }
+
+        @Test
+        @DisplayName("when no occurrence can be booked should return failure")
+        void bookRecurringNoRoomTest() {
+            final var subject = new BookingServiceImpl(new Mocks.UUIDProviderMock(List.of()), systemRepositoryMock(new ArrayList<>()), new Mocks.BookingRepositoryMock() {
+            });
+
+            final var result = subject.bookRecurring(new RecurringBookingRequest(
+                    date, date, Recurrence.DAILY, targetTimeSlot, 10
+            ));
+            expectFailure(result, r -> assertThat(r).hasSameClassAs(new NoRoomAvailableException()));
+        }
+    }
+
+    @Nested
+    @DisplayName("archived dates")
+    class ArchivedDatesTest {
+
+        private final LocalDate storedDate = date.plusMonths(1);
+
+        private final Mocks.BookingRepositoryMock bookingRepositoryMock = new Mocks.BookingRepositoryMock() {
+            @Override
+            public boolean isArchived(LocalDate archivedDate) {
+                return archivedDate.equals(date);
+            }
+
+            @Override
+            public Optional<Booking> find(UUID id) {
+                return Optional.of(bookings.getFirst());
+            }
+
+            @Override
+            public List<Booking> saveAll(List<Booking> bookings) {
+                return bookings;
+            }
+        };
+
+        private final BookingServiceImpl subject = new BookingServiceImpl(
+                new Mocks.UUIDProviderMock(List.of(newBookingId)),
+                new Mocks.SystemStateRepositoryMock() {
+                    @Override
+                    public SystemState findByDate(LocalDate date) {
+                        return new SystemState(date, rooms, List.of(), List.of());
+                    }
+                },
+                bookingRepositoryMock
+        );
+
+        @Test
+        @DisplayName("when a write targets an archived date should return failure without reading the system state")
+        void archivedWritesTest() {
+            final var timeSlot = new TimeSlot(LocalTime.of(12, 0), LocalTime.of(13, 0));
+
+            expectFailure(subject.bookNextAvailableRoom(date, timeSlot, 2), r -> assertThat(r).isInstanceOf(ArchivedDateException.class));
+            expectFailure(subject.repack(date), r -> assertThat(r).isInstanceOf(ArchivedDateException.class));
+            expectFailure(subject.deleteBooking(bookingId1), r -> assertThat(r).isInstanceOf(ArchivedDateException.class));
+            expectFailure(
+                    subject.bookRecurring(new RecurringBookingRequest(date, date.plusDays(7), Recurrence.DAILY, timeSlot, 2)),
+                    r -> assertThat(r).isInstanceOf(ArchivedDateException.class)
+            );
+        }
+
+        @Test
+        @DisplayName("when a batch mixes archived and stored dates should allocate only the stored ones")
+        void archivedBatchTest() {
+            final var timeSlot = new TimeSlot(LocalTime.of(12, 0), LocalTime.of(13, 0));
+
+            final var results = subject.bookAll(List.of(
+                    new BookingRequest(date, timeSlot, 2),
+                    new BookingRequest(storedDate, timeSlot, 2)
+            ));
+
+            assertThat(results.size()).isEqualTo(2);
+            expectFailure(results.get(0), r -> assertThat(r).isInstanceOf(ArchivedDateException.class));
+            expectSuccess(results.get(1), r -> assertThat(r.date()).isEqualTo(storedDate));
+        }
+
+        @Test
+        @DisplayName("when the booking was deleted concurrently should return RoomNotFoundException")
+        void deleteConcurrentlyDeletedTest() {
+            final var subject = new BookingServiceImpl(
+                    new Mocks.UUIDProviderMock(List.of()),
+                    new Mocks.SystemStateRepositoryMock() {
+                    },
+                    new Mocks.BookingRepositoryMock() {
+                        @Override
+                        public Optional<Booking> find(UUID id) {
+                            return Optional.of(bookings.getFirst());
+                        }
+
+                        @Override
+                        public int delete(UUID id) {
+                            return 0;
+                        }
+                    }
+            );
+
+            expectFailure(subject.deleteBooking(bookingId1), r -> assertThat(r).isInstanceOf(RoomNotFoundException.class));
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package com.kntronov.makespace.domain.services;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
+import com.kntronov.makespace.domain.errors.NoRoomAvailableException;
+import com.kntronov.makespace.domain.repositories.BookingRepository;
+import com.kntronov.makespace.domain.services.impl.DatabaseAllocatingBookingService;
+import com.kntronov.makespace.testing.Captor;
+import com.kntronov.makespace.testing.Mocks;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.kntronov.makespace.testing.ResultTesting.expectFailure;
+import static com.kntronov.makespace.testing.ResultTesting.expectSuccess;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("DatabaseAllocatingBookingService Test")
+class DatabaseAllocatingBookingServiceTest {
+
+    private static final UUID newBookingId = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc0000");
+    private static final UUID newBookingId2 = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc0001");
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final TimeSlot timeSlot = new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0));
+    private static final Room room = new Room("C-Cave", 3);
+
+    private static DatabaseAllocatingBookingService createSubject(BookingRepository bookingRepository, AllocationMetrics metrics) {
+        return new DatabaseAllocatingBookingService(
+                new Mocks.BookingServiceMock() {
+                },
+                new Mocks.UUIDProviderMock(List.of(newBookingId, newBookingId2)),
+                bookingRepository,
+                metrics
+        );
+    }
+
+    @Test
+    @DisplayName("when a room is available should create the booking with a single repository call")
+    void bookNextAvailableRoomTest() {
+        final var expected = new Booking(newBookingId, date, timeSlot, room, 2);
+        final var subject = createSubject(new Mocks.BookingRepositoryMock() {
+            @Override
+            public Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople) {
+                return Optional.of(new Booking(id, date, timeSlot, room, numPeople));
+            }
+        }, new AllocationMetrics());
+
+        final var result = subject.bookNextAvailableRoom(date, timeSlot, 2);
+        expectSuccess(result, r -> assertThat(r).isEqualTo(expected));
+    }
+
+    @Test
+    @DisplayName("when no room is available should return failure")
+    void bookNextAvailableRoomNoRoomTest() {
+        final var subject = createSubject(new Mocks.BookingRepositoryMock() {
+            @Override
+            public Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople) {
+                return Optional.empty();
+            }
+        }, new AllocationMetrics());
+
+        final var result = subject.bookNextAvailableRoom(date, timeSlot, 2);
+        expectFailure(result, r -> assertThat(r).hasSameClassAs(new NoRoomAvailableException()));
+    }
+
+    @Test
+    @DisplayName("when the selected room was booked concurrently should retry the statement")
+    void bookNextAvailableRoomConflictTest() {
+        final var ids = new Captor<UUID>();
+        final var metrics = new AllocationMetrics();
+        final var subject = createSubject(new Mocks.BookingRepositoryMock() {
+            @Override
+            public Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople) {
+                ids.capture(id);
+                if (ids.getAll().size() == 1) {
+                    throw new BookingConflictException(new RuntimeException());
+                }
+                return Optional.of(new Booking(id, date, timeSlot, room, numPeople));
+            }
+        }, metrics);
+
+        final var result = subject.bookNextAvailableRoom(date, timeSlot, 2);
+        expectSuccess(result, r -> assertThat(r).isEqualTo(new Booking(newBookingId2, date, timeSlot, room, 2)));
+        assertThat(metrics.conflictRetries()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,111 @@
+package com.kntronov.makespace.infrastructure.archive;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@DisplayName("ArchiveSegment Test")
+class ArchiveSegmentTest {
+
+    private static final YearMonth month = YearMonth.of(2020, 12);
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final Room room1 = new Room("C-Cave", 3);
+    private static final Room room2 = new Room("G-Mansion", 20);
+    private static final Booking booking1 = new Booking(
+            UUID.fromString("f58ed763-928c-4155-bee9-fdbaaadc1111"),
+            date,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            room2,
+            18
+    );
+    private static final Booking booking2 = new Booking(
+            UUID.fromString("058ed763-928c-4155-bee9-fdbaaadc2222"),
+            date,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(10, 15)),
+            room1,
+            3
+    );
+    private static final Booking booking3 = new Booking(
+            UUID.fromString("a58ed763-928c-4155-bee9-fdbaaadc3333"),
+            month.atEndOfMonth(),
+            new TimeSlot(LocalTime.of(0, 0), LocalTime.of(23, 45)),
+            room1,
+            1
+    );
+    private static final Booking booking4 = new Booking(
+            UUID.fromString("b58ed763-928c-4155-bee9-fdbaaadc4444"),
+            month.atDay(1),
+            new TimeSlot(LocalTime.of(9, 15), LocalTime.of(9, 30)),
+            room2,
+            2
+    );
+
+    @TempDir
+    private Path directory;
+
+    private ArchiveSegment createSubject() {
+        final var path = directory.resolve("bookings.segment");
+        ArchiveSegment.write(path, month, List.of(booking1, booking3, booking4, booking2));
+        return ArchiveSegment.open(path);
+    }
+
+    @Test
+    @DisplayName("when bookings of a date are read should return them ordered by start time and room name")
+    void findByDateTest() {
+        final var subject = createSubject();
+
+        assertThat(subject.month()).isEqualTo(month);
+        assertThat(subject.size()).isEqualTo(4);
+        assertThat(subject.findByDate(date)).isEqualTo(List.of(booking2, booking1));
+        assertThat(subject.findByDate(month.atDay(1))).isEqualTo(List.of(booking4));
+        assertThat(subject.findByDate(month.atEndOfMonth())).isEqualTo(List.of(booking3));
+        assertThat(subject.findByDate(date.plusDays(1)).isEmpty()).isTrue();
+        assertThat(subject.findByDate(date.plusMonths(1)).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("when a booking is looked up by id should return it with its date")
+    void findTest() {
+        final var subject = createSubject();
+
+        assertThat(subject.find(booking1.id())).isEqualTo(Optional.of(booking1));
+        assertThat(subject.find(booking2.id())).isEqualTo(Optional.of(booking2));
+        assertThat(subject.find(booking3.id())).isEqualTo(Optional.of(booking3));
+        assertThat(subject.find(booking4.id())).isEqualTo(Optional.of(booking4));
+        assertThat(subject.find(UUID.randomUUID())).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    @DisplayName("when a month without bookings is written should read an empty segment")
+    void emptyTest() {
+        final var path = directory.resolve("empty.segment");
+        ArchiveSegment.write(path, month, List.of());
+        final var subject = ArchiveSegment.open(path);
+
+        assertThat(subject.size()).isEqualTo(0);
+        assertThat(subject.findByDate(date).isEmpty()).isTrue();
+        assertThat(subject.find(booking1.id())).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    @DisplayName("when a booking of another month is written should throw IllegalArgumentException")
+    void otherMonthTest() {
+        final var path = directory.resolve("bookings.segment");
+        assertThatThrownBy(() -> ArchiveSegment.write(path, month.plusMonths(1), List.of(booking1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,82 @@
+package com.kntronov.makespace.infrastructure.archive;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+import com.kntronov.makespace.infrastructure.exports.BookingExporter;
+import com.kntronov.makespace.infrastructure.exports.ExportFormat;
+import com.kntronov.makespace.infrastructure.repositories.ArchivingBookingRepository;
+import com.kntronov.makespace.infrastructure.repositories.BookingRepositoryImpl;
+import com.kntronov.makespace.testing.IntegrationTest;
+import com.kntronov.makespace.testing.TestTags;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("BookingArchiver Integration Test")
+@Tag(TestTags.INTEGRATION_TEST)
+class BookingArchiverIntegrationTest extends IntegrationTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 11, 10);
+    private static final Room room = new Room("C-Cave", 3);
+
+    @TempDir
+    private Path directory;
+
+    private final SystemStateCache cache = new SystemStateCache(4, Clock.systemUTC());
+
+    private final Booking archived1 = new Booking(UUID.randomUUID(), date, new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)), room, 2);
+    private final Booking archived2 = new Booking(UUID.randomUUID(), date.plusMonths(1), new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)), room, 3);
+    private final Booking stored = new Booking(UUID.randomUUID(), date.plusMonths(2), new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)), room, 3);
+
+    @Test
+    @DisplayName("when the months before the horizon are archived should read them from the archive only")
+    void archiveBeforeTest() {
+        final var sqlRepository = new BookingRepositoryImpl(getDataSource());
+        sqlRepository.saveAll(List.of(archived1, archived2, stored));
+        final var archive = new BookingArchive(directory);
+
+        final var result = new BookingArchiver(getDataSource(), archive, cache).archiveBefore(YearMonth.of(2021, 1));
+
+        assertThat(result).isEqualTo(List.of(YearMonth.of(2020, 11), YearMonth.of(2020, 12)));
+        assertThat(sqlRepository.find(archived1.id())).isEqualTo(Optional.empty());
+        assertThat(sqlRepository.findByDate(archived2.date()).isEmpty()).isTrue();
+        final var subject = new ArchivingBookingRepository(sqlRepository, new BookingArchive(directory));
+        assertThat(subject.find(archived1.id())).isEqualTo(Optional.of(archived1));
+        assertThat(subject.findByDate(archived2.date())).isEqualTo(List.of(archived2));
+        assertThat(subject.findByDate(stored.date())).isEqualTo(List.of(stored));
+        assertThat(new BookingArchiver(getDataSource(), archive, cache).archiveBefore(YearMonth.of(2021, 1)).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("when a range over archived and stored months is exported should write the bookings of both in order")
+    void exportTest() {
+        new BookingRepositoryImpl(getDataSource()).saveAll(List.of(archived1, archived2, stored));
+        final var archive = new BookingArchive(directory);
+        new BookingArchiver(getDataSource(), archive, cache).archiveBefore(YearMonth.of(2021, 1));
+        final var output = new ByteArrayOutputStream();
+
+        final var exported = new BookingExporter(getDataSource(), archive)
+                .export(date, stored.date(), ExportFormat.NDJSON, output);
+
+        assertThat(exported).isEqualTo(3L);
+        final var lines = output.toString().lines().toList();
+        assertThat(lines.get(0).contains(archived1.id().toString())).isTrue();
+        assertThat(lines.get(1).contains(archived2.id().toString())).isTrue();
+        assertThat(lines.get(2).contains(stored.id().toString())).isTrue();
+    }
+}
@@ -0,0 +1,126 @@
+package com.kntronov.makespace.infrastructure.cache;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("SystemStateCache Test")
+class SystemStateCacheTest {
+
+    private static final LocalDate today = LocalDate.of(2020, 12, 10);
+    private static final Clock clock = Clock.fixed(Instant.parse("2020-12-10T10:00:00Z"), ZoneOffset.UTC);
+    private static final Room room = new Room("C-Cave", 3);
+    private static final Booking booking = new Booking(
+            UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc1111"),
+            today,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            room,
+            3
+    );
+
+    private static SystemState emptyState(LocalDate date) {
+        return new SystemState(date, List.of(room), List.of(), List.of());
+    }
+
+    @Test
+    @DisplayName("when a date is read twice should load it once and count a miss and a hit")
+    void hitAndMissTest() {
+        final var subject = new SystemStateCache(4, clock);
+        final var loaded = new ArrayList<LocalDate>();
+
+        subject.get(today, date -> {
+            loaded.add(date);
+            return emptyState(date);
+        });
+        subject.get(today, date -> {
+            loaded.add(date);
+            return emptyState(date);
+        });
+
+        assertThat(loaded).isEqualTo(List.of(today));
+        assertThat(subject.stats()).isEqualTo(new SystemStateCache.CacheStats(1, 1, 0, 1, 4));
+    }
+
+    @Test
+    @DisplayName("when the cache is full should evict the least recently used date but never the hot dates")
+    void evictionTest() {
+        final var subject = new SystemStateCache(2, clock);
+
+        subject.get(today, SystemStateCacheTest::emptyState);
+        subject.get(today.plusDays(1), SystemStateCacheTest::emptyState);
+        subject.get(today.plusDays(5), SystemStateCacheTest::emptyState);
+
+        final var loaded = new ArrayList<LocalDate>();
+        subject.get(today, date -> {
+            loaded.add(date);
+            return emptyState(date);
+        });
+        subject.get(today.plusDays(1), date -> {
+            loaded.add(date);
+            return emptyState(date);
+        });
+
+        assertThat(loaded.isEmpty()).isTrue();
+        assertThat(subject.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("when a booking is added or removed should patch the cached state")
+    void patchTest() {
+        final var subject = new SystemStateCache(4, clock);
+        subject.get(today, SystemStateCacheTest::emptyState);
+
+        subject.addBooking(booking);
+        assertThat(subject.get(today, SystemStateCacheTest::emptyState).currentBookings()).isEqualTo(List.of(booking));
+
+        subject.removeBooking(booking.id());
+        assertThat(subject.get(today, SystemStateCacheTest::emptyState).currentBookings()).isEqualTo(List.of());
+        assertThat(subject.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("when a write happens while a state is loading should not cache the stale state")
+    void staleLoadTest() {
+        final var subject = new SystemStateCache(4, clock);
+
+        final var result = subject.get(today, date -> {
+            subject.invalidate(date);
+            return emptyState(date);
+        });
+        subject.get(today, SystemStateCacheTest::emptyState);
+
+        assertThat(result).isEqualTo(emptyState(today));
+        assertThat(subject.stats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("when many dates are read should load the missing ones at once without caching them")
+    void getAllTest() {
+        final var subject = new SystemStateCache(4, clock);
+        subject.get(today, SystemStateCacheTest::emptyState);
+        final var loaded = new ArrayList<List<LocalDate>>();
+
+        final var result = subject.getAll(List.of(today, today.plusDays(7), today.plusDays(14)), dates -> {
+            loaded.add(dates);
+            return dates.stream().map(SystemStateCacheTest::emptyState).toList();
+        });
+
+        assertThat(result.stream().map(SystemState::date).toList()).isEqualTo(List.of(today, today.plusDays(7), today.plusDays(14)));
+        assertThat(loaded).isEqualTo(List.of(List.of(today.plusDays(7), today.plusDays(14))));
+        assertThat(subject.stats()).isEqualTo(new SystemStateCache.CacheStats(1, 3, 0, 1, 4));
+    }
+}
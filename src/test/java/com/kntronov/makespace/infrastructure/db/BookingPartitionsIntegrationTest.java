@@ -0,0 +1,104 @@
+package com.kntronov.makespace.infrastructure.db;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+import com.kntronov.makespace.infrastructure.repositories.BookingRepositoryImpl;
+import com.kntronov.makespace.testing.IntegrationTest;
+import com.kntronov.makespace.testing.TestTags;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("BookingPartitions Integration Test")
+@Tag(TestTags.INTEGRATION_TEST)
+class BookingPartitionsIntegrationTest extends IntegrationTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final Booking booking = new Booking(
+            UUID.randomUUID(),
+            date,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            new Room("C-Cave", 3),
+            3
+    );
+
+    private BookingPartitions createSubject() {
+        return new BookingPartitions(getDataSource(), new SystemStateCache(8, Clock.systemDefaultZone()));
+    }
+
+    private String partitionOf(UUID id) {
+        return getDataSource().getLeanConnection().use(c -> {
+            try (final var statement = c.prepareStatement("SELECT tableoid::regclass::text FROM booking WHERE id = ?")) {
+                statement.setObject(1, id);
+                final var result = statement.executeQuery();
+                return result.next() ? result.getString(1) : null;
+            }
+        });
+    }
+
+    private String planOf(String sql) {
+        return getDataSource().getLeanConnection().use(c -> {
+            final var result = c.createStatement().executeQuery("EXPLAIN " + sql);
+            final var plan = new StringBuilder();
+            while (result.next()) {
+                plan.append(result.getString(1)).append('\n');
+            }
+            return plan.toString();
+        });
+    }
+
+    @Test
+    @DisplayName("when the partition of a month is created should move its bookings out of the default partition")
+    void createTest() {
+        final var bookingRepository = new BookingRepositoryImpl(getDataSource());
+        bookingRepository.save(booking);
+        assertThat(partitionOf(booking.id())).isEqualTo("booking_default");
+
+        final var result = createSubject().create(YearMonth.of(2020, 11), YearMonth.of(2020, 12));
+
+        assertThat(result).isEqualTo(List.of("booking_2020_11", "booking_2020_12"));
+        assertThat(partitionOf(booking.id())).isEqualTo("booking_2020_12");
+        assertThat(bookingRepository.find(booking.id())).isEqualTo(Optional.of(booking));
+        assertThat(createSubject().create(YearMonth.of(2020, 12), YearMonth.of(2020, 12))).isEqualTo(List.of("booking_2020_12"));
+    }
+
+    @Test
+    @DisplayName("when bookings are queried by date should only scan the partition of the date")
+    void pruningTest() {
+        createSubject().create(YearMonth.of(2020, 11), YearMonth.of(2020, 12));
+
+        final var plan = planOf("SELECT * FROM booking WHERE date = '2020-12-10'");
+
+        assertThat(plan.contains("booking_2020_12")).isTrue();
+        assertThat(plan.contains("booking_2020_11")).isFalse();
+        assertThat(plan.contains("booking_default")).isFalse();
+    }
+
+    @Test
+    @DisplayName("when the partitions before a month are dropped should remove their bookings and keep the others")
+    void dropBeforeTest() {
+        final var bookingRepository = new BookingRepositoryImpl(getDataSource());
+        final var subject = createSubject();
+        subject.create(YearMonth.of(2020, 11), YearMonth.of(2021, 1));
+        final var kept = new Booking(UUID.randomUUID(), date.plusMonths(1), booking.timeSlot(), booking.room(), 2);
+        bookingRepository.saveAll(List.of(booking, kept));
+
+        final var result = subject.dropBefore(YearMonth.of(2021, 1));
+
+        assertThat(result).isEqualTo(List.of("booking_2020_11", "booking_2020_12"));
+        assertThat(bookingRepository.find(booking.id())).isEqualTo(Optional.empty());
+        assertThat(bookingRepository.find(kept.id())).isEqualTo(Optional.of(kept));
+    }
+}
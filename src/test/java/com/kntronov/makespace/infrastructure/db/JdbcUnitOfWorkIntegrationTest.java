@@ -0,0 +1,102 @@
+package com.kntronov.makespace.infrastructure.db;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
+import com.kntronov.makespace.infrastructure.errors.UncheckedSQLException;
+import com.kntronov.makespace.infrastructure.repositories.BookingRepositoryImpl;
+import com.kntronov.makespace.testing.IntegrationTest;
+import com.kntronov.makespace.testing.TestTags;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@DisplayName("JdbcUnitOfWork Integration Test")
+@Tag(TestTags.INTEGRATION_TEST)
+class JdbcUnitOfWorkIntegrationTest extends IntegrationTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final Room room = new Room("C-Cave", 3);
+
+    private static Booking booking(LocalTime start) {
+        return new Booking(UUID.randomUUID(), date, new TimeSlot(start, start.plusHours(1)), room, 2);
+    }
+
+    @Test
+    @DisplayName("when repositories are called in a unit of work should acquire a single connection")
+    void singleConnectionTest() {
+        final var subject = new JdbcUnitOfWork(getDataSource(), Connection.TRANSACTION_READ_COMMITTED);
+        final var repository = new BookingRepositoryImpl(getDataSource());
+        final var booking = booking(LocalTime.of(10, 0));
+        final var before = getDataSource().stats().acquisitions();
+
+        final var found = subject.execute(() -> {
+            repository.save(booking);
+            return repository.find(booking.id());
+        });
+
+        assertThat(found).isEqualTo(Optional.of(booking));
+        assertThat(getDataSource().stats().acquisitions() - before).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("when the work of a unit of work throws should roll back every write")
+    void rollbackTest() {
+        final var subject = new JdbcUnitOfWork(getDataSource(), Connection.TRANSACTION_READ_COMMITTED);
+        final var repository = new BookingRepositoryImpl(getDataSource());
+        final var booking = booking(LocalTime.of(10, 0));
+
+        assertThatThrownBy(() -> subject.execute(() -> {
+            repository.save(booking);
+            throw new IllegalStateException("oops");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(repository.find(booking.id())).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    @DisplayName("when a write in a unit of work conflicts should roll back only that write")
+    void conflictingWriteTest() {
+        final var subject = new JdbcUnitOfWork(getDataSource(), Connection.TRANSACTION_READ_COMMITTED);
+        final var repository = new BookingRepositoryImpl(getDataSource());
+        final var first = booking(LocalTime.of(10, 0));
+        final var overlapping = booking(LocalTime.of(10, 30));
+        final var later = booking(LocalTime.of(12, 0));
+
+        subject.execute(() -> {
+            repository.save(first);
+            assertThatThrownBy(() -> repository.save(overlapping)).isInstanceOf(BookingConflictException.class);
+            return repository.save(later);
+        });
+
+        assertThat(repository.find(first.id())).isEqualTo(Optional.of(first));
+        assertThat(repository.find(overlapping.id())).isEqualTo(Optional.empty());
+        assertThat(repository.find(later.id())).isEqualTo(Optional.of(later));
+    }
+
+    @Test
+    @DisplayName("when a unit of work fails with a serialization failure should roll back and report a conflict")
+    void serializationFailureTest() {
+        final var subject = new JdbcUnitOfWork(getDataSource(), Connection.TRANSACTION_SERIALIZABLE);
+        final var repository = new BookingRepositoryImpl(getDataSource());
+        final var booking = booking(LocalTime.of(10, 0));
+
+        assertThatThrownBy(() -> subject.execute(() -> {
+            repository.save(booking);
+            throw new UncheckedSQLException(new SQLException("could not serialize access", "40001"));
+        })).isInstanceOf(BookingConflictException.class);
+
+        assertThat(repository.find(booking.id())).isEqualTo(Optional.empty());
+    }
+}
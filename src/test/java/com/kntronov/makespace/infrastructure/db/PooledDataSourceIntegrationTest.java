@@ -0,0 +1,175 @@
+package com.kntronov.makespace.infrastructure.db;
+
+import com.kntronov.makespace.infrastructure.errors.UncheckedSQLException;
+import com.kntronov.makespace.testing.IntegrationTest;
+import com.kntronov.makespace.testing.TestTags;
+import com.zaxxer.hikari.HikariConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@DisplayName("PooledDataSource Integration Test")
+@Tag(TestTags.INTEGRATION_TEST)
+class PooledDataSourceIntegrationTest extends IntegrationTest {
+
+    @Test
+    @DisplayName("when more calls than pooled connections are made should return every connection to the pool")
+    void connectionsReturnedTest() {
+        final var subject = getDataSource();
+        final var calls = subject.getDataSource().getMaximumPoolSize() * 3;
+        final var before = subject.stats().acquisitions();
+
+        for (int i = 0; i < calls; i++) {
+            subject.getLeanConnection().use(c -> c.createStatement().execute("SELECT 1"));
+            subject.getLeanConnection().transact(c -> c.createStatement().execute("SELECT 1"));
+        }
+        assertThatThrownBy(() -> subject.getLeanConnection().transact(c -> {
+            throw new SQLException("failed");
+        })).isInstanceOf(UncheckedSQLException.class);
+
+        final var stats = subject.stats();
+        assertThat(stats.active()).isEqualTo(0);
+        assertThat(stats.acquisitions() - before).isEqualTo(calls * 2L + 1);
+    }
+
+    @Test
+    @DisplayName("when a transaction completes should restore the autocommit mode of the connection")
+    void autoCommitRestoredTest() {
+        final var subject = getDataSource();
+        subject.getDataSource().setMaximumPoolSize(1);
+
+        subject.getLeanConnection().transact(c -> c.getAutoCommit());
+        final var autoCommit = subject.getLeanConnection().use(c -> c.getAutoCommit());
+
+        assertThat(autoCommit).isTrue();
+    }
+
+    @Test
+    @DisplayName("when more virtual threads than pooled connections query concurrently should hold at most the pool size")
+    void concurrentAcquisitionsBoundedTest() throws InterruptedException, ExecutionException {
+        final var primary = getDataSource().getDataSource();
+        final var config = new HikariConfig();
+        config.setJdbcUrl(primary.getJdbcUrl());
+        config.setUsername(primary.getUsername());
+        config.setPassword(primary.getPassword());
+        config.setMaximumPoolSize(2);
+        try (final var subject = new PooledDataSource(config)) {
+            final var holding = new AtomicInteger();
+            final var maxHolding = new LongAccumulator(Math::max, 0L);
+            final var results = new ArrayList<Future<Boolean>>();
+
+            try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 50; i++) {
+                    results.add(executor.submit(() -> subject.getLeanConnection().use(c -> {
+                        maxHolding.accumulate(holding.incrementAndGet());
+                        try {
+                            return c.createStatement().execute("SELECT pg_sleep(0.01)");
+                        } finally {
+                            holding.decrementAndGet();
+                        }
+                    })));
+                }
+            }
+            for (final var result : results) {
+                assertThat(result.get()).isTrue();
+            }
+
+            assertThat(maxHolding.get()).isLessThanOrEqualTo(2L);
+            assertThat(subject.stats().awaiting()).isEqualTo(0);
+            assertThat(subject.stats().acquisitions()).isEqualTo(50L);
+        }
+    }
+
+    private PooledDataSource createReplicatedSubject(String replicaUrl, ReplicaSelection selection) {
+        final var primary = getDataSource().getDataSource();
+        final var primaryConfig = new HikariConfig();
+        primaryConfig.setJdbcUrl(primary.getJdbcUrl());
+        primaryConfig.setUsername(primary.getUsername());
+        primaryConfig.setPassword(primary.getPassword());
+        final var replicaConfig = new HikariConfig();
+        replicaConfig.setJdbcUrl(replicaUrl);
+        replicaConfig.setUsername(primary.getUsername());
+        replicaConfig.setPassword(primary.getPassword());
+        replicaConfig.setInitializationFailTimeout(-1);
+        replicaConfig.setConnectionTimeout(250);
+        return new PooledDataSource(primaryConfig, List.of(replicaConfig), selection, Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("when a replica is fresh should route reads to it and reads of a unit of work to the primary")
+    void replicaRoutingTest() {
+        try (final var subject = createReplicatedSubject(getDataSource().getDataSource().getJdbcUrl(), ReplicaSelection.LEAST_LOADED)) {
+            subject.measureReplicaLag();
+
+            final var readConnection = subject.getReadConnection();
+            final var boundReadConnection = subject.getLeanConnection().bind(
+                    Connection.TRANSACTION_READ_COMMITTED,
+                    subject::getReadConnection
+            );
+
+            assertThat(readConnection).isNotSameAs(subject.getLeanConnection());
+            final boolean queried = readConnection.use(c -> c.createStatement().execute("SELECT 1"));
+            assertThat(queried).isTrue();
+            assertThat(boundReadConnection).isSameAs(subject.getLeanConnection());
+            assertThat(subject.replicaStats().getFirst().lagMillis()).isEqualTo(0L);
+            assertThat(subject.replicaStats().getFirst().fresh()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("when a replica cannot be reached should route reads to the primary")
+    void replicaFallbackTest() {
+        try (final var subject = createReplicatedSubject("jdbc:postgresql://localhost:1/makespace", ReplicaSelection.ROUND_ROBIN)) {
+            subject.measureReplicaLag();
+
+            assertThat(subject.getReadConnection()).isSameAs(subject.getLeanConnection());
+            assertThat(subject.replicaStats().getFirst().lagMillis()).isEqualTo(-1L);
+            assertThat(subject.replicaStats().getFirst().fresh()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("when closed should stop measuring the replica lag and close the pools")
+    void closeTest() {
+        final var subject = createReplicatedSubject(getDataSource().getDataSource().getJdbcUrl(), ReplicaSelection.ROUND_ROBIN);
+        subject.start();
+
+        subject.close();
+
+        assertThat(subject.getDataSource().isClosed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("when created should give the pool a share of the timeout, no leak detection and leave the configuration as it is")
+    void configurationUnchangedTest() {
+        final var primary = getDataSource().getDataSource();
+        final var config = new HikariConfig();
+        config.setJdbcUrl(primary.getJdbcUrl());
+        config.setUsername(primary.getUsername());
+        config.setPassword(primary.getPassword());
+        config.setConnectionTimeout(4000);
+        config.setLeakDetectionThreshold(10_000);
+
+        try (final var subject = new PooledDataSource(config)) {
+            assertThat(subject.getDataSource().getConnectionTimeout()).isEqualTo(1000L);
+            assertThat(subject.getDataSource().getLeakDetectionThreshold()).isEqualTo(0L);
+        }
+        assertThat(config.getConnectionTimeout()).isEqualTo(4000L);
+        assertThat(config.getLeakDetectionThreshold()).isEqualTo(10_000L);
+        assertThat(config.getDataSourceProperties().isEmpty()).isTrue();
+    }
+}
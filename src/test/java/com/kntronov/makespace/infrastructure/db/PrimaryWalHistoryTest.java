@@ -0,0 +1,48 @@
+package com.kntronov.makespace.infrastructure.db;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("PrimaryWalHistory Test")
+class PrimaryWalHistoryTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    @DisplayName("when a replica replayed the last position should have no lag")
+    void caughtUpTest() {
+        final var subject = new PrimaryWalHistory(10_000 * MILLIS);
+        subject.record(0, 100);
+        subject.record(500 * MILLIS, 200);
+
+        assertThat(subject.lagMillis(600 * MILLIS, 200)).isEqualTo(0L);
+        assertThat(subject.lagMillis(600 * MILLIS, 250)).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("when a replica stopped replaying while the primary moves on should have a growing lag")
+    void frozenReplicaTest() {
+        final var subject = new PrimaryWalHistory(10_000 * MILLIS);
+        subject.record(0, 100);
+        subject.record(500 * MILLIS, 200);
+        subject.record(1_000 * MILLIS, 300);
+
+        assertThat(subject.lagMillis(1_000 * MILLIS, 250)).isEqualTo(500L);
+        assertThat(subject.lagMillis(1_500 * MILLIS, 250)).isEqualTo(1_000L);
+        assertThat(subject.lagMillis(1_500 * MILLIS, 50)).isEqualTo(10_000L);
+    }
+
+    @Test
+    @DisplayName("when the primary is idle should keep a caught up replica fresh and one behind every position stale")
+    void idlePrimaryTest() {
+        final var subject = new PrimaryWalHistory(1_000 * MILLIS);
+        subject.record(0, 100);
+        subject.record(5_000 * MILLIS, 100);
+
+        assertThat(subject.lagMillis(5_000 * MILLIS, 100)).isEqualTo(0L);
+        assertThat(subject.lagMillis(5_000 * MILLIS, 50)).isEqualTo(1_000L);
+        assertThat(new PrimaryWalHistory(MILLIS).lagMillis(0, 100)).isEqualTo(-1L);
+    }
+}
@@ -0,0 +1,136 @@
+package com.kntronov.makespace.infrastructure.embedded;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@DisplayName("BookingJournal Test")
+class BookingJournalTest {
+
+    private static final Room room = new Room("C-Cave", 3);
+    private static final Map<String, Room> rooms = Map.of(room.name(), room);
+    private static final Booking booking1 = new Booking(
+            UUID.fromString("f58ed763-928c-4155-bee9-fdbaaadc1111"),
+            LocalDate.of(2020, 12, 10),
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            room,
+            2
+    );
+    private static final Booking booking2 = new Booking(
+            UUID.fromString("058ed763-928c-4155-bee9-fdbaaadc2222"),
+            LocalDate.of(2020, 12, 11),
+            new TimeSlot(LocalTime.of(23, 0), LocalTime.of(23, 45)),
+            room,
+            3
+    );
+
+    @TempDir
+    private Path directory;
+
+    private BookingJournal open(List<JournalEntry> replayed, boolean fsync, Duration groupCommitInterval) {
+        return BookingJournal.open(directory.resolve("journal-0.log"), rooms, replayed::add, fsync, groupCommitInterval);
+    }
+
+    @Test
+    @DisplayName("replay should return the appended entries in order")
+    void replayTest() {
+        final var expected = List.<JournalEntry>of(
+                new JournalEntry.Saved(booking1),
+                new JournalEntry.Saved(booking2),
+                new JournalEntry.Deleted(booking1.id())
+        );
+        try (final var journal = open(new ArrayList<>(), false, Duration.ZERO)) {
+            journal.append(expected.subList(0, 2));
+            journal.append(expected.subList(2, 3));
+        }
+
+        final var replayed = new ArrayList<JournalEntry>();
+        open(replayed, false, Duration.ZERO).close();
+
+        assertThat(replayed).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("replay should discard a torn record and the following appends should be replayed")
+    void tornRecordTest() throws IOException {
+        final int firstEnd;
+        final int secondEnd;
+        try (final var journal = open(new ArrayList<>(), false, Duration.ZERO)) {
+            firstEnd = journal.append(List.of(new JournalEntry.Saved(booking1)));
+            secondEnd = journal.append(List.of(new JournalEntry.Saved(booking2)));
+        }
+        try (final var channel = FileChannel.open(directory.resolve("journal-0.log"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), secondEnd - 1);
+        }
+
+        final var replayed = new ArrayList<JournalEntry>();
+        try (final var journal = open(replayed, false, Duration.ZERO)) {
+            assertThat(journal.size()).isEqualTo(firstEnd);
+            journal.append(List.of(new JournalEntry.Deleted(booking1.id())));
+        }
+        assertThat(replayed).isEqualTo(List.of(new JournalEntry.Saved(booking1)));
+
+        replayed.clear();
+        open(replayed, false, Duration.ZERO).close();
+        assertThat(replayed).isEqualTo(List.of(new JournalEntry.Saved(booking1), new JournalEntry.Deleted(booking1.id())));
+    }
+
+    @Test
+    @DisplayName("awaitDurable should return once synced, with or without a group commit interval")
+    void awaitDurableTest() {
+        for (final var interval : List.of(Duration.ZERO, Duration.ofMillis(2))) {
+            final var replayed = new ArrayList<JournalEntry>();
+            try (final var journal = open(replayed, true, interval)) {
+                journal.awaitDurable(journal.append(List.of(new JournalEntry.Saved(booking1))));
+                journal.awaitDurable(journal.append(List.of(new JournalEntry.Deleted(booking1.id()))));
+            }
+        }
+        final var replayed = new ArrayList<JournalEntry>();
+        open(replayed, false, Duration.ZERO).close();
+        assertThat(replayed.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("open should reject a file that is not a journal")
+    void notAJournalTest() throws IOException {
+        Files.write(directory.resolve("journal-0.log"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThatThrownBy(() -> open(new ArrayList<>(), false, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("replay should fail for a booking in an unknown room")
+    void unknownRoomTest() {
+        final var otherRoom = new Room("D-Tower", 7);
+        try (final var journal = open(new ArrayList<>(), false, Duration.ZERO)) {
+            journal.append(List.of(new JournalEntry.Saved(new Booking(
+                    booking1.id(), booking1.date(), booking1.timeSlot(), otherRoom, 5
+            ))));
+        }
+
+        assertThatThrownBy(() -> open(new ArrayList<>(), false, Duration.ZERO))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("D-Tower");
+    }
+}
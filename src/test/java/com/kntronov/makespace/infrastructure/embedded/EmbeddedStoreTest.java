@@ -0,0 +1,191 @@
+package com.kntronov.makespace.infrastructure.embedded;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.BookingConflictException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@DisplayName("EmbeddedStore Test")
+class EmbeddedStoreTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final Room room1 = new Room("C-Cave", 3);
+    private static final Room room2 = new Room("D-Tower", 7);
+    private static final List<TimeSlot> bufferTimes = List.of(
+            new TimeSlot(LocalTime.of(9, 0), LocalTime.of(9, 15))
+    );
+    private static final Booking booking1 = new Booking(
+            UUID.fromString("f58ed763-928c-4155-bee9-fdbaaadc1111"),
+            date,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            room2,
+            5
+    );
+    private static final Booking booking2 = new Booking(
+            UUID.fromString("058ed763-928c-4155-bee9-fdbaaadc2222"),
+            date,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(10, 15)),
+            room1,
+            3
+    );
+    private static final Booking booking3 = new Booking(
+            UUID.fromString("a58ed763-928c-4155-bee9-fdbaaadc3333"),
+            date,
+            new TimeSlot(LocalTime.of(8, 0), LocalTime.of(8, 30)),
+            room2,
+            1
+    );
+
+    @TempDir
+    private Path directory;
+
+    private EmbeddedStore open() {
+        return EmbeddedStore.open(directory, List.of(room1, room2), bufferTimes, false, Duration.ZERO, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("findByDate should return the bookings of the date in order of start time, room name and id")
+    void findByDateTest() {
+        try (final var store = open()) {
+            store.saveAll(List.of(booking1, booking2));
+            store.save(booking3);
+
+            assertThat(store.findByDate(date)).isEqualTo(List.of(booking3, booking2, booking1));
+            assertThat(store.findByDate(date.plusDays(1))).isEqualTo(List.of());
+            assertThat(store.find(booking2.id())).isEqualTo(Optional.of(booking2));
+            assertThat(store.findPageByDate(date, Optional.of(BookingCursor.of(booking3)), 1))
+                    .isEqualTo(List.of(booking2));
+        }
+    }
+
+    @Test
+    @DisplayName("save should reject an overlapping booking or an existing id")
+    void conflictTest() {
+        try (final var store = open()) {
+            store.save(booking1);
+            final var overlapping = new Booking(
+                    UUID.randomUUID(), date, new TimeSlot(LocalTime.of(10, 45), LocalTime.of(11, 15)), room2, 2
+            );
+
+            assertThatThrownBy(() -> store.save(overlapping)).isInstanceOf(BookingConflictException.class);
+            assertThatThrownBy(() -> store.save(booking1)).isInstanceOf(BookingConflictException.class);
+            assertThatThrownBy(() -> store.saveAll(List.of(booking2, overlapping)))
+                    .isInstanceOf(BookingConflictException.class);
+            assertThat(store.findByDate(date)).isEqualTo(List.of(booking1));
+        }
+    }
+
+    @Test
+    @DisplayName("saveInBestFittingRoom should book the smallest free room out of buffer times")
+    void saveInBestFittingRoomTest() {
+        try (final var store = open()) {
+            store.save(booking2);
+            final var booked = store.saveInBestFittingRoom(UUID.randomUUID(), date, booking2.timeSlot(), 2);
+
+            assertThat(booked.map(Booking::room)).isEqualTo(Optional.of(room2));
+            assertThat(store.saveInBestFittingRoom(UUID.randomUUID(), date, booking2.timeSlot(), 2))
+                    .isEqualTo(Optional.empty());
+            assertThat(store.saveInBestFittingRoom(UUID.randomUUID(), date, bufferTimes.get(0), 1))
+                    .isEqualTo(Optional.empty());
+        }
+    }
+
+    @Test
+    @DisplayName("moveAll should apply all the moves or none of them")
+    void moveAllTest() {
+        try (final var store = open()) {
+            store.saveAll(List.of(booking2, booking3));
+            final var stale = new BookingMove(new Booking(
+                    booking3.id(), date, booking3.timeSlot(), room1, booking3.numPeople()
+            ), room2);
+
+            assertThat(store.moveAll(List.of(new BookingMove(booking3, room1), stale), Set.of())).isEqualTo(false);
+            assertThat(store.find(booking3.id())).isEqualTo(Optional.of(booking3));
+
+            assertThat(store.moveAll(List.of(new BookingMove(booking3, room1)), Set.of())).isEqualTo(true);
+            assertThat(store.find(booking3.id()).map(Booking::room)).isEqualTo(Optional.of(room1));
+        }
+    }
+
+    @Test
+    @DisplayName("open should recover the bookings from the journal")
+    void recoverFromJournalTest() {
+        try (final var store = open()) {
+            store.saveAll(List.of(booking1, booking2));
+            store.save(booking3);
+            store.moveAll(List.of(new BookingMove(booking3, room1)), Set.of());
+            store.delete(booking1.id());
+        }
+
+        try (final var store = open()) {
+            final var moved = new BookingMove(booking3, room1).moved();
+            assertThat(store.findByDate(date)).isEqualTo(List.of(moved, booking2));
+            assertThat(store.find(booking1.id())).isEqualTo(Optional.empty());
+        }
+    }
+
+    @Test
+    @DisplayName("open should recover the bookings from the latest snapshot and the following journal")
+    void recoverFromSnapshotTest() throws IOException {
+        try (final var store = open()) {
+            store.saveAll(List.of(booking1, booking2));
+            store.snapshot();
+            store.delete(booking2.id());
+            store.save(booking3);
+            store.snapshot();
+            store.delete(booking1.id());
+        }
+
+        try (final var files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()).sorted().toList())
+                    .isEqualTo(List.of("journal-2.log", "snapshot-2.bin"));
+        }
+        try (final var store = open()) {
+            assertThat(store.findByDate(date)).isEqualTo(List.of(booking3));
+            store.save(booking2);
+        }
+        try (final var store = open()) {
+            assertThat(store.findByDate(date)).isEqualTo(List.of(booking3, booking2));
+        }
+    }
+
+    @Test
+    @DisplayName("open should replay the journals left by a snapshot interrupted before writing its file")
+    void recoverFromInterruptedSnapshotTest() {
+        try (final var store = open()) {
+            store.save(booking1);
+            store.snapshot();
+            store.save(booking2);
+        }
+        final var rooms = Map.of(room1.name(), room1, room2.name(), room2);
+        try (final var journal = BookingJournal.open(
+                directory.resolve("journal-2.log"), rooms, entry -> {}, false, Duration.ZERO
+        )) {
+            journal.append(List.of(new JournalEntry.Saved(booking3)));
+        }
+
+        try (final var store = open()) {
+            assertThat(store.findByDate(date)).isEqualTo(List.of(booking3, booking2, booking1));
+        }
+    }
+}
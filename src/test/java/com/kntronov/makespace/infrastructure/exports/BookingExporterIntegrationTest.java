@@ -0,0 +1,98 @@
+package com.kntronov.makespace.infrastructure.exports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kntronov.makespace.application.schema.BookingResponse;
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.infrastructure.archive.BookingArchive;
+import com.kntronov.makespace.infrastructure.repositories.BookingRepositoryImpl;
+import com.kntronov.makespace.testing.IntegrationTest;
+import com.kntronov.makespace.testing.TestTags;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("BookingExporter Integration Test")
+@Tag(TestTags.INTEGRATION_TEST)
+class BookingExporterIntegrationTest extends IntegrationTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final Room room = new Room("C-Cave", 3);
+    private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    private Path archiveDirectory;
+
+    private final Booking booking1 = new Booking(UUID.randomUUID(), date, new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)), room, 2);
+    private final Booking booking2 = new Booking(UUID.randomUUID(), date.plusDays(1), new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)), room, 3);
+    private final Booking outOfRange = new Booking(UUID.randomUUID(), date.plusDays(2), new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)), room, 3);
+
+    private String export(ExportFormat format) {
+        new BookingRepositoryImpl(getDataSource()).saveAll(List.of(outOfRange, booking2, booking1));
+        final var output = new ByteArrayOutputStream();
+        final var exported = new BookingExporter(getDataSource(), new BookingArchive(archiveDirectory)).export(date, date.plusDays(1), format, output);
+        assertThat(exported).isEqualTo(2L);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("when bookings are exported as ndjson should write one booking response per line in date order")
+    void exportNdjsonTest() throws Exception {
+        final var result = export(ExportFormat.NDJSON);
+
+        final var expected = objectMapper.writeValueAsString(BookingResponse.fromDomainEntity(booking1)) + "\n"
+                + objectMapper.writeValueAsString(BookingResponse.fromDomainEntity(booking2)) + "\n";
+        assertThat(result).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("when bookings are exported as json should write an array of booking responses")
+    void exportJsonTest() throws Exception {
+        final var result = export(ExportFormat.JSON);
+
+        final var expected = objectMapper.writeValueAsString(List.of(
+                BookingResponse.fromDomainEntity(booking1),
+                BookingResponse.fromDomainEntity(booking2)
+        ));
+        assertThat(result).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("when the range holds more than a page of bookings should export all of them once in order")
+    void exportPagesTest() throws Exception {
+        final var bookings = new ArrayList<Booking>();
+        for (int i = 0; i <= BookingExporter.PAGE_SIZE; i++) {
+            final var start = LocalTime.of(8, 0).plusMinutes(15L * (i % 48));
+            final var bookingDate = LocalDate.of(2020, 12, 1).plusDays(i / 48);
+            bookings.add(new Booking(UUID.randomUUID(), bookingDate, new TimeSlot(start, start.plusMinutes(15)), room, 2));
+        }
+        new BookingRepositoryImpl(getDataSource()).saveAll(bookings);
+        final var output = new ByteArrayOutputStream();
+
+        final var exported = new BookingExporter(getDataSource(), new BookingArchive(archiveDirectory))
+                .export(LocalDate.of(2020, 12, 1), LocalDate.of(2020, 12, 31), ExportFormat.NDJSON, output);
+
+        assertThat(exported).isEqualTo(BookingExporter.PAGE_SIZE + 1L);
+        bookings.sort(Comparator.comparing(Booking::date).thenComparing(booking -> booking.timeSlot().start()));
+        final var expected = new StringBuilder();
+        for (final var booking : bookings) {
+            expected.append(objectMapper.writeValueAsString(BookingResponse.fromDomainEntity(booking))).append('\n');
+        }
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(expected.toString());
+    }
+}
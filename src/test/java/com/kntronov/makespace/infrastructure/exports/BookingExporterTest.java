@@ -0,0 +1,80 @@
+package com.kntronov.makespace.infrastructure.exports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kntronov.makespace.application.schema.BookingResponse;
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.infrastructure.archive.BookingArchive;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@DisplayName("BookingExporter Test")
+class BookingExporterTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private static final Booking booking = new Booking(
+            UUID.fromString("f58ed763-928c-4155-bee9-fdbaaadc1111"),
+            date,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            new Room("C-Cave", 3),
+            2
+    );
+
+    @TempDir
+    private Path archiveDirectory;
+
+    /**
+     * Exports a range of archived dates whose second date cannot be read.
+     */
+    private String failingExport(ExportFormat format) {
+        final var archive = new BookingArchive(archiveDirectory) {
+            @Override
+            public List<Booking> findByDate(LocalDate requested) {
+                if (requested.isAfter(date)) {
+                    throw new IllegalStateException("segment is corrupted");
+                }
+                return super.findByDate(requested);
+            }
+        };
+        archive.store(YearMonth.from(date), List.of(booking));
+        final var output = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> new BookingExporter(null, archive).export(date, date.plusDays(1), format, output))
+                .isInstanceOf(IllegalStateException.class);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("when a read fails during an ndjson export should end the output with an error line")
+    void ndjsonFailureTest() throws Exception {
+        final var result = failingExport(ExportFormat.NDJSON);
+
+        assertThat(result).isEqualTo(objectMapper.writeValueAsString(BookingResponse.fromDomainEntity(booking)) + "\n"
+                + "{\"error\":\"export failed after 1 bookings\"}\n");
+    }
+
+    @Test
+    @DisplayName("when a read fails during a json export should end the output with an error object and no closing bracket")
+    void jsonFailureTest() throws Exception {
+        final var result = failingExport(ExportFormat.JSON);
+
+        assertThat(result).isEqualTo("[" + objectMapper.writeValueAsString(BookingResponse.fromDomainEntity(booking))
+                + ",{\"error\":\"export failed after 1 bookings\"}");
+    }
+}
@@ -0,0 +1,80 @@
+package com.kntronov.makespace.infrastructure.imports;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("BookingImportParser Test")
+class BookingImportParserTest {
+
+    private static final UUID bookingId1 = UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc1111");
+
+    private final List<ImportRow> accepted = new ArrayList<>();
+    private final List<ImportReport.RejectedRow> rejected = new ArrayList<>();
+
+    private void parse(String input, ImportFormat format) throws IOException {
+        BookingImportParser.parse(new StringReader(input), format, accepted::add, rejected::add);
+    }
+
+    @Test
+    @DisplayName("when a csv input is parsed should skip the header and blank lines and keep line numbers")
+    void parseCsvTest() throws IOException {
+        parse("""
+                id,date,start,end,roomName,numPeople
+                e58ed763-928c-4155-bee9-fdbaaadc1111,2020-12-10,10:00,11:00,C-Cave,3
+
+                ,2020-12-10,12:00,12:30, D-Tower ,5
+                """, ImportFormat.CSV);
+
+        assertThat(rejected.isEmpty()).isTrue();
+        assertThat(accepted.size()).isEqualTo(2);
+        assertThat(accepted.getFirst()).isEqualTo(new ImportRow(
+                2, bookingId1, LocalDate.of(2020, 12, 10), LocalTime.of(10, 0), LocalTime.of(11, 0), "C-Cave", 3
+        ));
+        assertThat(accepted.get(1).line()).isEqualTo(4L);
+        assertThat(accepted.get(1).roomName()).isEqualTo("D-Tower");
+    }
+
+    @Test
+    @DisplayName("when a ndjson input is parsed should map the keys of each object")
+    void parseNdjsonTest() throws IOException {
+        parse("""
+                {"id":"e58ed763-928c-4155-bee9-fdbaaadc1111","date":"2020-12-10","start":"10:00","end":"11:00","roomName":"C-Cave","numPeople":3}
+                """, ImportFormat.NDJSON);
+
+        assertThat(rejected.isEmpty()).isTrue();
+        assertThat(accepted.getFirst()).isEqualTo(new ImportRow(
+                1, bookingId1, LocalDate.of(2020, 12, 10), LocalTime.of(10, 0), LocalTime.of(11, 0), "C-Cave", 3
+        ));
+    }
+
+    @Test
+    @DisplayName("when rows are invalid should reject them with a reason and keep parsing")
+    void parseInvalidRowsTest() throws IOException {
+        parse("""
+                not-a-uuid,2020-12-10,10:00,11:00,C-Cave,3
+                ,2020-13-10,10:00,11:00,C-Cave,3
+                ,2020-12-10,10:10,11:00,C-Cave,3
+                ,2020-12-10,10:00,11:00,C-Cave,0
+                ,2020-12-10,10:00,11:00
+                ,2020-12-10,10:00,11:00,C-Cave,3
+                """, ImportFormat.CSV);
+
+        assertThat(accepted.size()).isEqualTo(1);
+        assertThat(accepted.getFirst().line()).isEqualTo(6L);
+        assertThat(rejected.stream().map(ImportReport.RejectedRow::line).toList()).isEqualTo(List.of(1L, 2L, 3L, 4L, 5L));
+        assertThat(rejected.getFirst().reason()).isEqualTo("invalid id not-a-uuid");
+        assertThat(rejected.get(2).reason()).isEqualTo("slot minutes must be one of [0, 15, 30, 45]");
+        assertThat(rejected.get(3).reason()).isEqualTo("numPeople must be greater than 0");
+        assertThat(rejected.get(4).reason()).isEqualTo("expected 6 columns but found 4");
+    }
+}
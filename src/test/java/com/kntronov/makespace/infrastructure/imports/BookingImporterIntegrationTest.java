@@ -0,0 +1,109 @@
+package com.kntronov.makespace.infrastructure.imports;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.infrastructure.archive.BookingArchive;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+import com.kntronov.makespace.infrastructure.repositories.BookingRepositoryImpl;
+import com.kntronov.makespace.testing.IntegrationTest;
+import com.kntronov.makespace.testing.TestTags;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("BookingImporter Integration Test")
+@Tag(TestTags.INTEGRATION_TEST)
+class BookingImporterIntegrationTest extends IntegrationTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("when bookings are imported should merge the valid rows and report the rejected ones")
+    void importBookingsTest() {
+        final var bookingRepository = new BookingRepositoryImpl(getDataSource());
+        bookingRepository.save(new Booking(
+                UUID.randomUUID(), date, new TimeSlot(LocalTime.of(16, 0), LocalTime.of(17, 0)), new Room("C-Cave", 3), 2
+        ));
+        final var subject = new BookingImporter(getDataSource(), new BookingArchive(directory), new SystemStateCache(4, Clock.systemUTC()));
+
+        final var report = subject.importBookings(new StringReader("""
+                id,date,start,end,roomName,numPeople
+                ,2020-12-10,10:00,11:00,C-Cave,3
+                ,2020-12-10,10:30,11:30,C-Cave,2
+                ,2020-12-10,10:00,11:00,X-Attic,2
+                ,2020-12-10,10:00,11:00,D-Tower,8
+                ,2020-12-10,09:00,10:00,D-Tower,2
+                ,2020-12-10,16:30,17:30,C-Cave,2
+                ,2020-12-10,bad,11:00,G-Mansion,2
+                ,2020-12-10,10:00,11:00,G-Mansion,20
+                """), ImportFormat.CSV);
+
+        assertThat(report.accepted()).isEqualTo(2L);
+        assertThat(report.rejected()).isEqualTo(6L);
+        assertThat(report.rejections()).isEqualTo(List.of(
+                new ImportReport.RejectedRow(3, "overlaps an earlier row"),
+                new ImportReport.RejectedRow(4, "unknown room X-Attic"),
+                new ImportReport.RejectedRow(5, "numPeople exceeds room capacity"),
+                new ImportReport.RejectedRow(6, "overlaps buffer time"),
+                new ImportReport.RejectedRow(7, "overlaps an existing booking"),
+                new ImportReport.RejectedRow(8, "invalid start bad")
+        ));
+        assertThat(bookingRepository.findByDate(date).size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("when a row overlaps only a rejected earlier row should accept it")
+    void importOverlapChainTest() {
+        final var bookingRepository = new BookingRepositoryImpl(getDataSource());
+        final var subject = new BookingImporter(getDataSource(), new BookingArchive(directory), new SystemStateCache(4, Clock.systemUTC()));
+
+        final var report = subject.importBookings(new StringReader("""
+                id,date,start,end,roomName,numPeople
+                ,2020-12-10,10:00,11:00,C-Cave,2
+                ,2020-12-10,10:30,11:30,C-Cave,2
+                ,2020-12-10,11:00,12:00,C-Cave,2
+                """), ImportFormat.CSV);
+
+        assertThat(report.accepted()).isEqualTo(2L);
+        assertThat(report.rejected()).isEqualTo(1L);
+        assertThat(report.rejections()).isEqualTo(List.of(
+                new ImportReport.RejectedRow(3, "overlaps an earlier row")
+        ));
+        assertThat(bookingRepository.findByDate(date).size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("when rows fall in an archived month should reject them")
+    void importArchivedTest() {
+        final var archive = new BookingArchive(directory);
+        archive.store(YearMonth.from(date.minusMonths(1)), List.of());
+        final var subject = new BookingImporter(getDataSource(), archive, new SystemStateCache(4, Clock.systemUTC()));
+
+        final var report = subject.importBookings(new StringReader("""
+                id,date,start,end,roomName,numPeople
+                ,2020-11-10,10:00,11:00,C-Cave,2
+                ,2020-12-10,10:00,11:00,C-Cave,2
+                """), ImportFormat.CSV);
+
+        assertThat(report.accepted()).isEqualTo(1L);
+        assertThat(report.rejections()).isEqualTo(List.of(
+                new ImportReport.RejectedRow(2, "date is archived and read-only")
+        ));
+    }
+}
@@ -0,0 +1,119 @@
+package com.kntronov.makespace.infrastructure.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("AsyncLogAppender Test")
+class AsyncLogAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    private AsyncLogAppender appender(int queueSize, AppenderBase<ILoggingEvent> target) {
+        target.setContext(context);
+        target.start();
+        final var appender = new AsyncLogAppender();
+        appender.setContext(context);
+        appender.setQueueSize(queueSize);
+        appender.addAppender(target);
+        appender.start();
+        final var logger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        logger.detachAndStopAllAppenders();
+        logger.addAppender(appender);
+        return appender;
+    }
+
+    @Test
+    @DisplayName("events should be written in order with the name of the thread that logged them")
+    void writeInOrderTest() {
+        final var target = new ListAppender<ILoggingEvent>();
+        final var appender = appender(16, target);
+        final var logger = context.getLogger("test");
+
+        for (int i = 0; i < 10; i++) {
+            logger.info("event {}", i);
+        }
+        appender.stop();
+
+        final var messages = new ArrayList<String>();
+        target.list.forEach(event -> messages.add(event.getFormattedMessage()));
+        assertThat(messages).isEqualTo(List.of(
+                "event 0", "event 1", "event 2", "event 3", "event 4",
+                "event 5", "event 6", "event 7", "event 8", "event 9"
+        ));
+        assertThat(target.list.getFirst().getThreadName()).isEqualTo(Thread.currentThread().getName());
+        assertThat(appender.written()).isEqualTo(10L);
+        assertThat(appender.dropped()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("events arriving at a full queue should be dropped and counted without blocking the logging thread")
+    void dropOnOverflowTest() throws InterruptedException {
+        final var writing = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var target = new ListAppender<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.append(event);
+            }
+        };
+        final var appender = appender(2, target);
+        final var logger = context.getLogger("test");
+
+        logger.info("taken by the writer");
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isEqualTo(true);
+        for (int i = 0; i < 5; i++) {
+            logger.info("queued or dropped {}", i);
+        }
+        release.countDown();
+        appender.stop();
+
+        assertThat(appender.dropped()).isEqualTo(3L);
+        assertThat(appender.written()).isEqualTo(3L);
+        assertThat(target.list.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("arguments should be formatted by the writer thread, not by the logging thread")
+    void lazyFormattingTest() {
+        final var target = new ListAppender<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                event.getFormattedMessage();
+                super.append(event);
+            }
+        };
+        final var appender = appender(16, target);
+        final var formattedOn = new ArrayList<String>();
+        final var argument = new Object() {
+            @Override
+            public String toString() {
+                formattedOn.add(Thread.currentThread().getName());
+                return "state";
+            }
+        };
+
+        context.getLogger("test").info("system state: {}", argument);
+        appender.stop();
+
+        assertThat(target.list.getFirst().getFormattedMessage()).isEqualTo("system state: state");
+        assertThat(formattedOn).isEqualTo(List.of("async-log-writer"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.kntronov.makespace.infrastructure.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@DisplayName("SamplingTurboFilter Test")
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final ListAppender<ILoggingEvent> target = new ListAppender<>();
+    private final SamplingTurboFilter filter = new SamplingTurboFilter();
+
+    private void configure(String rates) {
+        filter.setRates(rates);
+        filter.setContext(context);
+        filter.start();
+        context.addTurboFilter(filter);
+        target.setContext(context);
+        target.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(target);
+    }
+
+    @Test
+    @DisplayName("events of a sampled out logger should be discarded without formatting their arguments")
+    void sampledOutTest() {
+        configure("BookingService=0");
+        final var argument = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("a discarded event should not be formatted");
+            }
+        };
+
+        for (int i = 0; i < 10; i++) {
+            context.getLogger("BookingService").info("system state: {}", argument);
+        }
+        context.getLogger("application-logger").info("kept");
+
+        assertThat(target.list.size()).isEqualTo(1);
+        assertThat(target.list.getFirst().getFormattedMessage()).isEqualTo("kept");
+        assertThat(filter.sampledOut()).isEqualTo(10L);
+    }
+
+    @Test
+    @DisplayName("warnings and errors should be kept whatever the rate of their logger")
+    void warningsKeptTest() {
+        configure("BookingService=0");
+
+        context.getLogger("BookingService").warn("room booked concurrently");
+        context.getLogger("BookingService").error("unable to persist");
+
+        assertThat(target.list.size()).isEqualTo(2);
+        assertThat(filter.sampledOut()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("a rate outside of [0, 1] should be rejected")
+    void invalidRateTest() {
+        assertThatThrownBy(() -> filter.setRates("BookingService=2"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> filter.setRates("BookingService"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,127 @@
+package com.kntronov.makespace.infrastructure.repositories;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.domain.errors.ArchivedDateException;
+import com.kntronov.makespace.infrastructure.archive.BookingArchive;
+import com.kntronov.makespace.testing.Mocks;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@DisplayName("ArchivingBookingRepository Test")
+class ArchivingBookingRepositoryTest {
+
+    private static final LocalDate archivedDate = LocalDate.of(2020, 12, 10);
+    private static final LocalDate storedDate = LocalDate.of(2021, 1, 10);
+    private static final Room room1 = new Room("C-Cave", 3);
+    private static final Room room2 = new Room("G-Mansion", 20);
+    private static final Booking archived1 = new Booking(
+            UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc1111"),
+            archivedDate,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            room1,
+            3
+    );
+    private static final Booking archived2 = new Booking(
+            UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc2222"),
+            archivedDate,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            room2,
+            10
+    );
+    private static final Booking stored = new Booking(
+            UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc3333"),
+            storedDate,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            room1,
+            3
+    );
+
+    @TempDir
+    private Path directory;
+
+    private BookingArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new BookingArchive(directory);
+        archive.store(YearMonth.from(archivedDate), List.of(archived2, archived1));
+    }
+
+    @Test
+    @DisplayName("when an archived date is read should not call the delegate")
+    void findByArchivedDateTest() {
+        final var subject = new ArchivingBookingRepository(new Mocks.BookingRepositoryMock() {
+        }, archive);
+
+        assertThat(subject.findByDate(archivedDate)).isEqualTo(List.of(archived1, archived2));
+        assertThat(subject.find(archived2.id())).isEqualTo(Optional.of(archived2));
+        assertThat(subject.findPageByDate(archivedDate, Optional.of(BookingCursor.of(archived1)), 10))
+                .isEqualTo(List.of(archived2));
+        assertThat(new BookingArchive(directory).findByDate(archivedDate)).isEqualTo(List.of(archived1, archived2));
+    }
+
+    @Test
+    @DisplayName("when a date that is not archived is read should read it from the delegate")
+    void findByStoredDateTest() {
+        final var subject = new ArchivingBookingRepository(new Mocks.BookingRepositoryMock() {
+            @Override
+            public Optional<Booking> find(UUID id) {
+                return Optional.of(stored);
+            }
+
+            @Override
+            public List<Booking> findByDate(LocalDate date) {
+                return List.of(stored);
+            }
+        }, archive);
+
+        assertThat(subject.findByDate(storedDate)).isEqualTo(List.of(stored));
+        assertThat(subject.find(stored.id())).isEqualTo(Optional.of(stored));
+    }
+
+    @Test
+    @DisplayName("when a booking is saved on an archived date should throw ArchivedDateException")
+    void saveArchivedTest() {
+        final var subject = new ArchivingBookingRepository(new Mocks.BookingRepositoryMock() {
+        }, archive);
+        final var booking = new Booking(UUID.randomUUID(), archivedDate, archived1.timeSlot(), room2, 2);
+
+        assertThatThrownBy(() -> subject.save(booking)).isInstanceOf(ArchivedDateException.class);
+        assertThatThrownBy(() -> subject.saveAll(List.of(booking))).isInstanceOf(ArchivedDateException.class);
+        assertThatThrownBy(() -> subject.saveInBestFittingRoom(UUID.randomUUID(), archivedDate, archived1.timeSlot(), 2))
+                .isInstanceOf(ArchivedDateException.class);
+    }
+
+    @Test
+    @DisplayName("when an archived booking is deleted should throw ArchivedDateException without calling the delegate")
+    void deleteArchivedTest() {
+        final var subject = new ArchivingBookingRepository(new Mocks.BookingRepositoryMock() {
+            @Override
+            public int delete(UUID id) {
+                return 1;
+            }
+        }, archive);
+
+        assertThat(subject.isArchived(archivedDate)).isTrue();
+        assertThatThrownBy(() -> subject.delete(archived1.id())).isInstanceOf(ArchivedDateException.class);
+        assertThat(subject.findByDate(archivedDate)).isEqualTo(List.of(archived1, archived2));
+        assertThat(subject.isArchived(storedDate)).isFalse();
+        assertThat(subject.delete(stored.id())).isEqualTo(1);
+    }
+}
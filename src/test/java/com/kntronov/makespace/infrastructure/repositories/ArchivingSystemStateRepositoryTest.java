@@ -0,0 +1,81 @@
+package com.kntronov.makespace.infrastructure.repositories;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.infrastructure.archive.BookingArchive;
+import com.kntronov.makespace.testing.Mocks;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("ArchivingSystemStateRepository Test")
+class ArchivingSystemStateRepositoryTest {
+
+    private static final LocalDate archivedDate = LocalDate.of(2020, 12, 10);
+    private static final LocalDate storedDate = LocalDate.of(2021, 1, 10);
+    private static final Room room = new Room("C-Cave", 3);
+    private static final Booking archived = new Booking(
+            UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc1111"),
+            archivedDate,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            room,
+            3
+    );
+
+    @TempDir
+    private Path directory;
+
+    private ArchivingSystemStateRepository subject;
+
+    @BeforeEach
+    void setUp() {
+        final var archive = new BookingArchive(directory);
+        archive.store(YearMonth.from(archivedDate), List.of(archived));
+        subject = new ArchivingSystemStateRepository(new Mocks.SystemStateRepositoryMock() {
+            @Override
+            public SystemState findByDate(LocalDate date) {
+                return storedState(date);
+            }
+
+            @Override
+            public List<SystemState> findByDates(List<LocalDate> dates) {
+                return dates.stream().map(ArchivingSystemStateRepositoryTest::storedState).toList();
+            }
+        }, archive);
+    }
+
+    private static SystemState storedState(LocalDate date) {
+        return new SystemState(date, List.of(room), List.of(), List.of());
+    }
+
+    @Test
+    @DisplayName("when an archived date is read should return its archived bookings and no available room")
+    void findByArchivedDateTest() {
+        assertThat(subject.findByDate(archivedDate)).isEqualTo(new SystemState(archivedDate, List.of(), List.of(archived), List.of()));
+        assertThat(subject.findByDate(storedDate)).isEqualTo(storedState(storedDate));
+    }
+
+    @Test
+    @DisplayName("when archived and stored dates are read at once should keep the order of the dates")
+    void findByDatesTest() {
+        final var result = subject.findByDates(List.of(storedDate, archivedDate, storedDate.plusDays(1)));
+
+        assertThat(result).isEqualTo(List.of(
+                storedState(storedDate),
+                new SystemState(archivedDate, List.of(), List.of(archived), List.of()),
+                storedState(storedDate.plusDays(1))
+        ));
+    }
+}
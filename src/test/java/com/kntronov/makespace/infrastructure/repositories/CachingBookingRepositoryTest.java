@@ -0,0 +1,159 @@
+package com.kntronov.makespace.infrastructure.repositories;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.SystemState;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.infrastructure.cache.SystemStateCache;
+import com.kntronov.makespace.testing.Mocks;
+import com.kntronov.makespace.testing.RecordingUnitOfWork;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@DisplayName("CachingBookingRepository Test")
+class CachingBookingRepositoryTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final Room room = new Room("C-Cave", 3);
+    private static final Booking booking = new Booking(
+            UUID.fromString("e58ed763-928c-4155-bee9-fdbaaadc1111"),
+            date,
+            new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            room,
+            3
+    );
+
+    private final SystemStateCache cache = new SystemStateCache(4, Clock.systemUTC());
+    private final CachingSystemStateRepository systemStateRepository = new CachingSystemStateRepository(
+            new Mocks.SystemStateRepositoryMock() {
+                @Override
+                public SystemState findByDate(LocalDate date) {
+                    return new SystemState(date, List.of(room), List.of(), List.of());
+                }
+            },
+            cache
+    );
+
+    @Test
+    @DisplayName("when a booking is saved should be visible in the cached system state without reloading")
+    void saveTest() {
+        final var subject = new CachingBookingRepository(new Mocks.BookingRepositoryMock() {
+            @Override
+            public Booking save(Booking booking) {
+                return booking;
+            }
+        }, cache);
+        systemStateRepository.findByDate(date);
+
+        subject.save(booking);
+
+        assertThat(systemStateRepository.findByDate(date).currentBookings()).isEqualTo(List.of(booking));
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("when a booking is deleted should be removed from the cached system state")
+    void deleteTest() {
+        final var subject = new CachingBookingRepository(new Mocks.BookingRepositoryMock() {
+            @Override
+            public Booking save(Booking booking) {
+                return booking;
+            }
+
+            @Override
+            public int delete(UUID id) {
+                return 1;
+            }
+        }, cache);
+        systemStateRepository.findByDate(date);
+        subject.save(booking);
+
+        subject.delete(booking.id());
+
+        assertThat(systemStateRepository.findByDate(date).currentBookings()).isEqualTo(List.of());
+    }
+
+    @Test
+    @DisplayName("when saving fails should invalidate the cached system state of the date")
+    void saveFailureTest() {
+        final var subject = new CachingBookingRepository(new Mocks.BookingRepositoryMock() {
+            @Override
+            public Booking save(Booking booking) {
+                throw new RuntimeException("oops");
+            }
+        }, cache);
+        systemStateRepository.findByDate(date);
+
+        assertThatThrownBy(() -> subject.save(booking)).hasMessage("oops");
+        systemStateRepository.findByDate(date);
+
+        assertThat(cache.stats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("when a booking is saved in the best fitting room should be visible in the cached system state")
+    void saveInBestFittingRoomTest() {
+        final var subject = new CachingBookingRepository(new Mocks.BookingRepositoryMock() {
+            @Override
+            public Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople) {
+                return Optional.of(booking);
+            }
+        }, cache);
+        systemStateRepository.findByDate(date);
+
+        subject.saveInBestFittingRoom(booking.id(), date, booking.timeSlot(), booking.numPeople());
+
+        assertThat(systemStateRepository.findByDate(date).currentBookings()).isEqualTo(List.of(booking));
+    }
+
+    @Test
+    @DisplayName("when a booking is saved in a unit of work should patch the cached system state only once committed")
+    void saveInUnitOfWorkTest() {
+        final var unitOfWork = new RecordingUnitOfWork();
+        final var subject = new CachingBookingRepository(new Mocks.BookingRepositoryMock() {
+            @Override
+            public Booking save(Booking booking) {
+                return booking;
+            }
+        }, cache, unitOfWork);
+        systemStateRepository.findByDate(date);
+
+        unitOfWork.execute(() -> {
+            subject.save(booking);
+            assertThat(systemStateRepository.findByDate(date).currentBookings().isEmpty()).isTrue();
+            return booking;
+        });
+
+        assertThat(systemStateRepository.findByDate(date).currentBookings()).isEqualTo(List.of(booking));
+    }
+
+    @Test
+    @DisplayName("when the unit of work of a saved booking is rolled back should not patch the cached system state")
+    void saveInRolledBackUnitOfWorkTest() {
+        final var unitOfWork = new RecordingUnitOfWork();
+        final var subject = new CachingBookingRepository(new Mocks.BookingRepositoryMock() {
+            @Override
+            public Booking save(Booking booking) {
+                return booking;
+            }
+        }, cache, unitOfWork);
+        systemStateRepository.findByDate(date);
+
+        assertThatThrownBy(() -> unitOfWork.execute(() -> {
+            subject.save(booking);
+            throw new RuntimeException("oops");
+        })).hasMessage("oops");
+
+        assertThat(systemStateRepository.findByDate(date).currentBookings().isEmpty()).isTrue();
+    }
+}
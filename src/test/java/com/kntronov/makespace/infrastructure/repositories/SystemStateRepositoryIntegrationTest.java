@@ -0,0 +1,49 @@
+package com.kntronov.makespace.infrastructure.repositories;
+
+import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.Room;
+import com.kntronov.makespace.domain.entities.TimeSlot;
+import com.kntronov.makespace.testing.IntegrationTest;
+import com.kntronov.makespace.testing.TestTags;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("SystemStateRepository Integration Test")
+@Tag(TestTags.INTEGRATION_TEST)
+class SystemStateRepositoryIntegrationTest extends IntegrationTest {
+
+    private static final LocalDate date = LocalDate.of(2020, 12, 10);
+    private static final Room room1 = new Room("C-Cave", 3);
+    private static final Room room3 = new Room("G-Mansion", 20);
+
+    @Test
+    @DisplayName("when the states of many dates are loaded should return rooms, buffer times and the bookings of each date")
+    void findByDatesTest() {
+        final var bookingRepository = new BookingRepositoryImpl(getDataSource());
+        final var booking1 = new Booking(UUID.randomUUID(), date, new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)), room1, 3);
+        final var booking2 = new Booking(UUID.randomUUID(), date, new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)), room3, 10);
+        final var booking3 = new Booking(UUID.randomUUID(), date.plusDays(1), new TimeSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)), room1, 2);
+        bookingRepository.saveAll(List.of(booking1, booking2, booking3));
+
+        final var subject = new SystemStateRepositoryImpl(getDataSource());
+        final var result = subject.findByDates(List.of(date, date.plusDays(2)));
+
+        assertThat(result.size()).isEqualTo(2);
+        final var state = result.getFirst();
+        assertThat(state.availableRooms().size()).isEqualTo(3);
+        assertThat(state.bufferTimes().size()).isEqualTo(3);
+        assertThat(state.currentBookings().size()).isEqualTo(2);
+        assertThat(result.get(1).currentBookings().isEmpty()).isTrue();
+        final var sharedRoom = state.availableRooms().stream().filter(room1::equals).findFirst().orElseThrow();
+        final var bookedRoom = state.currentBookings().stream().filter(b -> b.id().equals(booking1.id())).findFirst().orElseThrow().room();
+        assertThat(bookedRoom).isSameAs(sharedRoom);
+    }
+}
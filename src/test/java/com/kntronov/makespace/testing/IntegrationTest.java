@@ -32,6 +32,7 @@ public abstract class IntegrationTest {
 
     @AfterEach
     void cleanUp() {
+        dataSource.close();
         container.stop();
     }
 
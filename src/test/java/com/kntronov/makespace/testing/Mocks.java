@@ -1,6 +1,12 @@
 package com.kntronov.makespace.testing;
 
 import com.kntronov.makespace.domain.entities.Booking;
+import com.kntronov.makespace.domain.entities.BookingCursor;
+import com.kntronov.makespace.domain.entities.BookingMove;
+import com.kntronov.makespace.domain.entities.BookingPage;
+import com.kntronov.makespace.domain.entities.BookingRequest;
+import com.kntronov.makespace.domain.entities.BookingSeries;
+import com.kntronov.makespace.domain.entities.RecurringBookingRequest;
 import com.kntronov.makespace.domain.entities.Room;
 import com.kntronov.makespace.domain.entities.SystemState;
 import com.kntronov.makespace.domain.entities.TimeSlot;
@@ -14,6 +20,7 @@ import com.kntronov.makespace.util.Result;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public class Mocks {
@@ -32,6 +39,11 @@ public class Mocks {
         public SystemState findByDate(LocalDate date) {
             throw new MethodNotMockedException();
         }
+
+        @Override
+        public List<SystemState> findByDates(List<LocalDate> dates) {
+            throw new MethodNotMockedException();
+        }
     }
 
     public static abstract class BookingRepositoryMock implements BookingRepository {
@@ -50,10 +62,30 @@ public class Mocks {
             throw new MethodNotMockedException();
         }
 
+        @Override
+        public List<Booking> findPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+            throw new MethodNotMockedException();
+        }
+
         @Override
         public Booking save(Booking booking) {
             throw new MethodNotMockedException();
         }
+
+        @Override
+        public List<Booking> saveAll(List<Booking> bookings) {
+            throw new MethodNotMockedException();
+        }
+
+        @Override
+        public Optional<Booking> saveInBestFittingRoom(UUID id, LocalDate date, TimeSlot timeSlot, int numPeople) {
+            throw new MethodNotMockedException();
+        }
+
+        @Override
+        public boolean moveAll(List<BookingMove> moves, Set<UUID> knownBookingIds) {
+            throw new MethodNotMockedException();
+        }
     }
 
     public static class UUIDProviderMock implements UUIDProvider {
@@ -84,6 +116,21 @@ public class Mocks {
             throw new MethodNotMockedException();
         }
 
+        @Override
+        public List<Result<Booking>> bookAll(List<BookingRequest> requests) {
+            throw new MethodNotMockedException();
+        }
+
+        @Override
+        public Result<BookingSeries> bookRecurring(RecurringBookingRequest request) {
+            throw new MethodNotMockedException();
+        }
+
+        @Override
+        public Result<List<BookingMove>> repack(LocalDate date) {
+            throw new MethodNotMockedException();
+        }
+
         @Override
         public List<Room> getAvailableRooms(LocalDate date, TimeSlot timeSlot) {
             throw new MethodNotMockedException();
@@ -94,6 +141,11 @@ public class Mocks {
             throw new MethodNotMockedException();
         }
 
+        @Override
+        public BookingPage getBookingsPageByDate(LocalDate date, Optional<BookingCursor> after, int limit) {
+            throw new MethodNotMockedException();
+        }
+
         @Override
         public Result<Nothing> deleteBooking(UUID id) {
             throw new MethodNotMockedException();
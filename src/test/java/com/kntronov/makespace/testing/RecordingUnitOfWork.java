@@ -0,0 +1,56 @@
+package com.kntronov.makespace.testing;
+
+import com.kntronov.makespace.domain.repositories.UnitOfWork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A single threaded unit of work that records how many units were run and whether one is active,
+ * after commit actions are run when the outermost unit returns and dropped when it throws.
+ */
+public class RecordingUnitOfWork implements UnitOfWork {
+
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private int units = 0;
+    private boolean active = false;
+
+    @Override
+    public <T> T execute(Supplier<T> work) {
+        if (active) {
+            return work.get();
+        }
+        units++;
+        active = true;
+        final T result;
+        try {
+            result = work.get();
+        } catch (RuntimeException e) {
+            afterCommit.clear();
+            throw e;
+        } finally {
+            active = false;
+        }
+        afterCommit.forEach(Runnable::run);
+        afterCommit.clear();
+        return result;
+    }
+
+    @Override
+    public void afterCommit(Runnable action) {
+        if (active) {
+            afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    public int units() {
+        return units;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+}
@@ -0,0 +1,100 @@
+package com.kntronov.makespace.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("KeyedLocks Test")
+class KeyedLocksTest {
+
+    @Test
+    @DisplayName("when many threads run actions on the same key should run them one at a time")
+    void sameKeyTest() throws Exception {
+        final var subject = new KeyedLocks<Integer>();
+        final var running = new AtomicInteger();
+        final var maxRunning = new AtomicInteger();
+        final var counter = new int[1];
+        try (final var executor = Executors.newFixedThreadPool(8)) {
+            final var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < 1000; i++) {
+                futures.add(executor.submit(() -> subject.withLock(1, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    counter[0]++;
+                    running.decrementAndGet();
+                    return null;
+                })));
+            }
+            for (final var future : futures) {
+                future.get();
+            }
+        }
+        assertThat(counter[0]).isEqualTo(1000);
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(subject.activeKeys()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("when actions run on different keys should run them in parallel")
+    void differentKeysTest() throws Exception {
+        final var subject = new KeyedLocks<Integer>();
+        final var bothRunning = new CountDownLatch(2);
+        try (final var executor = Executors.newFixedThreadPool(2)) {
+            final var first = executor.submit(() -> subject.withLock(1, () -> await(bothRunning)));
+            final var second = executor.submit(() -> subject.withLock(2, () -> await(bothRunning)));
+            assertThat(first.get()).isEqualTo(true);
+            assertThat(second.get()).isEqualTo(true);
+        }
+    }
+
+    @Test
+    @DisplayName("when actions hold overlapping sets of keys in any order should not deadlock")
+    void manyKeysTest() throws Exception {
+        final var subject = new KeyedLocks<Integer>();
+        final var counter = new int[1];
+        try (final var executor = Executors.newFixedThreadPool(8)) {
+            final var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < 500; i++) {
+                final var keys = i % 2 == 0 ? List.of(1, 2, 3) : List.of(3, 2, 1, 1);
+                futures.add(executor.submit(() -> subject.withLocks(keys, () -> counter[0]++)));
+            }
+            for (final var future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        }
+        assertThat(counter[0]).isEqualTo(500);
+        assertThat(subject.activeKeys()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("when an action fails should release the lock")
+    void failureTest() {
+        final var subject = new KeyedLocks<Integer>();
+        try {
+            subject.withLock(1, () -> {
+                throw new IllegalStateException("oops");
+            });
+        } catch (IllegalStateException ignored) {
+        }
+        assertThat(subject.activeKeys()).isEqualTo(0);
+        assertThat(subject.withLock(1, () -> 42)).isEqualTo(42);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
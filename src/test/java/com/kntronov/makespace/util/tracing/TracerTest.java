@@ -0,0 +1,97 @@
+package com.kntronov.makespace.util.tracing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@DisplayName("Tracer Test")
+@SuppressWarnings("try")
+class TracerTest {
+
+    private static void trace(Tracer tracer, String name, long sleepMillis) {
+        try (final var root = tracer.start(name)) {
+            try (final var span = Tracing.span("sleep")) {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("spans started within a trace should be recorded with their nesting depth in order of start")
+    void nestedSpansTest() {
+        final var tracer = new Tracer(1, 4, 4);
+
+        try (final var root = tracer.start("GET /api/bookings")) {
+            try (final var controller = Tracing.span("controller")) {
+                try (final var sql = Tracing.span("sql")) {
+                    assertThat(sql.isRecording()).isEqualTo(true);
+                }
+            }
+            try (final var json = Tracing.span("json")) {
+                assertThat(Tracing.isActive()).isEqualTo(true);
+            }
+        }
+
+        assertThat(Tracing.isActive()).isEqualTo(false);
+        final var trace = tracer.recent().getFirst();
+        assertThat(trace.name()).isEqualTo("GET /api/bookings");
+        assertThat(trace.spans().stream().map(span -> span.name() + "@" + span.depth()).toList())
+                .isEqualTo(List.of("GET /api/bookings@0", "controller@1", "sql@2", "json@1"));
+        for (final var span : trace.spans()) {
+            assertThat(span.offsetNanos() + span.durationNanos()).isLessThanOrEqualTo(trace.durationNanos());
+        }
+    }
+
+    @Test
+    @DisplayName("spans should record nothing when the request is not sampled")
+    void notSampledTest() {
+        final var tracer = Tracer.disabled();
+
+        try (final var root = tracer.start("GET /api/bookings")) {
+            assertThat(root.isRecording()).isEqualTo(false);
+            assertThat(Tracing.isActive()).isEqualTo(false);
+            assertThat(Tracing.span("controller").isRecording()).isEqualTo(false);
+        }
+
+        assertThat(tracer.recent()).isEqualTo(List.of());
+        assertThat(tracer.slowest()).isEqualTo(List.of());
+    }
+
+    @Test
+    @DisplayName("the ring buffer should keep the most recent traces and the slowest traces should be kept apart")
+    void retentionTest() {
+        final var tracer = new Tracer(1, 2, 2);
+
+        trace(tracer, "slow", 20);
+        trace(tracer, "slower", 80);
+        trace(tracer, "fast-1", 0);
+        trace(tracer, "fast-2", 0);
+        trace(tracer, "fast-3", 0);
+
+        assertThat(tracer.recent().stream().map(Trace::name).toList()).isEqualTo(List.of("fast-3", "fast-2"));
+        assertThat(tracer.slowest().stream().map(Trace::name).toList()).isEqualTo(List.of("slower", "slow"));
+    }
+
+    @Test
+    @DisplayName("every request should be traced and the slowest kept even if no recent trace is sampled")
+    void tailRetentionTest() {
+        final var tracer = new Tracer(0, 2, 1);
+
+        final boolean recording;
+        try (final var root = tracer.start("fast")) {
+            recording = root.isRecording();
+        }
+        trace(tracer, "slow", 100);
+        trace(tracer, "fast", 0);
+
+        assertThat(recording).isEqualTo(true);
+        assertThat(tracer.isEnabled()).isEqualTo(true);
+        assertThat(tracer.recent()).isEqualTo(List.of());
+        assertThat(tracer.slowest().stream().map(Trace::name).toList()).isEqualTo(List.of("slow"));
+    }
+}